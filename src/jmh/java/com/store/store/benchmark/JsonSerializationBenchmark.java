@@ -0,0 +1,87 @@
+package com.store.store.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import com.store.store.DTO.TransactionDto;
+import com.store.store.model.Product;
+import com.store.store.model.ProductCategory;
+import com.store.store.model.User;
+import com.store.store.model.UserRole;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialisasi JSON list Product dan TransactionDto seperti yang ditulis controller.
+ * ObjectMapper dibangun dengan Jackson2ObjectMapperBuilder, sama seperti auto-config Spring Boot.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JsonSerializationBenchmark {
+
+    @Param({"20", "100", "1000"})
+    public int size;
+
+    private ObjectWriter productWriter;
+    private ObjectWriter transactionWriter;
+    private List<Product> products;
+    private List<TransactionDto> transactions;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper mapper = Jackson2ObjectMapperBuilder.json().build();
+        TypeFactory types = mapper.getTypeFactory();
+        productWriter = mapper.writerFor(types.constructCollectionType(List.class, Product.class));
+        transactionWriter = mapper.writerFor(types.constructCollectionType(List.class, TransactionDto.class));
+
+        User seller = new User();
+        seller.setId(1L);
+        seller.setUsername("seller");
+        seller.setEmail("seller@example.com");
+        seller.setPassword("hash");
+        seller.setRole(UserRole.ROLE_SELLER);
+
+        ProductCategory[] categories = ProductCategory.values();
+        LocalDateTime now = LocalDateTime.now();
+        products = new ArrayList<>(size);
+        transactions = new ArrayList<>(size);
+        for (long i = 1; i <= size; i++) {
+            Product product = new Product(i);
+            product.setName("Product " + i);
+            product.setDescription("Description of product " + i);
+            product.setPrice(BigDecimal.valueOf(1000 + i, 2));
+            product.setStock((int) i);
+            product.setCategory(categories[(int) (i % categories.length)]);
+            product.setImageUrl("https://example.com/images/" + i + ".png");
+            product.setSeller(seller);
+            products.add(product);
+
+            transactions.add(new TransactionDto(i, 2L, i, 3, 3000 + i, now.minusMinutes(i)));
+        }
+    }
+
+    @Benchmark
+    public byte[] products() throws JsonProcessingException {
+        return productWriter.writeValueAsBytes(products);
+    }
+
+    @Benchmark
+    public byte[] transactions() throws JsonProcessingException {
+        return transactionWriter.writeValueAsBytes(transactions);
+    }
+}
@@ -0,0 +1,101 @@
+package com.store.store.benchmark;
+
+import com.store.store.config.JwtTokenProvider;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput generate/validate JWT. Method legacy* meniru implementasi lama yang membuat
+ * key dan parser baru di setiap panggilan, sebagai pembanding.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class JwtTokenProviderBenchmark {
+
+    private static final String SECRET = "benchmarkSecretKeyThatIsLongEnoughForHmacSha256";
+
+    private JwtTokenProvider provider;
+    private Authentication authentication;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        provider = newProvider();
+
+        UserDetails user = User.builder()
+                .username("benchmark")
+                .password("unused")
+                .authorities(new SimpleGrantedAuthority("ROLE_USER"))
+                .build();
+        authentication = new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
+        token = provider.generateToken(authentication);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return provider.generateToken(authentication);
+    }
+
+    @Benchmark
+    public boolean validateTokenCached() {
+        return provider.validateToken(token);
+    }
+
+    @Benchmark
+    public Date parseTokenUncached() {
+        // Selalu verifikasi HMAC dengan parser yang sudah dibangun, tanpa lewat cache
+        return provider.getClaimFromToken(token, Claims::getExpiration);
+    }
+
+    @Benchmark
+    public String legacyGenerateToken() {
+        return Jwts.builder()
+                .setClaims(Map.of("authorities", List.of("ROLE_USER")))
+                .setSubject("benchmark")
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + 3600000))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes()), SignatureAlgorithm.HS256)
+                .compact();
+    }
+
+    @Benchmark
+    public boolean legacyValidateToken() {
+        // validateToken + isTokenExpired lama: dua kali parse, masing-masing dengan key dan parser baru
+        Jwts.parserBuilder().setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes())).build().parseClaimsJws(token);
+        Date expiration = Jwts.parserBuilder().setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes())).build()
+                .parseClaimsJws(token).getBody().getExpiration();
+        return !expiration.before(new Date());
+    }
+
+    private static JwtTokenProvider newProvider() {
+        JwtTokenProvider provider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(provider, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(provider, "jwtExpiration", 3600000);
+        ReflectionTestUtils.setField(provider, "keyId", "benchmark");
+        ReflectionTestUtils.setField(provider, "previousSecrets", "");
+        ReflectionTestUtils.setField(provider, "cacheMaximumSize", 10_000L);
+        ReflectionTestUtils.invokeMethod(provider, "init");
+        return provider;
+    }
+}
@@ -0,0 +1,103 @@
+package com.store.store.benchmark;
+
+import com.store.store.DTO.ProductDto;
+import com.store.store.DTO.ProductPage;
+import com.store.store.StoreApplication;
+import com.store.store.model.ProductCategory;
+import com.store.store.model.ProductSort;
+import com.store.store.service.ProductCatalogIndex;
+import com.store.store.service.ProductService;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Query ProductService terhadap PostgreSQL embedded dengan skema hasil migrasi Flyway dan
+ * 10.000 produk. getAllProducts selalu ke database; kategori, rentang harga dan per id
+ * dijawab dari cache/index in-memory setelah panggilan pertama.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ProductServiceBenchmark {
+
+    private static final int PRODUCTS = 10_000;
+
+    private EmbeddedPostgres postgres;
+    private ConfigurableApplicationContext context;
+    private ProductService productService;
+    private long productId;
+
+    @Setup
+    public void setUp() throws IOException {
+        postgres = EmbeddedPostgres.start();
+        context = new SpringApplicationBuilder(StoreApplication.class)
+                .web(WebApplicationType.NONE)
+                // Argumen command line mengalahkan application.properties
+                .run("--spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres"),
+                        "--spring.datasource.username=postgres",
+                        "--spring.docker.compose.enabled=false",
+                        "--logging.level.root=WARN");
+        productService = context.getBean(ProductService.class);
+
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        jdbc.update("INSERT INTO users (username, email, password, role, enabled) "
+                + "VALUES ('seller', 'seller@example.com', 'hash', 'ROLE_SELLER', true)");
+        jdbc.update("INSERT INTO products (name, price, stock, description, category, seller_id, active) "
+                        + "SELECT 'Product ' || i, (i % 1000) + 0.99, 100, 'Description ' || i, "
+                        + "(ARRAY['ELECTRONICS', 'CLOTHING', 'BOOKS', 'HOME_APPLIANCES', 'SPORTS', 'OTHER'])[1 + i % 6], "
+                        + "(SELECT id FROM users WHERE username = 'seller'), true "
+                        + "FROM generate_series(1, ?) AS i", PRODUCTS);
+        jdbc.execute("ANALYZE products");
+        productId = jdbc.queryForObject("SELECT MIN(id) FROM products", Long.class) + PRODUCTS / 2;
+        // Produk di-insert lewat JDBC, jadi index harga dibangun ulang manual
+        context.getBean(ProductCatalogIndex.class).rebuild();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        context.close();
+        postgres.close();
+    }
+
+    @Benchmark
+    public ProductPage allProductsById() {
+        return productService.getAllProducts(null, ProductService.DEFAULT_PAGE_SIZE, ProductSort.ID);
+    }
+
+    @Benchmark
+    public ProductPage allProductsByPrice() {
+        return productService.getAllProducts(null, ProductService.DEFAULT_PAGE_SIZE, ProductSort.PRICE);
+    }
+
+    @Benchmark
+    public ProductPage productsByCategory() {
+        return productService.getProductsByCategory(ProductCategory.BOOKS, null, ProductService.DEFAULT_PAGE_SIZE,
+                ProductSort.PRICE);
+    }
+
+    @Benchmark
+    public ProductPage productsByPriceRange() {
+        return productService.getProductsByPriceRange(new BigDecimal("100.00"), new BigDecimal("200.00"),
+                ProductCategory.BOOKS, null, ProductService.DEFAULT_PAGE_SIZE, ProductSort.PRICE);
+    }
+
+    @Benchmark
+    public ProductDto productById() {
+        return productService.getProductById(productId);
+    }
+}
@@ -0,0 +1,67 @@
+package com.store.store.benchmark;
+
+import com.store.store.DTO.TransactionDto;
+import com.store.store.model.Product;
+import com.store.store.model.Transaction;
+import com.store.store.model.User;
+import com.store.store.service.TransactionService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Biaya TransactionService.mapToDTO (entity -> DTO) untuk satu transaksi. Method-nya private,
+ * dipanggil lewat MethodHandle static final supaya JIT tetap bisa meng-inline-nya.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TransactionMappingBenchmark {
+
+    private static final MethodHandle MAP_TO_DTO = lookupMapToDto();
+
+    private TransactionService service;
+    private Transaction transaction;
+
+    @Setup
+    public void setUp() {
+        // Dependency tidak disentuh oleh mapToDTO
+        service = new TransactionService(null, null, null, null);
+
+        User user = new User();
+        user.setId(7L);
+        Product product = new Product(11L);
+        transaction = new Transaction();
+        transaction.setId(42L);
+        transaction.setUser(user);
+        transaction.setProduct(product);
+        transaction.setQuantity(3);
+        transaction.setTotalPriceMinor(3750L);
+        transaction.setCreatedAt(LocalDateTime.now());
+    }
+
+    @Benchmark
+    public TransactionDto mapToDto() throws Throwable {
+        return (TransactionDto) MAP_TO_DTO.invokeExact(service, transaction);
+    }
+
+    private static MethodHandle lookupMapToDto() {
+        try {
+            return MethodHandles.privateLookupIn(TransactionService.class, MethodHandles.lookup())
+                    .findVirtual(TransactionService.class, "mapToDTO",
+                            MethodType.methodType(TransactionDto.class, Transaction.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+}
@@ -1,11 +1,15 @@
 package com.store.store.DTO;
 
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 import jakarta.validation.constraints.*;
 import java.math.BigDecimal;
 import com.store.store.model.ProductCategory;
 
 @Data // Lombok otomatis menghasilkan getter dan setter
+@NoArgsConstructor
+@AllArgsConstructor // Dipakai constructor expression di ProductRepository, urutan field penting
 public class ProductDto {
     private Long id;
 
@@ -28,4 +32,7 @@ public class ProductDto {
     private ProductCategory category;  // Menggunakan enum ProductCategory
 
     private String imageUrl;
+
+    // Hanya diisi saat membaca; diabaikan saat create/update
+    private Long sellerId;
 }
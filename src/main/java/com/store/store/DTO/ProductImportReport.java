@@ -0,0 +1,11 @@
+package com.store.store.DTO;
+
+import java.util.List;
+
+// Hasil POST /api/products/import; errors dibatasi product-import.max-reported-errors baris pertama
+public record ProductImportReport(long imported, long rejected, List<RowError> errors) {
+
+    // row = nomor record CSV (1 = record pertama setelah header) atau nomor baris NDJSON
+    public record RowError(long row, List<String> messages) {
+    }
+}
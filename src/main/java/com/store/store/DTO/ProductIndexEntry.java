@@ -0,0 +1,9 @@
+package com.store.store.DTO;
+
+import com.store.store.model.ProductCategory;
+
+import java.math.BigDecimal;
+
+// Kolom yang dibutuhkan ProductCatalogIndex untuk satu produk aktif
+public record ProductIndexEntry(Long id, ProductCategory category, BigDecimal price) {
+}
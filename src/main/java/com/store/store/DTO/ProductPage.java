@@ -0,0 +1,23 @@
+package com.store.store.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class ProductPage {
+    private List<ProductDto> items;
+
+    // Cursor untuk halaman berikutnya, null jika sudah halaman terakhir
+    private String next;
+
+    // Search: hanya kecocokan dengan id terkecil yang di-rank (kata sangat umum); halaman berikutnya
+    // tetap konsisten, tetapi kecocokan lain tidak akan muncul
+    private boolean truncated;
+
+    public ProductPage(List<ProductDto> items, String next) {
+        this(items, next, false);
+    }
+}
@@ -0,0 +1,9 @@
+package com.store.store.DTO;
+
+import com.store.store.model.ProductCategory;
+
+import java.math.BigDecimal;
+
+// Proyeksi minimal produk untuk menghitung total harga transaksi dan delta sales rollup
+public record ProductPrice(Long id, BigDecimal price, Long sellerId, ProductCategory category) {
+}
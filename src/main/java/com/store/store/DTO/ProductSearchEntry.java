@@ -0,0 +1,10 @@
+package com.store.store.DTO;
+
+import com.store.store.model.ProductCategory;
+
+import java.math.BigDecimal;
+
+// Kolom yang dibutuhkan ProductSearchIndex untuk satu produk aktif
+public record ProductSearchEntry(Long id, String name, String description, ProductCategory category,
+                                 BigDecimal price) {
+}
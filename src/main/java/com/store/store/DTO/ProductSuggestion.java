@@ -0,0 +1,5 @@
+package com.store.store.DTO;
+
+// Satu saran autocomplete: nama produk aktif apa adanya (bukan versi ternormalisasi)
+public record ProductSuggestion(Long id, String name) {
+}
@@ -0,0 +1,16 @@
+package com.store.store.DTO;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.store.store.model.Money;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Satu baris sales_rollups untuk laporan per waktu
+public record SalesBucket(LocalDateTime bucketStart, long units, long revenueMinor, long transactionCount) {
+
+    @JsonProperty("revenue")
+    public BigDecimal revenue() {
+        return Money.toDecimal(revenueMinor);
+    }
+}
@@ -0,0 +1,15 @@
+package com.store.store.DTO;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.store.store.model.Money;
+
+import java.math.BigDecimal;
+
+// Jumlah bucket dalam satu jendela waktu untuk satu key (produk, seller atau kategori)
+public record SalesTotal(String key, long units, long revenueMinor, long transactionCount) {
+
+    @JsonProperty("revenue")
+    public BigDecimal revenue() {
+        return Money.toDecimal(revenueMinor);
+    }
+}
@@ -0,0 +1,22 @@
+package com.store.store.DTO;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.store.store.model.Money;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Ringkasan dashboard seller: stok saat ini dan penjualan dalam jendela [from, to)
+public record SellerSummary(String username, LocalDateTime from, LocalDateTime to, long productCount,
+                            long stockValueMinor, long unitsSold, long revenueMinor) {
+
+    @JsonProperty("stockValue")
+    public BigDecimal stockValue() {
+        return Money.toDecimal(stockValueMinor);
+    }
+
+    @JsonProperty("revenue")
+    public BigDecimal revenue() {
+        return Money.toDecimal(revenueMinor);
+    }
+}
@@ -0,0 +1,17 @@
+package com.store.store.DTO;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Statistik satu SQL fingerprint. count/total/max sejak aplikasi start; persentil hanya dari
+ * beberapa menit terakhir. slowest berisi eksekusi paling lambat di atas threshold (null jika
+ * belum pernah lewat threshold).
+ */
+public record StatementSummary(String id, String sql, long count, double totalMillis, double meanMillis,
+                               double p50Millis, double p95Millis, double p99Millis, double maxMillis,
+                               SlowStatement slowest) {
+
+    public record SlowStatement(double millis, String caller, List<String> binds, LocalDateTime at) {
+    }
+}
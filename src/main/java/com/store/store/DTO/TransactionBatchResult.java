@@ -0,0 +1,26 @@
+package com.store.store.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// Hasil per item dari POST /api/transactions/batch, urutannya sama dengan request
+@Data
+@AllArgsConstructor
+public class TransactionBatchResult {
+
+    public enum Status {
+        CREATED,
+        INVALID,
+        PRODUCT_NOT_FOUND,
+        USER_NOT_FOUND,
+        INSUFFICIENT_STOCK
+    }
+
+    private int index;
+    private Status status;
+
+    // Hanya diisi jika status CREATED
+    private TransactionDto transaction;
+
+    private String error;
+}
@@ -1,5 +1,9 @@
 package com.store.store.DTO;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.store.store.model.Money;
+
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 public class TransactionDto {
@@ -7,9 +11,23 @@ public class TransactionDto {
     private Long userId;
     private Long productId;
     private Integer quantity;
-    private Double totalPrice;
+    private Long totalPriceMinor;
     private LocalDateTime createdAt;
 
+    public TransactionDto() {
+    }
+
+    // Dipakai constructor expression di TransactionRepository
+    public TransactionDto(Long id, Long userId, Long productId, Integer quantity, Long totalPriceMinor,
+                          LocalDateTime createdAt) {
+        this.id = id;
+        this.userId = userId;
+        this.productId = productId;
+        this.quantity = quantity;
+        this.totalPriceMinor = totalPriceMinor;
+        this.createdAt = createdAt;
+    }
+
     // Getter dan Setter untuk id
     public Long getId() {
         return id;
@@ -46,13 +64,19 @@ public class TransactionDto {
         this.quantity = quantity;
     }
 
-    // Getter dan Setter untuk totalPrice
-    public Double getTotalPrice() {
-        return totalPrice;
+    // Getter dan Setter untuk totalPriceMinor
+    public Long getTotalPriceMinor() {
+        return totalPriceMinor;
+    }
+
+    public void setTotalPriceMinor(Long totalPriceMinor) {
+        this.totalPriceMinor = totalPriceMinor;
     }
 
-    public void setTotalPrice(Double totalPrice) {
-        this.totalPrice = totalPrice;
+    // Tetap dikirim sebagai totalPrice desimal di JSON; dihitung dari minor unit, selalu exact
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    public BigDecimal getTotalPrice() {
+        return totalPriceMinor == null ? null : Money.toDecimal(totalPriceMinor);
     }
 
     // Getter dan Setter untuk createdAt
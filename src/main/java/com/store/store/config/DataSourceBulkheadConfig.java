@@ -0,0 +1,46 @@
+package com.store.store.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Membungkus DataSource dengan {@link BulkheadDataSource}. Default aktif bersama
+ * spring.threads.virtual.enabled, karena di mode itu jumlah thread request tidak lagi dibatasi
+ * pool Tomcat.
+ */
+@Configuration
+@ConditionalOnProperty(name = "datasource.bulkhead.enabled", havingValue = "true")
+public class DataSourceBulkheadConfig {
+
+    // Default maximumPoolSize Hikari
+    private static final int DEFAULT_POOL_SIZE = 10;
+
+    // static: BeanPostProcessor harus dibuat sebelum bean lain, tanpa menunggu config class ini
+    @Bean
+    static BeanPostProcessor bulkheadDataSourcePostProcessor(Environment environment) {
+        int configured = environment.getProperty("datasource.bulkhead.max-concurrent", Integer.class, 0);
+        Duration acquireTimeout = environment.getProperty("datasource.bulkhead.acquire-timeout", Duration.class,
+                Duration.ofSeconds(2));
+
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof BulkheadDataSource) {
+                    return bean;
+                }
+                // 0 = sama dengan ukuran pool Hikari, jadi antrean terjadi di semaphore, bukan di pool.
+                // Hikari baru mengisi default pool size (-1 -> 10) saat pool start, jadi tangani di sini
+                int poolSize = bean instanceof HikariDataSource hikari ? hikari.getMaximumPoolSize() : -1;
+                int maxConcurrent = configured > 0 ? configured : poolSize > 0 ? poolSize : DEFAULT_POOL_SIZE;
+                return new BulkheadDataSource(dataSource, maxConcurrent, acquireTimeout);
+            }
+        };
+    }
+}
@@ -1,67 +1,195 @@
 // JwtTokenProvider.java
 package com.store.store.config;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
 import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import io.micrometer.core.annotation.Timed;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
+import java.security.Key;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 public class JwtTokenProvider {
 
+    private static final String USER_ID_CLAIM = "uid";
+    // iat standar hanya berpresisi detik; waktu terbit dalam milidetik dipakai untuk revocation
+    private static final String ISSUED_AT_MILLIS_CLAIM = "iat_ms";
+
     @Value("${jwt.secret}")
     private String jwtSecret;
 
     @Value("${jwt.expiration}")
     private int jwtExpiration;
 
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes());
+    // kid untuk secret yang sedang dipakai menandatangani token baru
+    @Value("${jwt.key-id:default}")
+    private String keyId;
+
+    // Secret lama yang masih diterima saat rotasi, format: kid1:secret1,kid2:secret2
+    @Value("${jwt.previous-secrets:}")
+    private String previousSecrets;
+
+    @Value("${jwt.cache.maximum-size:10000}")
+    private long cacheMaximumSize;
+
+    // Key dan parser dibuat sekali saat startup; JwtParser thread-safe
+    private SecretKey signingKey;
+    private Map<String, SecretKey> verificationKeys;
+    private JwtParser jwtParser;
+
+    // Token yang sudah diverifikasi, key = SHA-256 dari token, hidup sampai claim exp
+    private Cache<ByteBuffer, ParsedToken> verifiedTokens;
+
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+
+        Map<String, SecretKey> keys = new HashMap<>();
+        for (String entry : previousSecrets.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            int separator = entry.indexOf(':');
+            if (separator <= 0) {
+                throw new IllegalStateException("jwt.previous-secrets entries must look like kid:secret");
+            }
+            keys.put(entry.substring(0, separator).trim(),
+                    Keys.hmacShaKeyFor(entry.substring(separator + 1).trim().getBytes(StandardCharsets.UTF_8)));
+        }
+        keys.put(keyId, signingKey);
+        verificationKeys = Map.copyOf(keys);
+
+        jwtParser = Jwts.parserBuilder()
+                .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                    @Override
+                    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                        return resolveVerificationKey(header.getKeyId());
+                    }
+                })
+                .build();
+
+        verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(cacheMaximumSize)
+                .expireAfter(new Expiry<ByteBuffer, ParsedToken>() {
+                    @Override
+                    public long expireAfterCreate(ByteBuffer key, ParsedToken value, long currentTime) {
+                        long remainingMillis = value.expiration().getTime() - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMillis, 0));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(ByteBuffer key, ParsedToken value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(ByteBuffer key, ParsedToken value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
     }
 
+    // Token tanpa kid (dibuat sebelum rotasi diaktifkan) diverifikasi dengan key saat ini
+    private Key resolveVerificationKey(String kid) {
+        if (kid == null) {
+            return signingKey;
+        }
+        SecretKey key = verificationKeys.get(kid);
+        if (key == null) {
+            throw new SignatureException("Unknown JWT key id: " + kid);
+        }
+        return key;
+    }
+
+    @Timed(value = "store.jwt", extraTags = {"operation", "generate"})
     public String generateToken(Authentication authentication) {
         UserDetails userPrincipal = (UserDetails) authentication.getPrincipal();
         Map<String, Object> claims = new HashMap<>();
         claims.put("authorities", userPrincipal.getAuthorities().stream()
                 .map(GrantedAuthority::getAuthority)
                 .collect(Collectors.toList()));
+        if (userPrincipal instanceof UserPrincipal principal && principal.getId() != null) {
+            claims.put(USER_ID_CLAIM, principal.getId());
+        }
+        long now = System.currentTimeMillis();
+        claims.put(ISSUED_AT_MILLIS_CLAIM, now);
 
         return Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, keyId)
                 .setClaims(claims)
                 .setSubject(userPrincipal.getUsername())
-                .setIssuedAt(new Date())
-                .setExpiration(new Date(System.currentTimeMillis() + jwtExpiration))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + jwtExpiration))
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
+    /**
+     * Verifikasi token sekali dan kembalikan subject, authorities dan expiry sekaligus.
+     * Hasilnya di-cache sampai token expired, jadi request berikutnya dengan token yang
+     * sama tidak perlu menghitung ulang HMAC.
+     *
+     * @throws io.jsonwebtoken.JwtException jika token tidak valid atau sudah expired
+     */
+    @Timed(value = "store.jwt", extraTags = {"operation", "validate"})
+    public ParsedToken parseToken(String token) {
+        ByteBuffer key = hash(token);
+        ParsedToken cached = verifiedTokens.getIfPresent(key);
+        if (cached != null && !cached.isExpired()) {
+            return cached;
+        }
+
+        // Token kedaluwarsa sudah ditolak parser, token tanpa exp juga ditolak
+        Claims claims = getAllClaimsFromToken(token);
+        if (claims.getExpiration() == null) {
+            throw new MalformedJwtException("JWT has no expiration");
+        }
+        ParsedToken parsed = new ParsedToken(readUserId(claims), claims.getSubject(), readAuthorities(claims),
+                readIssuedAt(claims), claims.getExpiration());
+        verifiedTokens.put(key, parsed);
+        return parsed;
+    }
+
     public boolean validateToken(String token) {
         try {
-            Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token);
-            return !isTokenExpired(token);
+            parseToken(token);
+            return true;
         } catch (Exception e) {
             return false;
         }
     }
 
     public String getUsernameFromToken(String token) {
-        return getClaimFromToken(token, Claims::getSubject);
+        return parseToken(token).username();
     }
 
     public <T> T getClaimFromToken(String token, Function<Claims, T> claimsResolver) {
@@ -70,19 +198,34 @@ public class JwtTokenProvider {
     }
 
     private Claims getAllClaimsFromToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return jwtParser.parseClaimsJws(token).getBody();
     }
 
-    private boolean isTokenExpired(String token) {
-        final Date expiration = getExpirationDateFromToken(token);
-        return expiration.before(new Date());
+    private static Long readUserId(Claims claims) {
+        Object userId = claims.get(USER_ID_CLAIM);
+        return userId instanceof Number number ? number.longValue() : null;
     }
 
-    private Date getExpirationDateFromToken(String token) {
-        return getClaimFromToken(token, Claims::getExpiration);
+    // Token lama tanpa iat_ms: iat dibulatkan ke bawah ke detik, jadi dianggap terbit di awal detiknya
+    private static Date readIssuedAt(Claims claims) {
+        Object issuedAt = claims.get(ISSUED_AT_MILLIS_CLAIM);
+        return issuedAt instanceof Number number ? new Date(number.longValue()) : claims.getIssuedAt();
+    }
+
+    private static List<String> readAuthorities(Claims claims) {
+        Object authorities = claims.get("authorities");
+        if (authorities instanceof Collection<?> values) {
+            return values.stream().map(String::valueOf).toList();
+        }
+        return List.of();
+    }
+
+    private static ByteBuffer hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return ByteBuffer.wrap(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
-}
\ No newline at end of file
+}
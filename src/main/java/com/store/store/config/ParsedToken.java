@@ -0,0 +1,12 @@
+package com.store.store.config;
+
+import java.util.Date;
+import java.util.List;
+
+// Hasil verifikasi JWT: semua yang dibutuhkan filter dari satu kali parse
+public record ParsedToken(Long userId, String username, List<String> authorities, Date issuedAt, Date expiration) {
+
+    public boolean isExpired() {
+        return expiration.before(new Date());
+    }
+}
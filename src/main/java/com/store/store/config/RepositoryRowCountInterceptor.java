@@ -0,0 +1,81 @@
+package com.store.store.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.Modifying;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Mencatat jumlah baris yang dikembalikan (atau diubah, untuk {@code @Modifying}) setiap method
+ * repository sebagai distribution summary {@code store.repository.rows}, dengan tag yang sama
+ * seperti timer spring.data.repository.invocations. Stream tidak dihitung karena belum dibaca.
+ */
+class RepositoryRowCountInterceptor implements MethodInterceptor {
+
+    private final ObjectProvider<MeterRegistry> registry;
+    private final String repository;
+    private final Map<Method, DistributionSummary> summaries = new ConcurrentHashMap<>();
+
+    RepositoryRowCountInterceptor(ObjectProvider<MeterRegistry> registry, Class<?> repositoryInterface) {
+        this.registry = registry;
+        this.repository = repositoryInterface.getSimpleName();
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Object result = invocation.proceed();
+        Method method = invocation.getMethod();
+        long rows = rows(method, result);
+        if (rows >= 0) {
+            DistributionSummary summary = summaries.computeIfAbsent(method, this::summary);
+            if (summary != null) {
+                summary.record(rows);
+            }
+        }
+        return result;
+    }
+
+    // null (tidak disimpan, dicoba lagi) sampai MeterRegistry tersedia; repository bisa dipanggil saat startup
+    private DistributionSummary summary(Method method) {
+        MeterRegistry meterRegistry = registry.getIfAvailable();
+        if (meterRegistry == null) {
+            return null;
+        }
+        return DistributionSummary.builder("store.repository.rows")
+                .description("Rows returned or modified by a repository method")
+                .baseUnit("rows")
+                .tag("repository", repository)
+                .tag("method", method.getName())
+                .register(meterRegistry);
+    }
+
+    // -1 = bukan hasil berbentuk baris (count, exists, Stream, void)
+    private static long rows(Method method, Object result) {
+        if (result instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (result instanceof Slice<?> slice) {
+            return slice.getNumberOfElements();
+        }
+        if (result instanceof Optional<?> optional) {
+            return optional.isPresent() ? 1 : 0;
+        }
+        if (result instanceof Number number) {
+            return method.isAnnotationPresent(Modifying.class) ? number.longValue() : -1;
+        }
+        if (result instanceof Boolean || result instanceof Stream<?> || method.getReturnType() == void.class) {
+            return -1;
+        }
+        return result == null ? 0 : 1;
+    }
+}
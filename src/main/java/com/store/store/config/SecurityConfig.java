@@ -2,10 +2,13 @@
 
     import com.store.store.filter.JwtAuthenticationFilter;
     import com.store.store.service.UserDetailsServiceImpl;
+    import org.springframework.beans.factory.annotation.Value;
+    import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
     import org.springframework.context.annotation.Bean;
     import org.springframework.context.annotation.Configuration;
     import org.springframework.security.authentication.AuthenticationManager;
     import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
+    import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
     import org.springframework.security.config.annotation.web.builders.HttpSecurity;
     import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
     import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
@@ -14,8 +17,11 @@
     import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
     import org.springframework.security.config.http.SessionCreationPolicy;
 
+    import java.time.Duration;
+
     @Configuration
     @EnableWebSecurity
+    @EnableMethodSecurity  // Tanpa ini semua @PreAuthorize di controller diabaikan
     public class SecurityConfig {
 
         private final UserDetailsServiceImpl userDetailsService;
@@ -28,15 +34,22 @@
         }
 
         @Bean
-        public AuthenticationManager authenticationManager(HttpSecurity http) throws Exception {
+        public AuthenticationManager authenticationManager(HttpSecurity http, PasswordEncoder passwordEncoder) throws Exception {
             AuthenticationManagerBuilder authManagerBuilder = http.getSharedObject(AuthenticationManagerBuilder.class);
-            authManagerBuilder.userDetailsService(userDetailsService).passwordEncoder(passwordEncoder());
+            // UserDetailsServiceImpl juga UserDetailsPasswordService: hash di-upgrade otomatis saat login
+            authManagerBuilder.userDetailsService(userDetailsService).passwordEncoder(passwordEncoder);
             return authManagerBuilder.build();
         }
 
         @Bean
-        public PasswordEncoder passwordEncoder() {
-            return new BCryptPasswordEncoder();
+        public OffloadingPasswordEncoder passwordEncoder(
+                @Value("${security.password.bcrypt-strength:10}") int strength,
+                @Value("${security.password.hashing-threads:0}") int threads,
+                @Value("${security.password.queue-capacity:64}") int queueCapacity,
+                @Value("${security.password.timeout:5s}") Duration timeout) {
+            // 0 thread = satu thread per CPU
+            int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+            return new OffloadingPasswordEncoder(new BCryptPasswordEncoder(strength), poolSize, queueCapacity, timeout);
         }
 
         @Bean
@@ -45,6 +58,8 @@
                     .csrf(csrf -> csrf.disable())  // Disable CSRF for API requests
                     .authorizeHttpRequests(auth -> auth
                             .requestMatchers("/api/users/register", "/api/users/login").permitAll()  // Allow access to register and login
+                            // Hanya dilayani di management.server.port (internal), untuk health check dan scraper Prometheus
+                            .requestMatchers(EndpointRequest.to("health", "prometheus")).permitAll()
                             .requestMatchers("/api/admin/**").hasRole("ADMIN")  // Protect admin routes
                             .anyRequest().authenticated()  // Authenticate all other requests
                     )
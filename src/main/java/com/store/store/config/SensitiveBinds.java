@@ -0,0 +1,97 @@
+package com.store.store.config;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Menentukan bind value yang tidak boleh ikut di-log atau disimpan untuk slow query: nilai yang
+ * di-INSERT ke, di-SET ke, atau dibandingkan dengan kolom di datasource.statements.masked-columns
+ * (hash password, email). Di statement yang menyebut kolom tersebut, bind yang kolomnya tidak
+ * bisa ditentukan ikut disamarkan.
+ */
+final class SensitiveBinds {
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern INSERT = Pattern.compile(
+            "^\\s*insert\\s+into\\s+[\\w.\"]+\\s*\\(([^)]*)\\)\\s*values\\s*", Pattern.CASE_INSENSITIVE);
+    // Kolom tepat sebelum placeholder: "u1_0.email=?", "password = ?", "email in (?, ?"
+    private static final Pattern COMPARED_COLUMN = Pattern.compile(
+            "\"?(\\w+)\"?\\s*(?:=|<>|!=|<=|>=|<|>|\\blike|\\bin\\s*\\([^()]*)\\s*$", Pattern.CASE_INSENSITIVE);
+    private static final int LOOKBEHIND = 200;
+
+    private final Set<String> columns;
+    private final Pattern mentioned;
+
+    SensitiveBinds(Collection<String> columns) {
+        this.columns = columns.stream()
+                .map(column -> column.trim().toLowerCase(Locale.ROOT))
+                .filter(column -> !column.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+        this.mentioned = this.columns.isEmpty() ? null : Pattern.compile(this.columns.stream()
+                .map(Pattern::quote)
+                .collect(Collectors.joining("|", "\\b(?:", ")\\b")), Pattern.CASE_INSENSITIVE);
+    }
+
+    // Posisi bind (0-based, urutan '?' di SQL) yang harus disamarkan
+    BitSet of(String sql) {
+        BitSet masked = new BitSet();
+        if (mentioned == null || !mentioned.matcher(sql).find()) {
+            return masked;
+        }
+        // Isi literal string dibuang supaya '?' dan koma di dalamnya tidak ikut dihitung
+        String text = STRING_LITERAL.matcher(sql).replaceAll("''");
+
+        List<String> insertColumns = List.of();
+        int valuesStart = text.length();
+        Matcher insert = INSERT.matcher(text);
+        if (insert.find()) {
+            insertColumns = List.of(insert.group(1).split(",")).stream()
+                    .map(column -> column.trim().replace("\"", "").toLowerCase(Locale.ROOT))
+                    .toList();
+            valuesStart = insert.end();
+        }
+
+        boolean inValues = valuesStart < text.length();
+        int depth = 0;
+        int item = 0;
+        int index = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (inValues && i >= valuesStart) {
+                if (c == '(') {
+                    if (depth++ == 0) {
+                        item = 0;
+                    }
+                } else if (c == ')') {
+                    depth--;
+                } else if (c == ',' && depth == 1) {
+                    item++;
+                } else if (depth == 0 && c != ',' && !Character.isWhitespace(c)) {
+                    inValues = false; // akhir daftar VALUES, mis. ON CONFLICT ... SET
+                }
+            }
+            if (c != '?') {
+                continue;
+            }
+            String column = inValues && i >= valuesStart && depth > 0
+                    ? (item < insertColumns.size() ? insertColumns.get(item) : null)
+                    : comparedColumn(text, i);
+            if (column == null || columns.contains(column)) {
+                masked.set(index);
+            }
+            index++;
+        }
+        return masked;
+    }
+
+    private static String comparedColumn(String text, int placeholder) {
+        Matcher matcher = COMPARED_COLUMN.matcher(text.substring(Math.max(0, placeholder - LOOKBEHIND), placeholder));
+        return matcher.find() ? matcher.group(1).toLowerCase(Locale.ROOT) : null;
+    }
+}
@@ -0,0 +1,27 @@
+package com.store.store.config;
+
+import java.util.regex.Pattern;
+
+/**
+ * Bentuk normal SQL untuk mengelompokkan statistik: literal string dan angka menjadi {@code ?},
+ * daftar parameter {@code IN (?, ?, ?)} dengan panjang berapa pun menjadi {@code (?...)},
+ * dan whitespace dipadatkan. Statement yang hanya berbeda nilai jatuh ke fingerprint yang sama.
+ */
+final class SqlFingerprint {
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    // Angka yang berdiri sendiri, bukan bagian dari identifier seperti t1_0 atau "col2"
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("(?<![\\w.$\"])\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern PARAMETER_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private SqlFingerprint() {
+    }
+
+    static String of(String sql) {
+        String normalized = STRING_LITERAL.matcher(sql).replaceAll("?");
+        normalized = NUMBER_LITERAL.matcher(normalized).replaceAll("?");
+        normalized = WHITESPACE.matcher(normalized).replaceAll(" ").trim();
+        return PARAMETER_LIST.matcher(normalized).replaceAll("(?...)");
+    }
+}
@@ -0,0 +1,42 @@
+package com.store.store.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+import javax.sql.DataSource;
+
+/**
+ * Membungkus DataSource dengan {@link StatementMetricsDataSource}, pengganti spring.jpa.show-sql:
+ * tidak ada yang dicetak per statement, hanya statement di atas threshold yang di-log.
+ */
+@Configuration
+@ConditionalOnProperty(name = "datasource.statements.enabled", havingValue = "true", matchIfMissing = true)
+public class StatementMetricsConfig {
+
+    // static: BeanPostProcessor harus dibuat sebelum bean lain, tanpa menunggu config class ini
+    @Bean
+    static BeanPostProcessor statementMetricsPostProcessor(ObjectProvider<StatementStatistics> statistics) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                // Method repository yang sedang berjalan terbaca lewat RepositoryMethodContextHolder (log slow query)
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+                    factoryBean.setExposeMetadata(true);
+                }
+                return bean;
+            }
+
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof StatementMetricsDataSource) {
+                    return bean;
+                }
+                return new StatementMetricsDataSource(dataSource, statistics.getObject());
+            }
+        };
+    }
+}
@@ -0,0 +1,144 @@
+package com.store.store.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Mengukur setiap eksekusi statement JDBC dan melaporkannya ke {@link StatementStatistics}.
+ * Bind value {@code setXxx(index, value)} disimpan per statement supaya bisa ditampilkan jika
+ * statement-nya lambat; tidak ada yang diformat di jalur cepat. Waktu yang diukur adalah
+ * panggilan execute*, tidak termasuk membaca ResultSet.
+ */
+public class StatementMetricsDataSource extends DelegatingDataSource implements AutoCloseable {
+
+    private final StatementStatistics statistics;
+
+    public StatementMetricsDataSource(DataSource target, StatementStatistics statistics) {
+        super(target);
+        this.statistics = statistics;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return measure(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return measure(super.getConnection(username, password));
+    }
+
+    // Bean ini menggantikan HikariDataSource: yang menutup DataSource hasil inject ikut menutup pool
+    @Override
+    public void close() throws Exception {
+        if (getTargetDataSource() instanceof AutoCloseable target) {
+            target.close();
+        }
+    }
+
+    private Connection measure(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "prepareStatement":
+                            return measure(invoke(connection, method, args), PreparedStatement.class, (String) args[0]);
+                        case "prepareCall":
+                            return measure(invoke(connection, method, args), CallableStatement.class, (String) args[0]);
+                        case "createStatement":
+                            return measure(invoke(connection, method, args), Statement.class, null);
+                        default:
+                            return invoke(connection, method, args);
+                    }
+                });
+    }
+
+    private Object measure(Object statement, Class<? extends Statement> type, String sql) {
+        return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                new MeasuredStatement((Statement) statement, sql));
+    }
+
+    private final class MeasuredStatement implements InvocationHandler {
+
+        private final Statement target;
+        private final String sql;
+        private Object[] binds = new Object[0];
+        private int highestBind;
+
+        MeasuredStatement(Statement target, String sql) {
+            this.target = target;
+            this.sql = sql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.startsWith("execute")) {
+                // Statement biasa membawa SQL-nya di argumen; executeBatch tanpa SQL memakai SQL prepare
+                String executed = args != null && args.length > 0 && args[0] instanceof String text ? text : sql;
+                long start = System.nanoTime();
+                try {
+                    return StatementMetricsDataSource.invoke(target, method, args);
+                } finally {
+                    if (executed != null) {
+                        statistics.record(executed, System.nanoTime() - start, this::binds);
+                    }
+                }
+            }
+            switch (name) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "clearParameters":
+                    Arrays.fill(binds, null);
+                    highestBind = 0;
+                    break;
+                default:
+                    // setString(1, "x"), setNull(2, Types.BIGINT), ...; setter Statement biasa hanya punya satu argumen
+                    if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index
+                            && index > 0) {
+                        bind(index, name.equals("setNull") ? null : args[1]);
+                    }
+            }
+            return StatementMetricsDataSource.invoke(target, method, args);
+        }
+
+        private void bind(int index, Object value) {
+            if (index > binds.length) {
+                binds = Arrays.copyOf(binds, Math.max(index, binds.length * 2));
+            }
+            binds[index - 1] = value;
+            highestBind = Math.max(highestBind, index);
+        }
+
+        // Untuk batch, ini bind value dari baris terakhir yang di-addBatch
+        private List<Object> binds() {
+            return new ArrayList<>(Arrays.asList(binds).subList(0, highestBind));
+        }
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
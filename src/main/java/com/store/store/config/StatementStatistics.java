@@ -0,0 +1,236 @@
+package com.store.store.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.store.store.DTO.StatementSummary;
+import com.store.store.DTO.StatementSummary.SlowStatement;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.repository.core.RepositoryMethodContext;
+import org.springframework.data.repository.core.RepositoryMethodContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+/**
+ * Statistik latency per SQL fingerprint, diisi {@link StatementMetricsDataSource}. Persentil
+ * dihitung timer Micrometer (HdrHistogram) di registry privat supaya SQL tidak menjadi label
+ * Prometheus; yang diekspor hanya {@code store.sql} per jenis perintah. Statement di atas
+ * threshold di-log bersama bind value dan method repository yang memanggilnya; bind untuk kolom
+ * sensitif ({@link SensitiveBinds}) diganti {@value #MASKED} sebelum di-log maupun disimpan.
+ */
+@Slf4j
+@Component
+public class StatementStatistics implements MeterBinder {
+
+    static final String OTHER = "<other>";
+    static final String MASKED = "<masked>";
+
+    private static final double[] PERCENTILES = {0.5, 0.95, 0.99};
+    private static final int MAX_BIND_LENGTH = 100;
+    private static final String OWN_PACKAGE = "com.store.store.";
+    // Frame milik instrumentasi ini sendiri dilewati saat mencari pemanggil
+    private static final Set<String> INSTRUMENTATION =
+            Set.of(StatementMetricsDataSource.class.getName(), StatementStatistics.class.getName());
+
+    enum Command {
+        SELECT, INSERT, UPDATE, DELETE, OTHER;
+
+        static Command of(String fingerprint) {
+            int end = fingerprint.indexOf(' ');
+            String keyword = (end < 0 ? fingerprint : fingerprint.substring(0, end)).toUpperCase(Locale.ROOT);
+            return switch (keyword) {
+                case "SELECT", "WITH" -> SELECT;
+                case "INSERT" -> INSERT;
+                case "UPDATE" -> UPDATE;
+                case "DELETE" -> DELETE;
+                default -> OTHER;
+            };
+        }
+    }
+
+    private static final class Entry {
+        final String id;
+        final String sql;
+        final Command command;
+        final Timer timer;
+        volatile long maxNanos;
+        volatile SlowStatement slowest;
+
+        Entry(String id, String sql, Timer timer) {
+            this.id = id;
+            this.sql = sql;
+            this.command = Command.of(sql);
+            this.timer = timer;
+        }
+    }
+
+    private final long slowThresholdNanos;
+    private final int maxFingerprints;
+    private final SensitiveBinds sensitiveBinds;
+    // SQL mentah -> fingerprint; Hibernate memakai string SQL yang sama berulang kali, jadi regex jarang jalan
+    private final Cache<String, String> fingerprints;
+    private final Map<String, Entry> statements = new ConcurrentHashMap<>();
+    private final MeterRegistry histograms = new SimpleMeterRegistry();
+    private volatile Map<Command, Timer> commandTimers = Map.of();
+
+    public StatementStatistics(@Value("${datasource.statements.slow-threshold:500ms}") Duration slowThreshold,
+                               @Value("${datasource.statements.max-fingerprints:500}") int maxFingerprints,
+                               @Value("${datasource.statements.masked-columns:password,email}")
+                               Set<String> maskedColumns) {
+        this.slowThresholdNanos = slowThreshold.toNanos();
+        this.maxFingerprints = maxFingerprints;
+        this.sensitiveBinds = new SensitiveBinds(maskedColumns);
+        this.fingerprints = Caffeine.newBuilder().maximumSize(10_000).build();
+    }
+
+    /**
+     * Mencatat satu eksekusi. {@code binds} hanya dipanggil jika statement-nya lambat.
+     */
+    public void record(String sql, long elapsedNanos, Supplier<List<Object>> binds) {
+        Entry entry = entry(sql);
+        entry.timer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        Timer commandTimer = commandTimers.get(entry.command);
+        if (commandTimer != null) {
+            commandTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        }
+        if (elapsedNanos > entry.maxNanos) {
+            entry.maxNanos = elapsedNanos; // race antar thread hanya bisa membuat max sedikit terlalu rendah
+        }
+        if (elapsedNanos >= slowThresholdNanos) {
+            slow(entry, sql, elapsedNanos, binds.get());
+        }
+    }
+
+    // Fingerprint terlambat dulu (p99 beberapa menit terakhir, lalu max sejak start)
+    public List<StatementSummary> slowest(int limit) {
+        return statements.values().stream()
+                .map(StatementStatistics::summarize)
+                .sorted(Comparator.comparingDouble(StatementSummary::p99Millis)
+                        .thenComparingDouble(StatementSummary::maxMillis)
+                        .reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    // store.sql{command=select|insert|update|delete|other}; fingerprint sengaja tidak jadi label
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Map<Command, Timer> timers = new EnumMap<>(Command.class);
+        for (Command command : Command.values()) {
+            timers.put(command, Timer.builder("store.sql")
+                    .description("JDBC statement execution time")
+                    .tag("command", command.name().toLowerCase(Locale.ROOT))
+                    .register(registry));
+        }
+        commandTimers = timers;
+    }
+
+    private Entry entry(String sql) {
+        String fingerprint = fingerprints.get(sql, SqlFingerprint::of);
+        Entry entry = statements.get(fingerprint);
+        if (entry != null) {
+            return entry;
+        }
+        // Jumlah fingerprint dibatasi; SQL dinamis tak terbatas (mis. literal di dalam nama) masuk OTHER
+        String key = statements.size() < maxFingerprints ? fingerprint : OTHER;
+        return statements.computeIfAbsent(key, this::newEntry);
+    }
+
+    private Entry newEntry(String fingerprint) {
+        String id = Integer.toHexString(fingerprint.hashCode());
+        Timer timer = Timer.builder("sql")
+                .tag("id", id)
+                .publishPercentiles(PERCENTILES)
+                .distributionStatisticExpiry(Duration.ofMinutes(5))
+                .register(histograms);
+        return new Entry(id, fingerprint, timer);
+    }
+
+    private void slow(Entry entry, String sql, long elapsedNanos, List<Object> binds) {
+        double millis = elapsedNanos / 1_000_000.0;
+        String caller = caller();
+        BitSet masked = sensitiveBinds.of(sql);
+        List<String> rendered = IntStream.range(0, binds.size())
+                .mapToObj(i -> masked.get(i) ? MASKED : render(binds.get(i)))
+                .toList();
+        log.warn("Slow SQL ({} ms) from {}: {} binds={}", String.format(Locale.ROOT, "%.1f", millis), caller,
+                sql, rendered);
+
+        SlowStatement slowest = entry.slowest;
+        if (slowest == null || millis > slowest.millis()) {
+            entry.slowest = new SlowStatement(millis, caller, rendered, LocalDateTime.now());
+        }
+    }
+
+    private static StatementSummary summarize(Entry entry) {
+        HistogramSnapshot snapshot = entry.timer.takeSnapshot();
+        double[] percentiles = new double[PERCENTILES.length];
+        for (ValueAtPercentile value : snapshot.percentileValues()) {
+            for (int i = 0; i < PERCENTILES.length; i++) {
+                if (value.percentile() == PERCENTILES[i]) {
+                    percentiles[i] = value.value(TimeUnit.MILLISECONDS);
+                }
+            }
+        }
+        long count = entry.timer.count();
+        double total = entry.timer.totalTime(TimeUnit.MILLISECONDS);
+        return new StatementSummary(entry.id, entry.sql, count, total, count == 0 ? 0 : total / count,
+                percentiles[0], percentiles[1], percentiles[2], entry.maxNanos / 1_000_000.0, entry.slowest);
+    }
+
+    // Method repository yang sedang berjalan; di luar repository (flush saat commit, JdbcTemplate) pakai stack
+    static String caller() {
+        try {
+            RepositoryMethodContext context = RepositoryMethodContextHolder.getContext();
+            return context.getMetadata().getRepositoryInterface().getSimpleName() + "." + context.getMethod().getName();
+        } catch (IllegalStateException e) {
+            // Tidak di dalam panggilan repository; hanya terjadi di jalur slow query
+        }
+        return StackWalker.getInstance().walk(frames -> frames
+                .filter(frame -> frame.getClassName().startsWith(OWN_PACKAGE))
+                .map(frame -> Map.entry(outerClassName(frame.getClassName()), frame.getMethodName()))
+                .filter(frame -> !INSTRUMENTATION.contains(frame.getKey()))
+                .findFirst()
+                .map(frame -> frame.getKey().substring(frame.getKey().lastIndexOf('.') + 1) + "." + frame.getValue())
+                .orElse("unknown"));
+    }
+
+    // Proxy CGLIB (Service$$SpringCGLIB$$0), lambda dan inner class dilaporkan sebagai class luarnya
+    private static String outerClassName(String className) {
+        int nested = className.indexOf('$');
+        return nested > 0 ? className.substring(0, nested) : className;
+    }
+
+    private static String render(Object value) {
+        if (value == null) {
+            return "NULL";
+        }
+        if (value instanceof byte[] bytes) {
+            return "<" + bytes.length + " bytes>";
+        }
+        String text = value.toString();
+        if (text.length() > MAX_BIND_LENGTH) {
+            text = text.substring(0, MAX_BIND_LENGTH) + "...";
+        }
+        return value instanceof CharSequence ? "'" + text + "'" : text;
+    }
+}
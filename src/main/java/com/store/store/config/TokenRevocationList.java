@@ -0,0 +1,124 @@
+package com.store.store.config;
+
+import com.store.store.event.UserChangedEvent;
+import com.store.store.model.TokenRevocation;
+import com.store.store.repository.TokenRevocationRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Daftar user yang token-nya dicabut (user di-disable, dihapus, atau ganti username/password).
+ * Token yang diterbitkan sebelum waktu pencabutan ditolak tanpa query ke database per request.
+ * Pencabutan juga disimpan di tabel token_revocations dan dimuat saat start lalu setiap
+ * refresh-interval, supaya tetap berlaku setelah restart dan di node lain (jeda paling lama satu
+ * interval). Entri hanya perlu disimpan selama umur maksimum token (jwt.expiration).
+ */
+@Slf4j
+@Component
+public class TokenRevocationList {
+
+    private final Map<String, Long> revokedAt = new ConcurrentHashMap<>();
+    private final TokenRevocationRepository tokenRevocationRepository;
+    private final long retentionMillis;
+    private final Duration refreshInterval;
+    private ScheduledExecutorService refresher;
+
+    public TokenRevocationList(TokenRevocationRepository tokenRevocationRepository,
+                               @Value("${jwt.expiration}") long jwtExpiration,
+                               @Value("${jwt.revocation.refresh-interval:5s}") Duration refreshInterval) {
+        this.tokenRevocationRepository = tokenRevocationRepository;
+        this.retentionMillis = jwtExpiration;
+        this.refreshInterval = refreshInterval;
+    }
+
+    // Dimuat sebelum server menerima request: pencabutan sebelum restart langsung berlaku
+    @PostConstruct
+    public synchronized void start() {
+        refresh();
+        if (refresher != null || refreshInterval.isZero()) {
+            return;
+        }
+        refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "token-revocation-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long millis = refreshInterval.toMillis();
+        refresher.scheduleWithFixedDelay(this::refreshQuietly, millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        if (refresher != null) {
+            refresher.shutdownNow();
+        }
+    }
+
+    // Pencabutan dari node lain (dan dari node ini sebelum restart) yang tokennya mungkin belum expired
+    public void refresh() {
+        long expiredBefore = System.currentTimeMillis() - retentionMillis;
+        for (TokenRevocation revocation : tokenRevocationRepository.findByRevokedAtGreaterThanEqual(expiredBefore)) {
+            revoke(revocation.getUsername(), revocation.getRevokedAt());
+        }
+        tokenRevocationRepository.deleteExpired(expiredBefore);
+    }
+
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            // Daftar lokal tetap dipakai, dicoba lagi di interval berikutnya
+            log.warn("Could not refresh token revocations", e);
+        }
+    }
+
+    public void revoke(String username) {
+        revoke(username, System.currentTimeMillis());
+    }
+
+    void revoke(String username, long revokedAtMillis) {
+        revokedAt.merge(username, revokedAtMillis, Math::max);
+        // Buang entri yang semua token-nya sudah pasti expired
+        long now = System.currentTimeMillis();
+        revokedAt.values().removeIf(timestamp -> timestamp < now - retentionMillis);
+    }
+
+    // Di transaksi yang sama dengan perubahan user: login dengan password baru hanya mungkin setelah
+    // commit, jadi token-nya selalu terbit setelah waktu yang disimpan di sini
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void persistRevocation(UserChangedEvent event) {
+        if (event.credentialsRevoked()) {
+            tokenRevocationRepository.save(new TokenRevocation(event.username(), System.currentTimeMillis()));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.credentialsRevoked()) {
+            revoke(event.username());
+        }
+    }
+
+    // issuedAt berpresisi milidetik (claim iat_ms). Token yang terbit pada milidetik yang sama dengan
+    // pencabutan ikut ditolak: urutannya tidak bisa dipastikan, jadi diperlakukan sebagai token lama
+    public boolean isRevoked(String username, Date issuedAt) {
+        Long timestamp = revokedAt.get(username);
+        if (timestamp == null) {
+            return false;
+        }
+        return issuedAt == null || issuedAt.getTime() <= timestamp;
+    }
+}
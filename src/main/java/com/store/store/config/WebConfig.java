@@ -0,0 +1,17 @@
+package com.store.store.config;
+
+import com.store.store.service.TransactionExportService;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.format.FormatterRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    // Binding enum bawaan Spring MVC case-sensitive: tanpa ini ?format=ndjson dibalas 400
+    @Override
+    public void addFormatters(FormatterRegistry registry) {
+        registry.addConverter(String.class, TransactionExportService.Format.class,
+                TransactionExportService.Format::parse);
+    }
+}
@@ -0,0 +1,31 @@
+package com.store.store.controller;
+
+import com.store.store.DTO.StatementSummary;
+import com.store.store.config.StatementStatistics;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin")
+@PreAuthorize("hasRole('ADMIN')")
+public class AdminController {
+    private static final int MAX_LIMIT = 100;
+
+    private final StatementStatistics statementStatistics;
+
+    public AdminController(StatementStatistics statementStatistics) {
+        this.statementStatistics = statementStatistics;
+    }
+
+    // N SQL fingerprint terlambat (p99 beberapa menit terakhir), dengan sampel bind value yang lewat threshold
+    @GetMapping("/slow-queries")
+    public ResponseEntity<List<StatementSummary>> getSlowQueries(@RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(statementStatistics.slowest(Math.clamp(limit, 1, MAX_LIMIT)));
+    }
+}
@@ -2,8 +2,14 @@ package com.store.store.controller;
 
 
 import com.store.store.DTO.ProductDto;
+import com.store.store.DTO.ProductImportReport;
+import com.store.store.DTO.ProductPage;
+import com.store.store.DTO.ProductSuggestion;
 import com.store.store.model.Product;
 import com.store.store.model.ProductCategory;
+import com.store.store.model.ProductSort;
+import com.store.store.service.ProductImportService;
+import com.store.store.service.ProductSearchService;
 import com.store.store.service.ProductService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,7 +17,9 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.InputStream;
 import java.math.BigDecimal;
+import java.security.Principal;
 import java.util.List;
 
 @RestController
@@ -21,6 +29,12 @@ public class ProductController {
     @Autowired
     private ProductService productService;
 
+    @Autowired
+    private ProductSearchService productSearchService;
+
+    @Autowired
+    private ProductImportService productImportService;
+
     @PostMapping
     @PreAuthorize("hasRole('SELLER') or hasRole('ADMIN')")
     public ResponseEntity<Product> createProduct(
@@ -30,13 +44,62 @@ public class ProductController {
         return ResponseEntity.ok(productService.createProduct(productDto, sellerUsername));
     }
 
+    // Import massal dari stream body (tidak ditampung); baris yang tidak valid dilaporkan per baris.
+    // Seller diambil dari token; hanya admin yang boleh mengimpor atas nama seller lain (?seller=...)
+    @PostMapping(value = "/import", consumes = "text/csv")
+    @PreAuthorize("hasRole('ADMIN') or (hasRole('SELLER') and (#seller == null or #seller == authentication.name))")
+    public ResponseEntity<ProductImportReport> importProductsCsv(
+            InputStream body,
+            @RequestParam(required = false) String seller,
+            Principal principal
+    ) {
+        return ResponseEntity.ok(productImportService.importCsv(body, seller == null ? principal.getName() : seller));
+    }
+
+    @PostMapping(value = "/import", consumes = "application/x-ndjson")
+    @PreAuthorize("hasRole('ADMIN') or (hasRole('SELLER') and (#seller == null or #seller == authentication.name))")
+    public ResponseEntity<ProductImportReport> importProductsNdjson(
+            InputStream body,
+            @RequestParam(required = false) String seller,
+            Principal principal
+    ) {
+        return ResponseEntity.ok(productImportService.importNdjson(body,
+                seller == null ? principal.getName() : seller));
+    }
+
     @GetMapping
-    public ResponseEntity<List<Product>> getAllProducts() {
-        return ResponseEntity.ok(productService.getAllProducts());
+    public ResponseEntity<ProductPage> getAllProducts(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(defaultValue = "ID") ProductSort sort
+    ) {
+        return ResponseEntity.ok(productService.getAllProducts(cursor, size, sort));
+    }
+
+    // Full-text search di nama dan deskripsi, urut relevansi; cursor dari field next halaman sebelumnya
+    @GetMapping("/search")
+    public ResponseEntity<ProductPage> searchProducts(
+            @RequestParam String q,
+            @RequestParam(required = false) ProductCategory category,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size
+    ) {
+        return ResponseEntity.ok(productSearchService.search(q, category, minPrice, maxPrice, cursor, size));
+    }
+
+    // Autocomplete nama produk per ketikan, dijawab dari memori
+    @GetMapping("/suggest")
+    public ResponseEntity<List<ProductSuggestion>> suggestProducts(
+            @RequestParam String prefix,
+            @RequestParam(required = false) Integer limit
+    ) {
+        return ResponseEntity.ok(productSearchService.suggest(prefix, limit));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Product> getProductById(@PathVariable Long id) {
+    public ResponseEntity<ProductDto> getProductById(@PathVariable Long id) {
         return ResponseEntity.ok(productService.getProductById(id));
     }
 
@@ -57,15 +120,24 @@ public class ProductController {
     }
 
     @GetMapping("/category/{category}")
-    public ResponseEntity<List<Product>> getProductsByCategory(@PathVariable ProductCategory category) {
-        return ResponseEntity.ok(productService.getProductsByCategory(category));
+    public ResponseEntity<ProductPage> getProductsByCategory(
+            @PathVariable ProductCategory category,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(defaultValue = "ID") ProductSort sort
+    ) {
+        return ResponseEntity.ok(productService.getProductsByCategory(category, cursor, size, sort));
     }
 
     @GetMapping("/price-range")
-    public ResponseEntity<List<Product>> getProductsByPriceRange(
+    public ResponseEntity<ProductPage> getProductsByPriceRange(
             @RequestParam BigDecimal minPrice,
-            @RequestParam BigDecimal maxPrice
+            @RequestParam BigDecimal maxPrice,
+            @RequestParam(required = false) ProductCategory category,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(defaultValue = "ID") ProductSort sort
     ) {
-        return ResponseEntity.ok(productService.getProductsByPriceRange(minPrice, maxPrice));
+        return ResponseEntity.ok(productService.getProductsByPriceRange(minPrice, maxPrice, category, cursor, size, sort));
     }
 }
\ No newline at end of file
@@ -0,0 +1,51 @@
+package com.store.store.controller;
+
+import com.store.store.DTO.SalesBucket;
+import com.store.store.DTO.SalesTotal;
+import com.store.store.model.SalesDimension;
+import com.store.store.model.SalesGranularity;
+import com.store.store.service.SalesRollupService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Laporan dibaca dari sales_rollups: jumlah baris sebanding jumlah bucket, bukan jumlah transaksi
+@RestController
+@RequestMapping("/api/reports/sales")
+@PreAuthorize("hasRole('ADMIN')")
+public class ReportController {
+    private final SalesRollupService salesRollupService;
+
+    public ReportController(SalesRollupService salesRollupService) {
+        this.salesRollupService = salesRollupService;
+    }
+
+    // Total per produk / seller / kategori dalam jendela [from, to), urut revenue terbesar
+    @GetMapping("/{dimension}")
+    public ResponseEntity<List<SalesTotal>> getTotals(
+            @PathVariable SalesDimension dimension,
+            @RequestParam(defaultValue = "DAY") SalesGranularity granularity,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return ResponseEntity.ok(salesRollupService.getTotals(dimension, granularity, from, to));
+    }
+
+    // Deret waktu per jam atau per hari untuk satu key (id produk, id seller atau nama kategori)
+    @GetMapping("/{dimension}/{key}")
+    public ResponseEntity<List<SalesBucket>> getBuckets(
+            @PathVariable SalesDimension dimension,
+            @PathVariable String key,
+            @RequestParam(defaultValue = "HOUR") SalesGranularity granularity,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return ResponseEntity.ok(salesRollupService.getBuckets(dimension, key, granularity, from, to));
+    }
+}
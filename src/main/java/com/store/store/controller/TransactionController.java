@@ -1,32 +1,59 @@
 package com.store.store.controller;
 // src/main/java/com/store/store/controller/TransactionController.java
 
+import java.net.URI;
+import java.security.Principal;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.LongConsumer;
 
+import com.store.store.DTO.TransactionBatchResult;
 import com.store.store.DTO.TransactionDto;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 
+import com.store.store.service.AsyncTransactionService;
+import com.store.store.service.TransactionBatchService;
+import com.store.store.service.TransactionExportService;
+import com.store.store.service.TransactionIdempotencyService;
 import com.store.store.service.TransactionService;
 
 @RestController
 @RequestMapping("/api/transactions")
 public class TransactionController {
     private final TransactionService transactionService;
+    private final TransactionExportService transactionExportService;
+    private final TransactionBatchService transactionBatchService;
+    private final AsyncTransactionService asyncTransactionService;
+    private final TransactionIdempotencyService transactionIdempotencyService;
 
     @Autowired
-    public TransactionController(TransactionService transactionService) {
+    public TransactionController(TransactionService transactionService,
+                                 TransactionExportService transactionExportService,
+                                 TransactionBatchService transactionBatchService,
+                                 AsyncTransactionService asyncTransactionService,
+                                 TransactionIdempotencyService transactionIdempotencyService) {
         this.transactionService = transactionService;
+        this.transactionExportService = transactionExportService;
+        this.transactionBatchService = transactionBatchService;
+        this.asyncTransactionService = asyncTransactionService;
+        this.transactionIdempotencyService = transactionIdempotencyService;
     }
 
     @GetMapping
@@ -35,13 +62,62 @@ public class TransactionController {
         return ResponseEntity.ok(transactions);
     }
 
+    // Export besar di-stream baris per baris; from inklusif, to eksklusif
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportTransactions(
+            @RequestParam(defaultValue = "NDJSON") TransactionExportService.Format format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        StreamingResponseBody body = out -> transactionExportService.export(format, from, to, out);
+        return ResponseEntity.ok()
+                .contentType(format.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"transactions." + format.getExtension() + "\"")
+                .body(body);
+    }
+
+    // Dengan Idempotency-Key (per user), retry dari gateway mengembalikan hasil request pertama
+    // tanpa INSERT dan reservasi stok kedua
     @PostMapping
-    public ResponseEntity<TransactionDto> createTransaction(@RequestBody TransactionDto transactionDTO) {
-        TransactionDto createdTransaction = transactionService.createTransaction(transactionDTO);
-        return ResponseEntity.status(HttpStatus.CREATED).body(createdTransaction);
+    public ResponseEntity<TransactionDto> createTransaction(
+            @RequestBody TransactionDto transactionDTO,
+            @RequestHeader(name = "Idempotency-Key", required = false) String idempotencyKey,
+            Principal principal) {
+        TransactionIdempotencyService.Response response = idempotencyKey == null
+                ? create(transactionDTO, id -> { })
+                : transactionIdempotencyService.execute(principal.getName(), idempotencyKey, transactionDTO,
+                        onStored -> create(transactionDTO, onStored));
+        if (response.status() == HttpStatus.ACCEPTED) {
+            // Stok sudah direservasi dan pesanan durable di log; status dipantau lewat GET /{id}
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/transactions/" + response.transaction().getId()))
+                    .body(response.transaction());
+        }
+        return ResponseEntity.status(response.status()).body(response.transaction());
+    }
+
+    private TransactionIdempotencyService.Response create(TransactionDto transactionDTO, LongConsumer onStored) {
+        if (asyncTransactionService.isEnabled()) {
+            return new TransactionIdempotencyService.Response(HttpStatus.ACCEPTED,
+                    asyncTransactionService.submit(transactionDTO, onStored));
+        }
+        return new TransactionIdempotencyService.Response(HttpStatus.CREATED,
+                transactionService.createTransaction(transactionDTO, onStored));
     }
+
+    // Banyak item sekaligus; item yang gagal dilaporkan per item tanpa membatalkan yang lain
+    @PostMapping("/batch")
+    public ResponseEntity<List<TransactionBatchResult>> createTransactions(@RequestBody List<TransactionDto> transactions) {
+        return ResponseEntity.ok(transactionBatchService.createTransactions(transactions));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<TransactionDto> getTransactionById(@PathVariable Long id) {
+        // 202 selama pesanan async belum tertulis ke database
+        Optional<TransactionDto> pending = asyncTransactionService.findPending(id);
+        if (pending.isPresent()) {
+            return ResponseEntity.accepted().body(pending.get());
+        }
         TransactionDto transaction = transactionService.getTransactionById(id);
         return ResponseEntity.ok(transaction);
     }
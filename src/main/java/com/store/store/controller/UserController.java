@@ -46,6 +46,13 @@ public class UserController {
         return ResponseEntity.ok(updatedUser);  // Mengembalikan user yang diperbarui
     }
 
+    @PutMapping("/{id}/disable")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<User> disableUser(@PathVariable Long id) {
+        User disabledUser = userService.disableUser(id);
+        return ResponseEntity.ok(disabledUser);  // Token user ini langsung ditolak
+    }
+
     @DeleteMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<Void> deleteUser(@PathVariable Long id) {
@@ -0,0 +1,10 @@
+package com.store.store.event;
+
+import com.store.store.model.ProductCategory;
+
+import java.util.Set;
+
+// Dipublikasikan setiap kali produk berubah; diproses setelah commit.
+// categories = kategori yang halaman listing-nya harus dibuang (kosong jika hanya stok yang berubah)
+public record ProductChangedEvent(Long productId, Set<ProductCategory> categories) {
+}
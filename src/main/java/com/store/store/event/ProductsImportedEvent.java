@@ -0,0 +1,10 @@
+package com.store.store.event;
+
+import com.store.store.model.ProductCategory;
+
+import java.util.Set;
+
+// Dipublikasikan sekali per import massal (bukan per produk: id hasil COPY tidak diketahui);
+// diproses setelah commit. Index in-memory dibangun ulang, halaman listing kategori ini dibuang.
+public record ProductsImportedEvent(Set<ProductCategory> categories, long count) {
+}
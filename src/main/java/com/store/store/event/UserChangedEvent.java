@@ -0,0 +1,5 @@
+package com.store.store.event;
+
+// Dipublikasikan UserService setiap kali data user berubah; diproses setelah commit
+public record UserChangedEvent(String username, boolean credentialsRevoked) {
+}
@@ -0,0 +1,8 @@
+package com.store.store.exception;
+
+// File import tidak bisa dibaca sama sekali (header CSV salah, quote tidak ditutup), bukan error per baris
+public class InvalidImportFileException extends RuntimeException {
+    public InvalidImportFileException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.store.store.exception;
+
+public class InvalidQuantityException extends RuntimeException {
+    public InvalidQuantityException(String message) {
+        super(message);
+    }
+}
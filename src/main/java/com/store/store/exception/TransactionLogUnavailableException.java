@@ -0,0 +1,7 @@
+package com.store.store.exception;
+
+public class TransactionLogUnavailableException extends RuntimeException {
+    public TransactionLogUnavailableException(String message) {
+        super(message);
+    }
+}
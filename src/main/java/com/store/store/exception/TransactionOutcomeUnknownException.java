@@ -0,0 +1,15 @@
+package com.store.store.exception;
+
+// Pesanan sudah direservasi dan mungkin sudah durable (di-replay saat restart): jangan diulang dengan id baru
+public class TransactionOutcomeUnknownException extends TransactionLogUnavailableException {
+    private final long transactionId;
+
+    public TransactionOutcomeUnknownException(long transactionId, String message) {
+        super(message);
+        this.transactionId = transactionId;
+    }
+
+    public long getTransactionId() {
+        return transactionId;
+    }
+}
@@ -0,0 +1,7 @@
+package com.store.store.exception;
+
+public class TransactionRejectedException extends RuntimeException {
+    public TransactionRejectedException(String message) {
+        super(message);
+    }
+}
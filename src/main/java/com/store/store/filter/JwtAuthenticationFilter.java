@@ -1,8 +1,13 @@
 package com.store.store.filter;
 
 import com.store.store.config.JwtTokenProvider;
+import com.store.store.config.ParsedToken;
+import com.store.store.config.TokenRevocationList;
+import com.store.store.config.UserPrincipal;
 import com.store.store.service.UserDetailsServiceImpl;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
@@ -14,17 +19,27 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.util.List;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtTokenProvider jwtTokenProvider;
     private final UserDetailsServiceImpl userDetailsService;
+    private final TokenRevocationList tokenRevocationList;
+
+    // true: Authentication dibangun langsung dari claims tanpa query user ke database
+    private final boolean claimsAuthEnabled;
 
     // Constructor-based dependency injection (lebih aman daripada @Autowired pada field)
-    public JwtAuthenticationFilter(JwtTokenProvider jwtTokenProvider, UserDetailsServiceImpl userDetailsService) {
+    public JwtAuthenticationFilter(JwtTokenProvider jwtTokenProvider,
+                                   UserDetailsServiceImpl userDetailsService,
+                                   TokenRevocationList tokenRevocationList,
+                                   @Value("${jwt.claims-auth.enabled:false}") boolean claimsAuthEnabled) {
         this.jwtTokenProvider = jwtTokenProvider;
         this.userDetailsService = userDetailsService;
+        this.tokenRevocationList = tokenRevocationList;
+        this.claimsAuthEnabled = claimsAuthEnabled;
     }
 
     @Override
@@ -39,22 +54,24 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             String token = header.substring(7);  // Potong prefix "Bearer "
 
             try {
-                // Validasi token dan ambil username dari token
-                if (jwtTokenProvider.validateToken(token)) {
-                    String username = jwtTokenProvider.getUsernameFromToken(token);
+                // Validasi token sekali (hasilnya di-cache) dan ambil username dari token
+                ParsedToken parsedToken = jwtTokenProvider.parseToken(token);
 
-                    // Ambil detail user berdasarkan username
-                    UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+                // Token milik user yang di-disable/dihapus/diubah setelah token terbit ditolak
+                if (!tokenRevocationList.isRevoked(parsedToken.username(), parsedToken.issuedAt())) {
+                    UserDetails userDetails = resolveUser(parsedToken);
 
-                    // Buat objek UsernamePasswordAuthenticationToken
-                    UsernamePasswordAuthenticationToken authentication =
-                            new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+                    if (userDetails.isEnabled()) {
+                        // Buat objek UsernamePasswordAuthenticationToken
+                        UsernamePasswordAuthenticationToken authentication =
+                                new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
 
-                    // Tambahkan detail tambahan ke authentication
-                    authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                        // Tambahkan detail tambahan ke authentication
+                        authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
-                    // Set authentication di SecurityContextHolder
-                    SecurityContextHolder.getContext().setAuthentication(authentication);
+                        // Set authentication di SecurityContextHolder
+                        SecurityContextHolder.getContext().setAuthentication(authentication);
+                    }
                 }
             } catch (Exception e) {
                 // Log error jika terjadi kesalahan dalam validasi token atau otentikasi
@@ -65,4 +82,17 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         // Lanjutkan filter chain
         filterChain.doFilter(request, response);
     }
+
+    private UserDetails resolveUser(ParsedToken parsedToken) {
+        // Token lama tanpa claim uid tetap dilayani lewat database
+        if (claimsAuthEnabled && parsedToken.userId() != null) {
+            List<SimpleGrantedAuthority> authorities = parsedToken.authorities().stream()
+                    .map(SimpleGrantedAuthority::new)
+                    .toList();
+            return new UserPrincipal(parsedToken.userId(), parsedToken.username(), "", true, authorities);
+        }
+
+        // Ambil detail user berdasarkan username
+        return userDetailsService.loadUserByUsername(parsedToken.username());
+    }
 }
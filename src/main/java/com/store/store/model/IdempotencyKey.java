@@ -0,0 +1,41 @@
+package com.store.store.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Idempotency-Key yang pernah dipakai seorang user untuk membuat transaksi. transactionId null
+ * berarti request-nya masih dieksekusi (atau node-nya mati sebelum commit).
+ */
+@Data
+@Entity
+@Table(name = "idempotency_keys")
+@IdClass(IdempotencyKey.Key.class)
+public class IdempotencyKey {
+    @Id
+    private String username;
+
+    @Id
+    private String idempotencyKey;
+
+    @Column(nullable = false, length = 128)
+    private String requestFingerprint;
+
+    private Long transactionId;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private String username;
+        private String idempotencyKey;
+    }
+}
@@ -0,0 +1,54 @@
+package com.store.store.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Nilai uang sebagai long dalam satuan terkecil (minor unit, 2 desimal: 1999 = 19.99).
+ * Penjumlahan dan perkalian di jalur panas cukup aritmetika long tanpa alokasi; overflow
+ * dilempar sebagai ArithmeticException, tidak pernah diam-diam membulat seperti double.
+ * BigDecimal hanya dipakai di batas sistem (harga produk, JSON).
+ */
+public final class Money {
+
+    public static final int SCALE = 2;
+
+    private Money() {
+    }
+
+    // Harga produk disimpan NUMERIC(38, 2), jadi pembulatan di sini sama dengan pembulatan database
+    public static long toMinor(BigDecimal amount) {
+        return toMinor(amount, RoundingMode.HALF_UP);
+    }
+
+    public static long toMinor(BigDecimal amount, RoundingMode roundingMode) {
+        return amount.setScale(SCALE, roundingMode).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal toDecimal(long minor) {
+        return BigDecimal.valueOf(minor, SCALE);
+    }
+
+    public static long multiply(long unitMinor, int quantity) {
+        return Math.multiplyExact(unitMinor, quantity);
+    }
+
+    public static long add(long minor, long otherMinor) {
+        return Math.addExact(minor, otherMinor);
+    }
+
+    // "1999" -> "19.99", tanpa BigDecimal; dipakai export yang menulis jutaan baris
+    public static String format(long minor) {
+        StringBuilder text = new StringBuilder(24);
+        if (minor < 0) {
+            text.append('-');
+        }
+        long units = Math.abs(minor / 100);
+        int cents = (int) Math.abs(minor % 100);
+        text.append(units).append('.');
+        if (cents < 10) {
+            text.append('0');
+        }
+        return text.append(cents).toString();
+    }
+}
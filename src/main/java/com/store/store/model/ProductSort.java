@@ -0,0 +1,7 @@
+package com.store.store.model;
+
+// Urutan listing produk; keduanya stabil karena id selalu jadi tie-breaker
+public enum ProductSort {
+    ID,
+    PRICE
+}
@@ -0,0 +1,8 @@
+package com.store.store.model;
+
+// Sumbu agregasi sales_rollups; dimension_key berisi id produk, id seller, atau nama kategori
+public enum SalesDimension {
+    PRODUCT,
+    SELLER,
+    CATEGORY
+}
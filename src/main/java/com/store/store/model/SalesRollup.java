@@ -0,0 +1,56 @@
+package com.store.store.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Total penjualan per (dimensi, key, granularitas, bucket). Diperbarui dengan delta di transaksi
+ * yang sama dengan perubahan transaksinya (lihat SalesRollupService), jadi laporan cukup membaca
+ * satu baris per bucket tanpa menyentuh tabel transactions.
+ */
+@Data
+@Entity
+@Table(name = "sales_rollups")
+@IdClass(SalesRollup.Key.class)
+public class SalesRollup {
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16)
+    private SalesDimension dimension;
+
+    @Id
+    @Column(length = 64)
+    private String dimensionKey;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(length = 8)
+    private SalesGranularity granularity;
+
+    @Id
+    private LocalDateTime bucketStart;
+
+    @Column(nullable = false)
+    private long units;
+
+    @Column(nullable = false)
+    private long revenueMinor;
+
+    @Column(nullable = false)
+    private long transactionCount;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private SalesDimension dimension;
+        private String dimensionKey;
+        private SalesGranularity granularity;
+        private LocalDateTime bucketStart;
+    }
+}
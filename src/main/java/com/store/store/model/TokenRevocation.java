@@ -0,0 +1,23 @@
+package com.store.store.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Token milik user ini yang terbit pada atau sebelum revokedAt (epoch milidetik) ditolak.
+ * Dibaca TokenRevocationList di setiap node.
+ */
+@Data
+@Entity
+@Table(name = "token_revocations")
+@NoArgsConstructor
+@AllArgsConstructor
+public class TokenRevocation {
+    @Id
+    private String username;
+
+    @Column(nullable = false)
+    private Long revokedAt;
+}
@@ -9,8 +9,11 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "transactions")
 public class Transaction {
+    // Sequence dengan optimizer pooled: satu nextval per 50 id, dan Hibernate bisa mem-batch INSERT
+    // (IDENTITY memaksa INSERT langsung satu per satu untuk membaca id yang dihasilkan)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transactions_seq")
+    @SequenceGenerator(name = "transactions_seq", sequenceName = "transactions_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne
@@ -23,13 +26,16 @@ public class Transaction {
 
     @Column(nullable = false, columnDefinition = "INTEGER DEFAULT 0")
     private Integer quantity;
-// Tambahkan quantity
-@Column(nullable = false, columnDefinition = "DOUBLE PRECISION DEFAULT 0.0")
-private Double totalPrice;
 
-
-   // Tambahkan total price
+    // Total dalam minor unit (lihat Money): SUM di database tetap exact, tanpa drift double
+    @Column(nullable = false)
+    private long totalPriceMinor;
 
     @Column(nullable = false)
     private LocalDateTime createdAt;
+
+    // Kategori produk saat penjualan (dimensi rollup): kategori produk bisa berubah setelahnya
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ProductCategory category;
 }
\ No newline at end of file
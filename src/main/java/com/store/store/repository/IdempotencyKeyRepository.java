@@ -0,0 +1,42 @@
+package com.store.store.repository;
+
+import com.store.store.model.IdempotencyKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, IdempotencyKey.Key> {
+
+    // INSERT murni (save() akan merge dan menimpa baris milik node lain); bentrok primary key = key sudah dipakai
+    @Modifying
+    @Query(value = "INSERT INTO idempotency_keys (username, idempotency_key, request_fingerprint, created_at) "
+            + "VALUES (:username, :key, :fingerprint, :createdAt)", nativeQuery = true)
+    int claim(String username, String key, String fingerprint, LocalDateTime createdAt);
+
+    // Ambil alih key yang eksekusinya ditinggalkan (tanpa hasil dan sudah lama) atau yang sudah kedaluwarsa
+    @Modifying
+    @Query("UPDATE IdempotencyKey k SET k.createdAt = :now, k.requestFingerprint = :fingerprint, "
+            + "k.transactionId = NULL WHERE k.username = :username AND k.idempotencyKey = :key "
+            + "AND ((k.transactionId IS NULL AND k.createdAt < :abandonedBefore) OR k.createdAt < :expiredBefore)")
+    int reclaim(String username, String key, String fingerprint, LocalDateTime now,
+                LocalDateTime abandonedBefore, LocalDateTime expiredBefore);
+
+    // createdAt dari klaim dipakai sebagai token: tidak menyentuh key yang sudah diambil alih request lain
+    @Modifying
+    @Query("UPDATE IdempotencyKey k SET k.transactionId = :transactionId "
+            + "WHERE k.username = :username AND k.idempotencyKey = :key AND k.createdAt = :claimedAt")
+    int complete(String username, String key, LocalDateTime claimedAt, Long transactionId);
+
+    @Modifying
+    @Query("DELETE FROM IdempotencyKey k "
+            + "WHERE k.username = :username AND k.idempotencyKey = :key AND k.createdAt = :claimedAt")
+    int release(String username, String key, LocalDateTime claimedAt);
+
+    @Modifying
+    @Query("DELETE FROM IdempotencyKey k WHERE k.createdAt < :expiredBefore")
+    int deleteExpired(LocalDateTime expiredBefore);
+}
@@ -1,20 +1,204 @@
 package com.store.store.repository;
 
 
+import com.store.store.DTO.ProductDto;
+import com.store.store.DTO.ProductIndexEntry;
+import com.store.store.DTO.ProductPrice;
+import com.store.store.DTO.ProductSearchEntry;
+import com.store.store.DTO.ProductSuggestion;
 import com.store.store.model.Product;
 import com.store.store.model.ProductCategory;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 import java.math.BigDecimal;  // tambahkan baris ini
 
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
+    // Proyeksi langsung ke DTO: hanya kolom yang dipakai, seller cukup FK-nya tanpa SELECT ke users
+    String SELECT_PRODUCT_DTO = "SELECT new com.store.store.DTO.ProductDto(p.id, p.name, p.description, p.price, "
+            + "p.stock, p.category, p.imageUrl, p.seller.id) FROM Product p ";
+
     List<Product> findByCategory(ProductCategory category);
     List<Product> findBySellerUsername(String username);
 
     @Query("SELECT p FROM Product p WHERE p.price BETWEEN :minPrice AND :maxPrice")
     List<Product> findProductsByPriceRange(BigDecimal minPrice, BigDecimal maxPrice);
-}
\ No newline at end of file
+
+    // Satu query IN untuk semua produk dalam batch transaksi
+    @Query("SELECT new com.store.store.DTO.ProductPrice(p.id, p.price, p.seller.id, p.category) FROM Product p "
+            + "WHERE p.id IN :ids")
+    List<ProductPrice> findPricesByIdIn(Collection<Long> ids);
+
+    // Reservasi stok atomik: satu UPDATE bersyarat, row lock database yang menyerialkan pembeli
+    // paralel. Mengembalikan 0 jika stok tidak cukup (atau produk tidak ada).
+    @Modifying
+    @Query("UPDATE Product p SET p.stock = p.stock - :quantity WHERE p.id = :id AND p.stock >= :quantity")
+    int reserveStock(Long id, int quantity);
+
+    @Modifying
+    @Query("UPDATE Product p SET p.stock = p.stock + :quantity WHERE p.id = :id")
+    int releaseStock(Long id, int quantity);
+
+    @Query(SELECT_PRODUCT_DTO + "WHERE p.id = :id")
+    Optional<ProductDto> findDtoById(Long id);
+
+    @Query(SELECT_PRODUCT_DTO + "WHERE p.id IN :ids")
+    List<ProductDto> findDtosByIdIn(Collection<Long> ids);
+
+    // Dashboard seller dalam satu query: transaksi dijumlahkan per produk dulu (lewat index
+    // transactions(product_id, created_at)), baru diringkas, jadi stok tidak ikut terhitung
+    // berulang untuk setiap transaksi. seller_id null berarti username tidak ada.
+    @Query(value = "SELECT (SELECT u.id FROM users u WHERE u.username = :username) AS \"sellerId\", "
+            + "COUNT(s.id) AS \"productCount\", "
+            + "COALESCE(SUM(s.price * s.stock), 0) AS \"stockValue\", "
+            + "CAST(COALESCE(SUM(s.units), 0) AS BIGINT) AS \"unitsSold\", "
+            + "CAST(COALESCE(SUM(s.revenue_minor), 0) AS BIGINT) AS \"revenueMinor\" "
+            + "FROM (SELECT p.id, p.price, p.stock, "
+            + "COALESCE(SUM(t.quantity), 0) AS units, COALESCE(SUM(t.total_price_minor), 0) AS revenue_minor "
+            + "FROM users u JOIN products p ON p.seller_id = u.id "
+            + "LEFT JOIN transactions t ON t.product_id = p.id AND t.created_at >= :from AND t.created_at < :to "
+            + "WHERE u.username = :username "
+            + "GROUP BY p.id, p.price, p.stock) s",
+            nativeQuery = true)
+    SellerSummaryRow summarizeSeller(String username, LocalDateTime from, LocalDateTime to);
+
+    interface SellerSummaryRow {
+        Long getSellerId();
+        long getProductCount();
+        BigDecimal getStockValue();
+        long getUnitsSold();
+        long getRevenueMinor();
+    }
+
+    // Sumber ProductCatalogIndex: hanya produk aktif, di-stream dengan fetch size saat rebuild
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.store.store.DTO.ProductIndexEntry(p.id, p.category, p.price) FROM Product p "
+            + "WHERE p.active = true")
+    Stream<ProductIndexEntry> streamActiveIndexEntries();
+
+    @Query("SELECT new com.store.store.DTO.ProductIndexEntry(p.id, p.category, p.price) FROM Product p "
+            + "WHERE p.id = :id AND p.active = true")
+    Optional<ProductIndexEntry> findActiveIndexEntry(Long id);
+
+    // Sumber ProductSearchIndex (fallback full-text search di database embedded)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.store.store.DTO.ProductSearchEntry(p.id, p.name, p.description, p.category, p.price) "
+            + "FROM Product p WHERE p.active = true")
+    Stream<ProductSearchEntry> streamActiveSearchEntries();
+
+    @Query("SELECT new com.store.store.DTO.ProductSearchEntry(p.id, p.name, p.description, p.category, p.price) "
+            + "FROM Product p WHERE p.id = :id AND p.active = true")
+    Optional<ProductSearchEntry> findActiveSearchEntry(Long id);
+
+    // Sumber ProductSuggestIndex (autocomplete nama), hanya dibaca saat rebuild dan saat produk berubah
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.store.store.DTO.ProductSuggestion(p.id, p.name) FROM Product p WHERE p.active = true")
+    Stream<ProductSuggestion> streamActiveSuggestions();
+
+    @Query("SELECT new com.store.store.DTO.ProductSuggestion(p.id, p.name) FROM Product p "
+            + "WHERE p.id = :id AND p.active = true")
+    Optional<ProductSuggestion> findActiveSuggestion(Long id);
+
+    // Filter kandidat search; null = tidak difilter
+    String SEARCH_FILTERS = "WHERE (CAST(:category AS VARCHAR) IS NULL OR m.category = CAST(:category AS VARCHAR)) "
+            + "AND (CAST(:minPrice AS NUMERIC) IS NULL OR m.price >= CAST(:minPrice AS NUMERIC)) "
+            + "AND (CAST(:maxPrice AS NUMERIC) IS NULL OR m.price <= CAST(:maxPrice AS NUMERIC)) ";
+
+    // Full-text search lewat index GIN idx_products_search_vector, urut rank lalu id, keyset (rank, id).
+    // Hanya kandidat yang di-rank: untuk kata yang sangat umum ts_rank atas jutaan baris terlalu mahal.
+    // Kandidatnya maxCandidates kecocokan di nama (bobot A, nameTerms = "java:A & buku:A") dengan id
+    // terkecil ditambah maxCandidates kecocokan di mana saja dengan id terkecil, jadi produk yang
+    // namanya cocok tidak tersingkir oleh kecocokan deskripsi. Kandidat dipilih menurut id (bukan
+    // urutan baca yang tidak tentu), sehingga setiap halaman cursor me-rank himpunan yang sama dan
+    // tidak ada hasil yang terulang atau terlewat selama datanya tidak berubah. ts_rank dihitung
+    // setelah LIMIT, hanya untuk kandidat. truncated = kecocokan lain (id lebih besar) ada di luar
+    // kandidat dan tidak pernah muncul di halaman mana pun.
+    // OFFSET 0 mencegah filter kategori/harga didorong ke scan: tanpa itu planner menggabungkan
+    // bitmap GIN dengan bitmap index (category, price) yang bisa berisi ratusan ribu baris.
+    // Jalankan setelah forceCustomPlans() di transaksi yang sama.
+    @Query(value = "WITH by_name AS ("
+            + "SELECT m.id FROM ("
+            + "SELECT p.id, p.category, p.price FROM products p "
+            + "WHERE p.search_vector @@ to_tsquery('simple', :nameTerms) AND p.active OFFSET 0) m "
+            + SEARCH_FILTERS
+            + "ORDER BY m.id LIMIT :maxCandidates), "
+            + "by_any AS ("
+            + "SELECT m.id FROM ("
+            + "SELECT p.id, p.category, p.price FROM products p "
+            + "WHERE p.search_vector @@ plainto_tsquery('simple', :terms) AND p.active OFFSET 0) m "
+            + SEARCH_FILTERS
+            + "ORDER BY m.id LIMIT :maxCandidates), "
+            + "candidates AS (SELECT c.id, ts_rank(p.search_vector, plainto_tsquery('simple', :terms)) AS rank "
+            + "FROM (SELECT id FROM by_name UNION SELECT id FROM by_any) c JOIN products p ON p.id = c.id) "
+            + "SELECT id AS \"id\", rank AS \"rank\", "
+            + "(SELECT COUNT(*) FROM by_any) >= :maxCandidates AS \"truncated\" FROM candidates "
+            + "WHERE rank < :afterRank OR (rank = :afterRank AND id > :afterId) "
+            + "ORDER BY rank DESC, id LIMIT :limit",
+            nativeQuery = true)
+    List<SearchHitRow> searchActive(String terms, String nameTerms, String category, BigDecimal minPrice,
+                                    BigDecimal maxPrice, float afterRank, long afterId, int maxCandidates,
+                                    int limit);
+
+    // Plan generic (prepared statement yang dipakai ulang) tidak tahu seberapa umum term yang dicari:
+    // kata yang ada di sebagian besar produk dibaca lewat bitmap GIN utuh. Dengan custom plan planner
+    // memakai statistik term dan berhenti begitu kandidat cukup. Hanya berlaku sampai akhir transaksi.
+    @Query(value = "SELECT set_config('plan_cache_mode', 'force_custom_plan', true)", nativeQuery = true)
+    String forceCustomPlans();
+
+    interface SearchHitRow {
+        Long getId();
+        Float getRank();
+        Boolean getTruncated();
+    }
+
+    // Keyset pagination: selalu lanjut dari (price, id) / id terakhir, tanpa OFFSET
+
+    @Query(SELECT_PRODUCT_DTO + "WHERE p.id > :afterId ORDER BY p.id")
+    List<ProductDto> findPageOrderById(Long afterId, Limit limit);
+
+    @Query(SELECT_PRODUCT_DTO + "WHERE (p.price > :afterPrice OR (p.price = :afterPrice AND p.id > :afterId)) "
+            + "ORDER BY p.price, p.id")
+    List<ProductDto> findPageOrderByPrice(BigDecimal afterPrice, Long afterId, Limit limit);
+
+    @Query(SELECT_PRODUCT_DTO + "WHERE p.category = :category AND p.id > :afterId ORDER BY p.id")
+    List<ProductDto> findCategoryPageOrderById(ProductCategory category, Long afterId, Limit limit);
+
+    @Query(SELECT_PRODUCT_DTO + "WHERE p.category = :category "
+            + "AND (p.price > :afterPrice OR (p.price = :afterPrice AND p.id > :afterId)) ORDER BY p.price, p.id")
+    List<ProductDto> findCategoryPageOrderByPrice(ProductCategory category, BigDecimal afterPrice, Long afterId, Limit limit);
+
+    @Query(SELECT_PRODUCT_DTO + "WHERE p.active = true AND p.price BETWEEN :minPrice AND :maxPrice "
+            + "AND p.id > :afterId ORDER BY p.id")
+    List<ProductDto> findPriceRangePageOrderById(BigDecimal minPrice, BigDecimal maxPrice, Long afterId, Limit limit);
+
+    @Query(SELECT_PRODUCT_DTO + "WHERE p.active = true AND p.price BETWEEN :minPrice AND :maxPrice "
+            + "AND (p.price > :afterPrice OR (p.price = :afterPrice AND p.id > :afterId)) ORDER BY p.price, p.id")
+    List<ProductDto> findPriceRangePageOrderByPrice(BigDecimal minPrice, BigDecimal maxPrice,
+                                                    BigDecimal afterPrice, Long afterId, Limit limit);
+
+    // Fallback saat ProductCatalogIndex belum siap
+
+    @Query(SELECT_PRODUCT_DTO + "WHERE p.category = :category AND p.active = true "
+            + "AND p.price BETWEEN :minPrice AND :maxPrice AND p.id > :afterId ORDER BY p.id")
+    List<ProductDto> findCategoryPriceRangePageOrderById(ProductCategory category, BigDecimal minPrice,
+                                                         BigDecimal maxPrice, Long afterId, Limit limit);
+
+    @Query(SELECT_PRODUCT_DTO + "WHERE p.category = :category AND p.active = true "
+            + "AND p.price BETWEEN :minPrice AND :maxPrice "
+            + "AND (p.price > :afterPrice OR (p.price = :afterPrice AND p.id > :afterId)) ORDER BY p.price, p.id")
+    List<ProductDto> findCategoryPriceRangePageOrderByPrice(ProductCategory category, BigDecimal minPrice,
+                                                            BigDecimal maxPrice, BigDecimal afterPrice,
+                                                            Long afterId, Limit limit);
+}
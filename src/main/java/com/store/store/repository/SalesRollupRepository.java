@@ -0,0 +1,32 @@
+package com.store.store.repository;
+
+import com.store.store.DTO.SalesBucket;
+import com.store.store.DTO.SalesTotal;
+import com.store.store.model.SalesDimension;
+import com.store.store.model.SalesGranularity;
+import com.store.store.model.SalesRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface SalesRollupRepository extends JpaRepository<SalesRollup, SalesRollup.Key> {
+
+    // Range scan pada primary key: satu baris per bucket
+    @Query("SELECT new com.store.store.DTO.SalesBucket(r.bucketStart, r.units, r.revenueMinor, r.transactionCount) "
+            + "FROM SalesRollup r WHERE r.dimension = :dimension AND r.dimensionKey = :key "
+            + "AND r.granularity = :granularity AND r.bucketStart >= :from AND r.bucketStart < :to "
+            + "ORDER BY r.bucketStart")
+    List<SalesBucket> findBuckets(SalesDimension dimension, String key, SalesGranularity granularity,
+                                  LocalDateTime from, LocalDateTime to);
+
+    @Query("SELECT new com.store.store.DTO.SalesTotal(r.dimensionKey, SUM(r.units), SUM(r.revenueMinor), "
+            + "SUM(r.transactionCount)) FROM SalesRollup r WHERE r.dimension = :dimension "
+            + "AND r.granularity = :granularity AND r.bucketStart >= :from AND r.bucketStart < :to "
+            + "GROUP BY r.dimensionKey ORDER BY SUM(r.revenueMinor) DESC")
+    List<SalesTotal> findTotals(SalesDimension dimension, SalesGranularity granularity,
+                                LocalDateTime from, LocalDateTime to);
+}
@@ -2,11 +2,29 @@ package com.store.store.repository;
 
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import com.store.store.DTO.TransactionDto;
 import com.store.store.model.Transaction;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
-    // Add custom query methods here if needed
-}
\ No newline at end of file
+    // Proyeksi langsung ke DTO: user dan product cukup FK-nya, tanpa memuat entity (dan seller) per baris
+    String SELECT_TRANSACTION_DTO = "SELECT new com.store.store.DTO.TransactionDto(t.id, t.user.id, t.product.id, "
+            + "t.quantity, t.totalPriceMinor, t.createdAt) FROM Transaction t ";
+
+    @Query(SELECT_TRANSACTION_DTO + "ORDER BY t.id")
+    List<TransactionDto> findAllDtos();
+
+    @Query(SELECT_TRANSACTION_DTO + "WHERE t.id = :id")
+    Optional<TransactionDto> findDtoById(Long id);
+
+    // Writer async: id yang sudah tertulis dilewati saat log diputar ulang setelah crash
+    @Query("SELECT t.id FROM Transaction t WHERE t.id IN :ids")
+    List<Long> findExistingIds(Collection<Long> ids);
+}
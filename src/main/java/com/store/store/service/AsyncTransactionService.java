@@ -0,0 +1,351 @@
+package com.store.store.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.store.store.DTO.TransactionDto;
+import com.store.store.exception.TransactionLogUnavailableException;
+import com.store.store.exception.TransactionOutcomeUnknownException;
+import com.store.store.exception.TransactionRejectedException;
+import com.store.store.exception.UserNotFoundException;
+import com.store.store.model.Product;
+import com.store.store.model.ProductCategory;
+import com.store.store.model.Transaction;
+import com.store.store.repository.TransactionRepository;
+import com.store.store.repository.UserRepository;
+import com.store.store.service.TransactionWriteAheadLog.Appended;
+import com.store.store.service.TransactionWriteAheadLog.Entry;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
+
+/**
+ * Jalur tulis async untuk POST /api/transactions (opsional, {@code transactions.async.enabled}).
+ * Validasi dan reservasi stok tetap sinkron; transaksinya lalu di-append ke
+ * {@link TransactionWriteAheadLog} dan client langsung mendapat 202 dengan id-nya.
+ * Satu thread writer menguras log ke tabel transactions dalam batch (satu commit database
+ * untuk banyak pesanan), lalu memajukan checkpoint. Saat start, record setelah checkpoint
+ * diputar ulang; id yang sudah ada di database dilewati.
+ * <p>
+ * Reservasi di-commit sebelum append: crash di antara keduanya membuat stok tertahan tanpa
+ * transaksi, tapi tidak pernah ada transaksi tanpa reservasi (oversell).
+ */
+@Slf4j
+@Service
+public class AsyncTransactionService implements SmartLifecycle, MeterBinder {
+
+    private static final String INSERT_TRANSACTION = "INSERT INTO transactions "
+            + "(id, user_id, product_id, quantity, total_price_minor, created_at, category) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private final TransactionService transactionService;
+    private final TransactionRepository transactionRepository;
+    private final UserRepository userRepository;
+    private final TransactionIdAllocator idAllocator;
+    private final SalesRollupService salesRollupService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final Path walDirectory;
+    private final int segmentSize;
+    private final int maxBatch;
+    private final long lingerNanos;
+    private final Duration retryBackoff;
+
+    // Sudah diterima (202) tapi belum ter-commit; urutan antrean = urutan posisi di log
+    private final Map<Long, TransactionDto> pending = new ConcurrentHashMap<>();
+    private final BlockingQueue<Appended> queue = new LinkedBlockingQueue<>();
+    // Ditolak database saat ditulis; disimpan sebentar untuk polling status
+    private final Cache<Long, String> rejected = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfterWrite(Duration.ofHours(1))
+            .build();
+
+    private volatile boolean running;
+    private TransactionWriteAheadLog writeAheadLog;
+    private Thread writer;
+
+    public AsyncTransactionService(TransactionService transactionService,
+                                   TransactionRepository transactionRepository,
+                                   UserRepository userRepository,
+                                   TransactionIdAllocator idAllocator,
+                                   SalesRollupService salesRollupService,
+                                   DataSource dataSource,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${transactions.async.enabled:false}") boolean enabled,
+                                   @Value("${transactions.async.wal-dir:data/transaction-wal}") Path walDirectory,
+                                   @Value("${transactions.async.segment-size:64MB}") DataSize segmentSize,
+                                   @Value("${transactions.async.max-batch:500}") int maxBatch,
+                                   @Value("${transactions.async.linger:5ms}") Duration linger,
+                                   @Value("${transactions.async.retry-backoff:1s}") Duration retryBackoff) {
+        this.transactionService = transactionService;
+        this.transactionRepository = transactionRepository;
+        this.userRepository = userRepository;
+        this.idAllocator = idAllocator;
+        this.salesRollupService = salesRollupService;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.walDirectory = walDirectory;
+        this.segmentSize = Math.toIntExact(segmentSize.toBytes());
+        this.maxBatch = maxBatch;
+        this.lingerNanos = linger.toNanos();
+        this.retryBackoff = retryBackoff;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public TransactionDto submit(TransactionDto transactionDto) {
+        return submit(transactionDto, id -> { });
+    }
+
+    // onReserved dijalankan di transaksi reservasi, sebelum pesanan di-append ke log
+    public TransactionDto submit(TransactionDto transactionDto, LongConsumer onReserved) {
+        if (!running) {
+            throw new TransactionLogUnavailableException("Asynchronous transaction writer is not running");
+        }
+        Entry entry = transactionTemplate.execute(status -> {
+            // FK user dicek sekarang, supaya tidak baru gagal setelah client mendapat 202
+            if (transactionDto.getUserId() == null || !userRepository.existsById(transactionDto.getUserId())) {
+                throw new UserNotFoundException("User not found with ID: " + transactionDto.getUserId());
+            }
+            Transaction transaction = transactionService.reserveTransaction(transactionDto);
+            Product product = transaction.getProduct();
+            long id = idAllocator.next();
+            onReserved.accept(id);
+            return new Entry(id, transactionDto.getUserId(), product.getId(),
+                    product.getSeller().getId(), product.getCategory(), transaction.getQuantity(),
+                    transaction.getTotalPriceMinor(), transaction.getCreatedAt());
+        });
+
+        TransactionDto accepted = toDto(entry);
+        pending.put(entry.id(), accepted);
+        try {
+            writeAheadLog.append(entry);
+        } catch (IOException e) {
+            // Record pasti tidak tertulis: reservasinya dikembalikan
+            pending.remove(entry.id());
+            transactionService.releaseReservedStock(entry.productId(), entry.quantity());
+            throw new TransactionLogUnavailableException("Transaction log is unavailable, please retry");
+        } catch (UncheckedIOException e) {
+            // Force gagal: record bisa saja sudah di disk dan muncul lagi saat recovery, jadi stok tetap ditahan
+            log.error("Write-ahead log failed to sync; transaction {} is pending until restart", entry.id(), e);
+            throw new TransactionOutcomeUnknownException(entry.id(),
+                    "Transaction log failed to sync; check the transaction status later");
+        }
+        return accepted;
+    }
+
+    /**
+     * Transaksi yang sudah diterima tapi belum tertulis ke database. Melempar
+     * {@link TransactionRejectedException} jika database menolaknya saat ditulis.
+     */
+    public Optional<TransactionDto> findPending(Long id) {
+        String reason = rejected.getIfPresent(id);
+        if (reason != null) {
+            throw new TransactionRejectedException(reason);
+        }
+        return Optional.ofNullable(pending.get(id));
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            writeAheadLog = TransactionWriteAheadLog.open(walDirectory, segmentSize, queue::addAll);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot open transaction log in " + walDirectory, e);
+        }
+        List<Appended> recovered = writeAheadLog.recovered();
+        if (!recovered.isEmpty()) {
+            log.info("Replaying {} transactions from the write-ahead log", recovered.size());
+        }
+        recovered.forEach(appended -> pending.put(appended.entry().id(), toDto(appended.entry())));
+        queue.addAll(recovered);
+
+        running = true;
+        writer = new Thread(this::drain, "transaction-wal-writer");
+        writer.start();
+    }
+
+    // Berhenti menerima, kuras antrean selama database tersedia; sisanya aman di log untuk start berikutnya
+    @Override
+    public void stop() {
+        running = false;
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(30));
+            if (writer.isAlive()) {
+                writer.interrupt();
+                writer.join();
+            }
+            writeAheadLog.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            log.warn("Closing the write-ahead log failed", e);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Start sebelum web server menerima request (recovery dulu), stop setelah web server berhenti
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("transactions.async.pending", pending, Map::size)
+                .description("Accepted transactions not yet written to the database")
+                .register(registry);
+    }
+
+    private void drain() {
+        List<Appended> batch = new ArrayList<>(maxBatch);
+        try {
+            while (running || !queue.isEmpty()) {
+                Appended first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                // Tunggu sebentar (linger) supaya pesanan yang datang berdekatan ikut satu commit
+                batch.add(first);
+                long deadline = System.nanoTime() + lingerNanos;
+                while (batch.size() < maxBatch) {
+                    queue.drainTo(batch, maxBatch - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= maxBatch || remaining <= 0) {
+                        break;
+                    }
+                    Appended next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                write(batch);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            log.warn("Transaction writer stopped with {} transactions still in the log", pending.size());
+        }
+    }
+
+    private void write(List<Appended> batch) throws InterruptedException {
+        boolean oneByOne = false;
+        Set<Long> failed = new HashSet<>();
+        while (true) {
+            try {
+                if (!oneByOne) {
+                    insert(batch);
+                } else {
+                    // Hanya baris yang ditolak database yang gagal; sisanya tetap ditulis
+                    for (Appended appended : batch) {
+                        if (failed.contains(appended.entry().id())) {
+                            continue;
+                        }
+                        try {
+                            insert(List.of(appended));
+                        } catch (DataIntegrityViolationException e) {
+                            reject(appended.entry(), e);
+                            failed.add(appended.entry().id());
+                        }
+                    }
+                }
+                break;
+            } catch (DataIntegrityViolationException e) {
+                oneByOne = true;
+            } catch (RuntimeException e) {
+                // Database tidak tersedia: ulangi terus, record tetap aman di log
+                log.warn("Writing {} transactions failed, retrying in {}", batch.size(), retryBackoff, e);
+                Thread.sleep(retryBackoff.toMillis());
+            }
+        }
+
+        try {
+            writeAheadLog.checkpoint(batch.get(batch.size() - 1).endPosition());
+        } catch (IOException e) {
+            // Tidak fatal: recovery akan melewati id yang sudah tertulis
+            log.warn("Advancing the write-ahead log checkpoint failed", e);
+        }
+        batch.forEach(appended -> pending.remove(appended.entry().id()));
+    }
+
+    // Satu transaksi database untuk seluruh batch: INSERT lewat JDBC batch dengan id dari log, plus rollup
+    private void insert(List<Appended> batch) {
+        transactionTemplate.executeWithoutResult(status -> {
+            Set<Long> existing = new HashSet<>(transactionRepository.findExistingIds(
+                    batch.stream().map(appended -> appended.entry().id()).toList()));
+            List<Object[]> rows = new ArrayList<>(batch.size());
+            List<SalesRollupService.SaleDelta> sales = new ArrayList<>(batch.size());
+            for (Appended appended : batch) {
+                Entry entry = appended.entry();
+                if (existing.contains(entry.id())) {
+                    continue;
+                }
+                ProductCategory category = entry.category() != null ? entry.category() : categoryOf(entry.productId());
+                rows.add(new Object[]{entry.id(), entry.userId(), entry.productId(), entry.quantity(),
+                        entry.totalPriceMinor(), Timestamp.valueOf(entry.createdAt()),
+                        category != null ? category.name() : null});
+                sales.add(new SalesRollupService.SaleDelta(entry.productId(), entry.sellerId(), category,
+                        entry.createdAt(), entry.quantity(), entry.totalPriceMinor(), 1));
+            }
+            if (!rows.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_TRANSACTION, rows);
+                salesRollupService.apply(sales);
+            }
+        });
+    }
+
+    // Kode kategori di log tidak dikenal (ditulis versi yang lebih baru): pakai kategori produk saat ini.
+    // Produk yang sudah tidak ada menghasilkan null, lalu INSERT ditolak constraint seperti FK-nya
+    private ProductCategory categoryOf(long productId) {
+        List<String> categories = jdbcTemplate.queryForList(
+                "SELECT category FROM products WHERE id = ?", String.class, productId);
+        return categories.isEmpty() ? null : ProductCategory.valueOf(categories.get(0));
+    }
+
+    private void reject(Entry entry, DataIntegrityViolationException cause) {
+        log.warn("Transaction {} was rejected by the database", entry.id(), cause);
+        transactionService.releaseReservedStock(entry.productId(), entry.quantity());
+        rejected.put(entry.id(), "Transaction " + entry.id() + " could not be stored");
+    }
+
+    private static TransactionDto toDto(Entry entry) {
+        return new TransactionDto(entry.id(), entry.userId(), entry.productId(), entry.quantity(),
+                entry.totalPriceMinor(), entry.createdAt());
+    }
+}
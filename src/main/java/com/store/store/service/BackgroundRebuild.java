@@ -0,0 +1,54 @@
+package com.store.store.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Rebuild penuh sebuah index di satu thread latar belakang, bukan di thread request yang memicunya.
+ * Permintaan yang datang selagi rebuild masih antre digabung menjadi satu; permintaan yang datang
+ * selagi rebuild berjalan memicu tepat satu rebuild lagi, karena scan yang sedang berjalan belum
+ * tentu melihat data yang baru di-commit.
+ */
+@Slf4j
+final class BackgroundRebuild implements AutoCloseable {
+
+    private final String name;
+    private final Runnable rebuild;
+    private final AtomicBoolean requested = new AtomicBoolean();
+    private final ExecutorService executor;
+
+    BackgroundRebuild(String name, Runnable rebuild) {
+        this.name = name;
+        this.rebuild = rebuild;
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, name + "-rebuild");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    void request() {
+        if (requested.compareAndSet(false, true)) {
+            executor.execute(this::run);
+        }
+    }
+
+    private void run() {
+        // Di-reset sebelum scan: commit yang datang setelah titik ini menjadwalkan rebuild berikutnya
+        requested.set(false);
+        try {
+            rebuild.run();
+        } catch (RuntimeException e) {
+            // Index lama tetap dipakai sampai rebuild berikutnya
+            log.warn("Rebuilding {} failed", name, e);
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,105 @@
+package com.store.store.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.store.store.DTO.ProductDto;
+import com.store.store.DTO.ProductPage;
+import com.store.store.event.ProductChangedEvent;
+import com.store.store.event.ProductsImportedEvent;
+import com.store.store.model.ProductCategory;
+import com.store.store.model.ProductSort;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Cache read-through untuk produk per id dan halaman listing per kategori. Dibersihkan
+ * setelah commit lewat {@link ProductChangedEvent}.
+ * Halaman kategori di-key dengan versi kategori: invalidasi cukup menaikkan versi, jadi
+ * halaman yang sedang dimuat bersamaan dengan update tidak pernah terbaca lagi.
+ * Stok di halaman listing bisa tertinggal paling lama TTL; reservasi stok tetap dicek di database.
+ */
+@Component
+public class ProductCache implements MeterBinder {
+
+    private final Cache<Long, ProductDto> products;
+    private final Cache<PageKey, ProductPage> categoryPages;
+    private final AtomicLongArray categoryVersions = new AtomicLongArray(ProductCategory.values().length);
+
+    public ProductCache(@Value("${product-cache.maximum-size:10000}") long maximumSize,
+                        @Value("${product-cache.page-maximum-size:2000}") long pageMaximumSize,
+                        @Value("${product-cache.ttl:10m}") Duration ttl) {
+        this.products = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.categoryPages = Caffeine.newBuilder()
+                .maximumSize(pageMaximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    // Loader boleh mengembalikan null (produk tidak ada); hasil null tidak di-cache
+    public ProductDto getProduct(Long id, Function<Long, ProductDto> loader) {
+        return products.get(id, loader);
+    }
+
+    // Produk yang belum di-cache dimuat sekaligus oleh satu panggilan loader; id yang tidak ada dilewati
+    public Map<Long, ProductDto> getProducts(Collection<Long> ids,
+                                             Function<Set<? extends Long>, Map<Long, ProductDto>> loader) {
+        return products.getAll(ids, loader);
+    }
+
+    public ProductPage getCategoryPage(ProductCategory category, String cursor, int size, ProductSort sort,
+                                       Supplier<ProductPage> loader) {
+        PageKey key = new PageKey(category, categoryVersions.get(category.ordinal()), cursor, size, sort);
+        return categoryPages.get(key, k -> loader.get());
+    }
+
+    public void evictProduct(Long id) {
+        products.invalidate(id);
+    }
+
+    public void evictCategory(ProductCategory category) {
+        long version = categoryVersions.incrementAndGet(category.ordinal());
+        // Versi lama tidak akan dibaca lagi; buang sekarang supaya tidak menunggu TTL
+        categoryPages.asMap().keySet().removeIf(key -> key.category() == category && key.version() < version);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.productId() != null) {
+            evictProduct(event.productId());
+        }
+        event.categories().forEach(this::evictCategory);
+    }
+
+    // Produk baru belum ada di cache per id; cukup halaman listing kategorinya
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsImported(ProductsImportedEvent event) {
+        event.categories().forEach(this::evictCategory);
+    }
+
+    // Hit rate terlihat di /actuator/metrics/cache.gets?tag=cache:products
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, products, "products");
+        CaffeineCacheMetrics.monitor(registry, categoryPages, "product-category-pages");
+    }
+
+    private record PageKey(ProductCategory category, long version, String cursor, int size, ProductSort sort) {
+    }
+}
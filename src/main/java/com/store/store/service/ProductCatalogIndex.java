@@ -0,0 +1,293 @@
+package com.store.store.service;
+
+import com.store.store.DTO.ProductIndexEntry;
+import com.store.store.event.ProductChangedEvent;
+import com.store.store.event.ProductsImportedEvent;
+import com.store.store.model.Money;
+import com.store.store.model.ProductCategory;
+import com.store.store.model.ProductSort;
+import com.store.store.repository.ProductRepository;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Index in-memory produk aktif per kategori: untuk tiap kategori dua array primitif terurut,
+ * (harga, id) dan (id). Query kategori + rentang harga dijawab dengan binary search tanpa
+ * menyentuh database; isi produknya diambil dari {@link ProductCache}.
+ * Harga disimpan dalam sen (long). Setiap kategori adalah snapshot immutable yang diganti
+ * utuh saat ada perubahan, jadi pembaca tidak pernah perlu lock.
+ */
+@Component
+public class ProductCatalogIndex implements DisposableBean {
+
+    private final ProductRepository productRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final BackgroundRebuild importRebuild = new BackgroundRebuild("product-catalog", this::rebuild);
+
+    private final Object rebuildLock = new Object();
+    private volatile Map<ProductCategory, Slice> slices = emptySlices();
+    private volatile boolean ready;
+    // Dijaga this; selama rebuild, perubahan produk dicatat untuk diterapkan ulang ke hasil scan
+    private List<Consumer<Map<ProductCategory, Slice>>> changedDuringRebuild;
+
+    public ProductCatalogIndex(ProductRepository productRepository, PlatformTransactionManager transactionManager) {
+        this.productRepository = productRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Sampai rebuild pertama selesai, ProductService memakai query database. Scan berjalan di luar
+     * lock, jadi listener perubahan produk tidak menunggu; perubahan yang datang selama scan
+     * diterapkan ulang ke hasilnya sebelum dipasang.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            synchronized (this) {
+                changedDuringRebuild = new ArrayList<>();
+            }
+            try {
+                Map<ProductCategory, List<long[]>> rows = new EnumMap<>(ProductCategory.class);
+                readOnlyTransaction.executeWithoutResult(status -> {
+                    try (Stream<ProductIndexEntry> entries = productRepository.streamActiveIndexEntries()) {
+                        entries.forEach(entry -> rows.computeIfAbsent(entry.category(), c -> new ArrayList<>())
+                                .add(new long[]{entry.id(), Money.toMinor(entry.price(), RoundingMode.HALF_UP)}));
+                    }
+                });
+
+                Map<ProductCategory, Slice> rebuilt = emptySlices();
+                rows.forEach((category, entries) -> rebuilt.put(category, Slice.of(entries)));
+                synchronized (this) {
+                    changedDuringRebuild.forEach(change -> change.accept(rebuilt));
+                    slices = rebuilt;
+                    ready = true;
+                }
+            } finally {
+                synchronized (this) {
+                    changedDuringRebuild = null;
+                }
+            }
+        }
+    }
+
+    // Perubahan stok saja (categories kosong) tidak mengubah index
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onProductChanged(ProductChangedEvent event) {
+        if (event.productId() == null || event.categories().isEmpty()) {
+            return;
+        }
+        ProductIndexEntry current = productRepository.findActiveIndexEntry(event.productId()).orElse(null);
+        Consumer<Map<ProductCategory, Slice>> change = target -> apply(target, event, current);
+
+        Map<ProductCategory, Slice> updated = new EnumMap<>(slices);
+        change.accept(updated);
+        slices = updated;
+        if (changedDuringRebuild != null) {
+            changedDuringRebuild.add(change);
+        }
+    }
+
+    // Id produk hasil import tidak diketahui (COPY): index dibangun ulang dari database di thread
+    // latar belakang, supaya request import tidak ikut menunggu scan seluruh katalog
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsImported(ProductsImportedEvent event) {
+        if (ready) {
+            importRebuild.request();
+        }
+    }
+
+    @Override
+    public void destroy() {
+        importRebuild.close();
+    }
+
+    private static void apply(Map<ProductCategory, Slice> target, ProductChangedEvent event,
+                              ProductIndexEntry current) {
+        for (ProductCategory category : event.categories()) {
+            target.put(category, target.get(category).without(event.productId()));
+        }
+        if (current != null) {
+            target.put(current.category(), target.get(current.category()).without(current.id())
+                    .with(current.id(), Money.toMinor(current.price(), RoundingMode.HALF_UP)));
+        }
+    }
+
+    /**
+     * Id produk aktif dengan harga dalam [minPrice, maxPrice] setelah cursor, maksimal limit,
+     * urut sesuai sort. category null = semua kategori.
+     */
+    public List<Long> findIds(ProductCategory category, BigDecimal minPrice, BigDecimal maxPrice,
+                              ProductCursor after, int limit, ProductSort sort) {
+        long min = Money.toMinor(minPrice, RoundingMode.CEILING);
+        long max = Money.toMinor(maxPrice, RoundingMode.FLOOR);
+        long afterPrice = sort == ProductSort.PRICE ? Money.toMinor(after.price(), RoundingMode.HALF_UP) : 0L;
+        Map<ProductCategory, Slice> snapshot = slices;
+
+        if (category != null) {
+            return snapshot.get(category).find(min, max, afterPrice, after.id(), limit, sort).ids();
+        }
+
+        // Tiap kategori menyumbang paling banyak limit kandidat, lalu digabung dan dipotong
+        List<long[]> candidates = new ArrayList<>();
+        for (Slice slice : snapshot.values()) {
+            Matches matches = slice.find(min, max, afterPrice, after.id(), limit, sort);
+            for (int i = 0; i < matches.ids().size(); i++) {
+                candidates.add(new long[]{matches.prices()[i], matches.ids().get(i)});
+            }
+        }
+        candidates.sort(sort == ProductSort.PRICE
+                ? (a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(a[1], b[1])
+                : (a, b) -> Long.compare(a[1], b[1]));
+        return candidates.stream().limit(limit).map(candidate -> candidate[1]).toList();
+    }
+
+    private static Map<ProductCategory, Slice> emptySlices() {
+        Map<ProductCategory, Slice> empty = new EnumMap<>(ProductCategory.class);
+        for (ProductCategory category : ProductCategory.values()) {
+            empty.put(category, Slice.EMPTY);
+        }
+        return empty;
+    }
+
+    private record Matches(List<Long> ids, long[] prices) {
+    }
+
+    /**
+     * Satu kategori: byPrice* terurut (harga, id), byId* terurut id. Immutable.
+     */
+    private static final class Slice {
+
+        static final Slice EMPTY = new Slice(new long[0], new long[0], new long[0], new long[0]);
+
+        private final long[] byPricePrices;
+        private final long[] byPriceIds;
+        private final long[] byIdIds;
+        private final long[] byIdPrices;
+
+        private Slice(long[] byPricePrices, long[] byPriceIds, long[] byIdIds, long[] byIdPrices) {
+            this.byPricePrices = byPricePrices;
+            this.byPriceIds = byPriceIds;
+            this.byIdIds = byIdIds;
+            this.byIdPrices = byIdPrices;
+        }
+
+        // entries: {id, priceCents}
+        static Slice of(List<long[]> entries) {
+            int size = entries.size();
+            long[][] byPrice = entries.toArray(new long[0][]);
+            Arrays.sort(byPrice, (a, b) -> a[1] != b[1] ? Long.compare(a[1], b[1]) : Long.compare(a[0], b[0]));
+            long[][] byId = entries.toArray(new long[0][]);
+            Arrays.sort(byId, (a, b) -> Long.compare(a[0], b[0]));
+
+            long[] byPricePrices = new long[size];
+            long[] byPriceIds = new long[size];
+            long[] byIdIds = new long[size];
+            long[] byIdPrices = new long[size];
+            for (int i = 0; i < size; i++) {
+                byPricePrices[i] = byPrice[i][1];
+                byPriceIds[i] = byPrice[i][0];
+                byIdIds[i] = byId[i][0];
+                byIdPrices[i] = byId[i][1];
+            }
+            return new Slice(byPricePrices, byPriceIds, byIdIds, byIdPrices);
+        }
+
+        // Update per produk: salin array dengan satu elemen dibuang/disisipkan di posisi binary search,
+        // O(n) tanpa sort ulang dan tanpa objek per produk
+        Slice without(long id) {
+            int idPosition = Arrays.binarySearch(byIdIds, id);
+            if (idPosition < 0) {
+                return this;
+            }
+            int pricePosition = firstAfter(byIdPrices[idPosition], id, false);
+            return new Slice(remove(byPricePrices, pricePosition), remove(byPriceIds, pricePosition),
+                    remove(byIdIds, idPosition), remove(byIdPrices, idPosition));
+        }
+
+        Slice with(long id, long priceCents) {
+            int idPosition = Arrays.binarySearch(byIdIds, id);
+            if (idPosition >= 0) {
+                return without(id).with(id, priceCents);
+            }
+            idPosition = -idPosition - 1;
+            int pricePosition = firstAfter(priceCents, id, false);
+            return new Slice(insert(byPricePrices, pricePosition, priceCents), insert(byPriceIds, pricePosition, id),
+                    insert(byIdIds, idPosition, id), insert(byIdPrices, idPosition, priceCents));
+        }
+
+        private static long[] remove(long[] values, int position) {
+            long[] result = new long[values.length - 1];
+            System.arraycopy(values, 0, result, 0, position);
+            System.arraycopy(values, position + 1, result, position, result.length - position);
+            return result;
+        }
+
+        private static long[] insert(long[] values, int position, long value) {
+            long[] result = new long[values.length + 1];
+            System.arraycopy(values, 0, result, 0, position);
+            result[position] = value;
+            System.arraycopy(values, position, result, position + 1, values.length - position);
+            return result;
+        }
+
+        Matches find(long min, long max, long afterPrice, long afterId, int limit, ProductSort sort) {
+            List<Long> ids = new ArrayList<>(Math.min(limit, byIdIds.length));
+            long[] prices = new long[Math.min(limit, byIdIds.length)];
+            if (sort == ProductSort.PRICE) {
+                // Posisi pertama yang >= (min, -inf) dan > (afterPrice, afterId)
+                int start = Math.max(firstAfter(min, Long.MIN_VALUE, false), firstAfter(afterPrice, afterId, true));
+                for (int i = start; i < byPricePrices.length && byPricePrices[i] <= max && ids.size() < limit; i++) {
+                    prices[ids.size()] = byPricePrices[i];
+                    ids.add(byPriceIds[i]);
+                }
+            } else {
+                int position = Arrays.binarySearch(byIdIds, afterId);
+                int start = position >= 0 ? position + 1 : -position - 1;
+                for (int i = start; i < byIdIds.length && ids.size() < limit; i++) {
+                    if (byIdPrices[i] >= min && byIdPrices[i] <= max) {
+                        prices[ids.size()] = byIdPrices[i];
+                        ids.add(byIdIds[i]);
+                    }
+                }
+            }
+            return new Matches(ids, prices);
+        }
+
+        // Binary search pada (harga, id): indeks pertama yang > (strict) atau >= kunci
+        private int firstAfter(long price, long id, boolean strict) {
+            int low = 0;
+            int high = byPricePrices.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                int cmp = byPricePrices[mid] != price ? Long.compare(byPricePrices[mid], price)
+                        : Long.compare(byPriceIds[mid], id);
+                if (cmp < 0 || (strict && cmp == 0)) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.store.store.service;
+
+import com.store.store.DTO.ProductDto;
+import com.store.store.exception.InvalidImportFileException;
+import com.store.store.model.ProductCategory;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+
+/**
+ * CSV (RFC 4180) untuk import produk, dibaca per record langsung dari stream request: field
+ * ber-quote boleh berisi koma, newline dan "" untuk tanda kutip. Record pertama wajib header;
+ * urutan kolom bebas dan namanya tidak peka huruf besar. Field kosong tanpa quote = null.
+ */
+final class ProductCsvReader implements ProductImportService.RowReader {
+
+    // Urutan index di columns
+    private static final List<String> COLUMNS = List.of("name", "description", "price", "stock", "category", "imageurl");
+    private static final int NAME = 0;
+    private static final int DESCRIPTION = 1;
+    private static final int PRICE = 2;
+    private static final int STOCK = 3;
+    private static final int CATEGORY = 4;
+    private static final int IMAGE_URL = 5;
+    private static final List<Integer> REQUIRED = List.of(NAME, PRICE, STOCK, CATEGORY);
+
+    private final Reader reader;
+    private final char[] buffer = new char[8192];
+    private final StringBuilder field = new StringBuilder();
+    private final int[] columns = new int[COLUMNS.size()];
+    private final int fieldCount;
+    private int position;
+    private int limit;
+    private long row;
+
+    ProductCsvReader(Reader reader) throws IOException {
+        this.reader = reader;
+        if (read() != '\uFEFF') {
+            position = Math.max(position - 1, 0); // bukan BOM (dari ekspor Excel): baca ulang karakter ini
+        }
+        List<String> header = nextRecord();
+        if (header == null) {
+            throw new InvalidImportFileException("CSV file is empty, a header row is required");
+        }
+        Arrays.fill(columns, -1);
+        for (int i = 0; i < header.size(); i++) {
+            String name = header.get(i) == null ? "" : header.get(i).trim().replace("_", "").toLowerCase(Locale.ROOT);
+            int column = COLUMNS.indexOf(name);
+            if (column < 0) {
+                throw new InvalidImportFileException("Unknown column '" + header.get(i) + "', expected "
+                        + "name, description, price, stock, category, imageUrl");
+            }
+            if (columns[column] >= 0) {
+                throw new InvalidImportFileException("Duplicate column '" + header.get(i) + "'");
+            }
+            columns[column] = i;
+        }
+        for (int column : REQUIRED) {
+            if (columns[column] < 0) {
+                throw new InvalidImportFileException("Missing required column '" + COLUMNS.get(column) + "'");
+            }
+        }
+        this.fieldCount = header.size();
+    }
+
+    @Override
+    public ProductImportService.Row next() throws IOException {
+        List<String> fields = nextRecord();
+        if (fields == null) {
+            return null;
+        }
+        row++;
+        if (fields.size() != fieldCount) {
+            return new ProductImportService.Row(row, null,
+                    List.of("Expected " + fieldCount + " fields but found " + fields.size()));
+        }
+        List<String> errors = new ArrayList<>(0);
+        ProductDto product = new ProductDto();
+        product.setName(value(fields, NAME));
+        product.setDescription(value(fields, DESCRIPTION));
+        product.setPrice(parse(value(fields, PRICE), BigDecimal::new, "Price must be a number", errors));
+        product.setStock(parse(value(fields, STOCK), Integer::valueOf, "Stock must be a whole number", errors));
+        product.setCategory(parse(value(fields, CATEGORY), v -> ProductCategory.valueOf(v.toUpperCase(Locale.ROOT)),
+                "Unknown category", errors));
+        product.setImageUrl(value(fields, IMAGE_URL));
+        return new ProductImportService.Row(row, errors.isEmpty() ? product : null, errors);
+    }
+
+    private String value(List<String> fields, int column) {
+        return columns[column] < 0 ? null : fields.get(columns[column]);
+    }
+
+    private static <T> T parse(String value, Function<String, T> parser, String error, List<String> errors) {
+        if (value == null || value.isBlank()) {
+            return null; // "... is required" dari validasi ProductDto
+        }
+        try {
+            return parser.apply(value.trim());
+        } catch (IllegalArgumentException e) { // termasuk NumberFormatException
+            errors.add(error + ": " + value);
+            return null;
+        }
+    }
+
+    // Field satu record, null di akhir stream. Baris kosong dilewati, \r di luar quote diabaikan.
+    private List<String> nextRecord() throws IOException {
+        List<String> fields = new ArrayList<>(COLUMNS.size());
+        field.setLength(0);
+        boolean quoted = false;    // field ini diawali tanda kutip
+        boolean inQuotes = false;
+        boolean started = false;   // sudah ada karakter di field ini
+        while (true) {
+            int c = read();
+            if (c == -1) {
+                if (inQuotes) {
+                    throw new InvalidImportFileException("Unterminated quoted field in record " + (row + 1));
+                }
+                if (fields.isEmpty() && !started) {
+                    return null;
+                }
+                fields.add(fieldValue(quoted));
+                return fields;
+            }
+            if (inQuotes) {
+                if (c == '"') {
+                    inQuotes = false;
+                } else {
+                    field.append((char) c);
+                }
+                continue;
+            }
+            switch (c) {
+                case '"' -> {
+                    if (!started) {
+                        quoted = true;
+                        inQuotes = true;
+                        started = true;
+                    } else if (quoted) {
+                        field.append('"'); // "" di dalam field ber-quote
+                        inQuotes = true;
+                    } else {
+                        field.append('"'); // kutip di tengah field tanpa quote: apa adanya
+                    }
+                }
+                case ',' -> {
+                    fields.add(fieldValue(quoted));
+                    field.setLength(0);
+                    quoted = false;
+                    started = false;
+                }
+                case '\n' -> {
+                    if (fields.isEmpty() && !started) {
+                        continue; // baris kosong
+                    }
+                    fields.add(fieldValue(quoted));
+                    return fields;
+                }
+                case '\r' -> {
+                }
+                default -> {
+                    field.append((char) c);
+                    started = true;
+                }
+            }
+        }
+    }
+
+    private String fieldValue(boolean quoted) {
+        return !quoted && field.isEmpty() ? null : field.toString();
+    }
+
+    private int read() throws IOException {
+        if (position == limit) {
+            limit = Math.max(reader.read(buffer, 0, buffer.length), 0);
+            position = 0;
+            if (limit == 0) {
+                return -1;
+            }
+        }
+        return buffer[position++];
+    }
+}
@@ -0,0 +1,50 @@
+package com.store.store.service;
+
+import com.store.store.exception.InvalidCursorException;
+import com.store.store.DTO.ProductDto;
+import com.store.store.model.ProductSort;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Posisi terakhir yang sudah dikirim ke client untuk keyset pagination: (id) atau (price, id).
+ * Dikirim sebagai string base64 yang opaque.
+ */
+record ProductCursor(ProductSort sort, BigDecimal price, long id) {
+
+    // Posisi sebelum baris pertama: id dimulai dari 1 dan harga selalu positif
+    static ProductCursor first(ProductSort sort) {
+        return new ProductCursor(sort, BigDecimal.ONE.negate(), 0L);
+    }
+
+    static ProductCursor after(ProductSort sort, ProductDto product) {
+        return new ProductCursor(sort, product.getPrice(), product.getId());
+    }
+
+    static ProductCursor decode(String cursor, ProductSort sort) {
+        if (cursor == null || cursor.isBlank()) {
+            return first(sort);
+        }
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":");
+            if (sort == ProductSort.ID && parts.length == 2 && parts[0].equals("i")) {
+                return new ProductCursor(sort, null, Long.parseLong(parts[1]));
+            }
+            if (sort == ProductSort.PRICE && parts.length == 3 && parts[0].equals("p")) {
+                return new ProductCursor(sort, new BigDecimal(parts[1]), Long.parseLong(parts[2]));
+            }
+        } catch (IllegalArgumentException e) {
+            // jatuh ke exception di bawah
+        }
+        throw new InvalidCursorException("Invalid cursor for sort " + sort);
+    }
+
+    String encode() {
+        String raw = sort == ProductSort.ID
+                ? "i:" + id
+                : "p:" + price.toPlainString() + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,263 @@
+package com.store.store.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.store.store.DTO.ProductDto;
+import com.store.store.DTO.ProductImportReport;
+import com.store.store.event.ProductsImportedEvent;
+import com.store.store.model.ProductCategory;
+import com.store.store.repository.UserRepository;
+import io.micrometer.core.annotation.Timed;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.DatabaseMetaData;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Import produk massal untuk satu seller dari CSV atau NDJSON (UTF-8). File dibaca per record
+ * langsung dari stream request tanpa ditampung, setiap record divalidasi dengan constraint
+ * {@link ProductDto}, dan record yang valid langsung diteruskan ke database: di PostgreSQL lewat
+ * COPY FROM STDIN, di database lain lewat JDBC batch INSERT. Seller di-resolve sekali per file.
+ * Record yang tidak valid dilewati dan dilaporkan; semua record valid masuk dalam satu transaksi.
+ */
+@Service
+@Timed("store.service") // tag class + method dari TimedAspect
+public class ProductImportService {
+
+    // description dan image_url di tabel products VARCHAR(255), lebih sempit dari constraint ProductDto
+    static final int COLUMN_LENGTH = 255;
+
+    private static final String COPY_SQL = "COPY products (name, description, price, stock, category, image_url, "
+            + "seller_id, active) FROM STDIN WITH (FORMAT csv)";
+    private static final String INSERT_SQL = "INSERT INTO products (name, description, price, stock, category, "
+            + "image_url, seller_id, active) VALUES (?, ?, ?, ?, ?, ?, ?, TRUE)";
+
+    // Sumber record dari satu file; null = akhir file
+    interface RowReader {
+        Row next() throws IOException;
+    }
+
+    // product null jika nilai record tidak bisa dibaca; errors berisi alasannya
+    record Row(long number, ProductDto product, List<String> errors) {
+    }
+
+    private interface RowWriter {
+        void write(ProductDto product) throws IOException;
+    }
+
+    private final UserRepository userRepository;
+    private final Validator validator;
+    private final ObjectReader productJson;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transaction;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean postgres;
+    private final int batchSize;
+    private final int maxReportedErrors;
+
+    public ProductImportService(UserRepository userRepository, Validator validator, ObjectMapper objectMapper,
+                                DataSource dataSource, PlatformTransactionManager transactionManager,
+                                ApplicationEventPublisher eventPublisher,
+                                @Value("${product-import.batch-size:1000}") int batchSize,
+                                @Value("${product-import.max-reported-errors:1000}") int maxReportedErrors)
+            throws MetaDataAccessException {
+        this.userRepository = userRepository;
+        this.validator = validator;
+        this.productJson = objectMapper.readerFor(ProductDto.class);
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.postgres = "PostgreSQL".equals(
+                JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName));
+        this.batchSize = batchSize;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    // Record pertama wajib header: name, description, price, stock, category, imageUrl (urutan bebas)
+    public ProductImportReport importCsv(InputStream body, String sellerUsername) {
+        Long sellerId = sellerId(sellerUsername);
+        try {
+            return importRows(new ProductCsvReader(new InputStreamReader(body, StandardCharsets.UTF_8)), sellerId);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Satu objek ProductDto per baris
+    public ProductImportReport importNdjson(InputStream body, String sellerUsername) {
+        Long sellerId = sellerId(sellerUsername);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8), 1 << 16);
+        return importRows(new ProductNdjsonReader(reader, productJson), sellerId);
+    }
+
+    private Long sellerId(String sellerUsername) {
+        return userRepository.findByUsername(sellerUsername)
+                .orElseThrow(() -> new RuntimeException("Seller not found"))
+                .getId();
+    }
+
+    private ProductImportReport importRows(RowReader rows, Long sellerId) {
+        Progress progress = new Progress(maxReportedErrors);
+        transaction.executeWithoutResult(status -> {
+            if (postgres) {
+                copy(rows, sellerId, progress);
+            } else {
+                insertBatches(rows, sellerId, progress);
+            }
+            if (progress.imported > 0) {
+                eventPublisher.publishEvent(new ProductsImportedEvent(Set.copyOf(progress.categories),
+                        progress.imported));
+            }
+        });
+        return new ProductImportReport(progress.imported, progress.rejected, List.copyOf(progress.errors));
+    }
+
+    // Satu COPY untuk seluruh file: tanpa round trip dan nilai IDENTITY per INSERT
+    private void copy(RowReader rows, Long sellerId, Progress progress) {
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            PGCopyOutputStream copy = new PGCopyOutputStream(connection.unwrap(PGConnection.class), COPY_SQL, 1 << 16);
+            try {
+                Writer out = new OutputStreamWriter(copy, StandardCharsets.UTF_8);
+                StringBuilder line = new StringBuilder(256);
+                forEachValid(rows, progress, product -> {
+                    line.setLength(0);
+                    appendCsv(line, product.getName()).append(',');
+                    appendCsv(line, product.getDescription()).append(',');
+                    line.append(product.getPrice().toPlainString()).append(',')
+                            .append(product.getStock()).append(',')
+                            .append(product.getCategory().name()).append(',');
+                    appendCsv(line, product.getImageUrl()).append(',')
+                            .append(sellerId).append(",t\n");
+                    out.append(line);
+                });
+                out.flush();
+                copy.endCopy();
+            } catch (IOException e) {
+                cancel(copy);
+                throw new UncheckedIOException(e);
+            } catch (RuntimeException e) {
+                cancel(copy);
+                throw e;
+            }
+            return null;
+        });
+    }
+
+    private void insertBatches(RowReader rows, Long sellerId, Progress progress) {
+        List<Object[]> batch = new ArrayList<>(batchSize);
+        try {
+            forEachValid(rows, progress, product -> {
+                batch.add(new Object[]{product.getName(), product.getDescription(), product.getPrice(),
+                        product.getStock(), product.getCategory().name(), product.getImageUrl(), sellerId});
+                if (batch.size() == batchSize) {
+                    jdbcTemplate.batchUpdate(INSERT_SQL, batch);
+                    batch.clear();
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SQL, batch);
+        }
+    }
+
+    private void forEachValid(RowReader rows, Progress progress, RowWriter writer) throws IOException {
+        for (Row row = rows.next(); row != null; row = rows.next()) {
+            List<String> errors = row.errors().isEmpty() ? validate(row.product()) : row.errors();
+            if (errors.isEmpty()) {
+                writer.write(row.product());
+                progress.imported++;
+                progress.categories.add(row.product().getCategory());
+            } else {
+                progress.reject(row.number(), errors);
+            }
+        }
+    }
+
+    private List<String> validate(ProductDto product) {
+        Set<ConstraintViolation<ProductDto>> violations = validator.validate(product);
+        if (!violations.isEmpty()) {
+            return violations.stream().map(ConstraintViolation::getMessage).sorted().toList();
+        }
+        // Lolos constraint DTO tapi tidak muat di kolomnya: satu baris seperti ini menggagalkan seluruh COPY
+        List<String> errors = new ArrayList<>(0);
+        if (product.getDescription() != null && product.getDescription().length() > COLUMN_LENGTH) {
+            errors.add("Description cannot exceed " + COLUMN_LENGTH + " characters");
+        }
+        if (product.getImageUrl() != null && product.getImageUrl().length() > COLUMN_LENGTH) {
+            errors.add("Image URL cannot exceed " + COLUMN_LENGTH + " characters");
+        }
+        return errors;
+    }
+
+    // Selalu di-quote; null = field kosong tanpa quote, yang dibaca COPY sebagai NULL
+    private static StringBuilder appendCsv(StringBuilder line, String value) {
+        if (value == null) {
+            return line;
+        }
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                line.append('"');
+            }
+            line.append(c);
+        }
+        return line.append('"');
+    }
+
+    private static void cancel(PGCopyOutputStream copy) {
+        try {
+            if (copy.isActive()) {
+                copy.cancelCopy();
+            }
+        } catch (Exception ignored) {
+            // Koneksi sudah bermasalah; error aslinya yang dilempar
+        }
+    }
+
+    private static final class Progress {
+
+        private final int maxErrors;
+        private final List<ProductImportReport.RowError> errors = new ArrayList<>();
+        private final Set<ProductCategory> categories = EnumSet.noneOf(ProductCategory.class);
+        private long imported;
+        private long rejected;
+
+        private Progress(int maxErrors) {
+            this.maxErrors = maxErrors;
+        }
+
+        void reject(long row, List<String> messages) {
+            rejected++;
+            if (errors.size() < maxErrors) {
+                errors.add(new ProductImportReport.RowError(row, messages));
+            }
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.store.store.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.store.store.DTO.ProductDto;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * NDJSON untuk import produk: satu objek ProductDto per baris, baris kosong dilewati. Dibaca per
+ * baris supaya JSON yang rusak hanya menggagalkan baris itu, bukan sisa file.
+ */
+final class ProductNdjsonReader implements ProductImportService.RowReader {
+
+    private final BufferedReader reader;
+    private final ObjectReader json;
+    private long line;
+
+    ProductNdjsonReader(BufferedReader reader, ObjectReader json) {
+        this.reader = reader;
+        this.json = json;
+    }
+
+    @Override
+    public ProductImportService.Row next() throws IOException {
+        String text;
+        while ((text = reader.readLine()) != null) {
+            line++;
+            if (text.isBlank()) {
+                continue;
+            }
+            try {
+                return new ProductImportService.Row(line, json.readValue(text), List.of());
+            } catch (JsonProcessingException e) {
+                return new ProductImportService.Row(line, null, List.of("Invalid JSON: " + e.getOriginalMessage()));
+            }
+        }
+        return null;
+    }
+}
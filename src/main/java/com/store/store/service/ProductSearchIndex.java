@@ -0,0 +1,335 @@
+package com.store.store.service;
+
+import com.store.store.DTO.ProductSearchEntry;
+import com.store.store.event.ProductChangedEvent;
+import com.store.store.event.ProductsImportedEvent;
+import com.store.store.model.Money;
+import com.store.store.model.ProductCategory;
+import com.store.store.repository.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.math.RoundingMode;
+import java.sql.DatabaseMetaData;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Inverted index in-memory untuk full-text search produk aktif, dipakai jika database bukan
+ * PostgreSQL (H2 embedded di test) atau product-search.engine=memory. Di PostgreSQL search
+ * memakai tsvector + GIN (V7__product_search.sql) dan index ini tidak pernah dibangun.
+ * Tokenisasi mengikuti konfigurasi 'simple' PostgreSQL: lowercase, dipisah di karakter selain
+ * huruf/angka, tanpa stemming. Skor per term = kemunculan di nama x 1.0 + di deskripsi x 0.4,
+ * bobot A/B yang sama dengan ts_rank (nilainya mendekati, tidak identik).
+ * Seperti {@link ProductCatalogIndex}, snapshot-nya immutable dan diganti utuh saat berubah.
+ */
+@Slf4j
+@Component
+public class ProductSearchIndex implements DisposableBean {
+
+    static final float NAME_WEIGHT = 1.0f;
+    static final float DESCRIPTION_WEIGHT = 0.4f;
+
+    private static final Pattern SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    enum Engine {
+        AUTO, DATABASE, MEMORY
+    }
+
+    record Hit(long id, float rank) {
+    }
+
+    private final ProductRepository productRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final boolean enabled;
+    private final BackgroundRebuild importRebuild = new BackgroundRebuild("product-search", this::rebuild);
+
+    private final Object rebuildLock = new Object();
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+    private volatile boolean ready;
+    // Dijaga this; selama rebuild, dokumen yang berubah dicatat untuk diterapkan ulang ke hasil scan
+    // (nilai null = produk dihapus/tidak aktif)
+    private Map<Long, Document> changedDuringRebuild;
+
+    @Autowired
+    public ProductSearchIndex(ProductRepository productRepository, PlatformTransactionManager transactionManager,
+                              DataSource dataSource, @Value("${product-search.engine:auto}") Engine engine) {
+        this(productRepository, transactionManager, engine == Engine.MEMORY
+                || (engine == Engine.AUTO && !isPostgres(dataSource)));
+    }
+
+    ProductSearchIndex(ProductRepository productRepository, PlatformTransactionManager transactionManager,
+                       boolean enabled) {
+        this.productRepository = productRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.enabled = enabled;
+    }
+
+    // false = search memakai full-text search PostgreSQL
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Scan di luar lock seperti ProductCatalogIndex: perubahan selama scan diterapkan ulang ke hasilnya
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        synchronized (rebuildLock) {
+            synchronized (this) {
+                changedDuringRebuild = new HashMap<>();
+            }
+            try {
+                Map<Long, Document> documents = new HashMap<>();
+                readOnlyTransaction.executeWithoutResult(status -> {
+                    try (Stream<ProductSearchEntry> entries = productRepository.streamActiveSearchEntries()) {
+                        entries.forEach(entry -> documents.put(entry.id(), Document.of(entry)));
+                    }
+                });
+                synchronized (this) {
+                    changedDuringRebuild.forEach((id, document) -> {
+                        if (document == null) {
+                            documents.remove(id);
+                        } else {
+                            documents.put(id, document);
+                        }
+                    });
+                    snapshot = Snapshot.of(documents);
+                    ready = true;
+                }
+            } finally {
+                synchronized (this) {
+                    changedDuringRebuild = null;
+                }
+            }
+        }
+    }
+
+    // Perubahan stok saja (categories kosong) tidak mengubah nama/deskripsi/harga
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onProductChanged(ProductChangedEvent event) {
+        if (!enabled || event.productId() == null || event.categories().isEmpty()
+                || (!ready && changedDuringRebuild == null)) {
+            return;
+        }
+        Document document = productRepository.findActiveSearchEntry(event.productId()).map(Document::of).orElse(null);
+        if (ready) {
+            snapshot = snapshot.replace(event.productId(), document);
+        }
+        if (changedDuringRebuild != null) {
+            changedDuringRebuild.put(event.productId(), document);
+        }
+    }
+
+    // Di thread latar belakang, digabung jika beberapa import selesai berdekatan
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsImported(ProductsImportedEvent event) {
+        if (enabled && ready) {
+            importRebuild.request();
+        }
+    }
+
+    @Override
+    public void destroy() {
+        importRebuild.close();
+    }
+
+    /**
+     * Produk aktif yang mengandung semua {@code terms}, urut rank menurun lalu id, setelah cursor,
+     * maksimal limit. category null = semua kategori; harga dalam sen, batas inklusif.
+     */
+    List<Hit> search(List<String> terms, ProductCategory category, long minPrice, long maxPrice,
+                     SearchCursor after, int limit) {
+        if (!ready) {
+            rebuild(); // test tanpa ApplicationReadyEvent
+        }
+        Snapshot current = snapshot;
+        List<Postings> lists = new ArrayList<>(terms.size());
+        for (String term : terms.stream().distinct().toList()) {
+            Postings postings = current.terms.get(term);
+            if (postings == null) {
+                return List.of();
+            }
+            lists.add(postings);
+        }
+        if (lists.isEmpty()) {
+            return List.of();
+        }
+        // Iterasi list terpendek, term lain dicek dengan binary search
+        lists.sort(Comparator.comparingInt(postings -> postings.ids.length));
+        Postings shortest = lists.get(0);
+
+        List<Hit> hits = new ArrayList<>();
+        candidates:
+        for (int i = 0; i < shortest.ids.length; i++) {
+            long id = shortest.ids[i];
+            float rank = shortest.scores[i];
+            for (int j = 1; j < lists.size(); j++) {
+                float score = lists.get(j).score(id);
+                if (score == 0f) {
+                    continue candidates;
+                }
+                rank += score;
+            }
+            Document document = current.documents.get(id);
+            if ((category == null || document.category == category)
+                    && document.price >= minPrice && document.price <= maxPrice && after.precedes(rank, id)) {
+                hits.add(new Hit(id, rank));
+            }
+        }
+        hits.sort(Comparator.comparingDouble(Hit::rank).reversed().thenComparingLong(Hit::id));
+        return hits.size() > limit ? List.copyOf(hits.subList(0, limit)) : hits;
+    }
+
+    // Term dalam urutan kemunculan, lowercase; sama untuk isi produk dan query
+    static List<String> terms(String text) {
+        if (text == null) {
+            return List.of();
+        }
+        return Arrays.stream(SEPARATOR.split(text.toLowerCase(Locale.ROOT)))
+                .filter(term -> !term.isEmpty())
+                .toList();
+    }
+
+    private static boolean isPostgres(DataSource dataSource) {
+        try {
+            String product = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+            return "PostgreSQL".equals(product);
+        } catch (MetaDataAccessException e) {
+            // Database belum bisa dihubungi saat startup: anggap produksi (PostgreSQL)
+            log.warn("Could not detect database for product search, assuming PostgreSQL", e);
+            return true;
+        }
+    }
+
+    private record Document(ProductCategory category, long price, Map<String, Float> scores) {
+
+        static Document of(ProductSearchEntry entry) {
+            Map<String, Float> scores = new LinkedHashMap<>();
+            for (String term : terms(entry.name())) {
+                scores.merge(term, NAME_WEIGHT, Float::sum);
+            }
+            for (String term : terms(entry.description())) {
+                scores.merge(term, DESCRIPTION_WEIGHT, Float::sum);
+            }
+            return new Document(entry.category(), Money.toMinor(entry.price(), RoundingMode.HALF_UP), scores);
+        }
+    }
+
+    /**
+     * Daftar produk untuk satu term, terurut id, dengan skor term tersebut per produk. Immutable.
+     */
+    private static final class Postings {
+
+        private final long[] ids;
+        private final float[] scores;
+
+        private Postings(long[] ids, float[] scores) {
+            this.ids = ids;
+            this.scores = scores;
+        }
+
+        // 0 jika produk tidak mengandung term ini
+        float score(long id) {
+            int position = Arrays.binarySearch(ids, id);
+            return position >= 0 ? scores[position] : 0f;
+        }
+
+        Postings without(long id) {
+            int position = Arrays.binarySearch(ids, id);
+            if (position < 0) {
+                return this;
+            }
+            long[] newIds = new long[ids.length - 1];
+            float[] newScores = new float[scores.length - 1];
+            System.arraycopy(ids, 0, newIds, 0, position);
+            System.arraycopy(ids, position + 1, newIds, position, ids.length - position - 1);
+            System.arraycopy(scores, 0, newScores, 0, position);
+            System.arraycopy(scores, position + 1, newScores, position, scores.length - position - 1);
+            return new Postings(newIds, newScores);
+        }
+
+        Postings with(long id, float score) {
+            int position = -Arrays.binarySearch(ids, id) - 1;
+            long[] newIds = new long[ids.length + 1];
+            float[] newScores = new float[scores.length + 1];
+            System.arraycopy(ids, 0, newIds, 0, position);
+            System.arraycopy(ids, position, newIds, position + 1, ids.length - position);
+            System.arraycopy(scores, 0, newScores, 0, position);
+            System.arraycopy(scores, position, newScores, position + 1, scores.length - position);
+            newIds[position] = id;
+            newScores[position] = score;
+            return new Postings(newIds, newScores);
+        }
+    }
+
+    private record Snapshot(Map<String, Postings> terms, Map<Long, Document> documents) {
+
+        static final Snapshot EMPTY = new Snapshot(Map.of(), Map.of());
+
+        static Snapshot of(Map<Long, Document> documents) {
+            Map<String, List<Long>> ids = new HashMap<>();
+            documents.keySet().stream().sorted().forEach(id -> {
+                for (String term : documents.get(id).scores.keySet()) {
+                    ids.computeIfAbsent(term, t -> new ArrayList<>()).add(id);
+                }
+            });
+            Map<String, Postings> terms = new HashMap<>();
+            ids.forEach((term, termIds) -> {
+                long[] sortedIds = new long[termIds.size()];
+                float[] scores = new float[termIds.size()];
+                for (int i = 0; i < sortedIds.length; i++) {
+                    sortedIds[i] = termIds.get(i);
+                    scores[i] = documents.get(sortedIds[i]).scores.get(term);
+                }
+                terms.put(term, new Postings(sortedIds, scores));
+            });
+            return new Snapshot(terms, documents);
+        }
+
+        // document null = produk dihapus atau tidak aktif lagi
+        Snapshot replace(long id, Document document) {
+            Map<String, Postings> updatedTerms = new HashMap<>(terms);
+            Map<Long, Document> updatedDocuments = new HashMap<>(documents);
+            Document previous = updatedDocuments.remove(id);
+            if (previous != null) {
+                for (String term : previous.scores.keySet()) {
+                    Postings postings = updatedTerms.get(term).without(id);
+                    if (postings.ids.length == 0) {
+                        updatedTerms.remove(term);
+                    } else {
+                        updatedTerms.put(term, postings);
+                    }
+                }
+            }
+            if (document != null) {
+                updatedDocuments.put(id, document);
+                document.scores.forEach((term, score) -> updatedTerms.merge(term,
+                        new Postings(new long[0], new float[0]).with(id, score),
+                        (existing, added) -> existing.with(id, score)));
+            }
+            return new Snapshot(updatedTerms, updatedDocuments);
+        }
+    }
+}
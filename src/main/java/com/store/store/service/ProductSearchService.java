@@ -0,0 +1,128 @@
+package com.store.store.service;
+
+import com.store.store.DTO.ProductDto;
+import com.store.store.DTO.ProductPage;
+import com.store.store.DTO.ProductSuggestion;
+import com.store.store.exception.InvalidSearchQueryException;
+import com.store.store.model.Money;
+import com.store.store.model.ProductCategory;
+import com.store.store.repository.ProductRepository;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Full-text search produk aktif di nama dan deskripsi, urut relevansi (rank) lalu id, dengan
+ * keyset pagination atas (rank, id). Di PostgreSQL dijawab index GIN tsvector; di database lain
+ * (H2 embedded) oleh {@link ProductSearchIndex}. Query hanya menghasilkan id, isi produknya
+ * diambil dari {@link ProductCache} seperti pencarian rentang harga. Autocomplete nama dijawab
+ * {@link ProductSuggestIndex} tanpa database.
+ */
+@Service
+@Timed("store.service") // tag class + method dari TimedAspect
+public class ProductSearchService {
+    static final int MAX_QUERY_LENGTH = 200;
+    static final int DEFAULT_SUGGEST_LIMIT = 10;
+    static final int MAX_SUGGEST_LIMIT = 20;
+
+    private final ProductRepository productRepository;
+    private final ProductCache productCache;
+    private final ProductSearchIndex searchIndex;
+    private final ProductSuggestIndex suggestIndex;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int maxCandidates;
+
+    public ProductSearchService(ProductRepository productRepository, ProductCache productCache,
+                                ProductSearchIndex searchIndex, ProductSuggestIndex suggestIndex,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${product-search.max-candidates:1000}") int maxCandidates) {
+        this.productRepository = productRepository;
+        this.productCache = productCache;
+        this.searchIndex = searchIndex;
+        this.suggestIndex = suggestIndex;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.maxCandidates = maxCandidates;
+    }
+
+    public ProductPage search(String query, ProductCategory category, BigDecimal minPrice, BigDecimal maxPrice,
+                              String cursor, Integer size) {
+        if (query == null || query.isBlank() || query.length() > MAX_QUERY_LENGTH) {
+            throw new InvalidSearchQueryException("Search query must be between 1 and " + MAX_QUERY_LENGTH
+                    + " characters");
+        }
+        if (minPrice != null && maxPrice != null && minPrice.compareTo(maxPrice) > 0) {
+            throw new InvalidSearchQueryException("minPrice must not be greater than maxPrice");
+        }
+        SearchCursor after = SearchCursor.decode(cursor);
+        int pageSize = ProductService.pageSize(size);
+
+        // Query tanpa huruf/angka (mis. "!!!") tidak cocok dengan apa pun
+        List<String> terms = ProductSearchIndex.terms(query);
+        if (terms.isEmpty()) {
+            return new ProductPage(List.of(), null);
+        }
+
+        if (searchIndex.isEnabled()) {
+            return toPage(searchIndex.search(terms, category,
+                    minPrice == null ? Long.MIN_VALUE : Money.toMinor(minPrice, RoundingMode.CEILING),
+                    maxPrice == null ? Long.MAX_VALUE : Money.toMinor(maxPrice, RoundingMode.FLOOR),
+                    after, pageSize + 1), pageSize, false);
+        }
+        // Kandidat kecocokan nama (bobot A) diambil terpisah supaya tidak tersingkir kecocokan deskripsi
+        String nameTerms = terms.stream().map(term -> term + ":A").collect(Collectors.joining(" & "));
+        List<ProductRepository.SearchHitRow> rows = readOnlyTransaction.execute(status -> {
+            productRepository.forceCustomPlans();
+            return productRepository.searchActive(String.join(" ", terms), nameTerms,
+                    category == null ? null : category.name(), minPrice, maxPrice,
+                    after.rank(), after.id(), maxCandidates, pageSize + 1);
+        });
+        List<ProductSearchIndex.Hit> hits = rows.stream()
+                .map(row -> new ProductSearchIndex.Hit(row.getId(), row.getRank()))
+                .toList();
+        boolean truncated = rows.stream().anyMatch(row -> Boolean.TRUE.equals(row.getTruncated()));
+        return toPage(hits, pageSize, truncated);
+    }
+
+    // Dipanggil per ketikan: prefix terlalu panjang cukup tidak cocok dengan apa pun, bukan error
+    public List<ProductSuggestion> suggest(String prefix, Integer limit) {
+        if (prefix == null || prefix.length() > MAX_QUERY_LENGTH) {
+            return List.of();
+        }
+        int size = limit == null ? DEFAULT_SUGGEST_LIMIT : Math.max(1, Math.min(limit, MAX_SUGGEST_LIMIT));
+        return suggestIndex.suggest(prefix, size);
+    }
+
+    // Satu hit ekstra hanya untuk tahu apakah masih ada halaman berikutnya
+    private ProductPage toPage(List<ProductSearchIndex.Hit> hits, int pageSize, boolean truncated) {
+        List<ProductSearchIndex.Hit> page = hits.subList(0, Math.min(hits.size(), pageSize));
+        // Hasil search jarang sama antar query: produk yang belum di-cache dimuat dengan satu query IN
+        Map<Long, ProductDto> products = productCache.getProducts(
+                page.stream().map(ProductSearchIndex.Hit::id).toList(),
+                ids -> productRepository.findDtosByIdIn(List.copyOf(ids)).stream()
+                        .collect(Collectors.toMap(ProductDto::getId, Function.identity())));
+
+        List<ProductDto> items = new ArrayList<>(page.size());
+        for (ProductSearchIndex.Hit hit : page) {
+            ProductDto product = products.get(hit.id());
+            if (product != null) {
+                items.add(product);
+            }
+        }
+        if (hits.size() <= pageSize) {
+            return new ProductPage(items, null, truncated);
+        }
+        ProductSearchIndex.Hit last = hits.get(pageSize - 1);
+        return new ProductPage(items, new SearchCursor(last.rank(), last.id()).encode(), truncated);
+    }
+}
@@ -2,21 +2,40 @@ package com.store.store.service;
 
 import com.store.store.model.ProductCategory;
 import com.store.store.model.Product;
+import com.store.store.model.ProductSort;
 import com.store.store.model.User;
 import com.store.store.DTO.ProductDto;
+import com.store.store.DTO.ProductPage;
+import com.store.store.event.ProductChangedEvent;
 import com.store.store.repository.ProductRepository;
 import com.store.store.repository.UserRepository;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
+@Timed("store.service") // tag class + method dari TimedAspect
 @RequiredArgsConstructor
 public class ProductService {
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+
     private final ProductRepository productRepository;
     private final UserRepository userRepository;
+    private final ProductCache productCache;
+    private final ProductCatalogIndex catalogIndex;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public Product createProduct(ProductDto productDto, String sellerUsername) {
@@ -33,24 +52,37 @@ public class ProductService {
         product.setSeller(seller);
         product.setActive(true);
 
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        eventPublisher.publishEvent(new ProductChangedEvent(saved.getId(), Set.of(saved.getCategory())));
+        return saved;
     }
 
     @Transactional(readOnly = true)
-    public List<Product> getAllProducts() {
-        return productRepository.findAll();
+    public ProductPage getAllProducts(String cursor, Integer size, ProductSort sort) {
+        ProductCursor after = ProductCursor.decode(cursor, sort);
+        int pageSize = pageSize(size);
+        Limit limit = Limit.of(pageSize + 1);
+
+        List<ProductDto> products = sort == ProductSort.PRICE
+                ? productRepository.findPageOrderByPrice(after.price(), after.id(), limit)
+                : productRepository.findPageOrderById(after.id(), limit);
+        return toPage(products, pageSize, sort);
     }
 
-    @Transactional(readOnly = true)
-    public Product getProductById(Long id) {
-        return productRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Product not found"));
+    // Tanpa @Transactional: cache hit tidak perlu mengambil koneksi database
+    public ProductDto getProductById(Long id) {
+        ProductDto product = productCache.getProduct(id, key -> productRepository.findDtoById(key).orElse(null));
+        if (product == null) {
+            throw new RuntimeException("Product not found");
+        }
+        return product;
     }
 
     @Transactional
     public Product updateProduct(Long id, ProductDto productDto) {
         Product existingProduct = productRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Product not found"));
+        Set<ProductCategory> affectedCategories = EnumSet.of(existingProduct.getCategory(), productDto.getCategory());
 
         existingProduct.setName(productDto.getName());
         existingProduct.setDescription(productDto.getDescription());
@@ -59,7 +91,9 @@ public class ProductService {
         existingProduct.setCategory(productDto.getCategory());
         existingProduct.setImageUrl(productDto.getImageUrl());
 
-        return productRepository.save(existingProduct);
+        Product saved = productRepository.save(existingProduct);
+        eventPublisher.publishEvent(new ProductChangedEvent(id, affectedCategories));
+        return saved;
     }
 
     @Transactional
@@ -67,15 +101,74 @@ public class ProductService {
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Product not found"));
         productRepository.delete(product);
+        eventPublisher.publishEvent(new ProductChangedEvent(id, Set.of(product.getCategory())));
     }
 
-    @Transactional(readOnly = true)
-    public List<Product> getProductsByCategory(ProductCategory category) {
-        return productRepository.findByCategory(category);
+    // Endpoint terpanas: halaman di-cache per (kategori, cursor, size, sort)
+    public ProductPage getProductsByCategory(ProductCategory category, String cursor, Integer size, ProductSort sort) {
+        ProductCursor after = ProductCursor.decode(cursor, sort);
+        int pageSize = pageSize(size);
+        Limit limit = Limit.of(pageSize + 1);
+
+        return productCache.getCategoryPage(category, cursor, pageSize, sort, () -> {
+            List<ProductDto> products = sort == ProductSort.PRICE
+                    ? productRepository.findCategoryPageOrderByPrice(category, after.price(), after.id(), limit)
+                    : productRepository.findCategoryPageOrderById(category, after.id(), limit);
+            return toPage(products, pageSize, sort);
+        });
     }
 
-    @Transactional(readOnly = true)
-    public List<Product> getProductsByPriceRange(BigDecimal minPrice, BigDecimal maxPrice) {
-        return productRepository.findProductsByPriceRange(minPrice, maxPrice);
+    // Dijawab dari index in-memory tanpa query database; sebelum index siap (startup) pakai query biasa
+    public ProductPage getProductsByPriceRange(BigDecimal minPrice, BigDecimal maxPrice, ProductCategory category,
+                                               String cursor, Integer size, ProductSort sort) {
+        ProductCursor after = ProductCursor.decode(cursor, sort);
+        int pageSize = pageSize(size);
+
+        if (catalogIndex.isReady()) {
+            List<Long> ids = catalogIndex.findIds(category, minPrice, maxPrice, after, pageSize + 1, sort);
+            // Produk yang belum di-cache dimuat dengan satu query IN, bukan satu query per id
+            Map<Long, ProductDto> cached = productCache.getProducts(ids,
+                    missing -> productRepository.findDtosByIdIn(List.copyOf(missing)).stream()
+                            .collect(Collectors.toMap(ProductDto::getId, Function.identity())));
+            List<ProductDto> products = new ArrayList<>(ids.size());
+            for (Long id : ids) {
+                ProductDto product = cached.get(id);
+                if (product != null) {
+                    products.add(product);
+                }
+            }
+            return toPage(products, pageSize, sort);
+        }
+
+        Limit limit = Limit.of(pageSize + 1);
+        List<ProductDto> products;
+        if (category == null) {
+            products = sort == ProductSort.PRICE
+                    ? productRepository.findPriceRangePageOrderByPrice(minPrice, maxPrice, after.price(), after.id(), limit)
+                    : productRepository.findPriceRangePageOrderById(minPrice, maxPrice, after.id(), limit);
+        } else {
+            products = sort == ProductSort.PRICE
+                    ? productRepository.findCategoryPriceRangePageOrderByPrice(category, minPrice, maxPrice,
+                            after.price(), after.id(), limit)
+                    : productRepository.findCategoryPriceRangePageOrderById(category, minPrice, maxPrice, after.id(), limit);
+        }
+        return toPage(products, pageSize, sort);
+    }
+
+    static int pageSize(Integer size) {
+        if (size == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
+
+    // Query mengambil satu baris ekstra hanya untuk tahu apakah masih ada halaman berikutnya
+    private static ProductPage toPage(List<ProductDto> products, int pageSize, ProductSort sort) {
+        if (products.size() <= pageSize) {
+            return new ProductPage(products, null);
+        }
+        List<ProductDto> items = products.subList(0, pageSize);
+        String next = ProductCursor.after(sort, items.get(pageSize - 1)).encode();
+        return new ProductPage(new ArrayList<>(items), next);
     }
 }
\ No newline at end of file
@@ -0,0 +1,559 @@
+package com.store.store.service;
+
+import com.store.store.DTO.ProductSuggestion;
+import com.store.store.DTO.SalesTotal;
+import com.store.store.event.ProductChangedEvent;
+import com.store.store.event.ProductsImportedEvent;
+import com.store.store.model.SalesDimension;
+import com.store.store.model.SalesGranularity;
+import com.store.store.repository.ProductRepository;
+import com.store.store.repository.SalesRollupRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Autocomplete nama produk aktif yang seluruhnya dijawab dari memori: request per ketikan tidak
+ * pernah menyentuh database. Setiap awal kata di nama ternormalisasi menjadi satu key dan semua key
+ * diurutkan, jadi key dengan prefix yang sama membentuk satu rentang berurutan (node trie implisit)
+ * yang ditemukan dengan dua binary search. Top-k per rentang diambil dari segment tree argmax atas
+ * bobot penjualan (unit terjual dalam product-suggest.sales-window).
+ * Perubahan produk setelah commit dicatat di overlay kecil dan digabung ke snapshot baru setelah
+ * product-suggest.max-pending perubahan; nama dan bobot dibaca ulang dari database di thread latar
+ * belakang setiap product-suggest.refresh-interval.
+ */
+@Slf4j
+@Component
+public class ProductSuggestIndex implements DisposableBean {
+
+    // Membatasi jumlah key untuk nama yang sangat panjang; kata sesudahnya tidak bisa jadi awal prefix
+    static final int MAX_WORDS_PER_NAME = 8;
+
+    private static final Pattern SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    // Bobot menurun, lalu nama, lalu id: urutan saran yang dikembalikan
+    private static final Comparator<Entry> RANKING = Comparator.comparingLong(Entry::weight).reversed()
+            .thenComparing(Entry::normalized).thenComparingLong(Entry::id);
+
+    private final ProductRepository productRepository;
+    private final SalesRollupRepository salesRollupRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Duration salesWindow;
+    private final Duration refreshInterval;
+    private final int maxPending;
+
+    private final BackgroundRebuild importRebuild = new BackgroundRebuild("product-suggest", this::rebuild);
+
+    private final Object rebuildLock = new Object();
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+    // Selama rebuild overlay tidak digabung: base hasil rebuild belum tentu memuat perubahan tersebut
+    private boolean rebuilding;
+    private boolean compacting;
+    private ScheduledExecutorService refresher;
+
+    public ProductSuggestIndex(ProductRepository productRepository, SalesRollupRepository salesRollupRepository,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${product-suggest.sales-window:30d}") Duration salesWindow,
+                               @Value("${product-suggest.refresh-interval:10m}") Duration refreshInterval,
+                               @Value("${product-suggest.max-pending:1000}") int maxPending) {
+        this.productRepository = productRepository;
+        this.salesRollupRepository = salesRollupRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.salesWindow = salesWindow;
+        this.refreshInterval = refreshInterval;
+        this.maxPending = maxPending;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        rebuild();
+        synchronized (this) {
+            if (refresher != null || refreshInterval.isZero()) {
+                return;
+            }
+            refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "product-suggest-refresh");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long millis = refreshInterval.toMillis();
+            refresher.scheduleWithFixedDelay(this::refresh, millis, millis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Nama produk aktif + penjualan terbaru dari database, lalu snapshot diganti utuh. Dibaca dan
+     * diurutkan di luar lock supaya listener perubahan produk tidak menunggu; overlay yang terkumpul
+     * selama itu tetap dipakai di atas snapshot baru (isinya tidak lebih lama dari hasil baca ini).
+     */
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            synchronized (this) {
+                rebuilding = true;
+            }
+            try {
+                replaceBase();
+            } finally {
+                synchronized (this) {
+                    rebuilding = false;
+                }
+            }
+        }
+    }
+
+    private void replaceBase() {
+        LocalDateTime to = LocalDateTime.now();
+        Map<Long, Long> sales = new HashMap<>();
+        List<Entry> entries = new ArrayList<>();
+        readOnlyTransaction.executeWithoutResult(status -> {
+            for (SalesTotal total : salesRollupRepository.findTotals(SalesDimension.PRODUCT, SalesGranularity.DAY,
+                    SalesGranularity.DAY.bucketStart(to.minus(salesWindow)), to)) {
+                sales.put(Long.parseLong(total.key()), total.units());
+            }
+            try (Stream<ProductSuggestion> suggestions = productRepository.streamActiveSuggestions()) {
+                suggestions.forEach(suggestion -> entries.add(Entry.of(suggestion, sales)));
+            }
+        });
+        Base base = Base.of(entries);
+        synchronized (this) {
+            Map<Long, Entry> pending = new HashMap<>();
+            snapshot.pending.forEach((id, entry) -> pending.put(id, entry == null ? null
+                    : entry.withWeight(sales.getOrDefault(id, 0L))));
+            snapshot = new Snapshot(base, pending, Map.copyOf(sales));
+        }
+    }
+
+    // Perubahan stok saja (categories kosong) tidak mengubah nama atau status aktif. Juga dicatat
+    // sebelum rebuild pertama selesai, karena hasil bacanya mungkin belum memuat perubahan ini.
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onProductChanged(ProductChangedEvent event) {
+        if (event.productId() == null || event.categories().isEmpty()) {
+            return;
+        }
+        Snapshot current = snapshot;
+        Entry entry = productRepository.findActiveSuggestion(event.productId())
+                .map(suggestion -> Entry.of(suggestion, current.sales))
+                .orElse(null);
+        // HashMap karena nilai null = produk dihapus/tidak aktif
+        Map<Long, Entry> pending = new HashMap<>(current.pending);
+        pending.put(event.productId(), entry);
+        snapshot = new Snapshot(current.base, pending, current.sales);
+        if (pending.size() > maxPending && !rebuilding && !compacting) {
+            compacting = true;
+            // Menggabung ke jutaan key butuh ratusan ms: di thread refresh, bukan di thread penulis produk
+            if (refresher != null) {
+                refresher.execute(this::compact);
+            } else {
+                compact();
+            }
+        }
+    }
+
+    // Id produk hasil import tidak diketahui (COPY): dibaca ulang seluruhnya di thread latar belakang,
+    // digabung jika beberapa import selesai berdekatan
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsImported(ProductsImportedEvent event) {
+        importRebuild.request();
+    }
+
+    // Overlay digabung ke base baru; perubahan yang datang selama penggabungan tetap di overlay
+    private void compact() {
+        Snapshot from = snapshot;
+        Base merged;
+        try {
+            merged = Base.merge(from.base, from.pending);
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                compacting = false;
+            }
+            throw e;
+        }
+        synchronized (this) {
+            compacting = false;
+            Snapshot current = snapshot;
+            if (rebuilding || current.base != from.base) {
+                return; // base sudah diganti rebuild, overlay-nya tetap dipakai
+            }
+            Map<Long, Entry> pending = new HashMap<>();
+            current.pending.forEach((id, entry) -> {
+                if (!from.pending.containsKey(id) || from.pending.get(id) != entry) {
+                    pending.put(id, entry);
+                }
+            });
+            snapshot = new Snapshot(merged, pending, current.sales);
+        }
+    }
+
+    /**
+     * Maksimal limit produk aktif yang salah satu katanya diawali prefix (tidak peka huruf besar dan
+     * tanda baca), urut unit terjual menurun lalu nama. Kosong jika prefix tidak berisi huruf/angka.
+     */
+    public List<ProductSuggestion> suggest(String prefix, int limit) {
+        String normalized = normalize(prefix);
+        if (normalized.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        Snapshot current = snapshot;
+        List<Entry> candidates = current.base.top(normalized, limit, current.pending.keySet());
+        for (Entry entry : current.pending.values()) {
+            if (entry != null && entry.matches(normalized)) {
+                candidates.add(entry);
+            }
+        }
+        return candidates.stream()
+                .sorted(RANKING)
+                .limit(limit)
+                .map(entry -> new ProductSuggestion(entry.id(), entry.name()))
+                .toList();
+    }
+
+    // Lowercase, setiap deretan karakter selain huruf/angka menjadi satu spasi
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        return SEPARATOR.matcher(text.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    private void refresh() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            // Snapshot lama tetap dipakai, dicoba lagi di interval berikutnya
+            log.warn("Could not refresh product suggestions", e);
+        }
+    }
+
+    @Override
+    public synchronized void destroy() {
+        importRebuild.close();
+        if (refresher != null) {
+            refresher.shutdownNow();
+        }
+    }
+
+    private record Entry(long id, String name, String normalized, int[] wordStarts, long weight) {
+
+        static Entry of(ProductSuggestion suggestion, Map<Long, Long> sales) {
+            String normalized = normalize(suggestion.name());
+            List<Integer> starts = new ArrayList<>();
+            for (int i = 0; i < normalized.length() && starts.size() < MAX_WORDS_PER_NAME; i++) {
+                if (i == 0 || normalized.charAt(i - 1) == ' ') {
+                    starts.add(i);
+                }
+            }
+            return new Entry(suggestion.id(), suggestion.name(), normalized,
+                    starts.stream().mapToInt(Integer::intValue).toArray(),
+                    sales.getOrDefault(suggestion.id(), 0L));
+        }
+
+        Entry withWeight(long weight) {
+            return new Entry(id, name, normalized, wordStarts, weight);
+        }
+
+        boolean matches(String prefix) {
+            for (int start : wordStarts) {
+                if (normalized.startsWith(prefix, start)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Key terurut yang disimpan sebagai (entry, offset awal kata) ke nama ternormalisasi, tanpa
+     * salinan substring, plus segment tree berukuran 2n berisi posisi key dengan bobot terbesar.
+     * Immutable.
+     */
+    private static final class Base {
+
+        static final Base EMPTY = of(List.of());
+
+        private final Entry[] entries;
+        private final int[] keyEntry;
+        private final int[] keyOffset;
+        private final int[] tree;
+
+        private Base(Entry[] entries, int[] keyEntry, int[] keyOffset) {
+            this.entries = entries;
+            this.keyEntry = keyEntry;
+            this.keyOffset = keyOffset;
+            int n = keyEntry.length;
+            this.tree = new int[2 * n];
+            for (int i = 0; i < n; i++) {
+                tree[n + i] = i;
+            }
+            for (int i = n - 1; i > 0; i--) {
+                tree[i] = better(tree[2 * i], tree[2 * i + 1]);
+            }
+        }
+
+        static Base of(Collection<Entry> collection) {
+            Entry[] entries = collection.toArray(Entry[]::new);
+            int[][] keys = sortedKeys(entries, 0);
+            return new Base(entries, keys[0], keys[1]);
+        }
+
+        /**
+         * Produk base kecuali yang di-override, ditambah overlay. Key lama sudah terurut, jadi hanya
+         * key dari overlay yang diurutkan lalu digabung linear, tanpa mengurutkan ulang semuanya.
+         */
+        static Base merge(Base base, Map<Long, Entry> pending) {
+            List<Entry> kept = new ArrayList<>(base.entries.length + pending.size());
+            int[] remap = new int[base.entries.length];
+            for (int e = 0; e < base.entries.length; e++) {
+                remap[e] = pending.containsKey(base.entries[e].id()) ? -1 : kept.size();
+                if (remap[e] >= 0) {
+                    kept.add(base.entries[e]);
+                }
+            }
+            int keptCount = kept.size();
+            pending.values().stream().filter(entry -> entry != null).forEach(kept::add);
+            Entry[] entries = kept.toArray(Entry[]::new);
+            int[][] added = sortedKeys(entries, keptCount);
+
+            int count = added[0].length;
+            for (int key = 0; key < base.keyEntry.length; key++) {
+                count += remap[base.keyEntry[key]] >= 0 ? 1 : 0;
+            }
+            int[] keyEntry = new int[count];
+            int[] keyOffset = new int[count];
+            int oldKey = 0;
+            int newKey = 0;
+            for (int key = 0; key < count; key++) {
+                while (oldKey < base.keyEntry.length && remap[base.keyEntry[oldKey]] < 0) {
+                    oldKey++;
+                }
+                boolean takeOld = oldKey < base.keyEntry.length && (newKey == added[0].length
+                        || compareRegions(base.entries[base.keyEntry[oldKey]].normalized(), base.keyOffset[oldKey],
+                        entries[added[0][newKey]].normalized(), added[1][newKey]) <= 0);
+                if (takeOld) {
+                    keyEntry[key] = remap[base.keyEntry[oldKey]];
+                    keyOffset[key] = base.keyOffset[oldKey];
+                    oldKey++;
+                } else {
+                    keyEntry[key] = added[0][newKey];
+                    keyOffset[key] = added[1][newKey];
+                    newKey++;
+                }
+            }
+            return new Base(entries, keyEntry, keyOffset);
+        }
+
+        // {entry, offset} terurut untuk setiap awal kata di entries[from..]
+        private static int[][] sortedKeys(Entry[] entries, int from) {
+            int count = 0;
+            for (int e = from; e < entries.length; e++) {
+                count += entries[e].wordStarts().length;
+            }
+            int[] order = new int[count];
+            int[] unsortedEntry = new int[count];
+            int[] unsortedOffset = new int[count];
+            int key = 0;
+            for (int e = from; e < entries.length; e++) {
+                for (int start : entries[e].wordStarts()) {
+                    order[key] = key;
+                    unsortedEntry[key] = e;
+                    unsortedOffset[key] = start;
+                    key++;
+                }
+            }
+            sortByChars(order, 0, count, 0, entries, unsortedEntry, unsortedOffset);
+            int[] keyEntry = new int[count];
+            int[] keyOffset = new int[count];
+            for (int i = 0; i < count; i++) {
+                keyEntry[i] = unsortedEntry[order[i]];
+                keyOffset[i] = unsortedOffset[order[i]];
+            }
+            return new int[][]{keyEntry, keyOffset};
+        }
+
+        /**
+         * MSD sort dua karakter per tingkat: order[lo..hi) diurutkan dengan sort primitif atas
+         * (dua karakter mulai depth, nomor key) lalu hanya kelompok yang dua karakternya sama yang
+         * diturunkan. Sort dengan comparator atas jutaan key jauh lebih lambat (boxing, akses acak).
+         * Hasilnya sama dengan urutan compareRegions karena karakter 0 tidak pernah ada di nama
+         * ternormalisasi dan dipakai sebagai penanda akhir key.
+         */
+        private static void sortByChars(int[] order, int lo, int hi, int depth, Entry[] entries,
+                                        int[] entryOf, int[] offsetOf) {
+            if (hi - lo <= 16) {
+                // Kelompok kecil: insertion sort, dua karakter per tingkat tidak sebanding biayanya
+                for (int i = lo + 1; i < hi; i++) {
+                    int key = order[i];
+                    int j = i;
+                    while (j > lo && compareRegions(entries[entryOf[order[j - 1]]].normalized(), offsetOf[order[j - 1]],
+                            entries[entryOf[key]].normalized(), offsetOf[key]) > 0) {
+                        order[j] = order[j - 1];
+                        j--;
+                    }
+                    order[j] = key;
+                }
+                return;
+            }
+            long[] packed = new long[hi - lo];
+            for (int i = lo; i < hi; i++) {
+                int key = order[i];
+                String normalized = entries[entryOf[key]].normalized();
+                int at = offsetOf[key] + depth;
+                long chars = (long) charAt(normalized, at) << 16 | charAt(normalized, at + 1);
+                // Bit tanda dibalik supaya sort signed = urutan unsigned karakter
+                packed[i - lo] = (chars << 32 | key) ^ Long.MIN_VALUE;
+            }
+            Arrays.sort(packed);
+            for (int i = lo; i < hi; i++) {
+                order[i] = (int) packed[i - lo];
+            }
+            int runStart = lo;
+            for (int i = lo + 1; i <= hi; i++) {
+                if (i < hi && packed[i - lo] >>> 32 == packed[runStart - lo] >>> 32) {
+                    continue;
+                }
+                // Karakter kedua 0 = key sudah habis, isi kelompok identik
+                if (i - runStart > 1 && (packed[runStart - lo] >>> 32 & 0xFFFF) != 0) {
+                    sortByChars(order, runStart, i, depth + 2, entries, entryOf, offsetOf);
+                }
+                runStart = i;
+            }
+        }
+
+        private static char charAt(String text, int index) {
+            return index < text.length() ? text.charAt(index) : 0;
+        }
+
+        // Kandidat terbaik di rentang prefix; produk di excluded (ada di overlay) dilewati
+        List<Entry> top(String prefix, int limit, Set<Long> excluded) {
+            List<Entry> result = new ArrayList<>(limit);
+            int lo = lowerBound(prefix);
+            int hi = upperBound(prefix, lo);
+            if (lo >= hi) {
+                return result;
+            }
+            // Rentang {lo, hi, posisi terbaik}; rentang yang terbaiknya lebih baik keluar lebih dulu
+            PriorityQueue<int[]> queue = new PriorityQueue<>(
+                    (a, b) -> a[2] == b[2] ? 0 : better(a[2], b[2]) == a[2] ? -1 : 1);
+            queue.add(new int[]{lo, hi, argmax(lo, hi)});
+            Set<Long> seen = new HashSet<>();
+            while (!queue.isEmpty() && result.size() < limit) {
+                int[] range = queue.poll();
+                int best = range[2];
+                Entry entry = entries[keyEntry[best]];
+                // Satu nama bisa cocok lewat beberapa kata ("java java")
+                if (!excluded.contains(entry.id()) && seen.add(entry.id())) {
+                    result.add(entry);
+                }
+                if (range[0] < best) {
+                    queue.add(new int[]{range[0], best, argmax(range[0], best)});
+                }
+                if (best + 1 < range[1]) {
+                    queue.add(new int[]{best + 1, range[1], argmax(best + 1, range[1])});
+                }
+            }
+            return result;
+        }
+
+        // Posisi key pertama yang >= prefix
+        private int lowerBound(String prefix) {
+            int lo = 0;
+            int hi = keyEntry.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (compareRegions(entries[keyEntry[mid]].normalized(), keyOffset[mid], prefix, 0) < 0) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+
+        // Posisi key pertama setelah from yang tidak diawali prefix
+        private int upperBound(String prefix, int from) {
+            int lo = from;
+            int hi = keyEntry.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (entries[keyEntry[mid]].normalized().startsWith(prefix, keyOffset[mid])) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+
+        // Posisi key dengan bobot terbesar di [lo, hi)
+        private int argmax(int lo, int hi) {
+            int n = keyEntry.length;
+            int best = -1;
+            for (lo += n, hi += n; lo < hi; lo >>= 1, hi >>= 1) {
+                if ((lo & 1) == 1) {
+                    best = better(best, tree[lo++]);
+                }
+                if ((hi & 1) == 1) {
+                    best = better(best, tree[--hi]);
+                }
+            }
+            return best;
+        }
+
+        // Bobot lebih besar menang; seri = posisi lebih kecil (urutan alfabet key)
+        private int better(int a, int b) {
+            if (a < 0) {
+                return b;
+            }
+            long weightA = entries[keyEntry[a]].weight();
+            long weightB = entries[keyEntry[b]].weight();
+            if (weightA != weightB) {
+                return weightA > weightB ? a : b;
+            }
+            return Math.min(a, b);
+        }
+
+        private static int compareRegions(String a, int offsetA, String b, int offsetB) {
+            int lengthA = a.length() - offsetA;
+            int lengthB = b.length() - offsetB;
+            int length = Math.min(lengthA, lengthB);
+            for (int i = 0; i < length; i++) {
+                char charA = a.charAt(offsetA + i);
+                char charB = b.charAt(offsetB + i);
+                if (charA != charB) {
+                    return charA - charB;
+                }
+            }
+            return lengthA - lengthB;
+        }
+    }
+
+    private record Snapshot(Base base, Map<Long, Entry> pending, Map<Long, Long> sales) {
+
+        static final Snapshot EMPTY = new Snapshot(Base.EMPTY, Map.of(), Map.of());
+    }
+}
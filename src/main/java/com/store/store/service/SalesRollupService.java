@@ -0,0 +1,165 @@
+package com.store.store.service;
+
+import com.store.store.DTO.SalesBucket;
+import com.store.store.DTO.SalesTotal;
+import com.store.store.model.Product;
+import com.store.store.model.ProductCategory;
+import com.store.store.model.SalesDimension;
+import com.store.store.model.SalesGranularity;
+import com.store.store.model.Transaction;
+import com.store.store.repository.SalesRollupRepository;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Memelihara sales_rollups secara inkremental: setiap perubahan transaksi menjadi delta
+ * (unit, revenue, jumlah transaksi) yang di-upsert ke bucket jam dan hari untuk produk,
+ * seller dan kategorinya. Upsert dikirim sebagai satu JDBC batch di transaksi pemanggil,
+ * jadi rollup selalu konsisten dengan tabel transactions.
+ */
+@Service
+public class SalesRollupService {
+
+    private static final String POSTGRES_UPSERT = "INSERT INTO sales_rollups "
+            + "(dimension, dimension_key, granularity, bucket_start, units, revenue_minor, transaction_count) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?) "
+            + "ON CONFLICT (dimension, dimension_key, granularity, bucket_start) DO UPDATE SET "
+            + "units = sales_rollups.units + EXCLUDED.units, "
+            + "revenue_minor = sales_rollups.revenue_minor + EXCLUDED.revenue_minor, "
+            + "transaction_count = sales_rollups.transaction_count + EXCLUDED.transaction_count";
+
+    // MERGE standar SQL untuk database lain (H2 di test)
+    private static final String MERGE_UPSERT = "MERGE INTO sales_rollups r USING (VALUES "
+            + "(CAST(? AS VARCHAR(16)), CAST(? AS VARCHAR(64)), CAST(? AS VARCHAR(8)), CAST(? AS TIMESTAMP), "
+            + "CAST(? AS BIGINT), CAST(? AS BIGINT), CAST(? AS BIGINT))) "
+            + "AS d (dimension, dimension_key, granularity, bucket_start, units, revenue_minor, transaction_count) "
+            + "ON r.dimension = d.dimension AND r.dimension_key = d.dimension_key "
+            + "AND r.granularity = d.granularity AND r.bucket_start = d.bucket_start "
+            + "WHEN MATCHED THEN UPDATE SET units = r.units + d.units, "
+            + "revenue_minor = r.revenue_minor + d.revenue_minor, "
+            + "transaction_count = r.transaction_count + d.transaction_count "
+            + "WHEN NOT MATCHED THEN INSERT "
+            + "(dimension, dimension_key, granularity, bucket_start, units, revenue_minor, transaction_count) "
+            + "VALUES (d.dimension, d.dimension_key, d.granularity, d.bucket_start, d.units, d.revenue_minor, "
+            + "d.transaction_count)";
+
+    private static final Comparator<RollupKey> LOCK_ORDER = Comparator
+            .comparing(RollupKey::dimension)
+            .thenComparing(RollupKey::key)
+            .thenComparing(RollupKey::granularity)
+            .thenComparing(RollupKey::bucketStart);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SalesRollupRepository salesRollupRepository;
+    private final boolean postgres;
+
+    public SalesRollupService(DataSource dataSource, SalesRollupRepository salesRollupRepository)
+            throws MetaDataAccessException {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.salesRollupRepository = salesRollupRepository;
+        this.postgres = "PostgreSQL".equals(
+                JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName));
+    }
+
+    /**
+     * Perubahan penjualan untuk satu produk pada satu waktu; nilai negatif untuk transaksi
+     * yang dihapus atau versi lama transaksi yang di-update.
+     */
+    public record SaleDelta(Long productId, Long sellerId, ProductCategory category, LocalDateTime createdAt,
+                            long units, long revenueMinor, long transactions) {
+
+        public static SaleDelta added(Transaction transaction) {
+            return of(transaction, 1);
+        }
+
+        public static SaleDelta removed(Transaction transaction) {
+            return of(transaction, -1);
+        }
+
+        // Kategori dari transaksinya (saat penjualan), bukan dari produk yang kategorinya bisa sudah diubah;
+        // seller produk tidak pernah berubah
+        private static SaleDelta of(Transaction transaction, int sign) {
+            Product product = transaction.getProduct();
+            return new SaleDelta(product.getId(), product.getSeller().getId(), transaction.getCategory(),
+                    transaction.getCreatedAt(), sign * (long) transaction.getQuantity(),
+                    sign * transaction.getTotalPriceMinor(), sign);
+        }
+    }
+
+    // Harus dipanggil di dalam transaksi yang sama dengan perubahan transaksinya
+    public void apply(List<SaleDelta> deltas) {
+        // Delta untuk baris yang sama digabung; urutan tetap supaya lock baris rollup selalu diambil
+        // dengan urutan yang sama dan dua transaksi paralel tidak saling deadlock
+        Map<RollupKey, long[]> rows = new TreeMap<>(LOCK_ORDER);
+        for (SaleDelta delta : deltas) {
+            for (SalesGranularity granularity : SalesGranularity.values()) {
+                LocalDateTime bucketStart = granularity.bucketStart(delta.createdAt());
+                add(rows, new RollupKey(SalesDimension.PRODUCT, delta.productId().toString(), granularity, bucketStart), delta);
+                add(rows, new RollupKey(SalesDimension.SELLER, delta.sellerId().toString(), granularity, bucketStart), delta);
+                add(rows, new RollupKey(SalesDimension.CATEGORY, delta.category().name(), granularity, bucketStart), delta);
+            }
+        }
+
+        List<Object[]> batch = new ArrayList<>(rows.size());
+        rows.forEach((key, totals) -> {
+            // Misal update yang tidak mengubah apa pun di bucket yang sama
+            if (totals[0] != 0 || totals[1] != 0 || totals[2] != 0) {
+                batch.add(new Object[]{key.dimension().name(), key.key(), key.granularity().name(),
+                        Timestamp.valueOf(key.bucketStart()), totals[0], totals[1], totals[2]});
+            }
+        });
+        if (batch.isEmpty()) {
+            return;
+        }
+        if (postgres) {
+            jdbcTemplate.batchUpdate(POSTGRES_UPSERT, batch);
+            return;
+        }
+        // Per baris: MERGE tidak atomik terhadap INSERT paralel untuk bucket baru, jadi baris yang
+        // kalah balapan diulang sekali (sekarang barisnya sudah ada dan jatuh ke WHEN MATCHED)
+        for (Object[] row : batch) {
+            try {
+                jdbcTemplate.update(MERGE_UPSERT, row);
+            } catch (DuplicateKeyException e) {
+                jdbcTemplate.update(MERGE_UPSERT, row);
+            }
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public List<SalesBucket> getBuckets(SalesDimension dimension, String key, SalesGranularity granularity,
+                                        LocalDateTime from, LocalDateTime to) {
+        return salesRollupRepository.findBuckets(dimension, key, granularity, from, to);
+    }
+
+    @Transactional(readOnly = true)
+    public List<SalesTotal> getTotals(SalesDimension dimension, SalesGranularity granularity,
+                                      LocalDateTime from, LocalDateTime to) {
+        return salesRollupRepository.findTotals(dimension, granularity, from, to);
+    }
+
+    private static void add(Map<RollupKey, long[]> rows, RollupKey key, SaleDelta delta) {
+        long[] totals = rows.computeIfAbsent(key, k -> new long[3]);
+        totals[0] += delta.units();
+        totals[1] += delta.revenueMinor();
+        totals[2] += delta.transactions();
+    }
+
+    private record RollupKey(SalesDimension dimension, String key, SalesGranularity granularity,
+                             LocalDateTime bucketStart) {
+    }
+}
@@ -0,0 +1,47 @@
+package com.store.store.service;
+
+import com.store.store.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Posisi terakhir hasil search untuk keyset pagination: (rank, id), urut rank menurun lalu id.
+ * Rank ditulis apa adanya (Float.toString bolak-balik tanpa kehilangan presisi), jadi
+ * perbandingan {@code rank = :afterRank} di halaman berikutnya tetap tepat.
+ */
+record SearchCursor(float rank, long id) {
+
+    // Posisi sebelum hasil pertama: semua rank lebih kecil dari tak hingga
+    static SearchCursor first() {
+        return new SearchCursor(Float.POSITIVE_INFINITY, 0L);
+    }
+
+    static SearchCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return first();
+        }
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":");
+            if (parts.length == 3 && parts[0].equals("r")) {
+                float rank = Float.parseFloat(parts[1]);
+                if (!Float.isNaN(rank)) {
+                    return new SearchCursor(rank, Long.parseLong(parts[2]));
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            // jatuh ke exception di bawah
+        }
+        throw new InvalidCursorException("Invalid search cursor");
+    }
+
+    // true jika (rank, id) berada setelah cursor ini dalam urutan hasil
+    boolean precedes(float otherRank, long otherId) {
+        return otherRank < rank || (otherRank == rank && otherId > id);
+    }
+
+    String encode() {
+        String raw = "r:" + rank + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
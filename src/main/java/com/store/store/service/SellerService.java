@@ -0,0 +1,44 @@
+package com.store.store.service;
+
+import com.store.store.DTO.SellerSummary;
+import com.store.store.exception.UserNotFoundException;
+import com.store.store.model.Money;
+import com.store.store.repository.ProductRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Service
+public class SellerService {
+
+    static final int DEFAULT_WINDOW_DAYS = 30;
+
+    private final ProductRepository productRepository;
+    private final SellerSummaryCache sellerSummaryCache;
+
+    public SellerService(ProductRepository productRepository, SellerSummaryCache sellerSummaryCache) {
+        this.productRepository = productRepository;
+        this.sellerSummaryCache = sellerSummaryCache;
+    }
+
+    /**
+     * Jumlah produk dan nilai stok saat ini, plus unit terjual dan revenue dalam [from, to).
+     * Tanpa parameter, jendela default 30 hari sampai akhir hari ini; batasnya dibulatkan ke
+     * hari supaya request berulang mendapat key cache yang sama.
+     */
+    @Transactional(readOnly = true)
+    public SellerSummary getSummary(String username, LocalDateTime from, LocalDateTime to) {
+        LocalDateTime windowTo = to != null ? to : LocalDate.now().plusDays(1).atStartOfDay();
+        LocalDateTime windowFrom = from != null ? from : windowTo.minusDays(DEFAULT_WINDOW_DAYS);
+        return sellerSummaryCache.get(username, windowFrom, windowTo, () -> {
+            ProductRepository.SellerSummaryRow row = productRepository.summarizeSeller(username, windowFrom, windowTo);
+            if (row.getSellerId() == null) {
+                throw new UserNotFoundException("Seller not found");
+            }
+            return new SellerSummary(username, windowFrom, windowTo, row.getProductCount(),
+                    Money.toMinor(row.getStockValue()), row.getUnitsSold(), row.getRevenueMinor());
+        });
+    }
+}
@@ -0,0 +1,47 @@
+package com.store.store.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.store.store.DTO.SellerSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.function.Supplier;
+
+/**
+ * Cache ringkasan dashboard per seller dan jendela waktu. Tidak ada invalidasi: angka boleh
+ * tertinggal paling lama TTL (default 30 detik), cukup untuk meredam refresh dashboard berulang.
+ */
+@Component
+public class SellerSummaryCache implements MeterBinder {
+
+    private final Cache<Key, SellerSummary> summaries;
+
+    public SellerSummaryCache(@Value("${seller-summary-cache.maximum-size:10000}") long maximumSize,
+                              @Value("${seller-summary-cache.ttl:30s}") Duration ttl) {
+        this.summaries = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    // Exception dari loader (seller tidak ada) tidak di-cache
+    public SellerSummary get(String username, LocalDateTime from, LocalDateTime to, Supplier<SellerSummary> loader) {
+        return summaries.get(new Key(username, from, to), key -> loader.get());
+    }
+
+    // Hit rate terlihat di /actuator/metrics/cache.gets?tag=cache:seller-summaries
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, summaries, "seller-summaries");
+    }
+
+    private record Key(String username, LocalDateTime from, LocalDateTime to) {
+    }
+}
@@ -0,0 +1,176 @@
+package com.store.store.service;
+
+import com.store.store.DTO.ProductPrice;
+import com.store.store.DTO.TransactionBatchResult;
+import com.store.store.DTO.TransactionBatchResult.Status;
+import com.store.store.DTO.TransactionDto;
+import com.store.store.event.ProductChangedEvent;
+import com.store.store.exception.BatchTooLargeException;
+import com.store.store.model.Money;
+import com.store.store.model.Product;
+import com.store.store.model.Transaction;
+import com.store.store.model.User;
+import com.store.store.repository.ProductRepository;
+import com.store.store.repository.TransactionRepository;
+import com.store.store.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Ingest banyak transaksi dalam satu request: produk dan user di-resolve dengan satu query IN,
+ * stok direservasi per produk (bukan per item), lalu INSERT dikirim lewat JDBC batch.
+ * Item yang gagal tidak membatalkan item lain; hasilnya dilaporkan per item.
+ */
+@Service
+public class TransactionBatchService {
+    private final TransactionRepository transactionRepository;
+    private final ProductRepository productRepository;
+    private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SalesRollupService salesRollupService;
+    private final int maxItems;
+
+    public TransactionBatchService(TransactionRepository transactionRepository,
+                                   ProductRepository productRepository,
+                                   UserRepository userRepository,
+                                   ApplicationEventPublisher eventPublisher,
+                                   SalesRollupService salesRollupService,
+                                   @Value("${transactions.batch.max-items:5000}") int maxItems) {
+        this.transactionRepository = transactionRepository;
+        this.productRepository = productRepository;
+        this.userRepository = userRepository;
+        this.eventPublisher = eventPublisher;
+        this.salesRollupService = salesRollupService;
+        this.maxItems = maxItems;
+    }
+
+    @Transactional
+    public List<TransactionBatchResult> createTransactions(List<TransactionDto> items) {
+        if (items.size() > maxItems) {
+            throw new BatchTooLargeException("Batch cannot exceed " + maxItems + " items");
+        }
+
+        TransactionBatchResult[] results = new TransactionBatchResult[items.size()];
+        Set<Long> productIds = new HashSet<>();
+        Set<Long> userIds = new HashSet<>();
+        for (int i = 0; i < items.size(); i++) {
+            TransactionDto item = items.get(i);
+            if (item.getProductId() == null || item.getUserId() == null
+                    || item.getQuantity() == null || item.getQuantity() <= 0) {
+                results[i] = rejected(i, Status.INVALID, "userId, productId and a positive quantity are required");
+                continue;
+            }
+            productIds.add(item.getProductId());
+            userIds.add(item.getUserId());
+        }
+
+        Map<Long, ProductPrice> products = productIds.isEmpty() ? Map.of()
+                : productRepository.findPricesByIdIn(productIds).stream()
+                        .collect(Collectors.toMap(ProductPrice::id, product -> product));
+        // Harga satuan dikonversi ke minor unit sekali per produk; per item cukup perkalian long
+        Map<Long, Long> unitPrices = new HashMap<>();
+        products.forEach((id, product) -> unitPrices.put(id, Money.toMinor(product.price())));
+        Set<Long> existingUsers = userIds.isEmpty() ? Set.of()
+                : new HashSet<>(userRepository.findExistingIds(userIds));
+
+        // Kelompokkan item yang valid per produk; TreeMap supaya lock baris produk selalu diambil
+        // dengan urutan id yang sama dan dua batch paralel tidak saling deadlock
+        Map<Long, List<Integer>> itemsByProduct = new TreeMap<>();
+        for (int i = 0; i < items.size(); i++) {
+            if (results[i] != null) {
+                continue;
+            }
+            TransactionDto item = items.get(i);
+            if (!unitPrices.containsKey(item.getProductId())) {
+                results[i] = rejected(i, Status.PRODUCT_NOT_FOUND, "Product not found with ID: " + item.getProductId());
+            } else if (!existingUsers.contains(item.getUserId())) {
+                results[i] = rejected(i, Status.USER_NOT_FOUND, "User not found with ID: " + item.getUserId());
+            } else {
+                itemsByProduct.computeIfAbsent(item.getProductId(), id -> new ArrayList<>()).add(i);
+            }
+        }
+
+        List<Integer> reserved = new ArrayList<>();
+        itemsByProduct.forEach((productId, indexes) -> reserved.addAll(reserve(productId, indexes, items, results)));
+        reserved.sort(null);
+
+        LocalDateTime now = LocalDateTime.now();
+        // Proxy saja, tanpa SELECT: INSERT hanya butuh FK
+        Map<Long, Product> productReferences = new HashMap<>();
+        List<Transaction> transactions = new ArrayList<>(reserved.size());
+        List<SalesRollupService.SaleDelta> sales = new ArrayList<>(reserved.size());
+        for (int index : reserved) {
+            TransactionDto item = items.get(index);
+            long totalPriceMinor = Money.multiply(unitPrices.get(item.getProductId()), item.getQuantity());
+
+            Transaction transaction = new Transaction();
+            transaction.setUser(new User(item.getUserId()));
+            transaction.setProduct(
+                    productReferences.computeIfAbsent(item.getProductId(), productRepository::getReferenceById));
+            ProductPrice product = products.get(item.getProductId());
+            transaction.setCategory(product.category());
+            transaction.setQuantity(item.getQuantity());
+            transaction.setTotalPriceMinor(totalPriceMinor);
+            transaction.setCreatedAt(now);
+            transactions.add(transaction);
+
+            sales.add(new SalesRollupService.SaleDelta(product.id(), product.sellerId(), product.category(), now,
+                    item.getQuantity(), totalPriceMinor, 1));
+        }
+
+        // Id sudah dialokasikan dari sequence saat persist; INSERT-nya di-batch saat flush
+        List<Transaction> saved = transactionRepository.saveAll(transactions);
+        // Semua item jatuh di bucket yang sama: paling banyak 6 baris rollup per produk
+        salesRollupService.apply(sales);
+        for (int i = 0; i < saved.size(); i++) {
+            Transaction transaction = saved.get(i);
+            int index = reserved.get(i);
+            results[index] = new TransactionBatchResult(index, Status.CREATED,
+                    new TransactionDto(transaction.getId(), items.get(index).getUserId(), items.get(index).getProductId(),
+                            transaction.getQuantity(), transaction.getTotalPriceMinor(), transaction.getCreatedAt()),
+                    null);
+        }
+        return List.of(results);
+    }
+
+    // Coba reservasi total kebutuhan produk sekaligus; jika stok tidak cukup, reservasi per item
+    // sesuai urutan request sampai stok habis
+    private List<Integer> reserve(Long productId, List<Integer> indexes, List<TransactionDto> items,
+                                  TransactionBatchResult[] results) {
+        long total = indexes.stream().mapToLong(i -> items.get(i).getQuantity()).sum();
+        if (total <= Integer.MAX_VALUE && productRepository.reserveStock(productId, (int) total) > 0) {
+            eventPublisher.publishEvent(new ProductChangedEvent(productId, Set.of()));
+            return indexes;
+        }
+
+        List<Integer> reserved = new ArrayList<>();
+        for (int index : indexes) {
+            if (productRepository.reserveStock(productId, items.get(index).getQuantity()) > 0) {
+                reserved.add(index);
+            } else {
+                results[index] = rejected(index, Status.INSUFFICIENT_STOCK,
+                        "Insufficient stock for product ID: " + productId);
+            }
+        }
+        if (!reserved.isEmpty()) {
+            eventPublisher.publishEvent(new ProductChangedEvent(productId, Set.of()));
+        }
+        return reserved;
+    }
+
+    private static TransactionBatchResult rejected(int index, Status status, String error) {
+        return new TransactionBatchResult(index, status, null, error);
+    }
+}
@@ -0,0 +1,154 @@
+package com.store.store.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.store.store.model.Money;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Export transaksi baris per baris langsung ke response. Query dijalankan di dalam transaksi
+ * read-only dengan fetch size, sehingga driver Postgres memakai cursor dan heap tetap konstan
+ * berapa pun jumlah barisnya.
+ */
+@Service
+public class TransactionExportService {
+
+    public enum Format {
+        NDJSON(MediaType.parseMediaType("application/x-ndjson"), "ndjson"),
+        CSV(MediaType.parseMediaType("text/csv"), "csv");
+
+        private final MediaType mediaType;
+        private final String extension;
+
+        Format(MediaType mediaType, String extension) {
+            this.mediaType = mediaType;
+            this.extension = extension;
+        }
+
+        public MediaType getMediaType() {
+            return mediaType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        // Parameter ?format= tidak case-sensitive (ndjson, CSV, ...), lihat WebConfig
+        public static Format parse(String value) {
+            for (Format format : values()) {
+                if (format.name().equalsIgnoreCase(value.trim())) {
+                    return format;
+                }
+            }
+            throw new IllegalArgumentException("Unknown export format: " + value);
+        }
+    }
+
+    private static final String CSV_HEADER = "id,userId,productId,quantity,totalPrice,createdAt\n";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    public TransactionExportService(DataSource dataSource,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${transactions.export.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    public void export(Format format, LocalDateTime from, LocalDateTime to, OutputStream out) throws IOException {
+        List<Object> params = new ArrayList<>();
+        StringBuilder sql = new StringBuilder(
+                "SELECT id, user_id, product_id, quantity, total_price_minor, created_at FROM transactions WHERE 1 = 1");
+        if (from != null) {
+            sql.append(" AND created_at >= ?");
+            params.add(from);
+        }
+        if (to != null) {
+            sql.append(" AND created_at < ?");
+            params.add(to);
+        }
+        sql.append(" ORDER BY id");
+
+        try {
+            if (format == Format.CSV) {
+                Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+                writer.write(CSV_HEADER);
+                stream(sql.toString(), params, rs -> writeCsvRow(rs, writer));
+                writer.flush();
+            } else {
+                JsonGenerator generator = jsonFactory.createGenerator(out);
+                generator.setRootValueSeparator(null);
+                stream(sql.toString(), params, rs -> writeJsonRow(rs, generator));
+                generator.flush();
+            }
+        } catch (UncheckedIOException e) {
+            // Biasanya client memutus koneksi di tengah export
+            throw e.getCause();
+        }
+    }
+
+    private void stream(String sql, List<Object> params, RowWriter rowWriter) {
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.query(sql, rs -> {
+            try {
+                rowWriter.write(rs);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, params.toArray()));
+    }
+
+    private static void writeJsonRow(ResultSet rs, JsonGenerator generator) throws SQLException, IOException {
+        generator.writeStartObject();
+        generator.writeNumberField("id", rs.getLong(1));
+        generator.writeNumberField("userId", rs.getLong(2));
+        generator.writeNumberField("productId", rs.getLong(3));
+        generator.writeNumberField("quantity", rs.getInt(4));
+        generator.writeFieldName("totalPrice");
+        generator.writeNumber(Money.format(rs.getLong(5)));
+        generator.writeStringField("createdAt", rs.getObject(6, LocalDateTime.class).toString());
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+
+    private static void writeCsvRow(ResultSet rs, Writer writer) throws SQLException, IOException {
+        writer.write(Long.toString(rs.getLong(1)));
+        writer.write(',');
+        writer.write(Long.toString(rs.getLong(2)));
+        writer.write(',');
+        writer.write(Long.toString(rs.getLong(3)));
+        writer.write(',');
+        writer.write(Integer.toString(rs.getInt(4)));
+        writer.write(',');
+        writer.write(Money.format(rs.getLong(5)));
+        writer.write(',');
+        writer.write(rs.getObject(6, LocalDateTime.class).toString());
+        writer.write('\n');
+    }
+
+    @FunctionalInterface
+    private interface RowWriter {
+        void write(ResultSet rs) throws SQLException, IOException;
+    }
+}
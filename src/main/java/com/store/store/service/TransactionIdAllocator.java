@@ -0,0 +1,32 @@
+package com.store.store.service;
+
+import com.store.store.model.Transaction;
+import jakarta.persistence.EntityManager;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+
+/**
+ * Mengambil id transaksi dari generator Hibernate yang sama dengan {@link Transaction}
+ * (sequence pooled), sebelum baris-nya di-INSERT. Dengan begitu id yang dibagikan ke client
+ * async tidak pernah bentrok dengan id yang dialokasikan saat persist biasa.
+ * Harus dipanggil di dalam transaksi.
+ */
+@Component
+public class TransactionIdAllocator {
+
+    private final EntityManager entityManager;
+
+    public TransactionIdAllocator(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    public long next() {
+        SharedSessionContractImplementor session = entityManager.unwrap(SharedSessionContractImplementor.class);
+        EntityPersister persister = session.getFactory().getMappingMetamodel().getEntityDescriptor(Transaction.class);
+        BeforeExecutionGenerator generator = (BeforeExecutionGenerator) persister.getGenerator();
+        return (Long) generator.generate(session, null, null, EventType.INSERT);
+    }
+}
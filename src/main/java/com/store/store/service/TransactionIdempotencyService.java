@@ -0,0 +1,224 @@
+package com.store.store.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.store.store.DTO.TransactionDto;
+import com.store.store.exception.IdempotencyKeyInProgressException;
+import com.store.store.exception.IdempotencyKeyMismatchException;
+import com.store.store.exception.InvalidIdempotencyKeyException;
+import com.store.store.exception.TransactionOutcomeUnknownException;
+import com.store.store.model.IdempotencyKey;
+import com.store.store.repository.IdempotencyKeyRepository;
+import com.store.store.repository.TransactionRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.LongConsumer;
+
+/**
+ * Idempotency-Key untuk pembuatan transaksi. Key yang sedang berjalan atau baru saja selesai
+ * disimpan di map in-memory per node (Caffeine di atas ConcurrentHashMap, lock per bin):
+ * duplikat yang datang bersamaan menunggu satu eksekusi yang sama, retry cukup lookup map.
+ * Antar node, primary key tabel idempotency_keys memastikan hanya satu yang mengeksekusi;
+ * id transaksinya dicatat di transaksi database yang sama dengan INSERT/reservasi pesanan.
+ * Eksekusi yang gagal melepas key-nya, jadi client boleh mengulang dengan key yang sama; kecuali
+ * jika hasilnya tidak diketahui (log async gagal sync), retry mendapat pesanan yang sudah diterima.
+ */
+@Service
+public class TransactionIdempotencyService implements MeterBinder {
+
+    static final int MAX_KEY_LENGTH = 255;
+
+    public record Response(HttpStatus status, TransactionDto transaction) {
+    }
+
+    private record Key(String username, String idempotencyKey) {
+    }
+
+    private record Outcome(String fingerprint, Response response) {
+    }
+
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final TransactionRepository transactionRepository;
+    private final AsyncTransactionService asyncTransactionService;
+    private final TransactionTemplate transactionTemplate;
+    private final Cache<Key, CompletableFuture<Outcome>> recent;
+    private final Duration retention;
+    private final Duration abandonedAfter;
+    private final AtomicLong nextPurge = new AtomicLong();
+
+    public TransactionIdempotencyService(IdempotencyKeyRepository idempotencyKeyRepository,
+                                         TransactionRepository transactionRepository,
+                                         AsyncTransactionService asyncTransactionService,
+                                         PlatformTransactionManager transactionManager,
+                                         @Value("${idempotency.local-window:10m}") Duration localWindow,
+                                         @Value("${idempotency.local-maximum-size:100000}") long localMaximumSize,
+                                         @Value("${idempotency.retention:24h}") Duration retention,
+                                         @Value("${idempotency.abandoned-after:1m}") Duration abandonedAfter) {
+        this.idempotencyKeyRepository = idempotencyKeyRepository;
+        this.transactionRepository = transactionRepository;
+        this.asyncTransactionService = asyncTransactionService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.recent = Caffeine.newBuilder()
+                .maximumSize(localMaximumSize)
+                .expireAfterWrite(localWindow)
+                .recordStats()
+                .build();
+        this.retention = retention;
+        this.abandonedAfter = abandonedAfter;
+    }
+
+    /**
+     * Menjalankan {@code action} paling banyak sekali per (username, key). Action menerima
+     * callback yang wajib dipanggil dengan id transaksi di dalam transaksi database-nya.
+     */
+    public Response execute(String username, String idempotencyKey, TransactionDto request,
+                            Function<LongConsumer, Response> action) {
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new InvalidIdempotencyKeyException(
+                    "Idempotency-Key must be between 1 and " + MAX_KEY_LENGTH + " characters");
+        }
+        Key key = new Key(username, idempotencyKey);
+        String fingerprint = fingerprint(request);
+
+        CompletableFuture<Outcome> execution = new CompletableFuture<>();
+        CompletableFuture<Outcome> existing = recent.asMap().putIfAbsent(key, execution);
+        if (existing != null) {
+            return replay(existing, fingerprint);
+        }
+        try {
+            Outcome outcome = executeOnce(key, fingerprint, request, action);
+            execution.complete(outcome);
+            return outcome.response();
+        } catch (RuntimeException e) {
+            // Duplikat yang sedang menunggu mendapat error yang sama; retry berikutnya mengeksekusi ulang
+            recent.asMap().remove(key, execution);
+            execution.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    // Hit rate terlihat di /actuator/metrics/cache.gets?tag=cache:idempotency-keys
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, recent, "idempotency-keys");
+    }
+
+    private Outcome executeOnce(Key key, String fingerprint, TransactionDto request,
+                                Function<LongConsumer, Response> action) {
+        purgeExpired();
+        // Presisi mikrodetik sama dengan kolom TIMESTAMP(6), supaya bisa dipakai sebagai token klaim
+        LocalDateTime claimedAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        Optional<Outcome> stored = claim(key, fingerprint, request, claimedAt);
+        if (stored.isPresent()) {
+            return stored.get();
+        }
+        try {
+            Response response = action.apply(transactionId -> {
+                if (idempotencyKeyRepository.complete(key.username(), key.idempotencyKey(), claimedAt,
+                        transactionId) != 1) {
+                    // Key diambil alih node lain: batalkan transaksi ini daripada membuat duplikat
+                    throw new IdempotencyKeyInProgressException("Idempotency-Key was reclaimed by another request");
+                }
+            });
+            return new Outcome(fingerprint, response);
+        } catch (TransactionOutcomeUnknownException e) {
+            // Reservasi dan complete() sudah ter-commit, pesanannya bisa muncul lagi dari log: key tetap
+            // terikat ke id transaksinya supaya retry mendapat pesanan itu, bukan reservasi kedua
+            throw e;
+        } catch (RuntimeException e) {
+            transactionTemplate.executeWithoutResult(status ->
+                    idempotencyKeyRepository.release(key.username(), key.idempotencyKey(), claimedAt));
+            throw e;
+        }
+    }
+
+    // Kosong jika key ini berhasil diklaim dan action harus dijalankan
+    private Optional<Outcome> claim(Key key, String fingerprint, TransactionDto request, LocalDateTime now) {
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    idempotencyKeyRepository.claim(key.username(), key.idempotencyKey(), fingerprint, now));
+            return Optional.empty();
+        } catch (DataIntegrityViolationException e) {
+            // Sudah dipakai: oleh node lain, atau di node ini sebelum jendela in-memory habis
+        }
+
+        IdempotencyKey row = idempotencyKeyRepository.findById(new IdempotencyKey.Key(key.username(), key.idempotencyKey()))
+                .orElseThrow(() -> new IdempotencyKeyInProgressException("Idempotency-Key is being released, retry"));
+        boolean expired = row.getCreatedAt().isBefore(now.minus(retention));
+        if (!expired && !row.getRequestFingerprint().equals(fingerprint)) {
+            throw mismatch();
+        }
+        if (!expired && row.getTransactionId() != null) {
+            return Optional.of(new Outcome(fingerprint, storedResponse(row.getTransactionId(), request)));
+        }
+        Integer reclaimed = transactionTemplate.execute(status -> idempotencyKeyRepository.reclaim(key.username(),
+                key.idempotencyKey(), fingerprint, now, now.minus(abandonedAfter), now.minus(retention)));
+        if (reclaimed == null || reclaimed == 0) {
+            throw new IdempotencyKeyInProgressException("A request with this Idempotency-Key is still in progress");
+        }
+        return Optional.empty();
+    }
+
+    // Hasil dari eksekusi di node lain (atau sebelum restart): dibaca ulang dari database / writer async
+    private Response storedResponse(long transactionId, TransactionDto request) {
+        Optional<TransactionDto> pending = asyncTransactionService.findPending(transactionId);
+        if (pending.isPresent()) {
+            return new Response(HttpStatus.ACCEPTED, pending.get());
+        }
+        return transactionRepository.findDtoById(transactionId)
+                .map(transaction -> new Response(HttpStatus.CREATED, transaction))
+                // Diterima node lain dan belum ditulis writer-nya
+                .orElseGet(() -> new Response(HttpStatus.ACCEPTED, new TransactionDto(transactionId,
+                        request.getUserId(), request.getProductId(), request.getQuantity(), null, null)));
+    }
+
+    private static Response replay(CompletableFuture<Outcome> existing, String fingerprint) {
+        Outcome outcome;
+        try {
+            outcome = existing.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        if (!outcome.fingerprint().equals(fingerprint)) {
+            throw mismatch();
+        }
+        return outcome.response();
+    }
+
+    // Paling sering sekali per menit per node; index created_at membuat DELETE ini murah
+    private void purgeExpired() {
+        long now = System.currentTimeMillis();
+        long next = nextPurge.get();
+        if (now >= next && nextPurge.compareAndSet(next, now + Duration.ofMinutes(1).toMillis())) {
+            transactionTemplate.executeWithoutResult(status ->
+                    idempotencyKeyRepository.deleteExpired(LocalDateTime.now().minus(retention)));
+        }
+    }
+
+    private static String fingerprint(TransactionDto request) {
+        return request.getUserId() + ":" + request.getProductId() + ":" + request.getQuantity();
+    }
+
+    private static IdempotencyKeyMismatchException mismatch() {
+        return new IdempotencyKeyMismatchException("Idempotency-Key was already used for a different request");
+    }
+}
@@ -1,14 +1,21 @@
 package com.store.store.service;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.function.LongConsumer;
 
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.store.store.DTO.TransactionDto;
+import com.store.store.event.ProductChangedEvent;
+import com.store.store.exception.InsufficientStockException;
+import com.store.store.exception.InvalidQuantityException;
+import com.store.store.model.Money;
 import com.store.store.model.Product;
 import com.store.store.model.Transaction;
 import com.store.store.model.User;
@@ -16,51 +23,83 @@ import com.store.store.repository.ProductRepository;
 import com.store.store.repository.TransactionRepository;
 
 @Service
+@Timed("store.service") // tag class + method dari TimedAspect
 public class TransactionService {
     private final TransactionRepository transactionRepository;
     private final ProductRepository productRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SalesRollupService salesRollupService;
 
     @Autowired
-    public TransactionService(TransactionRepository transactionRepository, ProductRepository productRepository) {
+    public TransactionService(TransactionRepository transactionRepository, ProductRepository productRepository,
+                              ApplicationEventPublisher eventPublisher, SalesRollupService salesRollupService) {
         this.transactionRepository = transactionRepository;
         this.productRepository = productRepository;
+        this.eventPublisher = eventPublisher;
+        this.salesRollupService = salesRollupService;
     }
 
     public List<TransactionDto> getAllTransactions() {
-        List<Transaction> transactions = transactionRepository.findAll();
-        return transactions.stream()
-                .map(this::mapToDTO)
-                .collect(Collectors.toList());
+        return transactionRepository.findAllDtos();
     }
 
+    @Transactional
     public TransactionDto createTransaction(TransactionDto transactionDto) {
+        return createTransaction(transactionDto, id -> { });
+    }
+
+    // onStored dijalankan di transaksi database yang sama dengan INSERT-nya (mis. menandai Idempotency-Key)
+    @Transactional
+    public TransactionDto createTransaction(TransactionDto transactionDto, LongConsumer onStored) {
+        Transaction savedTransaction = transactionRepository.save(reserveTransaction(transactionDto));
+        salesRollupService.apply(List.of(SalesRollupService.SaleDelta.added(savedTransaction)));
+        onStored.accept(savedTransaction.getId());
+        return mapToDTO(savedTransaction);
+    }
+
+    /**
+     * Validasi dan reservasi stok tanpa menyimpan transaksinya; dipakai langsung oleh
+     * createTransaction dan oleh jalur async yang menulis transaksinya belakangan.
+     */
+    @Transactional
+    public Transaction reserveTransaction(TransactionDto transactionDto) {
+        requirePositiveQuantity(transactionDto.getQuantity());
+
         // Ambil produk berdasarkan productId
         Product product = productRepository.findById(transactionDto.getProductId())
                 .orElseThrow(() -> new RuntimeException("Product not found with ID: " + transactionDto.getProductId()));
 
-        // Ubah quantity menjadi BigDecimal dan hitung total price
-        BigDecimal quantity = new BigDecimal(transactionDto.getQuantity());
-        BigDecimal totalPrice = product.getPrice().multiply(quantity);  // Perkalian BigDecimal
+        reserveStock(product.getId(), transactionDto.getQuantity());
+
+        // Hitung total price dalam minor unit (exact, tanpa double)
+        long totalPriceMinor = Money.multiply(Money.toMinor(product.getPrice()), transactionDto.getQuantity());
 
         // Buat transaksi baru
         Transaction transaction = new Transaction();
         transaction.setUser(new User(transactionDto.getUserId()));
         transaction.setProduct(product);
+        transaction.setCategory(product.getCategory());
         transaction.setQuantity(transactionDto.getQuantity()); // Simpan quantity dalam Integer
-        transaction.setTotalPrice(totalPrice.doubleValue());  // Simpan totalPrice sebagai Double
+        transaction.setTotalPriceMinor(totalPriceMinor);
         transaction.setCreatedAt(LocalDateTime.now());
+        return transaction;
+    }
 
-        Transaction savedTransaction = transactionRepository.save(transaction);
-        return mapToDTO(savedTransaction);
+    // Kompensasi untuk reservasi yang transaksinya tidak jadi ditulis
+    @Transactional
+    public void releaseReservedStock(Long productId, int quantity) {
+        releaseStock(productId, quantity);
     }
 
     public TransactionDto getTransactionById(Long id) {
-        Transaction transaction = transactionRepository.findById(id)
+        return transactionRepository.findDtoById(id)
                 .orElseThrow(() -> new RuntimeException("Transaction not found with ID: " + id));
-        return mapToDTO(transaction);
     }
 
+    @Transactional
     public TransactionDto updateTransaction(Long id, TransactionDto transactionDto) {
+        requirePositiveQuantity(transactionDto.getQuantity());
+
         Transaction existingTransaction = transactionRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Transaction not found with ID: " + id));
 
@@ -68,37 +107,77 @@ public class TransactionService {
         Product product = productRepository.findById(transactionDto.getProductId())
                 .orElseThrow(() -> new RuntimeException("Product not found with ID: " + transactionDto.getProductId()));
 
+        // Versi lama dikurangkan dari rollup sebelum entity diubah (produk, jumlah dan bucket bisa berbeda)
+        SalesRollupService.SaleDelta removed = SalesRollupService.SaleDelta.removed(existingTransaction);
+
+        // Sesuaikan reservasi: produk sama cukup selisihnya, produk beda kembalikan stok lama lalu reservasi baru
+        Long previousProductId = existingTransaction.getProduct().getId();
+        int previousQuantity = existingTransaction.getQuantity();
+        if (previousProductId.equals(product.getId())) {
+            int delta = transactionDto.getQuantity() - previousQuantity;
+            if (delta > 0) {
+                reserveStock(product.getId(), delta);
+            } else if (delta < 0) {
+                releaseStock(product.getId(), -delta);
+            }
+        } else {
+            releaseStock(previousProductId, previousQuantity);
+            reserveStock(product.getId(), transactionDto.getQuantity());
+        }
+
         // Update transaksi
         existingTransaction.setUser(new User(transactionDto.getUserId()));
         existingTransaction.setProduct(product);
+        existingTransaction.setCategory(product.getCategory());
         existingTransaction.setQuantity(transactionDto.getQuantity());
 
         // Hitung ulang total price
-        BigDecimal quantity = BigDecimal.valueOf(transactionDto.getQuantity());
-        BigDecimal totalPrice = product.getPrice().multiply(quantity);
-        existingTransaction.setTotalPrice(totalPrice.doubleValue());
-        existingTransaction.setTotalPrice(totalPrice.doubleValue());
+        existingTransaction.setTotalPriceMinor(
+                Money.multiply(Money.toMinor(product.getPrice()), transactionDto.getQuantity()));
 
         existingTransaction.setCreatedAt(LocalDateTime.now());
 
         // Simpan transaksi yang telah di-update
         Transaction updatedTransaction = transactionRepository.save(existingTransaction);
+        salesRollupService.apply(List.of(removed, SalesRollupService.SaleDelta.added(updatedTransaction)));
         return mapToDTO(updatedTransaction);
     }
 
+    @Transactional
     public void deleteTransaction(Long id) {
         Transaction transaction = transactionRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Transaction not found with ID: " + id));
+        releaseStock(transaction.getProduct().getId(), transaction.getQuantity());
+        salesRollupService.apply(List.of(SalesRollupService.SaleDelta.removed(transaction)));
         transactionRepository.delete(transaction);
     }
 
+    private void reserveStock(Long productId, int quantity) {
+        if (productRepository.reserveStock(productId, quantity) == 0) {
+            throw new InsufficientStockException("Insufficient stock for product ID: " + productId);
+        }
+        // Stok berubah: entry cache produk ini dibuang setelah commit
+        eventPublisher.publishEvent(new ProductChangedEvent(productId, Set.of()));
+    }
+
+    private void releaseStock(Long productId, int quantity) {
+        productRepository.releaseStock(productId, quantity);
+        eventPublisher.publishEvent(new ProductChangedEvent(productId, Set.of()));
+    }
+
+    private static void requirePositiveQuantity(Integer quantity) {
+        if (quantity == null || quantity <= 0) {
+            throw new InvalidQuantityException("Quantity must be greater than 0");
+        }
+    }
+
     private TransactionDto mapToDTO(Transaction transaction) {
         TransactionDto dto = new TransactionDto();
         dto.setId(transaction.getId());
         dto.setUserId(transaction.getUser().getId());
         dto.setProductId(transaction.getProduct().getId());
         dto.setQuantity(transaction.getQuantity());
-        dto.setTotalPrice(transaction.getTotalPrice());
+        dto.setTotalPriceMinor(transaction.getTotalPriceMinor());
         dto.setCreatedAt(transaction.getCreatedAt());
         return dto;
     }}
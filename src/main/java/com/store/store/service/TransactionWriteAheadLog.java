@@ -0,0 +1,328 @@
+package com.store.store.service;
+
+import com.store.store.model.ProductCategory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Log append-only untuk transaksi async, di atas segmen file yang di-memory-map.
+ * Setiap record: [panjang payload][CRC32 payload][payload]; record yang terpotong saat crash
+ * gagal CRC dan dianggap akhir log. Payload diawali versi format dan menyimpan kategori sebagai
+ * kode tetap (bukan ordinal enum), jadi menambah atau mengurutkan ulang {@link ProductCategory}
+ * tidak mengubah arti record lama. Record dari sebelum ada versi (tanpa byte versi) tetap dibaca.
+ * <p>
+ * Durabilitas memakai group commit: thread pertama yang menunggu melakukan satu
+ * {@code force()} untuk semua record yang sudah di-append, thread lain cukup menumpang.
+ * Record diteruskan ke {@code onDurable} hanya setelah force, selalu dalam urutan posisi.
+ * Posisi checkpoint menandai record yang sudah tersimpan di database; recovery membaca
+ * ulang semua record setelahnya.
+ */
+public final class TransactionWriteAheadLog implements Closeable {
+
+    static final byte FORMAT_VERSION = 1;
+    static final int PAYLOAD_SIZE = 1 + 8 + 8 + 8 + 8 + 1 + 4 + 8 + 8 + 4;
+    static final int RECORD_SIZE = 4 + 4 + PAYLOAD_SIZE;
+    // Format awal: payload tanpa byte versi, kode kategori sama dengan ordinal saat itu
+    static final int LEGACY_PAYLOAD_SIZE = PAYLOAD_SIZE - 1;
+
+    private static final String SEGMENT_SUFFIX = ".wal";
+    private static final String CHECKPOINT_FILE = "checkpoint";
+
+    // category null: kode kategori di log tidak dikenal versi ini, pemanggil mengambilnya dari produk
+    public record Entry(long id, long userId, long productId, long sellerId, ProductCategory category,
+                        int quantity, long totalPriceMinor, LocalDateTime createdAt) {
+    }
+
+    // endPosition: posisi checkpoint setelah record ini tersimpan di database
+    public record Appended(Entry entry, long endPosition) {
+    }
+
+    private final Path directory;
+    private final int segmentSize;
+    private final Consumer<List<Appended>> onDurable;
+    private final FileChannel checkpointChannel;
+    private final List<Appended> recovered;
+
+    private final Object appendLock = new Object();
+    private final Object forceLock = new Object();
+
+    // Dijaga appendLock
+    private final TreeMap<Long, Path> segments = new TreeMap<>();
+    private final ByteBuffer payload = ByteBuffer.allocate(PAYLOAD_SIZE);
+    private final CRC32 crc = new CRC32();
+    private MappedByteBuffer segment;
+    private long segmentBase;
+    private long writePosition;
+    private List<Appended> unforced = new ArrayList<>();
+    private boolean closed;
+
+    private volatile long forcedPosition;
+    private volatile long checkpoint;
+    private volatile boolean broken;
+
+    private TransactionWriteAheadLog(Path directory, int segmentSize, Consumer<List<Appended>> onDurable)
+            throws IOException {
+        if (segmentSize < RECORD_SIZE) {
+            throw new IllegalArgumentException("Segment size must be at least " + RECORD_SIZE + " bytes");
+        }
+        this.directory = Files.createDirectories(directory);
+        this.segmentSize = segmentSize;
+        this.onDurable = onDurable;
+        this.checkpointChannel = FileChannel.open(directory.resolve(CHECKPOINT_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.checkpoint = readCheckpoint();
+        this.recovered = recover();
+    }
+
+    public static TransactionWriteAheadLog open(Path directory, int segmentSize, Consumer<List<Appended>> onDurable)
+            throws IOException {
+        return new TransactionWriteAheadLog(directory, segmentSize, onDurable);
+    }
+
+    // Record setelah checkpoint yang ditemukan saat open; belum tentu sudah ada di database
+    public List<Appended> recovered() {
+        return recovered;
+    }
+
+    public long checkpoint() {
+        return checkpoint;
+    }
+
+    /**
+     * Menulis record dan menunggu sampai durable. IOException berarti record pasti tidak
+     * tertulis; UncheckedIOException dari force berarti statusnya tidak diketahui (record bisa
+     * muncul lagi saat recovery) dan log tidak menerima append lagi.
+     */
+    public void append(Entry entry) throws IOException {
+        long end;
+        synchronized (appendLock) {
+            if (closed || broken) {
+                throw new IOException("Write-ahead log is not accepting writes");
+            }
+            if (writePosition - segmentBase + RECORD_SIZE > segment.capacity()) {
+                roll();
+            }
+            write((int) (writePosition - segmentBase), entry);
+            writePosition += RECORD_SIZE;
+            end = writePosition;
+            unforced.add(new Appended(entry, end));
+        }
+        sync(end);
+    }
+
+    // Dipanggil writer setelah commit database; segmen yang seluruhnya di bawah checkpoint dihapus
+    public void checkpoint(long position) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(12).putLong(position).putInt(checksum(position));
+        checkpointChannel.write(buffer.flip(), 0);
+        checkpointChannel.force(false);
+        checkpoint = position;
+
+        List<Path> obsolete = new ArrayList<>();
+        synchronized (appendLock) {
+            Map.Entry<Long, Path> next;
+            while ((next = segments.higherEntry(segments.firstKey())) != null && next.getKey() <= position) {
+                obsolete.add(segments.pollFirstEntry().getValue());
+            }
+        }
+        for (Path path : obsolete) {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (appendLock) {
+            closed = true;
+        }
+        checkpointChannel.close();
+    }
+
+    private void sync(long end) {
+        synchronized (forceLock) {
+            if (forcedPosition >= end) {
+                return; // sudah ikut force milik thread lain
+            }
+            if (broken) {
+                // Batch yang gagal di-force tidak pernah diteruskan; jangan sampai thread lain mengira record-nya aman
+                throw new UncheckedIOException(new IOException("Write-ahead log failed to sync"));
+            }
+            List<Appended> batch;
+            MappedByteBuffer buffer;
+            long base;
+            long target;
+            synchronized (appendLock) {
+                batch = unforced;
+                unforced = new ArrayList<>();
+                buffer = segment;
+                base = segmentBase;
+                target = writePosition;
+            }
+            long start = Math.max(forcedPosition, base);
+            try {
+                buffer.force((int) (start - base), (int) (target - start));
+            } catch (UncheckedIOException e) {
+                broken = true;
+                throw e;
+            }
+            forcedPosition = target;
+            onDurable.accept(batch);
+        }
+    }
+
+    // Segmen lama di-force penuh sebelum pindah; posisi berlanjut tanpa celah di segmen baru
+    private void roll() throws IOException {
+        if (segment != null) {
+            segment.force();
+        }
+        segment = map(writePosition);
+        segmentBase = writePosition;
+    }
+
+    private MappedByteBuffer map(long base) throws IOException {
+        Path path = directory.resolve(String.format("%020d%s", base, SEGMENT_SUFFIX));
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = Math.max(channel.size(), segmentSize);
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            segments.put(base, path);
+            return mapped;
+        }
+    }
+
+    private void write(int offset, Entry entry) {
+        payload.clear()
+                .put(FORMAT_VERSION)
+                .putLong(entry.id())
+                .putLong(entry.userId())
+                .putLong(entry.productId())
+                .putLong(entry.sellerId())
+                .put(categoryCode(entry.category()))
+                .putInt(entry.quantity())
+                .putLong(entry.totalPriceMinor())
+                .putLong(entry.createdAt().toEpochSecond(ZoneOffset.UTC))
+                .putInt(entry.createdAt().getNano());
+        crc.reset();
+        crc.update(payload.array());
+        segment.put(offset + 8, payload.array());
+        segment.putInt(offset + 4, (int) crc.getValue());
+        segment.putInt(offset, PAYLOAD_SIZE);
+    }
+
+    private List<Appended> recover() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .forEach(path -> {
+                        String name = path.getFileName().toString();
+                        segments.put(Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())), path);
+                    });
+        }
+
+        List<Appended> pending = new ArrayList<>();
+        for (Map.Entry<Long, Path> file : new TreeMap<>(segments).entrySet()) {
+            segment = map(file.getKey());
+            segmentBase = file.getKey();
+            // Record terpotong atau rusak (gagal CRC) dianggap akhir segmen; append berikutnya menimpanya
+            int offset = (int) Math.max(0, Math.min(checkpoint - segmentBase, segment.capacity()));
+            while (offset + 8 <= segment.capacity()) {
+                int length = segment.getInt(offset);
+                if ((length != PAYLOAD_SIZE && length != LEGACY_PAYLOAD_SIZE)
+                        || offset + 8 + length > segment.capacity()) {
+                    break;
+                }
+                byte[] bytes = new byte[length];
+                segment.get(offset + 8, bytes);
+                crc.reset();
+                crc.update(bytes);
+                if ((int) crc.getValue() != segment.getInt(offset + 4)) {
+                    break;
+                }
+                offset += 8 + length;
+                pending.add(new Appended(read(ByteBuffer.wrap(bytes)), segmentBase + offset));
+            }
+            writePosition = segmentBase + offset;
+        }
+        if (segment == null) {
+            writePosition = checkpoint;
+            roll();
+        }
+        forcedPosition = writePosition;
+        return List.copyOf(pending);
+    }
+
+    // Record utuh (lolos CRC) dengan versi yang lebih baru tidak boleh dilewati diam-diam: pesanan di
+    // dalamnya sudah dijawab 202, jadi open gagal sampai aplikasi versi yang sesuai yang membacanya
+    private static Entry read(ByteBuffer buffer) throws IOException {
+        if (buffer.capacity() == PAYLOAD_SIZE) {
+            byte version = buffer.get();
+            if (version != FORMAT_VERSION) {
+                throw new IOException("Unsupported write-ahead log record version " + version);
+            }
+        }
+        long id = buffer.getLong();
+        long userId = buffer.getLong();
+        long productId = buffer.getLong();
+        long sellerId = buffer.getLong();
+        ProductCategory category = category(buffer.get());
+        int quantity = buffer.getInt();
+        long totalPriceMinor = buffer.getLong();
+        LocalDateTime createdAt = LocalDateTime.ofEpochSecond(buffer.getLong(), buffer.getInt(), ZoneOffset.UTC);
+        return new Entry(id, userId, productId, sellerId, category, quantity, totalPriceMinor, createdAt);
+    }
+
+    // Kode tetap per kategori; kategori baru mendapat kode baru, kode lama tidak pernah dipakai ulang
+    static byte categoryCode(ProductCategory category) {
+        return switch (category) {
+            case ELECTRONICS -> 0;
+            case CLOTHING -> 1;
+            case BOOKS -> 2;
+            case HOME_APPLIANCES -> 3;
+            case SPORTS -> 4;
+            case OTHER -> 5;
+        };
+    }
+
+    static ProductCategory category(byte code) {
+        return switch (code) {
+            case 0 -> ProductCategory.ELECTRONICS;
+            case 1 -> ProductCategory.CLOTHING;
+            case 2 -> ProductCategory.BOOKS;
+            case 3 -> ProductCategory.HOME_APPLIANCES;
+            case 4 -> ProductCategory.SPORTS;
+            case 5 -> ProductCategory.OTHER;
+            default -> null;
+        };
+    }
+
+    // File checkpoint yang rusak dibaca sebagai 0: recovery mengulang dari segmen tertua (aman, writer idempotent)
+    private long readCheckpoint() throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(12);
+        if (checkpointChannel.read(buffer, 0) < 12) {
+            return 0;
+        }
+        long position = buffer.flip().getLong();
+        return buffer.getInt() == checksum(position) ? position : 0;
+    }
+
+    private static int checksum(long position) {
+        CRC32 checksum = new CRC32();
+        checksum.update(ByteBuffer.allocate(8).putLong(position).array());
+        return (int) checksum.getValue();
+    }
+}
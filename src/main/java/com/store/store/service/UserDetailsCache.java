@@ -0,0 +1,64 @@
+package com.store.store.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.store.store.config.UserPrincipal;
+import com.store.store.event.UserChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Cache in-memory di depan {@link UserDetailsServiceImpl#loadUserByUsername(String)}.
+ * Yang disimpan snapshot immutable, bukan UserDetails: ProviderManager menghapus password
+ * di principal setelah login, jadi setiap pemanggil harus mendapat objek baru.
+ */
+@Component
+public class UserDetailsCache implements MeterBinder {
+
+    private final Cache<String, CachedUser> users;
+
+    public UserDetailsCache(@Value("${user-cache.maximum-size:10000}") long maximumSize,
+                            @Value("${user-cache.ttl:5m}") Duration ttl) {
+        this.users = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    public UserDetails get(String username, Function<String, CachedUser> loader) {
+        return users.get(username, loader).toUserDetails();
+    }
+
+    public void evict(String username) {
+        users.invalidate(username);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        evict(event.username());
+    }
+
+    // Hit/miss/eviction terlihat di /actuator/metrics/cache.gets?tag=cache:users
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, users, "users");
+    }
+
+    public record CachedUser(Long id, String username, String password, boolean enabled, String role) {
+
+        UserDetails toUserDetails() {
+            return new UserPrincipal(id, username, password, enabled, List.of(new SimpleGrantedAuthority(role)));
+        }
+    }
+}
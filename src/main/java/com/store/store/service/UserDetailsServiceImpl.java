@@ -1,43 +1,70 @@
 package com.store.store.service;
 
+import com.store.store.config.UserPrincipal;
+import com.store.store.event.UserChangedEvent;
 import com.store.store.model.User;
 import com.store.store.repository.UserRepository;
-import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import com.store.store.service.UserDetailsCache.CachedUser;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.stereotype.Service;
-
-import java.util.Collections;
-import java.util.List;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository userRepository;
+    private final UserDetailsCache userDetailsCache;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public UserDetailsServiceImpl(UserRepository userRepository) {
+    public UserDetailsServiceImpl(UserRepository userRepository, UserDetailsCache userDetailsCache,
+                                  ApplicationEventPublisher eventPublisher) {
         this.userRepository = userRepository;
+        this.userDetailsCache = userDetailsCache;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        // Login dan filter JWT sama-sama lewat sini; database hanya disentuh saat cache miss
+        return userDetailsCache.get(username, this::loadFromDatabase);
+    }
+
+    /**
+     * Dipanggil DaoAuthenticationProvider setelah login sukses jika hash tersimpan memakai
+     * cost BCrypt lebih rendah dari security.password.bcrypt-strength.
+     */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        userRepository.findByUsername(userDetails.getUsername()).ifPresent(user -> {
+            user.setPassword(newPassword);
+            userRepository.save(user);
+        });
+        // Evict setelah commit seperti UserService: evict di sini bisa disusul login lain yang
+        // meng-cache ulang hash lama sebelum commit, lalu me-rehash lagi sampai TTL habis
+        eventPublisher.publishEvent(new UserChangedEvent(userDetails.getUsername(), true));
+
+        Long id = userDetails instanceof UserPrincipal principal ? principal.getId() : null;
+        return new UserPrincipal(id, userDetails.getUsername(), newPassword, userDetails.isEnabled(),
+                userDetails.getAuthorities());
+    }
+
+    private CachedUser loadFromDatabase(String username) {
         // Mencari pengguna berdasarkan username
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + username));
 
-        // Mengonversi role menjadi GrantedAuthority
-        List<GrantedAuthority> authorities = Collections.singletonList(
-                new SimpleGrantedAuthority(user.getRole().name())
+        // Role menjadi GrantedAuthority, password sudah terenkripsi
+        return new CachedUser(
+                user.getId(),
+                user.getUsername(),
+                user.getPassword(),
+                !Boolean.FALSE.equals(user.getEnabled()),
+                user.getRole().name()
         );
-
-        // Mengembalikan UserDetails menggunakan User dari Spring Security
-        return org.springframework.security.core.userdetails.User
-                .builder()
-                .username(user.getUsername())
-                .password(user.getPassword())  // Pastikan password terenkripsi
-                .authorities(authorities)      // Menggunakan GrantedAuthority
-                .build();
     }
 }
@@ -7,7 +7,10 @@ import com.store.store.repository.UserRepository;
 import com.store.store.exception.UserAlreadyExistsException;
 import com.store.store.exception.InvalidRoleException;
 import com.store.store.exception.UserNotFoundException;
+import com.store.store.event.UserChangedEvent;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -15,11 +18,13 @@ import java.util.List;
 import java.util.Optional;
 
 @Service
+@Timed("store.service") // tag class + method dari TimedAspect
 @RequiredArgsConstructor
 public class UserService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public User registerNewUser(UserDto userDto) {
@@ -70,9 +75,12 @@ public class UserService {
     public User updateUser(Long id, UserDto userDto) {
         User existingUser = userRepository.findById(id)
                 .orElseThrow(() -> new UserNotFoundException("User not found"));
+        String previousUsername = existingUser.getUsername();
+        boolean credentialsChanged = false;
 
         // Pastikan username dan email tidak null atau kosong
         if (userDto.getUsername() != null && !userDto.getUsername().isEmpty()) {
+            credentialsChanged = !userDto.getUsername().equals(previousUsername);
             existingUser.setUsername(userDto.getUsername());
         }
         if (userDto.getEmail() != null && !userDto.getEmail().isEmpty()) {
@@ -86,9 +94,24 @@ public class UserService {
         // Perbarui password hanya jika password tidak kosong
         if (userDto.getPassword() != null && !userDto.getPassword().isEmpty()) {
             existingUser.setPassword(passwordEncoder.encode(userDto.getPassword()));
+            credentialsChanged = true;
         }
 
-        return userRepository.save(existingUser);
+        User savedUser = userRepository.save(existingUser);
+
+        // Cache user di-evict setelah commit; token lama dicabut jika username/password berubah
+        eventPublisher.publishEvent(new UserChangedEvent(previousUsername, credentialsChanged));
+        return savedUser;
+    }
+
+    @Transactional
+    public User disableUser(Long id) {
+        User user = userRepository.findById(id)
+                .orElseThrow(() -> new UserNotFoundException("User not found"));
+        user.setEnabled(false);
+        User savedUser = userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(user.getUsername(), true));
+        return savedUser;
     }
 
     @Transactional
@@ -96,5 +119,6 @@ public class UserService {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new UserNotFoundException("User not found"));
         userRepository.delete(user);
+        eventPublisher.publishEvent(new UserChangedEvent(user.getUsername(), true));
     }
 }
@@ -0,0 +1,42 @@
+-- Skema awal, sama dengan yang dulu dibuat Hibernate lewat ddl-auto=update.
+-- Database lama di-baseline di versi 0 (spring.flyway.baseline-version), jadi script ini
+-- tetap dijalankan di sana: semua perintah idempotent dan tidak mengubah tabel yang sudah ada.
+
+CREATE TABLE IF NOT EXISTS users (
+    id       BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    username VARCHAR(255) NOT NULL UNIQUE,
+    email    VARCHAR(255) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    role     VARCHAR(255),
+    enabled  BOOLEAN      NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS products (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name        VARCHAR(255)   NOT NULL,
+    price       NUMERIC(38, 2) NOT NULL,
+    stock       INTEGER        NOT NULL,
+    description VARCHAR(255),
+    image_url   VARCHAR(255),
+    category    VARCHAR(255)   NOT NULL,
+    seller_id   BIGINT         NOT NULL REFERENCES users (id),
+    active      BOOLEAN        NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS transactions (
+    id          BIGINT PRIMARY KEY,
+    user_id     BIGINT           NOT NULL REFERENCES users (id),
+    product_id  BIGINT           NOT NULL REFERENCES products (id),
+    quantity    INTEGER          NOT NULL DEFAULT 0,
+    total_price DOUBLE PRECISION NOT NULL DEFAULT 0.0,
+    created_at  TIMESTAMP(6)     NOT NULL
+);
+
+-- Id transaksi dari sequence pooled (allocationSize = 50 di Transaction)
+CREATE SEQUENCE IF NOT EXISTS transactions_seq START WITH 1 INCREMENT BY 50;
+
+-- transactions.id dulunya IDENTITY: di database yang sudah berisi data, sequence harus dinaikkan
+-- melewati MAX(id) + allocationSize. Tidak pernah menurunkan nilai sequence.
+SELECT setval('transactions_seq', GREATEST(
+        (SELECT last_value FROM transactions_seq),
+        (SELECT COALESCE(MAX(id), 0) FROM transactions) + 50));
@@ -0,0 +1,28 @@
+-- Index untuk setiap query repository di jalur panas. Kolom id ikut di akhir index supaya
+-- keyset pagination (ORDER BY ..., id) bisa dibaca langsung dari index tanpa sort.
+-- QueryPlanRegressionTest gagal jika salah satu query kembali menjadi Seq Scan.
+
+-- UserRepository.findByEmail / existsByEmail (username sudah punya index dari UNIQUE)
+CREATE INDEX IF NOT EXISTS idx_users_email ON users (email);
+
+-- findBySellerUsername dan FK products.seller_id (hapus user tidak perlu scan products)
+CREATE INDEX IF NOT EXISTS idx_products_seller_id ON products (seller_id);
+
+-- findByCategory, findCategoryPageOrderById
+CREATE INDEX IF NOT EXISTS idx_products_category_id ON products (category, id);
+
+-- findCategoryPageOrderByPrice, findCategoryPriceRangePageOrderBy*
+CREATE INDEX IF NOT EXISTS idx_products_category_price_id ON products (category, price, id);
+
+-- findPageOrderByPrice, findProductsByPriceRange
+CREATE INDEX IF NOT EXISTS idx_products_price_id ON products (price, id);
+
+-- findPriceRangePageOrderBy*: hanya produk aktif, index parsial lebih kecil
+CREATE INDEX IF NOT EXISTS idx_products_active_price_id ON products (price, id) WHERE active;
+
+-- FK transactions.user_id / product_id: join dan hapus user/produk tanpa scan transactions
+CREATE INDEX IF NOT EXISTS idx_transactions_user_id ON transactions (user_id);
+CREATE INDEX IF NOT EXISTS idx_transactions_product_id ON transactions (product_id);
+
+-- TransactionExportService: filter rentang created_at
+CREATE INDEX IF NOT EXISTS idx_transactions_created_at ON transactions (created_at);
@@ -0,0 +1,10 @@
+-- Total transaksi disimpan sebagai BIGINT minor unit (lihat Money), bukan DOUBLE PRECISION.
+-- float8 -> numeric memakai 15 digit signifikan, jadi nilai seperti 19.99 kembali tepat 1999.
+
+ALTER TABLE transactions ADD COLUMN total_price_minor BIGINT;
+
+UPDATE transactions SET total_price_minor = ROUND(total_price::NUMERIC * 100);
+
+ALTER TABLE transactions ALTER COLUMN total_price_minor SET NOT NULL;
+
+ALTER TABLE transactions DROP COLUMN total_price;
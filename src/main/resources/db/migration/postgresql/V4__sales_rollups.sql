@@ -0,0 +1,26 @@
+-- Total penjualan per jam dan per hari untuk setiap produk, seller dan kategori.
+-- Setelah backfill di bawah, tabel dipelihara dengan delta oleh SalesRollupService.
+
+CREATE TABLE sales_rollups (
+    dimension         VARCHAR(16)  NOT NULL,
+    dimension_key     VARCHAR(64)  NOT NULL,
+    granularity       VARCHAR(8)   NOT NULL,
+    bucket_start      TIMESTAMP(6) NOT NULL,
+    units             BIGINT       NOT NULL,
+    revenue_minor     BIGINT       NOT NULL,
+    transaction_count BIGINT       NOT NULL,
+    PRIMARY KEY (dimension, dimension_key, granularity, bucket_start)
+);
+
+-- SalesRollupRepository.findTotals: semua key dalam satu jendela waktu
+CREATE INDEX idx_sales_rollups_window ON sales_rollups (dimension, granularity, bucket_start);
+
+INSERT INTO sales_rollups (dimension, dimension_key, granularity, bucket_start, units, revenue_minor, transaction_count)
+SELECT d.dimension, d.dimension_key, g.granularity, date_trunc(g.field, t.created_at),
+       SUM(t.quantity), SUM(t.total_price_minor), COUNT(*)
+FROM transactions t
+JOIN products p ON p.id = t.product_id
+CROSS JOIN (VALUES ('HOUR', 'hour'), ('DAY', 'day')) AS g (granularity, field)
+CROSS JOIN LATERAL (VALUES ('PRODUCT', p.id::TEXT), ('SELLER', p.seller_id::TEXT), ('CATEGORY', p.category))
+    AS d (dimension, dimension_key)
+GROUP BY d.dimension, d.dimension_key, g.granularity, date_trunc(g.field, t.created_at);
@@ -0,0 +1,4 @@
+-- Ringkasan seller menjumlahkan transaksi per produk dalam rentang created_at: index gabungan
+-- membaca hanya baris di jendela waktu. Prefix product_id tetap melayani FK dan join lama.
+CREATE INDEX IF NOT EXISTS idx_transactions_product_created ON transactions (product_id, created_at);
+DROP INDEX IF EXISTS idx_transactions_product_id;
@@ -0,0 +1,16 @@
+-- Idempotency-Key untuk POST /api/transactions. Primary key menjamin hanya satu node yang
+-- mengeksekusi satu key; transaction_id diisi di transaksi database yang sama dengan
+-- INSERT/reservasi pesanannya (NULL = sedang dieksekusi). Tanpa FK: id transaksi async
+-- baru muncul di tabel transactions setelah writer berjalan.
+
+CREATE TABLE idempotency_keys (
+    username            VARCHAR(255) NOT NULL,
+    idempotency_key     VARCHAR(255) NOT NULL,
+    request_fingerprint VARCHAR(128) NOT NULL,
+    transaction_id      BIGINT,
+    created_at          TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (username, idempotency_key)
+);
+
+-- Pembersihan key yang sudah lewat masa retensi
+CREATE INDEX idx_idempotency_keys_created_at ON idempotency_keys (created_at);
@@ -0,0 +1,14 @@
+-- Full-text search produk (GET /api/products/search). tsvector disimpan sebagai generated
+-- column supaya selalu sinkron dengan name/description tanpa trigger: nama berbobot A,
+-- deskripsi B (ts_rank: 1.0 vs 0.4). Konfigurasi 'simple' (lowercase, tanpa stemming/stopword)
+-- karena katalog campuran bahasa Indonesia dan Inggris; tokenisasinya sama dengan index
+-- in-memory ProductSearchIndex yang dipakai di database embedded.
+-- Catatan: ADD COLUMN ... STORED menulis ulang tabel products (lock eksklusif selama migrasi).
+ALTER TABLE products ADD COLUMN IF NOT EXISTS search_vector tsvector
+    GENERATED ALWAYS AS (
+        setweight(to_tsvector('simple', coalesce(name, '')), 'A')
+            || setweight(to_tsvector('simple', coalesce(description, '')), 'B')
+    ) STORED;
+
+-- Hanya produk aktif yang bisa dicari: index parsial lebih kecil
+CREATE INDEX IF NOT EXISTS idx_products_search_vector ON products USING GIN (search_vector) WHERE active;
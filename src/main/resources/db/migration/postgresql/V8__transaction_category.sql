@@ -0,0 +1,6 @@
+-- Kategori produk saat transaksi terjadi, untuk dimensi CATEGORY di sales_rollups. Kategori produk
+-- bisa diubah belakangan: update/hapus transaksi lama harus mengurangi bucket kategori lamanya.
+-- Transaksi yang sudah ada diisi kategori produk sekarang, sama seperti backfill rollup di V4.
+ALTER TABLE transactions ADD COLUMN IF NOT EXISTS category VARCHAR(255);
+UPDATE transactions t SET category = p.category FROM products p WHERE p.id = t.product_id AND t.category IS NULL;
+ALTER TABLE transactions ALTER COLUMN category SET NOT NULL;
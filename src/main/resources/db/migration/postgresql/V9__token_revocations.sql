@@ -0,0 +1,16 @@
+-- Waktu pencabutan token per user (epoch milidetik), ditulis di transaksi yang sama dengan
+-- disable/hapus/ganti username atau password. Setiap node memuatnya saat start dan secara berkala,
+-- jadi pencabutan tetap berlaku setelah restart dan di node lain. Tanpa FK: user yang dihapus
+-- tetap harus tercatat sampai token terakhirnya kedaluwarsa.
+
+CREATE TABLE token_revocations (
+    username   VARCHAR(255) PRIMARY KEY,
+    revoked_at BIGINT       NOT NULL
+);
+
+-- Refresh berkala dan pembersihan entri yang sudah lewat umur maksimum token
+CREATE INDEX idx_token_revocations_revoked_at ON token_revocations (revoked_at);
+
+-- User yang sudah di-disable sebelum tabel ini ada: token lamanya tidak pernah dicabut secara persisten
+INSERT INTO token_revocations (username, revoked_at)
+SELECT username, CAST(EXTRACT(EPOCH FROM clock_timestamp()) * 1000 AS BIGINT) FROM users WHERE NOT enabled;
@@ -0,0 +1,34 @@
+package com.store.store;
+
+import com.store.store.model.Product;
+import com.store.store.model.ProductCategory;
+import com.store.store.model.User;
+import com.store.store.model.UserRole;
+
+import java.math.BigDecimal;
+
+// Entity minimal yang lolos constraint NOT NULL, belum disimpan; email diturunkan dari username
+public final class TestFixtures {
+
+    private TestFixtures() {
+    }
+
+    public static User user(String username, UserRole role) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        user.setPassword("hash");
+        user.setRole(role);
+        return user;
+    }
+
+    public static Product product(String name, String price, int stock, ProductCategory category, User seller) {
+        Product product = new Product();
+        product.setName(name);
+        product.setPrice(new BigDecimal(price));
+        product.setStock(stock);
+        product.setCategory(category);
+        product.setSeller(seller);
+        return product;
+    }
+}
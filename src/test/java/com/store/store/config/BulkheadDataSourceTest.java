@@ -0,0 +1,130 @@
+package com.store.store.config;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.mock.env.MockEnvironment;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+public class BulkheadDataSourceTest {
+
+    private DataSource target;
+    private BulkheadDataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        target = mock(DataSource.class);
+        when(target.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+        dataSource = new BulkheadDataSource(target, 2, Duration.ofMillis(50));
+    }
+
+    @Test
+    void getConnection_ShouldFailFastWhenAllPermitsAreTaken() throws SQLException {
+        // Arrange
+        dataSource.getConnection();
+        dataSource.getConnection();
+
+        // Act & Assert
+        assertThrows(SQLTransientConnectionException.class, () -> dataSource.getConnection());
+        assertEquals(0, dataSource.getAvailablePermits());
+        verify(target, times(2)).getConnection();
+    }
+
+    @Test
+    void close_ShouldReleasePermitExactlyOnce() throws SQLException {
+        // Arrange
+        Connection connection = dataSource.getConnection();
+
+        // Act
+        connection.close();
+        connection.close();
+
+        // Assert
+        assertEquals(2, dataSource.getAvailablePermits());
+        assertNotNull(dataSource.getConnection());
+        assertNotNull(dataSource.getConnection());
+        assertThrows(SQLTransientConnectionException.class, () -> dataSource.getConnection());
+    }
+
+    @Test
+    void getConnection_ShouldReleasePermitWhenTargetFails() throws SQLException {
+        // Arrange
+        when(target.getConnection()).thenThrow(new SQLException("database down"));
+
+        // Act & Assert
+        assertThrows(SQLException.class, () -> dataSource.getConnection());
+        assertEquals(2, dataSource.getAvailablePermits());
+    }
+
+    @Test
+    void connection_ShouldDelegateOtherCallsToTarget() throws SQLException {
+        // Arrange
+        Connection delegate = mock(Connection.class);
+        when(target.getConnection()).thenReturn(delegate);
+        Connection connection = dataSource.getConnection();
+
+        // Act
+        connection.setAutoCommit(false);
+        connection.commit();
+
+        // Assert
+        assertNotSame(delegate, connection);
+        verify(delegate).setAutoCommit(false);
+        verify(delegate).commit();
+    }
+
+    @Test
+    void postProcessor_ShouldSizeBulkheadFromHikariDefaultPoolSize() {
+        // Arrange
+        BeanPostProcessor postProcessor = DataSourceBulkheadConfig.bulkheadDataSourcePostProcessor(new MockEnvironment());
+
+        // Act
+        Object wrapped = postProcessor.postProcessAfterInitialization(new HikariDataSource(), "dataSource");
+
+        // Assert
+        BulkheadDataSource bulkhead = assertInstanceOf(BulkheadDataSource.class, wrapped);
+        assertEquals(10, bulkhead.getAvailablePermits());
+    }
+
+    @Test
+    void close_ShouldCloseTargetPool() throws Exception {
+        // Arrange
+        HikariDataSource hikari = mock(HikariDataSource.class);
+
+        // Act
+        new BulkheadDataSource(hikari, 2, Duration.ofMillis(50)).close();
+
+        // Assert
+        verify(hikari).close();
+    }
+
+    @Test
+    void contextClose_ShouldClosePoolBehindBulkhead() {
+        // Arrange
+        HikariDataSource hikari = mock(HikariDataSource.class);
+        GenericApplicationContext context = new GenericApplicationContext();
+        context.registerBean("dataSource", DataSource.class, () -> hikari);
+        context.getBeanFactory().addBeanPostProcessor(
+                DataSourceBulkheadConfig.bulkheadDataSourcePostProcessor(new MockEnvironment()));
+        context.refresh();
+        assertInstanceOf(BulkheadDataSource.class, context.getBean(DataSource.class));
+
+        // Act
+        context.close();
+
+        // Assert
+        verify(hikari).close();
+    }
+}
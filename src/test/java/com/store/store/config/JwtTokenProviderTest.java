@@ -0,0 +1,141 @@
+package com.store.store.config;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.jsonwebtoken.JwtException;
+
+public class JwtTokenProviderTest {
+
+    private static final String SECRET = "testSecretKeyThatIsLongEnoughForHmacSha256Signing";
+
+    private JwtTokenProvider jwtTokenProvider;
+    private Authentication authentication;
+
+    @BeforeEach
+    void setUp() {
+        jwtTokenProvider = newProvider(SECRET, 3600000, "k2", "");
+
+        UserDetails user = User.builder()
+                .username("testuser")
+                .password("encodedPassword")
+                .authorities(new SimpleGrantedAuthority("ROLE_USER"))
+                .build();
+        authentication = new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
+    }
+
+    @Test
+    void parseToken_ShouldReturnSubjectAuthoritiesAndExpiry() {
+        // Arrange
+        String token = jwtTokenProvider.generateToken(authentication);
+
+        // Act
+        ParsedToken result = jwtTokenProvider.parseToken(token);
+
+        // Assert
+        assertEquals("testuser", result.username());
+        assertEquals(List.of("ROLE_USER"), result.authorities());
+        assertFalse(result.isExpired());
+    }
+
+    @Test
+    void parseToken_ShouldCarryUserIdForUserPrincipal() {
+        // Arrange
+        UserPrincipal principal = new UserPrincipal(42L, "testuser", "encodedPassword", true,
+                List.of(new SimpleGrantedAuthority("ROLE_SELLER")));
+        String token = jwtTokenProvider.generateToken(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+
+        // Act
+        ParsedToken result = jwtTokenProvider.parseToken(token);
+
+        // Assert
+        assertEquals(42L, result.userId());
+        assertEquals(List.of("ROLE_SELLER"), result.authorities());
+        assertNotNull(result.issuedAt());
+    }
+
+    @Test
+    void parseToken_ShouldCarryMillisecondIssueTime() {
+        // Arrange
+        long before = System.currentTimeMillis();
+        String token = jwtTokenProvider.generateToken(authentication);
+        long after = System.currentTimeMillis();
+
+        // Act
+        ParsedToken result = jwtTokenProvider.parseToken(token);
+
+        // Assert: iat standar dibulatkan ke detik, issuedAt tidak
+        long issuedAt = result.issuedAt().getTime();
+        assertTrue(issuedAt >= before && issuedAt <= after, () -> issuedAt + " not in [" + before + ", " + after + "]");
+    }
+
+    @Test
+    void parseToken_ShouldReturnCachedResultForSameToken() {
+        // Arrange
+        String token = jwtTokenProvider.generateToken(authentication);
+
+        // Act
+        ParsedToken first = jwtTokenProvider.parseToken(token);
+        ParsedToken second = jwtTokenProvider.parseToken(token);
+
+        // Assert
+        assertSame(first, second);
+        assertEquals("testuser", jwtTokenProvider.getUsernameFromToken(token));
+    }
+
+    @Test
+    void validateToken_ShouldRejectTokenSignedWithOtherKey() {
+        // Arrange
+        JwtTokenProvider otherProvider = newProvider("anotherSecretKeyThatIsLongEnoughForHmacSha256", 3600000, "k2", "");
+        String token = otherProvider.generateToken(authentication);
+
+        // Act & Assert
+        assertFalse(jwtTokenProvider.validateToken(token));
+        assertThrows(JwtException.class, () -> jwtTokenProvider.parseToken(token));
+    }
+
+    @Test
+    void validateToken_ShouldRejectExpiredToken() {
+        // Arrange
+        JwtTokenProvider expiringProvider = newProvider(SECRET, -1000, "k2", "");
+        String token = expiringProvider.generateToken(authentication);
+
+        // Act & Assert
+        assertFalse(jwtTokenProvider.validateToken(token));
+    }
+
+    @Test
+    void validateToken_ShouldAcceptTokenSignedWithPreviousKey() {
+        // Arrange
+        String oldSecret = "previousSecretKeyThatIsLongEnoughForHmacSha256";
+        JwtTokenProvider oldProvider = newProvider(oldSecret, 3600000, "k1", "");
+        String token = oldProvider.generateToken(authentication);
+        JwtTokenProvider rotatedProvider = newProvider(SECRET, 3600000, "k2", "k1:" + oldSecret);
+
+        // Act & Assert
+        assertEquals("testuser", rotatedProvider.parseToken(token).username());
+        assertFalse(jwtTokenProvider.validateToken(token));
+    }
+
+    private static JwtTokenProvider newProvider(String secret, int expiration, String keyId, String previousSecrets) {
+        JwtTokenProvider provider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(provider, "jwtSecret", secret);
+        ReflectionTestUtils.setField(provider, "jwtExpiration", expiration);
+        ReflectionTestUtils.setField(provider, "keyId", keyId);
+        ReflectionTestUtils.setField(provider, "previousSecrets", previousSecrets);
+        ReflectionTestUtils.setField(provider, "cacheMaximumSize", 100L);
+        provider.init();
+        return provider;
+    }
+}
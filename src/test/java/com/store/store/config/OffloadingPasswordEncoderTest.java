@@ -0,0 +1,112 @@
+package com.store.store.config;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.store.store.exception.PasswordHashingUnavailableException;
+
+public class OffloadingPasswordEncoderTest {
+
+    private OffloadingPasswordEncoder passwordEncoder;
+
+    @AfterEach
+    void tearDown() {
+        passwordEncoder.destroy();
+    }
+
+    @Test
+    void encodeAndMatches_ShouldDelegateToBCrypt() {
+        // Arrange
+        passwordEncoder = new OffloadingPasswordEncoder(new BCryptPasswordEncoder(4), 2, 8, Duration.ofSeconds(5));
+
+        // Act
+        String encoded = passwordEncoder.encode("password123");
+
+        // Assert
+        assertTrue(encoded.startsWith("$2a$04$"));
+        assertTrue(passwordEncoder.matches("password123", encoded));
+        assertFalse(passwordEncoder.matches("wrongpassword", encoded));
+    }
+
+    @Test
+    void upgradeEncoding_ShouldBeTrue_WhenStoredCostIsLower() {
+        // Arrange
+        String weakHash = new BCryptPasswordEncoder(4).encode("password123");
+        passwordEncoder = new OffloadingPasswordEncoder(new BCryptPasswordEncoder(5), 1, 1, Duration.ofSeconds(5));
+
+        // Act & Assert
+        assertTrue(passwordEncoder.upgradeEncoding(weakHash));
+        assertFalse(passwordEncoder.upgradeEncoding(passwordEncoder.encode("password123")));
+    }
+
+    @Test
+    void matches_ShouldFailFast_WhenPoolAndQueueAreFull() throws Exception {
+        // Arrange: satu thread sibuk, satu tugas di antrean
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        PasswordEncoder blockingEncoder = new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                return rawPassword.toString();
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                started.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return true;
+            }
+        };
+        passwordEncoder = new OffloadingPasswordEncoder(blockingEncoder, 1, 1, Duration.ofSeconds(5));
+        CompletableFuture<Boolean> running = CompletableFuture.supplyAsync(() -> passwordEncoder.matches("a", "a"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(() -> passwordEncoder.matches("b", "b"));
+        while (passwordEncoder.getQueueDepth() < 1) {
+            Thread.onSpinWait();
+        }
+
+        // Act & Assert
+        assertThrows(PasswordHashingUnavailableException.class, () -> passwordEncoder.matches("c", "c"));
+        release.countDown();
+        assertTrue(running.get(5, TimeUnit.SECONDS));
+        assertTrue(queued.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void encode_ShouldFail_WhenOperationTimesOut() {
+        // Arrange
+        PasswordEncoder slowEncoder = new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                try {
+                    Thread.sleep(1000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return rawPassword.toString();
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return true;
+            }
+        };
+        passwordEncoder = new OffloadingPasswordEncoder(slowEncoder, 1, 1, Duration.ofMillis(50));
+
+        // Act & Assert
+        assertThrows(PasswordHashingUnavailableException.class, () -> passwordEncoder.encode("password123"));
+    }
+}
@@ -0,0 +1,74 @@
+package com.store.store.config;
+
+import com.store.store.model.UserRole;
+import com.store.store.repository.IdempotencyKeyRepository;
+import com.store.store.repository.UserRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDateTime;
+
+import static com.store.store.TestFixtures.user;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@DataJpaTest(properties = "spring.jpa.hibernate.ddl-auto=create-drop")
+@Import({MetricsConfig.class, RepositoryRowCountInterceptorTest.Registry.class})
+class RepositoryRowCountInterceptorTest {
+
+    @TestConfiguration
+    static class Registry {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Test
+    void recordsRowsReturnedPerRepositoryMethod() {
+        userRepository.save(user("alice", UserRole.ROLE_USER));
+        userRepository.save(user("bob", UserRole.ROLE_USER));
+
+        userRepository.findAll();
+        userRepository.findByUsername("alice");
+        userRepository.findByUsername("nobody");
+
+        assertEquals(2, rows("UserRepository", "findAll").totalAmount());
+        DistributionSummary findByUsername = rows("UserRepository", "findByUsername");
+        assertEquals(2, findByUsername.count());
+        assertEquals(1, findByUsername.totalAmount());
+    }
+
+    @Test
+    void recordsModifiedRowsButNotCounts() {
+        LocalDateTime old = LocalDateTime.now().minusDays(2);
+        idempotencyKeyRepository.claim("alice", "key-1", "fingerprint", old);
+        idempotencyKeyRepository.claim("alice", "key-2", "fingerprint", old);
+
+        idempotencyKeyRepository.deleteExpired(LocalDateTime.now().minusDays(1));
+        idempotencyKeyRepository.count();
+
+        assertEquals(2, rows("IdempotencyKeyRepository", "deleteExpired").totalAmount());
+        assertNull(registry.find("store.repository.rows").tag("method", "count").summary());
+    }
+
+    private DistributionSummary rows(String repository, String method) {
+        return registry.get("store.repository.rows").tag("repository", repository).tag("method", method).summary();
+    }
+}
@@ -0,0 +1,176 @@
+package com.store.store.config;
+
+import com.store.store.DTO.StatementSummary;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class StatementMetricsDataSourceTest {
+
+    private static final Set<String> MASKED_COLUMNS = Set.of("password", "email");
+
+    private Connection target;
+    private PreparedStatement preparedStatement;
+    private Statement statement;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        target = mock(Connection.class);
+        preparedStatement = mock(PreparedStatement.class);
+        statement = mock(Statement.class);
+        when(target.prepareStatement(anyString())).thenReturn(preparedStatement);
+        when(target.createStatement()).thenReturn(statement);
+    }
+
+    @Test
+    void executions_ShouldBeGroupedByFingerprint() throws SQLException {
+        // Arrange
+        StatementStatistics statistics = new StatementStatistics(Duration.ofMinutes(1), 500, MASKED_COLUMNS);
+        Connection connection = dataSource(statistics).getConnection();
+
+        // Act
+        for (int i = 0; i < 3; i++) {
+            PreparedStatement prepared = connection.prepareStatement("select * from users where id = ?");
+            prepared.setLong(1, i);
+            prepared.executeQuery();
+        }
+        connection.createStatement().execute("delete from products where id in (1, 2, 3)");
+        connection.createStatement().execute("delete from products where id in (4, 5)");
+
+        // Assert
+        List<StatementSummary> slowest = statistics.slowest(10);
+        assertEquals(2, slowest.size());
+        assertEquals(3, find(slowest, "select * from users where id = ?").count());
+        assertEquals(2, find(slowest, "delete from products where id in (?...)").count());
+        assertNull(find(slowest, "select * from users where id = ?").slowest());
+        verify(preparedStatement, times(3)).executeQuery();
+    }
+
+    @Test
+    void slowStatement_ShouldKeepBindValuesAndCaller() throws SQLException {
+        // Arrange: threshold 0, semua statement dianggap lambat
+        StatementStatistics statistics = new StatementStatistics(Duration.ZERO, 500, MASKED_COLUMNS);
+        Connection connection = dataSource(statistics).getConnection();
+
+        // Act
+        PreparedStatement prepared = connection.prepareStatement(
+                "update products set stock = stock - ? where id = ? and name = ?");
+        prepared.setInt(1, 2);
+        prepared.setNull(2, Types.BIGINT);
+        prepared.setString(3, "Book");
+        prepared.executeUpdate();
+
+        // Assert
+        StatementSummary.SlowStatement slowest = statistics.slowest(1).get(0).slowest();
+        assertNotNull(slowest);
+        assertEquals(List.of("2", "NULL", "'Book'"), slowest.binds());
+        assertEquals("StatementMetricsDataSourceTest.slowStatement_ShouldKeepBindValuesAndCaller", slowest.caller());
+    }
+
+    @Test
+    void slowStatement_ShouldMaskSensitiveColumnsBeforeLoggingAndStoring() throws SQLException {
+        // Arrange
+        StatementStatistics statistics = new StatementStatistics(Duration.ZERO, 500, MASKED_COLUMNS);
+        Connection connection = dataSource(statistics).getConnection();
+
+        // Act: bentuk SQL Hibernate untuk insert dan update user
+        PreparedStatement insert = connection.prepareStatement("insert into users (email,enabled,password,role,"
+                + "username,id) values (?,?,?,?,?,default)");
+        insert.setString(1, "alice@example.com");
+        insert.setBoolean(2, true);
+        insert.setString(3, "$2a$10$hash");
+        insert.setString(4, "ROLE_USER");
+        insert.setString(5, "alice");
+        insert.executeUpdate();
+        PreparedStatement update = connection.prepareStatement(
+                "update users set email=?,\"password\"=?,username=? where id=?");
+        update.setString(1, "bob@example.com");
+        update.setString(2, "$2a$10$other");
+        update.setString(3, "bob");
+        update.setLong(4, 7);
+        update.executeUpdate();
+
+        // Assert
+        assertEquals(List.of("<masked>", "true", "<masked>", "'ROLE_USER'", "'alice'"),
+                find(statistics.slowest(10), "insert into users (email,enabled,password,role,username,id) "
+                        + "values (?,?,?,?,?,default)").slowest().binds());
+        assertEquals(List.of("<masked>", "<masked>", "'bob'", "7"),
+                find(statistics.slowest(10), "update users set email=?,\"password\"=?,username=? where id=?")
+                        .slowest().binds());
+    }
+
+    @Test
+    void sensitiveBinds_ShouldMaskComparisonsAndUnknownPositionsOnly() {
+        SensitiveBinds sensitiveBinds = new SensitiveBinds(MASKED_COLUMNS);
+
+        // Lookup per email disamarkan, username tidak; '?' di dalam literal tidak dihitung
+        assertEquals("{1}", sensitiveBinds.of(
+                "select u1_0.id from users u1_0 where u1_0.username=? and u1_0.email = ? and u1_0.role <> '?'")
+                .toString());
+        assertEquals("{0, 1}", sensitiveBinds.of("select id from users where email in (?, ?)").toString());
+        // Kolom di depan placeholder tidak diketahui di statement yang menyebut kolom sensitif
+        assertEquals("{1}", sensitiveBinds.of("select email from users where id = ? limit ?").toString());
+        assertEquals("{}", sensitiveBinds.of("update products set stock = stock - ? where id = ?").toString());
+    }
+
+    @Test
+    void fingerprints_ShouldBeCappedIntoOther() throws SQLException {
+        // Arrange
+        StatementStatistics statistics = new StatementStatistics(Duration.ofMinutes(1), 1, MASKED_COLUMNS);
+        Connection connection = dataSource(statistics).getConnection();
+
+        // Act
+        connection.prepareStatement("select * from users").executeQuery();
+        connection.prepareStatement("select * from products").executeQuery();
+        connection.prepareStatement("select * from transactions").executeQuery();
+
+        // Assert
+        List<StatementSummary> slowest = statistics.slowest(10);
+        assertEquals(2, slowest.size());
+        assertEquals(2, find(slowest, StatementStatistics.OTHER).count());
+    }
+
+    @Test
+    void fingerprint_ShouldReplaceLiteralsButKeepIdentifiers() {
+        assertEquals("select p1_0.id from products p1_0 where p1_0.name = ? and p1_0.price > ? limit ?",
+                SqlFingerprint.of("select p1_0.id from products p1_0\n  where p1_0.name = 'it''s' and p1_0.price > 10.50 limit 20"));
+    }
+
+    @Test
+    void close_ShouldCloseTargetThroughBulkhead() throws Exception {
+        // Arrange: kedua pembungkus bertumpuk di depan Hikari saat bulkhead aktif
+        HikariDataSource hikari = mock(HikariDataSource.class);
+        StatementMetricsDataSource dataSource = new StatementMetricsDataSource(
+                new BulkheadDataSource(hikari, 2, Duration.ofMillis(50)),
+                new StatementStatistics(Duration.ofMinutes(1), 500, MASKED_COLUMNS));
+
+        // Act
+        dataSource.close();
+
+        // Assert
+        verify(hikari).close();
+    }
+
+    private DataSource dataSource(StatementStatistics statistics) throws SQLException {
+        DataSource dataSource = mock(DataSource.class);
+        when(dataSource.getConnection()).thenReturn(target);
+        return new StatementMetricsDataSource(dataSource, statistics);
+    }
+
+    private static StatementSummary find(List<StatementSummary> summaries, String sql) {
+        return summaries.stream().filter(summary -> summary.sql().equals(sql)).findFirst().orElseThrow();
+    }
+}
@@ -0,0 +1,117 @@
+package com.store.store.config;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import com.store.store.event.UserChangedEvent;
+import com.store.store.model.TokenRevocation;
+import com.store.store.repository.TokenRevocationRepository;
+
+public class TokenRevocationListTest {
+
+    private final TokenRevocationRepository tokenRevocationRepository = Mockito.mock(TokenRevocationRepository.class);
+    private final TokenRevocationList tokenRevocationList =
+            new TokenRevocationList(tokenRevocationRepository, 3600000, Duration.ZERO);
+
+    @Test
+    void isRevoked_ShouldRejectTokensIssuedBeforeRevocation() {
+        // Arrange
+        Date issuedAt = new Date(System.currentTimeMillis() - 60000);
+
+        // Act
+        tokenRevocationList.revoke("testuser");
+
+        // Assert
+        assertTrue(tokenRevocationList.isRevoked("testuser", issuedAt));
+        assertFalse(tokenRevocationList.isRevoked("otheruser", issuedAt));
+    }
+
+    @Test
+    void onUserChanged_ShouldOnlyRevokeWhenCredentialsRevoked() {
+        // Arrange
+        Date issuedAt = new Date(System.currentTimeMillis() - 60000);
+
+        // Act
+        tokenRevocationList.onUserChanged(new UserChangedEvent("emailonly", false));
+        tokenRevocationList.onUserChanged(new UserChangedEvent("disabled", true));
+
+        // Assert
+        assertFalse(tokenRevocationList.isRevoked("emailonly", issuedAt));
+        assertTrue(tokenRevocationList.isRevoked("disabled", issuedAt));
+    }
+
+    @Test
+    void isRevoked_ShouldAcceptTokensIssuedAfterRevocation() {
+        // Arrange
+        tokenRevocationList.revoke("testuser");
+
+        // Act & Assert
+        assertFalse(tokenRevocationList.isRevoked("testuser", new Date(System.currentTimeMillis() + 5000)));
+    }
+
+    @Test
+    void isRevoked_ShouldCompareWithMillisecondPrecision() {
+        // Arrange
+        long revokedAt = System.currentTimeMillis();
+        tokenRevocationList.revoke("testuser", revokedAt);
+
+        // Act & Assert
+        // Terbit di detik yang sama tapi sebelum pencabutan: ditolak
+        assertTrue(tokenRevocationList.isRevoked("testuser", new Date(revokedAt - 1)));
+        assertTrue(tokenRevocationList.isRevoked("testuser", new Date(revokedAt)));
+        assertFalse(tokenRevocationList.isRevoked("testuser", new Date(revokedAt + 1)));
+    }
+
+    @Test
+    void revoke_ShouldKeepTheLatestRevocation() {
+        // Arrange
+        long revokedAt = System.currentTimeMillis();
+        tokenRevocationList.revoke("testuser", revokedAt);
+
+        // Act
+        tokenRevocationList.revoke("testuser", revokedAt - 5000);
+
+        // Assert
+        assertTrue(tokenRevocationList.isRevoked("testuser", new Date(revokedAt - 1)));
+    }
+
+    @Test
+    void persistRevocation_ShouldStoreRevocationTimeOnlyWhenCredentialsRevoked() {
+        // Arrange
+        long before = System.currentTimeMillis();
+
+        // Act
+        tokenRevocationList.persistRevocation(new UserChangedEvent("emailonly", false));
+        tokenRevocationList.persistRevocation(new UserChangedEvent("disabled", true));
+
+        // Assert
+        ArgumentCaptor<TokenRevocation> saved = ArgumentCaptor.forClass(TokenRevocation.class);
+        Mockito.verify(tokenRevocationRepository).save(saved.capture());
+        assertEquals("disabled", saved.getValue().getUsername());
+        assertTrue(saved.getValue().getRevokedAt() >= before);
+    }
+
+    @Test
+    void refresh_ShouldLoadRevocationsStoredByOtherNodes() {
+        // Arrange: dicabut di node lain, atau di node ini sebelum restart
+        long revokedAt = System.currentTimeMillis() - 1000;
+        Mockito.when(tokenRevocationRepository.findByRevokedAtGreaterThanEqual(Mockito.anyLong()))
+                .thenReturn(List.of(new TokenRevocation("disabled", revokedAt)));
+
+        // Act
+        tokenRevocationList.refresh();
+
+        // Assert
+        assertTrue(tokenRevocationList.isRevoked("disabled", new Date(revokedAt - 60000)));
+        assertFalse(tokenRevocationList.isRevoked("disabled", new Date(revokedAt + 1)));
+        Mockito.verify(tokenRevocationRepository).deleteExpired(Mockito.longThat(
+                expiredBefore -> expiredBefore <= System.currentTimeMillis() - 3600000));
+    }
+}
@@ -0,0 +1,42 @@
+package com.store.store.controller;
+
+import com.store.store.DTO.StatementSummary;
+import com.store.store.config.StatementStatistics;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AdminControllerTest {
+
+    private final StatementStatistics statementStatistics = Mockito.mock(StatementStatistics.class);
+    private final AdminController adminController = new AdminController(statementStatistics);
+
+    @Test
+    void testGetSlowQueries() {
+        // Arrange
+        List<StatementSummary> slowest = List.of(new StatementSummary("1a2b", "select * from users where id = ?",
+                3, 30, 10, 9, 12, 12, 12, null));
+        Mockito.when(statementStatistics.slowest(5)).thenReturn(slowest);
+
+        // Act
+        ResponseEntity<List<StatementSummary>> response = adminController.getSlowQueries(5);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(slowest, response.getBody());
+    }
+
+    @Test
+    void testGetSlowQueriesClampsLimit() {
+        // Act
+        adminController.getSlowQueries(10_000);
+
+        // Assert
+        Mockito.verify(statementStatistics).slowest(100);
+    }
+}
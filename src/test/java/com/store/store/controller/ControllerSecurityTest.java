@@ -0,0 +1,162 @@
+package com.store.store.controller;
+
+import com.store.store.config.JwtTokenProvider;
+import com.store.store.config.SecurityConfig;
+import com.store.store.config.TokenRevocationList;
+import com.store.store.model.User;
+import com.store.store.service.ProductImportService;
+import com.store.store.service.ProductSearchService;
+import com.store.store.service.ProductService;
+import com.store.store.service.SalesRollupService;
+import com.store.store.service.SellerService;
+import com.store.store.service.UserDetailsServiceImpl;
+import com.store.store.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// @PreAuthorize lewat filter chain dan method security sungguhan; test controller lain memanggil method langsung
+@WebMvcTest(controllers = {UserController.class, ReportController.class, SellerController.class,
+        ProductController.class})
+@Import(SecurityConfig.class)
+class ControllerSecurityTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private UserService userService;
+
+    @MockitoBean
+    private SalesRollupService salesRollupService;
+
+    @MockitoBean
+    private SellerService sellerService;
+
+    @MockitoBean
+    private ProductService productService;
+
+    @MockitoBean
+    private ProductSearchService productSearchService;
+
+    @MockitoBean
+    private ProductImportService productImportService;
+
+    // Dependency JwtAuthenticationFilter dan SecurityConfig; request test tidak membawa Bearer token
+    @MockitoBean
+    private JwtTokenProvider jwtTokenProvider;
+
+    @MockitoBean
+    private TokenRevocationList tokenRevocationList;
+
+    @MockitoBean
+    private UserDetailsServiceImpl userDetailsService;
+
+    @Test
+    @WithMockUser(username = "buyer", roles = "USER")
+    void disableUser_NonAdmin_Forbidden() throws Exception {
+        mockMvc.perform(put("/api/users/1/disable"))
+                .andExpect(status().isForbidden());
+
+        Mockito.verifyNoInteractions(userService);
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    void disableUser_Admin_Ok() throws Exception {
+        Mockito.when(userService.disableUser(1L)).thenReturn(new User());
+
+        mockMvc.perform(put("/api/users/1/disable"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void disableUser_Anonymous_Forbidden() throws Exception {
+        mockMvc.perform(put("/api/users/1/disable"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    @WithMockUser(username = "seller", roles = "SELLER")
+    void salesReport_NonAdmin_Forbidden() throws Exception {
+        mockMvc.perform(get("/api/reports/sales/SELLER")
+                        .param("from", "2024-01-01T00:00:00")
+                        .param("to", "2024-02-01T00:00:00"))
+                .andExpect(status().isForbidden());
+
+        Mockito.verifyNoInteractions(salesRollupService);
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    void salesReport_Admin_Ok() throws Exception {
+        mockMvc.perform(get("/api/reports/sales/CATEGORY")
+                        .param("from", "2024-01-01T00:00:00")
+                        .param("to", "2024-02-01T00:00:00"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @WithMockUser(username = "other", roles = "SELLER")
+    void sellerSummary_OtherSeller_Forbidden() throws Exception {
+        mockMvc.perform(get("/api/sellers/seller/summary"))
+                .andExpect(status().isForbidden());
+
+        Mockito.verifyNoInteractions(sellerService);
+    }
+
+    @Test
+    @WithMockUser(username = "seller", roles = "SELLER")
+    void sellerSummary_OwnSummary_Ok() throws Exception {
+        mockMvc.perform(get("/api/sellers/seller/summary"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @WithMockUser(username = "seller", roles = "SELLER")
+    void importProducts_Seller_ImportsAsAuthenticatedSeller() throws Exception {
+        mockMvc.perform(post("/api/products/import")
+                        .contentType("text/csv")
+                        .header("username", "other")
+                        .content("name,price,stock,category\n"))
+                .andExpect(status().isOk());
+
+        Mockito.verify(productImportService).importCsv(any(), eq("seller"));
+    }
+
+    @Test
+    @WithMockUser(username = "other", roles = "SELLER")
+    void importProducts_SellerForAnotherSeller_Forbidden() throws Exception {
+        mockMvc.perform(post("/api/products/import")
+                        .param("seller", "seller")
+                        .contentType("text/csv")
+                        .content("name,price,stock,category\n"))
+                .andExpect(status().isForbidden());
+
+        Mockito.verifyNoInteractions(productImportService);
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    void importProducts_AdminForSeller_Ok() throws Exception {
+        mockMvc.perform(post("/api/products/import")
+                        .param("seller", "seller")
+                        .contentType("application/x-ndjson")
+                        .content("{}\n"))
+                .andExpect(status().isOk());
+
+        Mockito.verify(productImportService).importNdjson(any(), eq("seller"));
+    }
+}
@@ -1,8 +1,14 @@
 package com.store.store.controller;
 
 import com.store.store.DTO.ProductDto;
+import com.store.store.DTO.ProductImportReport;
+import com.store.store.DTO.ProductPage;
+import com.store.store.DTO.ProductSuggestion;
 import com.store.store.model.Product;
 import com.store.store.model.ProductCategory;
+import com.store.store.model.ProductSort;
+import com.store.store.service.ProductImportService;
+import com.store.store.service.ProductSearchService;
 import com.store.store.service.ProductService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -13,6 +19,8 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
 import java.math.BigDecimal;
 import java.util.Arrays;
 import java.util.List;
@@ -28,6 +36,12 @@ public class ProductControllerTest {
     @Mock
     private ProductService productService;
 
+    @Mock
+    private ProductSearchService productSearchService;
+
+    @Mock
+    private ProductImportService productImportService;
+
     @InjectMocks
     private ProductController productController;
 
@@ -74,26 +88,93 @@ public class ProductControllerTest {
     @Test
     void getAllProducts_ReturnsListOfProducts() {
         // Arrange
-        List<Product> products = Arrays.asList(product);
-        when(productService.getAllProducts()).thenReturn(products);
+        ProductPage page = new ProductPage(Arrays.asList(productDto), "next-cursor");
+        when(productService.getAllProducts(null, null, ProductSort.ID)).thenReturn(page);
 
         // Act
-        ResponseEntity<List<Product>> response = productController.getAllProducts();
+        ResponseEntity<ProductPage> response = productController.getAllProducts(null, null, ProductSort.ID);
 
         // Assert
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
-        assertEquals(1, response.getBody().size());
-        verify(productService).getAllProducts();
+        assertEquals(1, response.getBody().getItems().size());
+        assertEquals("next-cursor", response.getBody().getNext());
+        verify(productService).getAllProducts(null, null, ProductSort.ID);
+    }
+
+    @Test
+    void searchProducts_ReturnsRankedPage() {
+        // Arrange
+        ProductPage page = new ProductPage(Arrays.asList(productDto), "next-cursor");
+        when(productSearchService.search("test", ProductCategory.ELECTRONICS, null, new BigDecimal("100"), null, 10))
+                .thenReturn(page);
+
+        // Act
+        ResponseEntity<ProductPage> response = productController.searchProducts("test",
+                ProductCategory.ELECTRONICS, null, new BigDecimal("100"), null, 10);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(page, response.getBody());
+        verify(productSearchService).search("test", ProductCategory.ELECTRONICS, null, new BigDecimal("100"), null, 10);
+    }
+
+    @Test
+    void importProductsCsv_ReturnsReport() {
+        // Arrange
+        InputStream body = new ByteArrayInputStream(new byte[0]);
+        ProductImportReport report = new ProductImportReport(2, 1,
+                List.of(new ProductImportReport.RowError(3, List.of("Product name is required"))));
+        when(productImportService.importCsv(body, "seller")).thenReturn(report);
+
+        // Act
+        ResponseEntity<ProductImportReport> response = productController.importProductsCsv(body, null, () -> "seller");
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(report, response.getBody());
+        verify(productImportService, never()).importNdjson(any(), any());
+    }
+
+    @Test
+    void importProductsNdjson_SellerOverride_ImportsForThatSeller() {
+        // Arrange
+        InputStream body = new ByteArrayInputStream(new byte[0]);
+        ProductImportReport report = new ProductImportReport(1, 0, List.of());
+        when(productImportService.importNdjson(body, "seller")).thenReturn(report);
+
+        // Act
+        ResponseEntity<ProductImportReport> response = productController.importProductsNdjson(body, "seller",
+                () -> "admin");
+
+        // Assert
+        assertEquals(report, response.getBody());
+    }
+
+    @Test
+    void suggestProducts_ReturnsSuggestions() {
+        // Arrange
+        List<ProductSuggestion> suggestions = List.of(new ProductSuggestion(PRODUCT_ID, "Test Product"));
+        when(productSearchService.suggest("tes", 5)).thenReturn(suggestions);
+
+        // Act
+        ResponseEntity<List<ProductSuggestion>> response = productController.suggestProducts("tes", 5);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(suggestions, response.getBody());
     }
 
     @Test
     void getProductById_ExistingId_ReturnsProduct() {
         // Arrange
-        when(productService.getProductById(PRODUCT_ID)).thenReturn(product);
+        ProductDto found = new ProductDto();
+        found.setId(PRODUCT_ID);
+        found.setName("Test Product");
+        when(productService.getProductById(PRODUCT_ID)).thenReturn(found);
 
         // Act
-        ResponseEntity<Product> response = productController.getProductById(PRODUCT_ID);
+        ResponseEntity<ProductDto> response = productController.getProductById(PRODUCT_ID);
 
         // Assert
         assertEquals(HttpStatus.OK, response.getStatusCode());
@@ -134,19 +215,20 @@ public class ProductControllerTest {
     @Test
     void getProductsByCategory_ValidCategory_ReturnsFilteredProducts() {
         // Arrange
-        List<Product> products = Arrays.asList(product);
-        when(productService.getProductsByCategory(ProductCategory.ELECTRONICS))
-                .thenReturn(products);
+        ProductPage page = new ProductPage(Arrays.asList(productDto), null);
+        when(productService.getProductsByCategory(ProductCategory.ELECTRONICS, null, 10, ProductSort.PRICE))
+                .thenReturn(page);
 
         // Act
-        ResponseEntity<List<Product>> response = productController.getProductsByCategory(ProductCategory.ELECTRONICS);
+        ResponseEntity<ProductPage> response =
+                productController.getProductsByCategory(ProductCategory.ELECTRONICS, null, 10, ProductSort.PRICE);
 
         // Assert
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
-        assertEquals(1, response.getBody().size());
-        assertEquals(ProductCategory.ELECTRONICS, response.getBody().get(0).getCategory());
-        verify(productService).getProductsByCategory(ProductCategory.ELECTRONICS);
+        assertEquals(1, response.getBody().getItems().size());
+        assertEquals(ProductCategory.ELECTRONICS, response.getBody().getItems().get(0).getCategory());
+        verify(productService).getProductsByCategory(ProductCategory.ELECTRONICS, null, 10, ProductSort.PRICE);
     }
 
     @Test
@@ -154,19 +236,20 @@ public class ProductControllerTest {
         // Arrange
         BigDecimal minPrice = new BigDecimal("50.00");
         BigDecimal maxPrice = new BigDecimal("150.00");
-        List<Product> products = Arrays.asList(product);
-        when(productService.getProductsByPriceRange(minPrice, maxPrice))
-                .thenReturn(products);
+        ProductPage page = new ProductPage(Arrays.asList(productDto), null);
+        when(productService.getProductsByPriceRange(minPrice, maxPrice, null, null, null, ProductSort.ID))
+                .thenReturn(page);
 
         // Act
-        ResponseEntity<List<Product>> response = productController.getProductsByPriceRange(minPrice, maxPrice);
+        ResponseEntity<ProductPage> response =
+                productController.getProductsByPriceRange(minPrice, maxPrice, null, null, null, ProductSort.ID);
 
         // Assert
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
-        assertEquals(1, response.getBody().size());
-        assertTrue(response.getBody().get(0).getPrice().compareTo(minPrice) >= 0);
-        assertTrue(response.getBody().get(0).getPrice().compareTo(maxPrice) <= 0);
-        verify(productService).getProductsByPriceRange(minPrice, maxPrice);
+        assertEquals(1, response.getBody().getItems().size());
+        assertTrue(response.getBody().getItems().get(0).getPrice().compareTo(minPrice) >= 0);
+        assertTrue(response.getBody().getItems().get(0).getPrice().compareTo(maxPrice) <= 0);
+        verify(productService).getProductsByPriceRange(minPrice, maxPrice, null, null, null, ProductSort.ID);
     }
 }
\ No newline at end of file
@@ -0,0 +1,57 @@
+package com.store.store.controller;
+
+import com.store.store.DTO.SalesBucket;
+import com.store.store.DTO.SalesTotal;
+import com.store.store.model.SalesDimension;
+import com.store.store.model.SalesGranularity;
+import com.store.store.service.SalesRollupService;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ReportControllerTest {
+
+    private final SalesRollupService salesRollupService = Mockito.mock(SalesRollupService.class);
+    private final ReportController reportController = new ReportController(salesRollupService);
+
+    private final LocalDateTime from = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private final LocalDateTime to = LocalDateTime.of(2024, 2, 1, 0, 0);
+
+    @Test
+    void testGetTotals() {
+        // Arrange
+        List<SalesTotal> totals = List.of(new SalesTotal("BOOKS", 3, 3750, 2));
+        Mockito.when(salesRollupService.getTotals(SalesDimension.CATEGORY, SalesGranularity.DAY, from, to))
+                .thenReturn(totals);
+
+        // Act
+        ResponseEntity<List<SalesTotal>> response =
+                reportController.getTotals(SalesDimension.CATEGORY, SalesGranularity.DAY, from, to);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(totals, response.getBody());
+    }
+
+    @Test
+    void testGetBuckets() {
+        // Arrange
+        List<SalesBucket> buckets = List.of(new SalesBucket(from, 1, 1999, 1));
+        Mockito.when(salesRollupService.getBuckets(SalesDimension.PRODUCT, "42", SalesGranularity.HOUR, from, to))
+                .thenReturn(buckets);
+
+        // Act
+        ResponseEntity<List<SalesBucket>> response =
+                reportController.getBuckets(SalesDimension.PRODUCT, "42", SalesGranularity.HOUR, from, to);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(buckets, response.getBody());
+    }
+}
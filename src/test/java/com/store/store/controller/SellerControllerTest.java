@@ -0,0 +1,34 @@
+package com.store.store.controller;
+
+import com.store.store.DTO.SellerSummary;
+import com.store.store.service.SellerService;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SellerControllerTest {
+
+    private final SellerService sellerService = Mockito.mock(SellerService.class);
+    private final SellerController sellerController = new SellerController(sellerService);
+
+    @Test
+    void testGetSummary() {
+        // Arrange
+        LocalDateTime from = LocalDateTime.of(2024, 1, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2024, 2, 1, 0, 0);
+        SellerSummary summary = new SellerSummary("seller", from, to, 2, 72500, 4, 33750);
+        Mockito.when(sellerService.getSummary("seller", from, to)).thenReturn(summary);
+
+        // Act
+        ResponseEntity<SellerSummary> response = sellerController.getSummary("seller", from, to);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(summary, response.getBody());
+    }
+}
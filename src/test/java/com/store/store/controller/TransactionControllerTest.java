@@ -1,15 +1,31 @@
 package com.store.store.controller;
 
+import com.store.store.DTO.TransactionBatchResult;
 import com.store.store.DTO.TransactionDto;
+import com.store.store.config.WebConfig;
+import com.store.store.service.AsyncTransactionService;
+import com.store.store.service.TransactionBatchService;
+import com.store.store.service.TransactionExportService;
+import com.store.store.service.TransactionIdempotencyService;
 import com.store.store.service.TransactionService;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
+import org.springframework.boot.autoconfigure.web.format.DateTimeFormatters;
+import org.springframework.boot.autoconfigure.web.format.WebConversionService;
+import org.springframework.core.convert.ConversionFailedException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.Principal;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -18,7 +34,14 @@ import static org.mockito.ArgumentMatchers.eq;
 class TransactionControllerTest {
 
     private final TransactionService transactionService = Mockito.mock(TransactionService.class);
-    private final TransactionController transactionController = new TransactionController(transactionService);
+    private final TransactionExportService transactionExportService = Mockito.mock(TransactionExportService.class);
+    private final TransactionBatchService transactionBatchService = Mockito.mock(TransactionBatchService.class);
+    private final AsyncTransactionService asyncTransactionService = Mockito.mock(AsyncTransactionService.class);
+    private final TransactionIdempotencyService transactionIdempotencyService =
+            Mockito.mock(TransactionIdempotencyService.class);
+    private final TransactionController transactionController = new TransactionController(transactionService,
+            transactionExportService, transactionBatchService, asyncTransactionService, transactionIdempotencyService);
+    private final Principal principal = () -> "buyer";
 
     @Test
     void testGetAllTransactions() {
@@ -28,7 +51,7 @@ class TransactionControllerTest {
         transaction1.setUserId(101L);
         transaction1.setProductId(201L);
         transaction1.setQuantity(2);
-        transaction1.setTotalPrice(100.0);
+        transaction1.setTotalPriceMinor(10000L);
         transaction1.setCreatedAt(LocalDateTime.now());
 
         TransactionDto transaction2 = new TransactionDto();
@@ -36,7 +59,7 @@ class TransactionControllerTest {
         transaction2.setUserId(102L);
         transaction2.setProductId(202L);
         transaction2.setQuantity(3);
-        transaction2.setTotalPrice(200.0);
+        transaction2.setTotalPriceMinor(20000L);
         transaction2.setCreatedAt(LocalDateTime.now());
 
         List<TransactionDto> transactions = Arrays.asList(transaction1, transaction2);
@@ -61,20 +84,20 @@ class TransactionControllerTest {
         transaction.setUserId(101L);
         transaction.setProductId(201L);
         transaction.setQuantity(2);
-        transaction.setTotalPrice(100.0);
+        transaction.setTotalPriceMinor(10000L);
         transaction.setCreatedAt(LocalDateTime.now());
 
-        Mockito.when(transactionService.createTransaction(any(TransactionDto.class))).thenReturn(transaction);
+        Mockito.when(transactionService.createTransaction(any(TransactionDto.class), any())).thenReturn(transaction);
 
         TransactionDto requestTransaction = new TransactionDto();
         requestTransaction.setUserId(101L);
         requestTransaction.setProductId(201L);
         requestTransaction.setQuantity(2);
-        requestTransaction.setTotalPrice(100.0);
+        requestTransaction.setTotalPriceMinor(10000L);
         requestTransaction.setCreatedAt(LocalDateTime.now());
 
         // Act
-        ResponseEntity<TransactionDto> response = transactionController.createTransaction(requestTransaction);
+        ResponseEntity<TransactionDto> response = transactionController.createTransaction(requestTransaction, null, principal);
 
         // Assert
         assertEquals(HttpStatus.CREATED, response.getStatusCode());
@@ -91,7 +114,7 @@ class TransactionControllerTest {
         transaction.setUserId(101L);
         transaction.setProductId(201L);
         transaction.setQuantity(2);
-        transaction.setTotalPrice(100.0);
+        transaction.setTotalPriceMinor(10000L);
         transaction.setCreatedAt(LocalDateTime.now());
 
         Mockito.when(transactionService.getTransactionById(1L)).thenReturn(transaction);
@@ -114,7 +137,7 @@ class TransactionControllerTest {
         updatedTransaction.setUserId(101L);
         updatedTransaction.setProductId(201L);
         updatedTransaction.setQuantity(5);
-        updatedTransaction.setTotalPrice(250.0);
+        updatedTransaction.setTotalPriceMinor(25000L);
         updatedTransaction.setCreatedAt(LocalDateTime.now());
 
         Mockito.when(transactionService.updateTransaction(eq(1L), any(TransactionDto.class))).thenReturn(updatedTransaction);
@@ -123,7 +146,7 @@ class TransactionControllerTest {
         requestTransaction.setUserId(101L);
         requestTransaction.setProductId(201L);
         requestTransaction.setQuantity(5);
-        requestTransaction.setTotalPrice(250.0);
+        requestTransaction.setTotalPriceMinor(25000L);
         requestTransaction.setCreatedAt(LocalDateTime.now());
 
         // Act
@@ -147,4 +170,111 @@ class TransactionControllerTest {
         // Assert
         assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
     }
+
+    @Test
+    void testExportTransactionsStreamsFromExportService() throws Exception {
+        // Arrange
+        LocalDateTime from = LocalDateTime.of(2024, 1, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2024, 2, 1, 0, 0);
+        Mockito.doAnswer(invocation -> {
+            invocation.getArgument(3, OutputStream.class).write("{\"id\":1}\n".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(transactionExportService).export(eq(TransactionExportService.Format.NDJSON), eq(from), eq(to), any());
+
+        // Act
+        ResponseEntity<StreamingResponseBody> response =
+                transactionController.exportTransactions(TransactionExportService.Format.NDJSON, from, to);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("application/x-ndjson", response.getHeaders().getContentType().toString());
+        assertEquals("attachment; filename=\"transactions.ndjson\"",
+                response.getHeaders().getFirst(HttpHeaders.CONTENT_DISPOSITION));
+        assertEquals("{\"id\":1}\n", out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testExportFormatParameterIsCaseInsensitive() {
+        // Arrange: conversion service yang sama dengan yang dipakai Spring MVC untuk @RequestParam
+        WebConversionService conversionService = new WebConversionService(new DateTimeFormatters());
+        new WebConfig().addFormatters(conversionService);
+
+        // Act & Assert
+        assertEquals(TransactionExportService.Format.NDJSON,
+                conversionService.convert("ndjson", TransactionExportService.Format.class));
+        assertEquals(TransactionExportService.Format.CSV,
+                conversionService.convert("Csv", TransactionExportService.Format.class));
+        assertThrows(ConversionFailedException.class,
+                () -> conversionService.convert("xml", TransactionExportService.Format.class));
+    }
+
+    @Test
+    void testCreateTransactionsBatch() {
+        // Arrange
+        TransactionDto item = new TransactionDto(null, 101L, 201L, 2, null, null);
+        TransactionDto created = new TransactionDto(1L, 101L, 201L, 2, 10000L, LocalDateTime.now());
+        List<TransactionBatchResult> results = List.of(
+                new TransactionBatchResult(0, TransactionBatchResult.Status.CREATED, created, null),
+                new TransactionBatchResult(1, TransactionBatchResult.Status.INSUFFICIENT_STOCK, null, "Insufficient stock"));
+        Mockito.when(transactionBatchService.createTransactions(List.of(item, item))).thenReturn(results);
+
+        // Act
+        ResponseEntity<List<TransactionBatchResult>> response = transactionController.createTransactions(List.of(item, item));
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(results, response.getBody());
+    }
+
+    @Test
+    void testCreateTransactionAsyncReturnsAccepted() {
+        // Arrange
+        TransactionDto request = new TransactionDto(null, 101L, 201L, 2, null, null);
+        TransactionDto accepted = new TransactionDto(51L, 101L, 201L, 2, 10000L, LocalDateTime.now());
+        Mockito.when(asyncTransactionService.isEnabled()).thenReturn(true);
+        Mockito.when(asyncTransactionService.submit(eq(request), any())).thenReturn(accepted);
+
+        // Act
+        ResponseEntity<TransactionDto> response = transactionController.createTransaction(request, null, principal);
+
+        // Assert
+        assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+        assertEquals("/api/transactions/51", response.getHeaders().getLocation().toString());
+        assertEquals(accepted, response.getBody());
+        Mockito.verifyNoInteractions(transactionService);
+    }
+
+    @Test
+    void testGetPendingTransactionReturnsAccepted() {
+        // Arrange
+        TransactionDto pending = new TransactionDto(51L, 101L, 201L, 2, 10000L, LocalDateTime.now());
+        Mockito.when(asyncTransactionService.findPending(51L)).thenReturn(Optional.of(pending));
+
+        // Act
+        ResponseEntity<TransactionDto> response = transactionController.getTransactionById(51L);
+
+        // Assert
+        assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+        assertEquals(pending, response.getBody());
+        Mockito.verifyNoInteractions(transactionService);
+    }
+
+    @Test
+    void testCreateTransactionWithIdempotencyKeyReturnsStoredResponse() {
+        // Arrange
+        TransactionDto request = new TransactionDto(null, 101L, 201L, 2, null, null);
+        TransactionDto created = new TransactionDto(1L, 101L, 201L, 2, 10000L, LocalDateTime.now());
+        Mockito.when(transactionIdempotencyService.execute(eq("buyer"), eq("retry-1"), eq(request), any()))
+                .thenReturn(new TransactionIdempotencyService.Response(HttpStatus.CREATED, created));
+
+        // Act
+        ResponseEntity<TransactionDto> response = transactionController.createTransaction(request, "retry-1", principal);
+
+        // Assert
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        assertEquals(created, response.getBody());
+        Mockito.verifyNoInteractions(transactionService);
+    }
 }
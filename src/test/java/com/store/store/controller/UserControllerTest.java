@@ -113,6 +113,25 @@ class UserControllerTest {
         assertEquals("updateduser", response.getBody().getUsername());
     }
 
+    @Test
+    void testDisableUser() {
+        // Arrange
+        User disabledUser = new User();
+        disabledUser.setId(1L);
+        disabledUser.setUsername("testuser");
+        disabledUser.setEnabled(false);
+
+        Mockito.when(userService.disableUser(1L)).thenReturn(disabledUser);
+
+        // Act
+        ResponseEntity<User> response = userController.disableUser(1L);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNotNull(response.getBody());
+        assertFalse(response.getBody().getEnabled());
+    }
+
     @Test
     void testDeleteUser() {
         // Arrange
@@ -0,0 +1,150 @@
+package com.store.store.loadtest;
+
+import com.store.store.StoreApplication;
+import com.store.store.config.JwtTokenProvider;
+import com.store.store.config.UserPrincipal;
+import com.store.store.model.Product;
+import com.store.store.model.ProductCategory;
+import com.store.store.model.User;
+import com.store.store.model.UserRole;
+import com.store.store.repository.ProductRepository;
+import com.store.store.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Perbandingan throughput dan p99 GET /api/products antara thread platform Tomcat dan
+ * virtual thread (+ bulkhead DataSource). Aplikasi dijalankan dua kali di port acak dengan H2.
+ * Tidak ikut build biasa, jalankan manual:
+ * mvn test -Dtest=VirtualThreadLoadTest -Dloadtest=true [-Dloadtest.requests=20000 -Dloadtest.concurrency=500]
+ */
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+class VirtualThreadLoadTest {
+
+    private static final int REQUESTS = Integer.getInteger("loadtest.requests", 20_000);
+    private static final int CONCURRENCY = Integer.getInteger("loadtest.concurrency", 500);
+    private static final int WARMUP_REQUESTS = 2_000;
+
+    @Test
+    void comparePlatformAndVirtualThreads() throws Exception {
+        Result platform = run(false);
+        Result virtual = run(true);
+
+        System.out.printf("%n%-10s %12s %10s %10s %8s%n", "mode", "req/s", "p50 ms", "p99 ms", "errors");
+        System.out.println(platform);
+        System.out.println(virtual);
+        assertEquals(0, platform.errors());
+        assertEquals(0, virtual.errors());
+    }
+
+    private Result run(boolean virtualThreads) throws Exception {
+        String mode = virtualThreads ? "virtual" : "platform";
+        // Argumen command line supaya menang atas application.properties
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(StoreApplication.class).run(
+                "--server.port=0",
+                "--spring.threads.virtual.enabled=" + virtualThreads,
+                "--spring.datasource.url=jdbc:h2:mem:loadtest-" + mode + ";DB_CLOSE_DELAY=-1",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--management.server.port=0",
+                "--spring.docker.compose.enabled=false")) {
+            String token = seed(context);
+            int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+            URI uri = URI.create("http://localhost:" + port + "/api/products?size=20&sort=PRICE");
+
+            try (HttpClient client = HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor()).build()) {
+                HttpRequest request = HttpRequest.newBuilder(uri).header("Authorization", "Bearer " + token).GET().build();
+                fire(client, request, WARMUP_REQUESTS, new long[WARMUP_REQUESTS], new AtomicInteger());
+
+                long[] latencies = new long[REQUESTS];
+                AtomicInteger errors = new AtomicInteger();
+                long started = System.nanoTime();
+                fire(client, request, REQUESTS, latencies, errors);
+                long elapsed = System.nanoTime() - started;
+
+                Arrays.sort(latencies);
+                return new Result(mode, REQUESTS / (elapsed / 1e9),
+                        latencies[REQUESTS / 2] / 1e6, latencies[(int) (REQUESTS * 0.99)] / 1e6, errors.get());
+            }
+        }
+    }
+
+    private static void fire(HttpClient client, HttpRequest request, int count, long[] latencies, AtomicInteger errors)
+            throws InterruptedException {
+        Semaphore inFlight = new Semaphore(CONCURRENCY);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < count; i++) {
+                int index = i;
+                inFlight.acquire();
+                executor.execute(() -> {
+                    long start = System.nanoTime();
+                    try {
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() != 200) {
+                            errors.incrementAndGet();
+                        }
+                    } catch (Exception e) {
+                        errors.incrementAndGet();
+                    } finally {
+                        latencies[index] = System.nanoTime() - start;
+                        inFlight.release();
+                    }
+                });
+            }
+            executor.shutdown();
+            executor.awaitTermination(5, TimeUnit.MINUTES);
+        }
+    }
+
+    private static String seed(ConfigurableApplicationContext context) {
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        ProductRepository productRepository = context.getBean(ProductRepository.class);
+
+        User user = new User();
+        user.setUsername("loadtest");
+        user.setEmail("loadtest@example.com");
+        user.setPassword("unused");
+        user.setRole(UserRole.ROLE_SELLER);
+        user = userRepository.save(user);
+
+        for (int i = 0; i < 500; i++) {
+            Product product = new Product();
+            product.setName("Product " + i);
+            product.setPrice(BigDecimal.valueOf(1 + i % 97));
+            product.setStock(100);
+            product.setCategory(ProductCategory.values()[i % ProductCategory.values().length]);
+            product.setSeller(user);
+            productRepository.save(product);
+        }
+
+        List<SimpleGrantedAuthority> authorities = List.of(new SimpleGrantedAuthority(user.getRole().name()));
+        UserPrincipal principal = new UserPrincipal(user.getId(), user.getUsername(), user.getPassword(), true, authorities);
+        return context.getBean(JwtTokenProvider.class)
+                .generateToken(new UsernamePasswordAuthenticationToken(principal, null, authorities));
+    }
+
+    private record Result(String mode, double throughput, double p50Millis, double p99Millis, int errors) {
+        @Override
+        public String toString() {
+            return String.format("%-10s %12.0f %10.2f %10.2f %8d", mode, throughput, p50Millis, p99Millis, errors);
+        }
+    }
+}
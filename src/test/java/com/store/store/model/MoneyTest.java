@@ -0,0 +1,46 @@
+package com.store.store.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MoneyTest {
+
+    @Test
+    void toMinorRoundsLikeNumericColumn() {
+        assertEquals(1999L, Money.toMinor(new BigDecimal("19.99")));
+        assertEquals(1000L, Money.toMinor(BigDecimal.TEN));
+        assertEquals(1001L, Money.toMinor(new BigDecimal("10.005")));
+        assertEquals(1000L, Money.toMinor(new BigDecimal("10.005"), RoundingMode.FLOOR));
+    }
+
+    @Test
+    void sumsStayExactWhereDoubleDrifts() {
+        long total = 0;
+        double drifting = 0;
+        for (int i = 0; i < 10; i++) {
+            total = Money.add(total, Money.multiply(Money.toMinor(new BigDecimal("0.10")), 1));
+            drifting += 0.10;
+        }
+
+        assertEquals(new BigDecimal("1.00"), Money.toDecimal(total));
+        assertEquals(false, drifting == 1.0);
+    }
+
+    @Test
+    void overflowThrowsInsteadOfWrapping() {
+        assertThrows(ArithmeticException.class, () -> Money.multiply(Long.MAX_VALUE / 2, 3));
+    }
+
+    @Test
+    void formatWritesTwoDecimals() {
+        assertEquals("19.99", Money.format(1999L));
+        assertEquals("0.05", Money.format(5L));
+        assertEquals("100.00", Money.format(10000L));
+        assertEquals("-0.50", Money.format(-50L));
+    }
+}
@@ -0,0 +1,348 @@
+package com.store.store.repository;
+
+import com.store.store.model.IdempotencyKey;
+import com.store.store.model.Product;
+import com.store.store.model.ProductCategory;
+import com.store.store.model.SalesDimension;
+import com.store.store.model.SalesGranularity;
+import com.store.store.model.User;
+import com.store.store.model.UserRole;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.test.annotation.DirtiesContext;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static com.store.store.TestFixtures.product;
+import static com.store.store.TestFixtures.user;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Menjalankan migrasi Flyway di PostgreSQL embedded, memanggil query repository, lalu
+ * menjalankan EXPLAIN untuk setiap SELECT yang benar-benar dikirim Hibernate. Dengan
+ * enable_seqscan=off planner selalu memilih index jika ada yang cocok, jadi Seq Scan di plan
+ * berarti query tersebut tidak punya index (tabel di sini kosong, ukuran data tidak berpengaruh).
+ * Juga memastikan entity cocok dengan skema hasil migrasi (ddl-auto=validate).
+ */
+@DataJpaTest(properties = "spring.jpa.hibernate.ddl-auto=validate")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@DirtiesContext
+class QueryPlanRegressionTest {
+
+    private static EmbeddedPostgres postgres;
+    private static final RecordingDataSource recorder = new RecordingDataSource();
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private SalesRollupRepository salesRollupRepository;
+
+    @Autowired
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Autowired
+    private TokenRevocationRepository tokenRevocationRepository;
+
+    @TestConfiguration
+    static class EmbeddedPostgresConfig {
+        @Bean
+        DataSource dataSource() {
+            return recorder;
+        }
+    }
+
+    @BeforeAll
+    static void startPostgres() {
+        try {
+            postgres = EmbeddedPostgres.builder().start();
+        } catch (Exception e) {
+            // mis. dijalankan sebagai root: initdb menolak, test dilewati
+            Assumptions.abort("Embedded PostgreSQL unavailable: " + e.getMessage());
+        }
+        recorder.setTargetDataSource(postgres.getPostgresDatabase());
+    }
+
+    @AfterAll
+    static void stopPostgres() throws Exception {
+        if (postgres != null) {
+            postgres.close();
+        }
+    }
+
+    @BeforeEach
+    void clearRecordedQueries() {
+        recorder.queries.clear();
+    }
+
+    @Test
+    void userLookupsUseIndexes() throws SQLException {
+        userRepository.findByUsername("buyer");
+        userRepository.findByEmail("buyer@example.com");
+        userRepository.existsByUsername("buyer");
+        userRepository.existsByEmail("buyer@example.com");
+        userRepository.findExistingIds(List.of(1L, 2L));
+
+        assertNoSequentialScans();
+    }
+
+    @Test
+    void productLookupsUseIndexes() throws SQLException {
+        productRepository.findByCategory(ProductCategory.BOOKS);
+        productRepository.findBySellerUsername("seller");
+        productRepository.findProductsByPriceRange(BigDecimal.ONE, BigDecimal.TEN);
+        productRepository.findPricesByIdIn(List.of(1L, 2L));
+        productRepository.findDtoById(1L);
+        productRepository.findActiveIndexEntry(1L);
+        productRepository.findActiveSearchEntry(1L);
+        productRepository.findActiveSuggestion(1L);
+        productRepository.findDtosByIdIn(List.of(1L, 2L));
+
+        assertNoSequentialScans();
+    }
+
+    @Test
+    void productPagesUseIndexes() throws SQLException {
+        Limit limit = Limit.of(21);
+        BigDecimal min = BigDecimal.ONE;
+        BigDecimal max = BigDecimal.TEN;
+        BigDecimal afterPrice = new BigDecimal("5.00");
+
+        productRepository.findPageOrderById(0L, limit);
+        productRepository.findPageOrderByPrice(afterPrice, 0L, limit);
+        productRepository.findCategoryPageOrderById(ProductCategory.BOOKS, 0L, limit);
+        productRepository.findCategoryPageOrderByPrice(ProductCategory.BOOKS, afterPrice, 0L, limit);
+        productRepository.findPriceRangePageOrderById(min, max, 0L, limit);
+        productRepository.findPriceRangePageOrderByPrice(min, max, afterPrice, 0L, limit);
+        productRepository.findCategoryPriceRangePageOrderById(ProductCategory.BOOKS, min, max, 0L, limit);
+        productRepository.findCategoryPriceRangePageOrderByPrice(ProductCategory.BOOKS, min, max, afterPrice, 0L, limit);
+
+        assertNoSequentialScans();
+    }
+
+    @Test
+    void productSearchUsesGinIndex() throws SQLException {
+        productRepository.forceCustomPlans();
+        productRepository.searchActive("java buku", "java:A & buku:A", null, null, null, Float.POSITIVE_INFINITY, 0L, 1000, 21);
+        productRepository.searchActive("java", "java:A", "BOOKS", BigDecimal.ONE, BigDecimal.TEN, 0.5f, 10L, 1000, 21);
+
+        assertNoSequentialScans();
+    }
+
+    @Test
+    void productSearchKeepsNameMatchesBeyondCandidateLimit() {
+        User seller = userRepository.save(user("seller", UserRole.ROLE_SELLER));
+        // Dua kecocokan deskripsi tersimpan lebih dulu dan sudah memenuhi batas kandidat
+        Product first = saveProduct(seller, "Rak kayu", "Cocok untuk buku java");
+        Product second = saveProduct(seller, "Lampu baca", "Teman membaca java");
+        Product byName = saveProduct(seller, "Java", "Panduan pemrograman");
+        productRepository.flush();
+
+        productRepository.forceCustomPlans();
+        List<ProductRepository.SearchHitRow> rows = productRepository.searchActive("java", "java:A", null, null,
+                null, Float.POSITIVE_INFINITY, 0L, 2, 21);
+
+        assertEquals(List.of(byName.getId(), first.getId(), second.getId()),
+                rows.stream().map(ProductRepository.SearchHitRow::getId).toList());
+        assertTrue(rows.get(0).getTruncated());
+    }
+
+    // Kandidat = kecocokan dengan id terkecil, sama di setiap halaman: paging tidak mengulang atau melewatkan hasil
+    @Test
+    void productSearchCandidatesAreStableAcrossPages() {
+        User seller = userRepository.save(user("seller", UserRole.ROLE_SELLER));
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            ids.add(saveProduct(seller, "Produk " + i, "java ".repeat(i + 1)).getId());
+        }
+        productRepository.flush();
+
+        productRepository.forceCustomPlans();
+        List<Long> paged = new ArrayList<>();
+        float afterRank = Float.POSITIVE_INFINITY;
+        long afterId = 0L;
+        for (int page = 0; page < 5; page++) {
+            List<ProductRepository.SearchHitRow> rows = productRepository.searchActive("java", "java:A", null, null,
+                    null, afterRank, afterId, 3, 1);
+            if (rows.isEmpty()) {
+                break;
+            }
+            assertTrue(rows.get(0).getTruncated());
+            paged.add(rows.get(0).getId());
+            afterRank = rows.get(0).getRank();
+            afterId = rows.get(0).getId();
+        }
+
+        // Tiga id terkecil, urut rank menurun (lebih banyak kemunculan = rank lebih tinggi)
+        assertEquals(List.of(ids.get(2), ids.get(1), ids.get(0)), paged);
+    }
+
+    @Test
+    void sellerSummaryJoinsByIndex() throws SQLException {
+        LocalDateTime to = LocalDateTime.now();
+        productRepository.summarizeSeller("seller", to.minusDays(30), to);
+
+        assertNoSequentialScans();
+    }
+
+    @Test
+    void transactionLookupsUseIndexes() throws SQLException {
+        transactionRepository.findDtoById(1L);
+        transactionRepository.findExistingIds(List.of(1L, 2L));
+
+        assertNoSequentialScans();
+    }
+
+    @Test
+    void salesReportsReadRollupsByIndex() throws SQLException {
+        LocalDateTime to = LocalDateTime.now();
+        salesRollupRepository.findBuckets(SalesDimension.PRODUCT, "1", SalesGranularity.HOUR, to.minusDays(1), to);
+        salesRollupRepository.findTotals(SalesDimension.SELLER, SalesGranularity.DAY, to.minusDays(30), to);
+
+        assertNoSequentialScans();
+    }
+
+    @Test
+    void idempotencyKeyLookupsUseIndexes() throws SQLException {
+        idempotencyKeyRepository.findById(new IdempotencyKey.Key("buyer", "key-1"));
+
+        assertNoSequentialScans();
+    }
+
+    @Test
+    void tokenRevocationRefreshUsesIndex() throws SQLException {
+        tokenRevocationRepository.findByRevokedAtGreaterThanEqual(System.currentTimeMillis() - 3600000);
+        tokenRevocationRepository.findById("buyer");
+
+        assertNoSequentialScans();
+    }
+
+    private Product saveProduct(User seller, String name, String description) {
+        Product product = product(name, "10.00", 1, ProductCategory.BOOKS, seller);
+        product.setDescription(description);
+        return productRepository.save(product);
+    }
+
+    private void assertNoSequentialScans() throws SQLException {
+        List<RecordedQuery> selects = recorder.queries.stream()
+                .filter(query -> query.sql().trim().toLowerCase().startsWith("select"))
+                .toList();
+        assertFalse(selects.isEmpty(), "no SELECT statements were recorded");
+
+        try (Connection connection = postgres.getPostgresDatabase().getConnection()) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SET enable_seqscan = off");
+            }
+            for (RecordedQuery query : selects) {
+                String plan = explain(connection, query);
+                assertFalse(plan.contains("Seq Scan"), () -> "Sequential scan in\n" + query.sql() + "\n" + plan);
+            }
+        }
+    }
+
+    private static String explain(Connection connection, RecordedQuery query) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + query.sql())) {
+            for (Map.Entry<Integer, Object> parameter : query.parameters().entrySet()) {
+                statement.setObject(parameter.getKey(), parameter.getValue());
+            }
+            StringBuilder plan = new StringBuilder();
+            try (ResultSet rows = statement.executeQuery()) {
+                while (rows.next()) {
+                    plan.append(rows.getString(1)).append('\n');
+                }
+            }
+            return plan.toString();
+        }
+    }
+
+    private record RecordedQuery(String sql, Map<Integer, Object> parameters) {
+    }
+
+    /**
+     * Mencatat SQL dan parameter setiap PreparedStatement yang dieksekusi lewat DataSource ini.
+     */
+    static final class RecordingDataSource extends DelegatingDataSource {
+
+        final List<RecordedQuery> queries = new CopyOnWriteArrayList<>();
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return recording(super.getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return recording(super.getConnection(username, password));
+        }
+
+        private Connection recording(Connection connection) {
+            return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> {
+                        Object result = invoke(connection, method, args);
+                        if (method.getName().equals("prepareStatement") && result instanceof PreparedStatement statement) {
+                            return recording(statement, (String) args[0]);
+                        }
+                        return result;
+                    });
+        }
+
+        private PreparedStatement recording(PreparedStatement statement, String sql) {
+            Map<Integer, Object> parameters = new TreeMap<>();
+            return (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class}, (proxy, method, args) -> {
+                        String name = method.getName();
+                        if (name.equals("setNull")) {
+                            parameters.put((Integer) args[0], null);
+                        } else if (name.startsWith("set") && args != null && args.length >= 2
+                                && args[0] instanceof Integer index) {
+                            parameters.put(index, args[1]);
+                        } else if (name.startsWith("execute") && (args == null || args.length == 0)) {
+                            queries.add(new RecordedQuery(sql, new TreeMap<>(parameters)));
+                        }
+                        return invoke(statement, method, args);
+                    });
+        }
+
+        private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        }
+    }
+}
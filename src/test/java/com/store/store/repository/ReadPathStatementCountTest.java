@@ -0,0 +1,126 @@
+package com.store.store.repository;
+
+import com.store.store.DTO.ProductPage;
+import com.store.store.DTO.TransactionDto;
+import com.store.store.model.Product;
+import com.store.store.model.ProductCategory;
+import com.store.store.model.ProductSort;
+import com.store.store.model.Transaction;
+import com.store.store.model.User;
+import com.store.store.model.UserRole;
+import com.store.store.service.ProductCache;
+import com.store.store.service.ProductCatalogIndex;
+import com.store.store.service.ProductService;
+import com.store.store.service.SalesRollupService;
+import com.store.store.service.TransactionService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static com.store.store.TestFixtures.product;
+import static com.store.store.TestFixtures.user;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Memastikan read path memakai proyeksi DTO: satu request = satu statement SQL,
+ * berapa pun jumlah user, product dan seller yang direferensikan.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import({TransactionService.class, SalesRollupService.class, ProductService.class, ProductCache.class, ProductCatalogIndex.class})
+class ReadPathStatementCountTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private ProductService productService;
+
+    private Statistics statistics;
+    private Long firstTransactionId;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 3; i++) {
+            User seller = entityManager.persist(user("seller" + i, UserRole.ROLE_SELLER));
+            User buyer = entityManager.persist(user("buyer" + i, UserRole.ROLE_USER));
+            Product product = entityManager.persist(product("Product " + i, "10.00", 5, ProductCategory.BOOKS, seller));
+            Transaction transaction = entityManager.persist(transaction(buyer, product));
+            if (firstTransactionId == null) {
+                firstTransactionId = transaction.getId();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void getAllTransactions_UsesSingleStatement() {
+        List<TransactionDto> transactions = transactionService.getAllTransactions();
+
+        assertEquals(3, transactions.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void getTransactionById_UsesSingleStatement() {
+        TransactionDto transaction = transactionService.getTransactionById(firstTransactionId);
+
+        assertEquals(firstTransactionId, transaction.getId());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void getAllProducts_UsesSingleStatementWithoutLoadingSellers() {
+        ProductPage page = productService.getAllProducts(null, null, ProductSort.ID);
+
+        assertEquals(3, page.getItems().size());
+        assertTrue(page.getItems().stream().allMatch(product -> product.getSellerId() != null));
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void findAllEntities_StillFiresExtraSelectsPerRow() {
+        // Pembanding: entity dengan @ManyToOne eager memicu SELECT tambahan untuk user, product dan seller
+        transactionRepository.findAll();
+
+        assertTrue(statistics.getPrepareStatementCount() > 1);
+    }
+
+    private static Transaction transaction(User buyer, Product product) {
+        Transaction transaction = new Transaction();
+        transaction.setUser(buyer);
+        transaction.setProduct(product);
+        transaction.setCategory(product.getCategory());
+        transaction.setQuantity(1);
+        transaction.setTotalPriceMinor(1000L);
+        transaction.setCreatedAt(LocalDateTime.now());
+        return transaction;
+    }
+}
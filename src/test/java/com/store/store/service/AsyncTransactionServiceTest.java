@@ -0,0 +1,231 @@
+package com.store.store.service;
+
+import com.store.store.DTO.SalesTotal;
+import com.store.store.DTO.TransactionDto;
+import com.store.store.exception.TransactionRejectedException;
+import com.store.store.exception.UserNotFoundException;
+import com.store.store.model.ProductCategory;
+import com.store.store.model.SalesDimension;
+import com.store.store.model.SalesGranularity;
+import com.store.store.model.Transaction;
+import com.store.store.model.User;
+import com.store.store.model.UserRole;
+import com.store.store.repository.ProductRepository;
+import com.store.store.repository.SalesRollupRepository;
+import com.store.store.repository.TransactionRepository;
+import com.store.store.repository.UserRepository;
+import com.store.store.service.TransactionWriteAheadLog.Entry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static com.store.store.TestFixtures.product;
+import static com.store.store.TestFixtures.user;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "transactions.async.enabled=true",
+        "transactions.async.linger=1ms",
+        "transactions.async.retry-backoff=50ms"})
+@Import({AsyncTransactionService.class, TransactionService.class, SalesRollupService.class, TransactionIdAllocator.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // writer menulis dari thread-nya sendiri
+class AsyncTransactionServiceTest {
+
+    @DynamicPropertySource
+    static void walDirectory(DynamicPropertyRegistry registry) {
+        registry.add("transactions.async.wal-dir", () -> tempDirectory("transaction-wal"));
+    }
+
+    @Autowired
+    private AsyncTransactionService asyncTransactionService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private TransactionIdAllocator idAllocator;
+
+    @Autowired
+    private SalesRollupService salesRollupService;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private SalesRollupRepository salesRollupRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    Path replayDirectory;
+
+    private User seller;
+    private Long buyerId;
+    private Long productId;
+
+    @BeforeEach
+    void setUp() {
+        seller = userRepository.save(user("seller", UserRole.ROLE_SELLER));
+        buyerId = userRepository.save(user("buyer", UserRole.ROLE_USER)).getId();
+
+        productId = productRepository.save(product("Book", "12.50", 10, ProductCategory.BOOKS, seller)).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        salesRollupRepository.deleteAll();
+        transactionRepository.deleteAll();
+        productRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void acceptedTransactionIsReservedNowAndWrittenLater() {
+        TransactionDto accepted = asyncTransactionService.submit(new TransactionDto(null, buyerId, productId, 3, null, null));
+
+        assertEquals(3750L, accepted.getTotalPriceMinor());
+        assertEquals(7, stock());
+        await(() -> asyncTransactionService.findPending(accepted.getId()).isEmpty());
+
+        TransactionDto stored = transactionService.getTransactionById(accepted.getId());
+        assertEquals(3, stored.getQuantity());
+        assertEquals(3750L, stored.getTotalPriceMinor());
+        assertEquals(List.of(new SalesTotal(productId.toString(), 3, 3750, 1)), productTotals());
+    }
+
+    @Test
+    void unknownUserIsRejectedBeforeReservingStock() {
+        assertThrows(UserNotFoundException.class,
+                () -> asyncTransactionService.submit(new TransactionDto(null, -1L, productId, 1, null, null)));
+        assertEquals(10, stock());
+    }
+
+    @Test
+    void replayWritesLoggedTransactionsOnceAfterRestart() throws Exception {
+        Entry logged = entry(buyerId, 2);
+        transactionService.createTransaction(new TransactionDto(null, buyerId, productId, 1, null, null));
+        // Baris ini sudah ter-commit sebelum "crash", tapi checkpoint belum sempat maju
+        Transaction existing = transactionRepository.findAll().get(0);
+        Entry alreadyStored = new Entry(existing.getId(), buyerId, productId, seller.getId(), ProductCategory.BOOKS, 1,
+                1250, existing.getCreatedAt());
+        try (TransactionWriteAheadLog log = TransactionWriteAheadLog.open(replayDirectory, 1 << 16, appended -> { })) {
+            log.append(alreadyStored);
+            log.append(logged);
+        }
+
+        AsyncTransactionService restarted = restartedService();
+        restarted.start();
+        await(() -> restarted.findPending(logged.id()).isEmpty());
+        restarted.stop();
+
+        assertEquals(2, transactionRepository.count());
+        assertEquals(2, transactionService.getTransactionById(logged.id()).getQuantity());
+        assertEquals(List.of(new SalesTotal(productId.toString(), 3, 3750, 2)), productTotals());
+
+        // Start berikutnya mulai dari checkpoint: tidak ada yang diputar ulang
+        AsyncTransactionService again = restartedService();
+        again.start();
+        again.stop();
+        assertEquals(2, transactionRepository.count());
+    }
+
+    @Test
+    void transactionRejectedByDatabaseReleasesItsStock() throws Exception {
+        // Reservasi sudah terjadi saat pesanan diterima; user-nya terhapus sebelum writer berjalan
+        transactionService.reserveTransaction(new TransactionDto(null, buyerId, productId, 4, null, null));
+        Entry orphan = entry(-1L, 4);
+        try (TransactionWriteAheadLog log = TransactionWriteAheadLog.open(replayDirectory, 1 << 16, appended -> { })) {
+            log.append(orphan);
+        }
+
+        AsyncTransactionService restarted = restartedService();
+        restarted.start();
+        await(() -> {
+            try {
+                return restarted.findPending(orphan.id()).isEmpty();
+            } catch (TransactionRejectedException e) {
+                return true;
+            }
+        });
+        restarted.stop();
+
+        assertThrows(TransactionRejectedException.class, () -> restarted.findPending(orphan.id()));
+        assertEquals(10, stock());
+        assertEquals(0, transactionRepository.count());
+    }
+
+    private Entry entry(Long userId, int quantity) {
+        long id = new TransactionTemplate(transactionManager).execute(status -> idAllocator.next());
+        return new Entry(id, userId, productId, seller.getId(), ProductCategory.BOOKS, quantity, 1250L * quantity,
+                LocalDateTime.now().truncatedTo(ChronoUnit.MICROS));
+    }
+
+    private AsyncTransactionService restartedService() {
+        return new AsyncTransactionService(transactionService, transactionRepository, userRepository, idAllocator,
+                salesRollupService, dataSource, transactionManager, true, replayDirectory, DataSize.ofKilobytes(64),
+                100, Duration.ofMillis(1), Duration.ofMillis(50));
+    }
+
+    private int stock() {
+        return productRepository.findById(productId).orElseThrow().getStock();
+    }
+
+    private List<SalesTotal> productTotals() {
+        LocalDateTime now = LocalDateTime.now();
+        return salesRollupService.getTotals(SalesDimension.PRODUCT, SalesGranularity.DAY, now.minusDays(1), now.plusDays(1));
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "timed out waiting for the transaction writer");
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    private static String tempDirectory(String prefix) {
+        try {
+            return Files.createTempDirectory(prefix).toString();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
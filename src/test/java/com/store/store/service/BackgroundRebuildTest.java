@@ -0,0 +1,74 @@
+package com.store.store.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BackgroundRebuildTest {
+
+    // Satu rebuild berjalan; semua permintaan selama itu digabung menjadi tepat satu rebuild berikutnya
+    @Test
+    @Timeout(10)
+    void requestsDuringRebuildCoalesceIntoOneMore() throws Exception {
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Semaphore finished = new Semaphore(0);
+        try (BackgroundRebuild rebuild = new BackgroundRebuild("test", () -> {
+            if (runs.incrementAndGet() == 1) {
+                started.countDown();
+                await(release);
+            }
+            finished.release();
+        })) {
+            rebuild.request();
+            started.await();
+            for (int i = 0; i < 5; i++) {
+                rebuild.request();
+            }
+            release.countDown();
+
+            assertTrue(finished.tryAcquire(2, 5, TimeUnit.SECONDS));
+            assertFalse(finished.tryAcquire(200, TimeUnit.MILLISECONDS));
+            assertEquals(2, runs.get());
+        }
+    }
+
+    @Test
+    @Timeout(10)
+    void failedRebuildDoesNotBlockLaterRequests() throws Exception {
+        Semaphore finished = new Semaphore(0);
+        AtomicInteger runs = new AtomicInteger();
+        try (BackgroundRebuild rebuild = new BackgroundRebuild("test", () -> {
+            try {
+                if (runs.incrementAndGet() == 1) {
+                    throw new IllegalStateException("database unavailable");
+                }
+            } finally {
+                finished.release();
+            }
+        })) {
+            rebuild.request();
+            assertTrue(finished.tryAcquire(5, TimeUnit.SECONDS));
+            rebuild.request();
+            assertTrue(finished.tryAcquire(5, TimeUnit.SECONDS));
+            assertEquals(2, runs.get());
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.store.store.service;
+
+import com.store.store.DTO.ProductIndexEntry;
+import com.store.store.event.ProductChangedEvent;
+import com.store.store.model.ProductCategory;
+import com.store.store.model.ProductSort;
+import com.store.store.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.mockito.Mockito;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProductCatalogIndexTest {
+
+    private final ProductRepository productRepository = Mockito.mock(ProductRepository.class);
+    private final ProductCatalogIndex index =
+            new ProductCatalogIndex(productRepository, Mockito.mock(PlatformTransactionManager.class));
+
+    @BeforeEach
+    void setUp() {
+        Mockito.when(productRepository.streamActiveIndexEntries()).thenReturn(Stream.of(
+                entry(1L, ProductCategory.BOOKS, "15.00"),
+                entry(2L, ProductCategory.BOOKS, "5.50"),
+                entry(3L, ProductCategory.BOOKS, "15.00"),
+                entry(4L, ProductCategory.BOOKS, "99.99"),
+                entry(5L, ProductCategory.ELECTRONICS, "10.00"),
+                entry(6L, ProductCategory.ELECTRONICS, "15.00")));
+    }
+
+    @Test
+    void notReadyUntilRebuilt() {
+        assertFalse(index.isReady());
+
+        index.rebuild();
+
+        assertTrue(index.isReady());
+    }
+
+    @Test
+    void findsCategoryPriceRangeOrderedByPriceThenId() {
+        index.rebuild();
+
+        List<Long> ids = index.findIds(ProductCategory.BOOKS, new BigDecimal("5.50"), new BigDecimal("20"),
+                ProductCursor.first(ProductSort.PRICE), 10, ProductSort.PRICE);
+
+        assertEquals(List.of(2L, 1L, 3L), ids);
+    }
+
+    @Test
+    void continuesAfterCursor() {
+        index.rebuild();
+
+        List<Long> byPrice = index.findIds(ProductCategory.BOOKS, BigDecimal.ZERO, new BigDecimal("100"),
+                new ProductCursor(ProductSort.PRICE, new BigDecimal("15.00"), 1L), 10, ProductSort.PRICE);
+        List<Long> byId = index.findIds(ProductCategory.BOOKS, BigDecimal.ZERO, new BigDecimal("20"),
+                new ProductCursor(ProductSort.ID, null, 1L), 1, ProductSort.ID);
+
+        assertEquals(List.of(3L, 4L), byPrice);
+        assertEquals(List.of(2L), byId);
+    }
+
+    @Test
+    void mergesAllCategoriesWhenCategoryIsNull() {
+        index.rebuild();
+
+        List<Long> ids = index.findIds(null, new BigDecimal("10"), new BigDecimal("15"),
+                ProductCursor.first(ProductSort.PRICE), 3, ProductSort.PRICE);
+
+        assertEquals(List.of(5L, 1L, 3L), ids);
+    }
+
+    @Test
+    void productChangeMovesEntryBetweenCategories() {
+        index.rebuild();
+        Mockito.when(productRepository.findActiveIndexEntry(1L))
+                .thenReturn(Optional.of(entry(1L, ProductCategory.ELECTRONICS, "12.00")));
+
+        index.onProductChanged(new ProductChangedEvent(1L, Set.of(ProductCategory.BOOKS, ProductCategory.ELECTRONICS)));
+
+        assertEquals(List.of(2L, 3L, 4L), index.findIds(ProductCategory.BOOKS, BigDecimal.ZERO, new BigDecimal("100"),
+                ProductCursor.first(ProductSort.ID), 10, ProductSort.ID));
+        assertEquals(List.of(5L, 1L, 6L), index.findIds(ProductCategory.ELECTRONICS, BigDecimal.ZERO,
+                new BigDecimal("100"), ProductCursor.first(ProductSort.PRICE), 10, ProductSort.PRICE));
+    }
+
+    @Test
+    void deletedProductIsRemovedAndStockOnlyEventsAreIgnored() {
+        index.rebuild();
+        Mockito.when(productRepository.findActiveIndexEntry(4L)).thenReturn(Optional.empty());
+
+        index.onProductChanged(new ProductChangedEvent(2L, Set.of()));
+        index.onProductChanged(new ProductChangedEvent(4L, Set.of(ProductCategory.BOOKS)));
+
+        assertEquals(List.of(1L, 2L, 3L), index.findIds(ProductCategory.BOOKS, BigDecimal.ZERO, new BigDecimal("100"),
+                ProductCursor.first(ProductSort.ID), 10, ProductSort.ID));
+        Mockito.verify(productRepository, Mockito.never()).findActiveIndexEntry(2L);
+    }
+
+    // Scan rebuild tidak memegang lock listener; perubahan selama scan tidak hilang saat hasilnya dipasang
+    @Test
+    @Timeout(10)
+    void productChangeDuringRebuildIsNotBlockedAndIsKept() throws Exception {
+        index.rebuild();
+        CountDownLatch scanning = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Mockito.when(productRepository.streamActiveIndexEntries()).thenAnswer(invocation -> {
+            scanning.countDown();
+            release.await();
+            return Stream.of(entry(1L, ProductCategory.BOOKS, "15.00"), entry(2L, ProductCategory.BOOKS, "5.50"));
+        });
+        Mockito.when(productRepository.findActiveIndexEntry(7L))
+                .thenReturn(Optional.of(entry(7L, ProductCategory.BOOKS, "1.00")));
+        Thread rebuild = new Thread(index::rebuild);
+        rebuild.start();
+        scanning.await();
+
+        index.onProductChanged(new ProductChangedEvent(7L, Set.of(ProductCategory.BOOKS)));
+        release.countDown();
+        rebuild.join();
+
+        assertEquals(List.of(1L, 2L, 7L), index.findIds(ProductCategory.BOOKS, BigDecimal.ZERO, new BigDecimal("100"),
+                ProductCursor.first(ProductSort.ID), 10, ProductSort.ID));
+    }
+
+    @Test
+    void incrementalUpdatesMatchFullRebuild() {
+        index.rebuild();
+        Map<Long, ProductIndexEntry> expected = new HashMap<>();
+        expected.put(1L, entry(1L, ProductCategory.BOOKS, "15.00"));
+        expected.put(2L, entry(2L, ProductCategory.BOOKS, "5.50"));
+        expected.put(3L, entry(3L, ProductCategory.BOOKS, "15.00"));
+        expected.put(4L, entry(4L, ProductCategory.BOOKS, "99.99"));
+        expected.put(5L, entry(5L, ProductCategory.ELECTRONICS, "10.00"));
+        expected.put(6L, entry(6L, ProductCategory.ELECTRONICS, "15.00"));
+
+        // Create, ubah harga/kategori dan hapus acak; harga sedikit supaya banyak harga kembar
+        Random random = new Random(42);
+        ProductCategory[] categories = {ProductCategory.BOOKS, ProductCategory.ELECTRONICS};
+        for (int i = 0; i < 500; i++) {
+            long id = 1 + random.nextInt(40);
+            ProductIndexEntry before = expected.get(id);
+            ProductIndexEntry after = random.nextInt(5) == 0 ? null : entry(id,
+                    categories[random.nextInt(categories.length)], random.nextInt(10) + ".00");
+            Set<ProductCategory> affected = new HashSet<>();
+            if (before != null) {
+                affected.add(before.category());
+            }
+            if (after != null) {
+                affected.add(after.category());
+                expected.put(id, after);
+            } else {
+                expected.remove(id);
+            }
+            Mockito.when(productRepository.findActiveIndexEntry(id)).thenReturn(Optional.ofNullable(after));
+            index.onProductChanged(new ProductChangedEvent(id, affected));
+        }
+
+        ProductCatalogIndex rebuilt =
+                new ProductCatalogIndex(productRepository, Mockito.mock(PlatformTransactionManager.class));
+        Mockito.when(productRepository.streamActiveIndexEntries()).thenReturn(expected.values().stream());
+        rebuilt.rebuild();
+        for (ProductCategory category : categories) {
+            for (ProductSort sort : ProductSort.values()) {
+                assertEquals(
+                        rebuilt.findIds(category, BigDecimal.ZERO, BigDecimal.TEN, ProductCursor.first(sort), 100, sort),
+                        index.findIds(category, BigDecimal.ZERO, BigDecimal.TEN, ProductCursor.first(sort), 100, sort));
+            }
+        }
+    }
+
+    private static ProductIndexEntry entry(Long id, ProductCategory category, String price) {
+        return new ProductIndexEntry(id, category, new BigDecimal(price));
+    }
+}
@@ -0,0 +1,76 @@
+package com.store.store.service;
+
+import com.store.store.DTO.ProductDto;
+import com.store.store.exception.InvalidImportFileException;
+import com.store.store.model.ProductCategory;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProductCsvReaderTest {
+
+    @Test
+    void readsQuotedFieldsInAnyColumnOrder() throws IOException {
+        List<ProductImportService.Row> rows = read("\uFEFFCategory,Name,price,stock,image_url,description\r\n"
+                + "books,\"Buku \"\"Java\"\", edisi 2\",50.00,3,,\"Baris satu\nbaris dua\"\r\n"
+                + "\n"
+                + "SPORTS,Bola,20, 7 ,http://img/bola,\n");
+
+        assertEquals(2, rows.size());
+        ProductDto book = rows.get(0).product();
+        assertEquals("Buku \"Java\", edisi 2", book.getName());
+        assertEquals("Baris satu\nbaris dua", book.getDescription());
+        assertEquals(new BigDecimal("50.00"), book.getPrice());
+        assertEquals(ProductCategory.BOOKS, book.getCategory());
+        assertNull(book.getImageUrl());
+
+        ProductDto ball = rows.get(1).product();
+        assertEquals(7, ball.getStock());
+        assertEquals("http://img/bola", ball.getImageUrl());
+        assertNull(ball.getDescription());
+        assertEquals(List.of(1L, 2L), rows.stream().map(ProductImportService.Row::number).toList());
+    }
+
+    @Test
+    void unreadableValuesAreRowErrors() throws IOException {
+        List<ProductImportService.Row> rows = read("name,price,stock,category\n"
+                + "Buku,abc,1,BOOKS\n"
+                + "Kopi,10,1,FOOD\n"
+                + "Laptop,900,1\n"
+                + "Meja,,1,OTHER\n");
+
+        assertEquals(List.of("Price must be a number: abc"), rows.get(0).errors());
+        assertEquals(List.of("Unknown category: FOOD"), rows.get(1).errors());
+        assertEquals(List.of("Expected 4 fields but found 3"), rows.get(2).errors());
+        assertNull(rows.get(0).product());
+        // Nilai kosong bukan error parsing: dilaporkan oleh validasi ProductDto
+        assertTrue(rows.get(3).errors().isEmpty());
+        assertNull(rows.get(3).product().getPrice());
+    }
+
+    @Test
+    void invalidFilesAreRejected() {
+        assertThrows(InvalidImportFileException.class, () -> read(""));
+        assertThrows(InvalidImportFileException.class, () -> read("name,price,stock\n"));
+        assertThrows(InvalidImportFileException.class, () -> read("name,price,stock,category,colour\n"));
+        assertThrows(InvalidImportFileException.class, () -> read("name,price,stock,category\n\"Buku,1,1,BOOKS\n"));
+    }
+
+    private static List<ProductImportService.Row> read(String csv) throws IOException {
+        ProductCsvReader reader = new ProductCsvReader(new StringReader(csv));
+        List<ProductImportService.Row> rows = new ArrayList<>();
+        for (ProductImportService.Row row = reader.next(); row != null; row = reader.next()) {
+            rows.add(row);
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,145 @@
+package com.store.store.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.store.store.DTO.ProductImportReport;
+import com.store.store.model.User;
+import com.store.store.repository.UserRepository;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.mockito.Mockito;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Jalur COPY FROM STDIN di PostgreSQL embedded (migrasi Flyway): nilai yang di-quote appendCsv
+ * harus kembali persis sama, dan COPY yang gagal di tengah stream harus dibatalkan tanpa
+ * meninggalkan koneksi dalam mode COPY. Semua import lewat satu koneksi yang sama.
+ */
+class ProductImportCopyTest {
+
+    private static EmbeddedPostgres postgres;
+    private static SingleConnectionDataSource dataSource;
+    private static ValidatorFactory validatorFactory;
+
+    private JdbcTemplate jdbcTemplate;
+    private ProductImportService importService;
+
+    @BeforeAll
+    static void startPostgres() {
+        try {
+            postgres = EmbeddedPostgres.builder().start();
+        } catch (Exception e) {
+            // mis. dijalankan sebagai root: initdb menolak, test dilewati
+            Assumptions.abort("Embedded PostgreSQL unavailable: " + e.getMessage());
+        }
+        dataSource = new SingleConnectionDataSource(postgres.getJdbcUrl("postgres", "postgres"), true);
+        Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration/postgresql")
+                .load()
+                .migrate();
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+    }
+
+    @AfterAll
+    static void stopPostgres() throws Exception {
+        if (validatorFactory != null) {
+            validatorFactory.close();
+        }
+        if (dataSource != null) {
+            dataSource.destroy();
+        }
+        if (postgres != null) {
+            postgres.close();
+        }
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update("DELETE FROM products");
+        jdbcTemplate.update("DELETE FROM users");
+        Long sellerId = jdbcTemplate.queryForObject("INSERT INTO users (username, email, password, role, enabled) "
+                + "VALUES ('seller', 'seller@example.com', 'hash', 'ROLE_SELLER', TRUE) RETURNING id", Long.class);
+
+        UserRepository userRepository = Mockito.mock(UserRepository.class);
+        Mockito.when(userRepository.findByUsername("seller")).thenReturn(Optional.of(new User(sellerId)));
+        importService = new ProductImportService(userRepository, validatorFactory.getValidator(), new ObjectMapper(),
+                dataSource, new DataSourceTransactionManager(dataSource),
+                Mockito.mock(ApplicationEventPublisher.class), 1000, 1000);
+    }
+
+    @Test
+    void quotedValuesRoundTripThroughCopy() {
+        ProductImportReport report = importService.importCsv(body("name,description,price,stock,category,imageUrl\n"
+                + "\"Kursi \"\"Gaming\"\", hitam\",\"Baris satu\nBaris dua, \"\"tiga\"\"\",150.50,2,OTHER,"
+                + "\"C:\\img\\kursi.png\"\n"
+                + "Meja,,75,1,OTHER,\"\\N\"\n"
+                + "Lampu,\"\",20,5,OTHER,\n"), "seller");
+
+        assertEquals(3, report.imported());
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "SELECT name, description, price, image_url FROM products ORDER BY id");
+        assertEquals("Kursi \"Gaming\", hitam", rows.get(0).get("name"));
+        assertEquals("Baris satu\nBaris dua, \"tiga\"", rows.get(0).get("description"));
+        assertEquals("150.50", rows.get(0).get("price").toString());
+        assertEquals("C:\\img\\kursi.png", rows.get(0).get("image_url"));
+        // Field kosong tanpa quote = NULL, "" = string kosong; \N hanya penanda NULL di format text
+        assertNull(rows.get(1).get("description"));
+        assertEquals("\\N", rows.get(1).get("image_url"));
+        assertEquals("", rows.get(2).get("description"));
+        assertNull(rows.get(2).get("image_url"));
+    }
+
+    // Tanpa cancelCopy koneksi tertahan di mode COPY dan rollback menunggu selamanya
+    @Test
+    @Timeout(30)
+    void failureMidStreamCancelsCopyAndKeepsConnectionUsable() {
+        InputStream failing = new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("connection reset by client");
+            }
+        };
+        // Cukup banyak baris sehingga sebagian sudah terkirim ke server sebelum stream gagal
+        InputStream body = new SequenceInputStream(body("name,price,stock,category\n"
+                + "Pena,2,10,OTHER\n".repeat(10_000)), failing);
+
+        assertThrows(UncheckedIOException.class, () -> importService.importCsv(body, "seller"));
+
+        // Baris yang sudah terkirim ikut di-rollback, koneksi yang sama bisa langsung dipakai lagi
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM products", Integer.class));
+        ProductImportReport report = importService.importCsv(body("name,price,stock,category\nBuku,10,1,BOOKS\n"),
+                "seller");
+        assertEquals(1, report.imported());
+        assertEquals(List.of("Buku"), jdbcTemplate.queryForList("SELECT name FROM products", String.class));
+    }
+
+    private static InputStream body(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
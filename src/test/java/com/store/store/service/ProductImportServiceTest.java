@@ -0,0 +1,112 @@
+package com.store.store.service;
+
+import com.store.store.DTO.ProductImportReport;
+import com.store.store.event.ProductsImportedEvent;
+import com.store.store.model.ProductCategory;
+import com.store.store.model.UserRole;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.store.store.TestFixtures.user;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// H2: jalur JDBC batch; jalur COPY hanya jalan di PostgreSQL
+@DataJpaTest(properties = {"spring.jpa.hibernate.ddl-auto=create-drop", "product-import.batch-size=2",
+        "product-import.max-reported-errors=2"})
+@Import(ProductImportService.class)
+@ImportAutoConfiguration({ValidationAutoConfiguration.class, JacksonAutoConfiguration.class})
+@RecordApplicationEvents
+class ProductImportServiceTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ProductImportService importService;
+
+    @Autowired
+    private ApplicationEvents events;
+
+    private Long sellerId;
+
+    @BeforeEach
+    void setUp() {
+        sellerId = entityManager.persistAndFlush(user("seller", UserRole.ROLE_SELLER)).getId();
+    }
+
+    @Test
+    void csvImportsValidRowsAndReportsTheRest() {
+        ProductImportReport report = importService.importCsv(body("name,description,price,stock,category\n"
+                + "Buku Java,Belajar,50.00,3,BOOKS\n"
+                + "Bola,,20,7,SPORTS\n"
+                + ",Tanpa nama,10,1,OTHER\n"
+                + "Kopi,\"" + "x".repeat(ProductImportService.COLUMN_LENGTH + 1) + "\",5,1,OTHER\n"
+                + "Laptop,,-1,-2,ELECTRONICS\n"
+                + "Kaos,,15,4,CLOTHING\n"), "seller");
+
+        assertEquals(3, report.imported());
+        assertEquals(3, report.rejected());
+        // Hanya max-reported-errors baris pertama yang dicantumkan
+        assertEquals(List.of(
+                new ProductImportReport.RowError(3, List.of("Product name is required")),
+                new ProductImportReport.RowError(4, List.of("Description cannot exceed 255 characters"))),
+                report.errors());
+
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "SELECT name, category, seller_id, active FROM products ORDER BY id");
+        assertEquals(List.of("Buku Java", "Bola", "Kaos"), rows.stream().map(row -> row.get("NAME")).toList());
+        rows.forEach(row -> {
+            assertEquals(sellerId, ((Number) row.get("SELLER_ID")).longValue());
+            assertEquals(true, row.get("ACTIVE"));
+        });
+        assertEquals(List.of(new ProductsImportedEvent(
+                        Set.of(ProductCategory.BOOKS, ProductCategory.SPORTS, ProductCategory.CLOTHING), 3)),
+                events.stream(ProductsImportedEvent.class).toList());
+    }
+
+    @Test
+    void ndjsonReportsMalformedLinesAndKeepsGoing() {
+        ProductImportReport report = importService.importNdjson(body(
+                "{\"name\":\"Buku\",\"price\":12.5,\"stock\":1,\"category\":\"BOOKS\"}\n"
+                        + "\n"
+                        + "{\"name\":\"Rusak\",\n"
+                        + "{\"name\":\"Lampu\",\"price\":30,\"stock\":2,\"category\":\"HOME_APPLIANCES\",\"sellerId\":99}\n"),
+                "seller");
+
+        assertEquals(2, report.imported());
+        assertEquals(1, report.rejected());
+        assertEquals(3, report.errors().get(0).row());
+        assertEquals(List.of(sellerId, sellerId), jdbcTemplate.queryForList("SELECT seller_id FROM products", Long.class));
+    }
+
+    @Test
+    void unknownSellerIsRejectedBeforeReadingTheFile() {
+        assertThrows(RuntimeException.class, () -> importService.importCsv(body("name"), "nobody"));
+        assertEquals(0, events.stream(ProductsImportedEvent.class).count());
+    }
+
+    private static InputStream body(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,99 @@
+package com.store.store.service;
+
+import com.store.store.DTO.ProductSearchEntry;
+import com.store.store.event.ProductChangedEvent;
+import com.store.store.model.ProductCategory;
+import com.store.store.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProductSearchIndexTest {
+
+    private final ProductRepository productRepository = Mockito.mock(ProductRepository.class);
+    private final ProductSearchIndex index =
+            new ProductSearchIndex(productRepository, Mockito.mock(PlatformTransactionManager.class), true);
+
+    @BeforeEach
+    void setUp() {
+        Mockito.when(productRepository.streamActiveSearchEntries()).thenReturn(Stream.of(
+                entry(1L, "Buku Java", "Belajar pemrograman", ProductCategory.BOOKS, "50.00"),
+                entry(2L, "Kopi Arabica", "Teman ngoding Java", ProductCategory.OTHER, "20.00"),
+                entry(3L, "Java, Java!", "Kumpulan resep java", ProductCategory.BOOKS, "70.00"),
+                entry(4L, "Laptop", null, ProductCategory.ELECTRONICS, "900.00")));
+    }
+
+    @Test
+    void tokenizesLikePostgresSimpleConfiguration() {
+        assertEquals(List.of("e", "book", "rp", "50", "000", "ünïcode"), ProductSearchIndex.terms("E-Book (Rp 50.000) ÜNÏCODE"));
+        assertTrue(ProductSearchIndex.terms("!!! ...").isEmpty());
+    }
+
+    @Test
+    void ranksNameMatchesAboveDescriptionMatches() {
+        List<ProductSearchIndex.Hit> hits = search(List.of("java"), null, SearchCursor.first(), 10);
+
+        // 3: dua kali di nama + sekali di deskripsi, 1: nama, 2: deskripsi saja
+        assertEquals(List.of(3L, 1L, 2L), hits.stream().map(ProductSearchIndex.Hit::id).toList());
+        assertEquals(2 * ProductSearchIndex.NAME_WEIGHT + ProductSearchIndex.DESCRIPTION_WEIGHT, hits.get(0).rank());
+    }
+
+    @Test
+    void requiresEveryTermAndAppliesFilters() {
+        assertEquals(List.of(2L), ids(search(List.of("kopi", "java"), null, SearchCursor.first(), 10)));
+        assertEquals(List.of(3L, 1L), ids(search(List.of("java"), ProductCategory.BOOKS, SearchCursor.first(), 10)));
+        assertEquals(List.of(2L), ids(index.search(List.of("java"), null, 0, 3000, SearchCursor.first(), 10)));
+        assertTrue(search(List.of("java", "laptop"), null, SearchCursor.first(), 10).isEmpty());
+    }
+
+    @Test
+    void continuesAfterCursor() {
+        List<ProductSearchIndex.Hit> first = search(List.of("java"), null, SearchCursor.first(), 2);
+        ProductSearchIndex.Hit last = first.get(1);
+
+        List<ProductSearchIndex.Hit> next = search(List.of("java"), null, new SearchCursor(last.rank(), last.id()), 2);
+
+        assertEquals(List.of(3L, 1L), ids(first));
+        assertEquals(List.of(2L), ids(next));
+    }
+
+    @Test
+    void productChangesReplaceIndexedTerms() {
+        index.rebuild();
+        Mockito.when(productRepository.findActiveSearchEntry(1L)).thenReturn(
+                Optional.of(entry(1L, "Buku Kotlin", "Belajar pemrograman", ProductCategory.BOOKS, "50.00")));
+        Mockito.when(productRepository.findActiveSearchEntry(3L)).thenReturn(Optional.empty());
+
+        index.onProductChanged(new ProductChangedEvent(1L, Set.of(ProductCategory.BOOKS)));
+        index.onProductChanged(new ProductChangedEvent(3L, Set.of(ProductCategory.BOOKS)));
+        index.onProductChanged(new ProductChangedEvent(2L, Set.of()));
+
+        assertEquals(List.of(2L), ids(search(List.of("java"), null, SearchCursor.first(), 10)));
+        assertEquals(List.of(1L), ids(search(List.of("kotlin"), null, SearchCursor.first(), 10)));
+        Mockito.verify(productRepository, Mockito.never()).findActiveSearchEntry(2L);
+    }
+
+    private List<ProductSearchIndex.Hit> search(List<String> terms, ProductCategory category, SearchCursor after,
+                                                int limit) {
+        return index.search(terms, category, Long.MIN_VALUE, Long.MAX_VALUE, after, limit);
+    }
+
+    private static List<Long> ids(List<ProductSearchIndex.Hit> hits) {
+        return hits.stream().map(ProductSearchIndex.Hit::id).toList();
+    }
+
+    private static ProductSearchEntry entry(Long id, String name, String description, ProductCategory category,
+                                            String price) {
+        return new ProductSearchEntry(id, name, description, category, new BigDecimal(price));
+    }
+}
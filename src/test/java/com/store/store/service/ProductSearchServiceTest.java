@@ -0,0 +1,154 @@
+package com.store.store.service;
+
+import com.store.store.DTO.ProductDto;
+import com.store.store.DTO.ProductPage;
+import com.store.store.exception.InvalidCursorException;
+import com.store.store.exception.InvalidSearchQueryException;
+import com.store.store.model.ProductCategory;
+import com.store.store.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyFloat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+
+class ProductSearchServiceTest {
+
+    private final ProductRepository productRepository = Mockito.mock(ProductRepository.class);
+    private final ProductSearchIndex searchIndex = Mockito.mock(ProductSearchIndex.class);
+    private final ProductSuggestIndex suggestIndex = Mockito.mock(ProductSuggestIndex.class);
+    private final ProductSearchService searchService = new ProductSearchService(productRepository,
+            new ProductCache(100, 100, Duration.ofMinutes(1)), searchIndex, suggestIndex,
+            Mockito.mock(PlatformTransactionManager.class), 1000);
+
+    @Test
+    void databaseSearchReturnsPageInRankOrderWithCursor() {
+        Mockito.when(productRepository.searchActive(eq("java buku"), eq("java:A & buku:A"), eq("BOOKS"), isNull(), eq(new BigDecimal("60")),
+                eq(Float.POSITIVE_INFINITY), eq(0L), eq(1000), eq(3)))
+                .thenReturn(List.of(row(3L, 0.6f), row(1L, 0.3f), row(2L, 0.1f)));
+        Mockito.when(productRepository.findDtosByIdIn(any())).thenReturn(List.of(product(1L), product(3L)));
+
+        ProductPage page = searchService.search("Java, buku!", ProductCategory.BOOKS, null, new BigDecimal("60"), null, 2);
+
+        assertEquals(List.of(3L, 1L), page.getItems().stream().map(ProductDto::getId).toList());
+        assertEquals(new SearchCursor(0.3f, 1L), SearchCursor.decode(page.getNext()));
+        assertFalse(page.isTruncated());
+        Mockito.verify(productRepository).forceCustomPlans();
+    }
+
+    @Test
+    void truncatedCandidatesAreFlaggedOnThePage() {
+        Mockito.when(productRepository.searchActive(anyString(), anyString(), isNull(), isNull(), isNull(),
+                anyFloat(), anyLong(), anyInt(), anyInt()))
+                .thenReturn(List.of(row(1L, 0.6f, true), row(2L, 0.1f, true)));
+        Mockito.when(productRepository.findDtosByIdIn(any())).thenReturn(List.of(product(1L), product(2L)));
+
+        ProductPage page = searchService.search("java", null, null, null, null, 20);
+
+        assertEquals(List.of(1L, 2L), page.getItems().stream().map(ProductDto::getId).toList());
+        assertTrue(page.isTruncated());
+    }
+
+    @Test
+    void lastPageHasNoCursor() {
+        Mockito.when(productRepository.searchActive(anyString(), anyString(), isNull(), isNull(), isNull(), eq(0.3f), eq(1L),
+                anyInt(), anyInt())).thenReturn(List.of(row(2L, 0.1f)));
+        Mockito.when(productRepository.findDtosByIdIn(any())).thenReturn(List.of(product(2L)));
+
+        ProductPage page = searchService.search("java", null, null, null, new SearchCursor(0.3f, 1L).encode(), 2);
+
+        assertEquals(List.of(2L), page.getItems().stream().map(ProductDto::getId).toList());
+        assertNull(page.getNext());
+    }
+
+    @Test
+    void inMemoryIndexIsUsedWhenEnabled() {
+        Mockito.when(searchIndex.isEnabled()).thenReturn(true);
+        Mockito.when(searchIndex.search(List.of("java"), null, 1000L, Long.MAX_VALUE, SearchCursor.first(), 21))
+                .thenReturn(List.of(new ProductSearchIndex.Hit(1L, 1f)));
+        Mockito.when(productRepository.findDtosByIdIn(any())).thenReturn(List.of(product(1L)));
+
+        ProductPage page = searchService.search("java", null, new BigDecimal("10"), null, null, null);
+
+        assertEquals(1, page.getItems().size());
+        assertFalse(page.isTruncated());
+        Mockito.verify(productRepository, Mockito.never()).searchActive(any(), any(), any(), any(), any(), anyFloat(),
+                anyLong(), anyInt(), anyInt());
+    }
+
+    @Test
+    void queryWithoutTermsMatchesNothing() {
+        ProductPage page = searchService.search("!!!", null, null, null, null, null);
+
+        assertTrue(page.getItems().isEmpty());
+        Mockito.verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void invalidRequestsAreRejected() {
+        assertThrows(InvalidSearchQueryException.class, () -> searchService.search(" ", null, null, null, null, null));
+        assertThrows(InvalidSearchQueryException.class, () -> searchService.search(
+                "a".repeat(ProductSearchService.MAX_QUERY_LENGTH + 1), null, null, null, null, null));
+        assertThrows(InvalidSearchQueryException.class, () -> searchService.search("java", null,
+                BigDecimal.TEN, BigDecimal.ONE, null, null));
+        assertThrows(InvalidCursorException.class, () -> searchService.search("java", null, null, null,
+                "not-a-cursor", null));
+    }
+
+    @Test
+    void suggestionLimitIsCapped() {
+        searchService.suggest("ja", null);
+        searchService.suggest("ja", 500);
+        searchService.suggest("a".repeat(ProductSearchService.MAX_QUERY_LENGTH + 1), 5);
+
+        Mockito.verify(suggestIndex).suggest("ja", ProductSearchService.DEFAULT_SUGGEST_LIMIT);
+        Mockito.verify(suggestIndex).suggest("ja", ProductSearchService.MAX_SUGGEST_LIMIT);
+        Mockito.verifyNoMoreInteractions(suggestIndex);
+        Mockito.verifyNoInteractions(productRepository);
+    }
+
+    private static ProductRepository.SearchHitRow row(long id, float rank) {
+        return row(id, rank, false);
+    }
+
+    private static ProductRepository.SearchHitRow row(long id, float rank, boolean truncated) {
+        return new ProductRepository.SearchHitRow() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Float getRank() {
+                return rank;
+            }
+
+            @Override
+            public Boolean getTruncated() {
+                return truncated;
+            }
+        };
+    }
+
+    private static ProductDto product(long id) {
+        ProductDto product = new ProductDto();
+        product.setId(id);
+        product.setName("Product " + id);
+        return product;
+    }
+}
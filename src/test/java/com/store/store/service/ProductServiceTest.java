@@ -1,17 +1,25 @@
 package com.store.store.service;
 
 import com.store.store.DTO.ProductDto;
+import com.store.store.DTO.ProductPage;
+import com.store.store.event.ProductChangedEvent;
+import com.store.store.exception.InvalidCursorException;
 import com.store.store.model.Product;
 import com.store.store.model.ProductCategory;
+import com.store.store.model.ProductSort;
 import com.store.store.model.User;
 import com.store.store.repository.ProductRepository;
 import com.store.store.repository.UserRepository;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -22,7 +30,11 @@ class ProductServiceTest {
 
     private final ProductRepository productRepository = Mockito.mock(ProductRepository.class);
     private final UserRepository userRepository = Mockito.mock(UserRepository.class);
-    private final ProductService productService = new ProductService(productRepository, userRepository);
+    private final ApplicationEventPublisher eventPublisher = Mockito.mock(ApplicationEventPublisher.class);
+    private final ProductCache productCache = new ProductCache(100, 100, Duration.ofMinutes(10));
+    private final ProductCatalogIndex catalogIndex = Mockito.mock(ProductCatalogIndex.class);
+    private final ProductService productService =
+            new ProductService(productRepository, userRepository, productCache, catalogIndex, eventPublisher);
 
     @Test
     void testCreateProduct() {
@@ -67,43 +79,112 @@ class ProductServiceTest {
     @Test
     void testGetAllProducts() {
         // Arrange
-        Product product1 = new Product();
+        ProductDto product1 = new ProductDto();
         product1.setId(1L);
         product1.setName("Product A");
 
-        Product product2 = new Product();
+        ProductDto product2 = new ProductDto();
         product2.setId(2L);
         product2.setName("Product B");
 
-        List<Product> products = Arrays.asList(product1, product2);
+        List<ProductDto> products = Arrays.asList(product1, product2);
 
-        Mockito.when(productRepository.findAll()).thenReturn(products);
+        Mockito.when(productRepository.findPageOrderById(0L, Limit.of(ProductService.DEFAULT_PAGE_SIZE + 1)))
+                .thenReturn(products);
 
         // Act
-        List<Product> result = productService.getAllProducts();
+        ProductPage result = productService.getAllProducts(null, null, ProductSort.ID);
 
         // Assert
         assertNotNull(result);
-        assertEquals(2, result.size());
-        assertEquals("Product A", result.get(0).getName());
+        assertEquals(2, result.getItems().size());
+        assertEquals("Product A", result.getItems().get(0).getName());
+        assertNull(result.getNext());
+    }
+
+    @Test
+    void testGetAllProducts_ReturnsNextCursorAndContinuesFromIt() {
+        // Arrange
+        ProductDto product1 = new ProductDto();
+        product1.setId(1L);
+        product1.setPrice(BigDecimal.valueOf(10));
+
+        ProductDto product2 = new ProductDto();
+        product2.setId(2L);
+        product2.setPrice(BigDecimal.valueOf(20));
+
+        ProductDto product3 = new ProductDto();
+        product3.setId(3L);
+        product3.setPrice(BigDecimal.valueOf(20));
+
+        Mockito.when(productRepository.findPageOrderByPrice(BigDecimal.ONE.negate(), 0L, Limit.of(3)))
+                .thenReturn(Arrays.asList(product1, product2, product3));
+        Mockito.when(productRepository.findPageOrderByPrice(BigDecimal.valueOf(20), 2L, Limit.of(3)))
+                .thenReturn(Arrays.asList(product3));
+
+        // Act
+        ProductPage firstPage = productService.getAllProducts(null, 2, ProductSort.PRICE);
+        ProductPage secondPage = productService.getAllProducts(firstPage.getNext(), 2, ProductSort.PRICE);
+
+        // Assert
+        assertEquals(2, firstPage.getItems().size());
+        assertNotNull(firstPage.getNext());
+        assertEquals(1, secondPage.getItems().size());
+        assertEquals(3L, secondPage.getItems().get(0).getId());
+        assertNull(secondPage.getNext());
+    }
+
+    @Test
+    void testGetAllProducts_CapsPageSize() {
+        // Arrange
+        Mockito.when(productRepository.findPageOrderById(0L, Limit.of(ProductService.MAX_PAGE_SIZE + 1)))
+                .thenReturn(List.of());
+
+        // Act
+        ProductPage result = productService.getAllProducts(null, 10_000, ProductSort.ID);
+
+        // Assert
+        assertTrue(result.getItems().isEmpty());
+        Mockito.verify(productRepository).findPageOrderById(0L, Limit.of(ProductService.MAX_PAGE_SIZE + 1));
+    }
+
+    @Test
+    void testGetAllProducts_RejectsInvalidCursor() {
+        // Act & Assert
+        assertThrows(InvalidCursorException.class,
+                () -> productService.getAllProducts("not-a-cursor", null, ProductSort.PRICE));
     }
 
     @Test
     void testGetProductById() {
         // Arrange
-        Product product = new Product();
+        ProductDto product = new ProductDto();
         product.setId(1L);
         product.setName("Product A");
 
-        Mockito.when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        Mockito.when(productRepository.findDtoById(1L)).thenReturn(Optional.of(product));
 
         // Act
-        Product result = productService.getProductById(1L);
+        ProductDto result = productService.getProductById(1L);
+        ProductDto cached = productService.getProductById(1L);
 
         // Assert
         assertNotNull(result);
         assertEquals(1L, result.getId());
         assertEquals("Product A", result.getName());
+        assertSame(result, cached);
+        Mockito.verify(productRepository, Mockito.times(1)).findDtoById(1L);
+    }
+
+    @Test
+    void testGetProductById_NotFoundIsNotCached() {
+        // Arrange
+        Mockito.when(productRepository.findDtoById(1L)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(RuntimeException.class, () -> productService.getProductById(1L));
+        assertThrows(RuntimeException.class, () -> productService.getProductById(1L));
+        Mockito.verify(productRepository, Mockito.times(2)).findDtoById(1L);
     }
 
     @Test
@@ -112,6 +193,7 @@ class ProductServiceTest {
         Product existingProduct = new Product();
         existingProduct.setId(1L);
         existingProduct.setName("Old Product");
+        existingProduct.setCategory(ProductCategory.BOOKS);
 
         ProductDto productDto = new ProductDto();
         productDto.setName("Updated Product");
@@ -140,6 +222,9 @@ class ProductServiceTest {
         assertNotNull(result);
         assertEquals("Updated Product", result.getName());
         assertEquals("Updated Description", result.getDescription());
+        // Produk pindah kategori: halaman kedua kategori harus dibuang
+        Mockito.verify(eventPublisher).publishEvent(
+                new ProductChangedEvent(1L, Set.of(ProductCategory.BOOKS, ProductCategory.ELECTRONICS)));
     }
 
     @Test
@@ -148,6 +233,7 @@ class ProductServiceTest {
         Product product = new Product();
         product.setId(1L);
         product.setName("Product A");
+        product.setCategory(ProductCategory.BOOKS);
 
         Mockito.when(productRepository.findById(1L)).thenReturn(Optional.of(product));
         Mockito.doNothing().when(productRepository).delete(product);
@@ -157,51 +243,106 @@ class ProductServiceTest {
 
         // Assert
         Mockito.verify(productRepository, Mockito.times(1)).delete(product);
+        Mockito.verify(eventPublisher).publishEvent(new ProductChangedEvent(1L, Set.of(ProductCategory.BOOKS)));
     }
 
     @Test
     void testGetProductsByCategory() {
         // Arrange
-        Product product1 = new Product();
+        ProductDto product1 = new ProductDto();
         product1.setId(1L);
         product1.setCategory(ProductCategory.ELECTRONICS);
 
-        Product product2 = new Product();
+        ProductDto product2 = new ProductDto();
         product2.setId(2L);
         product2.setCategory(ProductCategory.ELECTRONICS);
 
-        List<Product> products = Arrays.asList(product1, product2);
+        List<ProductDto> products = Arrays.asList(product1, product2);
 
-        Mockito.when(productRepository.findByCategory(ProductCategory.ELECTRONICS)).thenReturn(products);
+        Mockito.when(productRepository.findCategoryPageOrderById(ProductCategory.ELECTRONICS, 0L,
+                Limit.of(ProductService.DEFAULT_PAGE_SIZE + 1))).thenReturn(products);
 
         // Act
-        List<Product> result = productService.getProductsByCategory(ProductCategory.ELECTRONICS);
+        ProductPage result = productService.getProductsByCategory(ProductCategory.ELECTRONICS, null, null, ProductSort.ID);
 
         // Assert
         assertNotNull(result);
-        assertEquals(2, result.size());
+        assertEquals(2, result.getItems().size());
+    }
+
+    @Test
+    void testGetProductsByCategory_CachedUntilCategoryChanges() {
+        // Arrange
+        Limit limit = Limit.of(ProductService.DEFAULT_PAGE_SIZE + 1);
+        Mockito.when(productRepository.findCategoryPageOrderById(ProductCategory.ELECTRONICS, 0L, limit))
+                .thenReturn(List.of(new ProductDto()));
+
+        // Act
+        ProductPage first = productService.getProductsByCategory(ProductCategory.ELECTRONICS, null, null, ProductSort.ID);
+        ProductPage cached = productService.getProductsByCategory(ProductCategory.ELECTRONICS, null, null, ProductSort.ID);
+        productCache.onProductChanged(new ProductChangedEvent(1L, Set.of(ProductCategory.BOOKS)));
+        ProductPage stillCached = productService.getProductsByCategory(ProductCategory.ELECTRONICS, null, null, ProductSort.ID);
+        productCache.onProductChanged(new ProductChangedEvent(2L, Set.of(ProductCategory.ELECTRONICS)));
+        ProductPage reloaded = productService.getProductsByCategory(ProductCategory.ELECTRONICS, null, null, ProductSort.ID);
+
+        // Assert
+        assertSame(first, cached);
+        assertSame(first, stillCached);
+        assertNotSame(first, reloaded);
+        Mockito.verify(productRepository, Mockito.times(2)).findCategoryPageOrderById(ProductCategory.ELECTRONICS, 0L, limit);
     }
 
     @Test
     void testGetProductsByPriceRange() {
         // Arrange
-        Product product1 = new Product();
+        ProductDto product1 = new ProductDto();
         product1.setId(1L);
         product1.setPrice(BigDecimal.valueOf(100));
 
-        Product product2 = new Product();
+        ProductDto product2 = new ProductDto();
         product2.setId(2L);
         product2.setPrice(BigDecimal.valueOf(200));
 
-        List<Product> products = Arrays.asList(product1, product2);
+        List<ProductDto> products = Arrays.asList(product1, product2);
 
-        Mockito.when(productRepository.findProductsByPriceRange(BigDecimal.valueOf(50), BigDecimal.valueOf(250))).thenReturn(products);
+        Mockito.when(productRepository.findPriceRangePageOrderByPrice(BigDecimal.valueOf(50), BigDecimal.valueOf(250),
+                BigDecimal.ONE.negate(), 0L, Limit.of(ProductService.DEFAULT_PAGE_SIZE + 1))).thenReturn(products);
 
         // Act
-        List<Product> result = productService.getProductsByPriceRange(BigDecimal.valueOf(50), BigDecimal.valueOf(250));
+        ProductPage result = productService.getProductsByPriceRange(BigDecimal.valueOf(50), BigDecimal.valueOf(250),
+                null, null, null, ProductSort.PRICE);
 
         // Assert
         assertNotNull(result);
-        assertEquals(2, result.size());
+        assertEquals(2, result.getItems().size());
+    }
+
+    @Test
+    void testGetProductsByPriceRangeUsesIndexWhenReady() {
+        // Arrange
+        ProductDto product1 = new ProductDto();
+        product1.setId(1L);
+        product1.setPrice(BigDecimal.valueOf(100));
+
+        ProductDto product2 = new ProductDto();
+        product2.setId(2L);
+        product2.setPrice(BigDecimal.valueOf(200));
+
+        Mockito.when(catalogIndex.isReady()).thenReturn(true);
+        Mockito.when(catalogIndex.findIds(eq(ProductCategory.BOOKS), eq(BigDecimal.valueOf(50)), eq(BigDecimal.valueOf(250)),
+                any(ProductCursor.class), eq(2), eq(ProductSort.PRICE))).thenReturn(List.of(1L, 2L));
+        Mockito.when(productRepository.findDtosByIdIn(any())).thenReturn(List.of(product2, product1));
+
+        // Act
+        ProductPage result = productService.getProductsByPriceRange(BigDecimal.valueOf(50), BigDecimal.valueOf(250),
+                ProductCategory.BOOKS, null, 1, ProductSort.PRICE);
+
+        // Assert: urutan dari index, cache kosong dimuat dengan satu query IN
+        assertEquals(List.of(product1), result.getItems());
+        assertNotNull(result.getNext());
+        Mockito.verify(productRepository, Mockito.times(1)).findDtosByIdIn(any());
+        Mockito.verify(productRepository, Mockito.never()).findDtoById(any());
+        Mockito.verify(productRepository, Mockito.never()).findCategoryPriceRangePageOrderByPrice(
+                any(), any(), any(), any(), any(), any());
     }
 }
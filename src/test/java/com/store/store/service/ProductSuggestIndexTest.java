@@ -0,0 +1,97 @@
+package com.store.store.service;
+
+import com.store.store.DTO.ProductSuggestion;
+import com.store.store.DTO.SalesTotal;
+import com.store.store.event.ProductChangedEvent;
+import com.store.store.model.ProductCategory;
+import com.store.store.model.SalesDimension;
+import com.store.store.model.SalesGranularity;
+import com.store.store.repository.ProductRepository;
+import com.store.store.repository.SalesRollupRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+
+class ProductSuggestIndexTest {
+
+    private final ProductRepository productRepository = Mockito.mock(ProductRepository.class);
+    private final SalesRollupRepository salesRollupRepository = Mockito.mock(SalesRollupRepository.class);
+    private final ProductSuggestIndex index = new ProductSuggestIndex(productRepository, salesRollupRepository,
+            Mockito.mock(PlatformTransactionManager.class), Duration.ofDays(30), Duration.ZERO, 2);
+
+    @BeforeEach
+    void setUp() {
+        Mockito.when(productRepository.streamActiveSuggestions()).thenReturn(Stream.of(
+                new ProductSuggestion(1L, "Buku Java"),
+                new ProductSuggestion(2L, "Java, Java!"),
+                new ProductSuggestion(3L, "Jaket Kulit"),
+                new ProductSuggestion(4L, "Laptop Gaming"),
+                new ProductSuggestion(5L, "Java Kopi Arabica")));
+        Mockito.when(salesRollupRepository.findTotals(eq(SalesDimension.PRODUCT), eq(SalesGranularity.DAY), any(), any()))
+                .thenReturn(List.of(total(5L, 40), total(1L, 25), total(3L, 10)));
+        index.rebuild();
+    }
+
+    @Test
+    void matchesAnyWordStartOrderedBySales() {
+        // 2 cocok dua kali ("java java") tapi hanya muncul sekali; tanpa penjualan ada di akhir
+        assertEquals(List.of(5L, 1L, 3L, 2L), ids(index.suggest("JA", 10)));
+        assertEquals(List.of(5L, 1L, 2L), ids(index.suggest("java", 10)));
+        assertEquals(List.of(5L), ids(index.suggest("java kop", 10)));
+        assertEquals(List.of(4L), ids(index.suggest("gam", 10)));
+        assertTrue(index.suggest("ava", 10).isEmpty());
+    }
+
+    @Test
+    void limitKeepsBestSellers() {
+        assertEquals(List.of(5L, 1L), ids(index.suggest("j", 2)));
+        assertTrue(index.suggest("  -- ", 10).isEmpty());
+    }
+
+    @Test
+    void productChangesAreVisibleWithoutRebuild() {
+        Mockito.when(productRepository.findActiveSuggestion(1L)).thenReturn(Optional.of(new ProductSuggestion(1L, "Buku Kotlin")));
+        Mockito.when(productRepository.findActiveSuggestion(5L)).thenReturn(Optional.empty());
+        Mockito.when(productRepository.findActiveSuggestion(6L)).thenReturn(Optional.of(new ProductSuggestion(6L, "Jam Tangan")));
+
+        index.onProductChanged(new ProductChangedEvent(1L, Set.of(ProductCategory.BOOKS)));
+        index.onProductChanged(new ProductChangedEvent(5L, Set.of(ProductCategory.OTHER)));
+        index.onProductChanged(new ProductChangedEvent(3L, Set.of()));
+
+        assertEquals(List.of(2L), ids(index.suggest("java", 10)));
+        // Nama baru tetap memakai penjualan produk yang sama
+        assertEquals(List.of(1L), ids(index.suggest("kot", 10)));
+
+        // Perubahan ketiga melewati max-pending: overlay digabung ke snapshot baru
+        index.onProductChanged(new ProductChangedEvent(6L, Set.of(ProductCategory.OTHER)));
+
+        assertEquals(List.of(3L, 6L, 2L), ids(index.suggest("ja", 10)));
+        assertEquals(List.of(1L), ids(index.suggest("buku", 10)));
+        Mockito.verify(productRepository, Mockito.never()).findActiveSuggestion(3L);
+    }
+
+    @Test
+    void normalizesCaseAndPunctuation() {
+        assertEquals("e book rp 50 000", ProductSuggestIndex.normalize("  E-Book (Rp 50.000)"));
+    }
+
+    private static SalesTotal total(long productId, long units) {
+        return new SalesTotal(String.valueOf(productId), units, units * 1000, units);
+    }
+
+    private static List<Long> ids(List<ProductSuggestion> suggestions) {
+        return suggestions.stream().map(ProductSuggestion::id).toList();
+    }
+}
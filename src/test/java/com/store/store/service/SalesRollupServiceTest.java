@@ -0,0 +1,117 @@
+package com.store.store.service;
+
+import com.store.store.DTO.SalesBucket;
+import com.store.store.DTO.SalesTotal;
+import com.store.store.DTO.TransactionDto;
+import com.store.store.model.Product;
+import com.store.store.model.ProductCategory;
+import com.store.store.model.SalesDimension;
+import com.store.store.model.SalesGranularity;
+import com.store.store.model.User;
+import com.store.store.model.UserRole;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static com.store.store.TestFixtures.product;
+import static com.store.store.TestFixtures.user;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = "spring.jpa.hibernate.ddl-auto=create-drop")
+@Import({TransactionService.class, SalesRollupService.class})
+class SalesRollupServiceTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private SalesRollupService salesRollupService;
+
+    private Long buyerId;
+    private Long sellerId;
+    private Long bookId;
+    private Long phoneId;
+    private LocalDateTime from;
+    private LocalDateTime to;
+
+    @BeforeEach
+    void setUp() {
+        User seller = entityManager.persist(user("seller", UserRole.ROLE_SELLER));
+        sellerId = seller.getId();
+        buyerId = entityManager.persist(user("buyer", UserRole.ROLE_USER)).getId();
+        bookId = entityManager.persist(product("Book", "12.50", 100, ProductCategory.BOOKS, seller)).getId();
+        phoneId = entityManager.persist(product("Phone", "300.00", 100, ProductCategory.ELECTRONICS, seller)).getId();
+        from = LocalDateTime.now().truncatedTo(ChronoUnit.DAYS).minusDays(1);
+        to = from.plusDays(3);
+    }
+
+    @Test
+    void createAddsToProductSellerAndCategoryBuckets() {
+        transactionService.createTransaction(new TransactionDto(null, buyerId, bookId, 2, null, null));
+        transactionService.createTransaction(new TransactionDto(null, buyerId, bookId, 1, null, null));
+
+        List<SalesBucket> hours = salesRollupService.getBuckets(SalesDimension.PRODUCT, bookId.toString(),
+                SalesGranularity.HOUR, from, to);
+        assertEquals(1, hours.size());
+        assertEquals(3, hours.get(0).units());
+        assertEquals(3750, hours.get(0).revenueMinor());
+        assertEquals(2, hours.get(0).transactionCount());
+        assertEquals(new BigDecimal("37.50"), hours.get(0).revenue());
+
+        assertEquals(List.of(new SalesTotal(sellerId.toString(), 3, 3750, 2)),
+                salesRollupService.getTotals(SalesDimension.SELLER, SalesGranularity.DAY, from, to));
+        assertEquals(List.of(new SalesTotal("BOOKS", 3, 3750, 2)),
+                salesRollupService.getTotals(SalesDimension.CATEGORY, SalesGranularity.DAY, from, to));
+    }
+
+    @Test
+    void updateMovesSaleToTheNewProduct() {
+        TransactionDto created = transactionService.createTransaction(new TransactionDto(null, buyerId, bookId, 2, null, null));
+
+        transactionService.updateTransaction(created.getId(), new TransactionDto(null, buyerId, phoneId, 1, null, null));
+
+        List<SalesTotal> byProduct = salesRollupService.getTotals(SalesDimension.PRODUCT, SalesGranularity.DAY, from, to);
+        assertEquals(new SalesTotal(phoneId.toString(), 1, 30000, 1), byProduct.get(0));
+        assertEquals(new SalesTotal(bookId.toString(), 0, 0, 0), byProduct.get(1));
+        assertEquals(List.of(new SalesTotal(sellerId.toString(), 1, 30000, 1)),
+                salesRollupService.getTotals(SalesDimension.SELLER, SalesGranularity.HOUR, from, to));
+    }
+
+    @Test
+    void deleteSubtractsTheSale() {
+        TransactionDto kept = transactionService.createTransaction(new TransactionDto(null, buyerId, phoneId, 1, null, null));
+        TransactionDto removed = transactionService.createTransaction(new TransactionDto(null, buyerId, phoneId, 2, null, null));
+
+        transactionService.deleteTransaction(removed.getId());
+
+        List<SalesTotal> byCategory = salesRollupService.getTotals(SalesDimension.CATEGORY, SalesGranularity.DAY, from, to);
+        assertEquals(List.of(new SalesTotal("ELECTRONICS", kept.getQuantity(), 30000, 1)), byCategory);
+        assertTrue(salesRollupService.getBuckets(SalesDimension.PRODUCT, phoneId.toString(), SalesGranularity.DAY,
+                to, to.plusDays(1)).isEmpty());
+    }
+
+    @Test
+    void deleteAfterCategoryChangeSubtractsFromTheCategoryOfTheSale() {
+        TransactionDto sale = transactionService.createTransaction(new TransactionDto(null, buyerId, bookId, 2, null, null));
+        entityManager.find(Product.class, bookId).setCategory(ProductCategory.ELECTRONICS);
+        entityManager.flush();
+
+        transactionService.deleteTransaction(sale.getId());
+
+        // Bukan ELECTRONICS -2: penjualannya terjadi saat produk masih BOOKS
+        assertEquals(List.of(new SalesTotal("BOOKS", 0, 0, 0)),
+                salesRollupService.getTotals(SalesDimension.CATEGORY, SalesGranularity.DAY, from, to));
+    }
+}
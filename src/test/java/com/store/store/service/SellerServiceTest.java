@@ -0,0 +1,104 @@
+package com.store.store.service;
+
+import com.store.store.DTO.SellerSummary;
+import com.store.store.exception.UserNotFoundException;
+import com.store.store.model.Product;
+import com.store.store.model.ProductCategory;
+import com.store.store.model.Transaction;
+import com.store.store.model.User;
+import com.store.store.model.UserRole;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static com.store.store.TestFixtures.product;
+import static com.store.store.TestFixtures.user;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DataJpaTest(properties = "spring.jpa.hibernate.ddl-auto=create-drop")
+@Import({SellerService.class, SellerSummaryCache.class})
+class SellerServiceTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private SellerService sellerService;
+
+    private final LocalDateTime from = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private final LocalDateTime to = LocalDateTime.of(2024, 2, 1, 0, 0);
+
+    private User buyer;
+    private Product book;
+    private Product phone;
+
+    @BeforeEach
+    void setUp() {
+        User seller = entityManager.persist(user("seller", UserRole.ROLE_SELLER));
+        User otherSeller = entityManager.persist(user("other", UserRole.ROLE_SELLER));
+        entityManager.persist(user("empty", UserRole.ROLE_SELLER));
+        buyer = entityManager.persist(user("buyer", UserRole.ROLE_USER));
+        book = entityManager.persist(product("Book", "12.50", 10, ProductCategory.BOOKS, seller));
+        phone = entityManager.persist(product("Phone", "300.00", 2, ProductCategory.BOOKS, seller));
+        Product otherBook = entityManager.persist(product("Other book", "5.00", 100, ProductCategory.BOOKS, otherSeller));
+
+        transaction(book, 2, from.plusDays(1));
+        transaction(book, 1, from.plusDays(2));
+        transaction(phone, 1, to.minusHours(1));
+        transaction(phone, 4, to);                  // di luar jendela (to eksklusif)
+        transaction(otherBook, 7, from.plusDays(1)); // seller lain
+        entityManager.flush();
+    }
+
+    @Test
+    void summarizesStockAndSalesInsideWindow() {
+        SellerSummary summary = sellerService.getSummary("seller", from, to);
+
+        assertEquals(2, summary.productCount());
+        // 10 x 12.50 + 2 x 300.00; stok tidak dikalikan jumlah transaksi
+        assertEquals(72500, summary.stockValueMinor());
+        assertEquals(4, summary.unitsSold());
+        assertEquals(33750, summary.revenueMinor());
+        assertEquals(new BigDecimal("337.50"), summary.revenue());
+        assertEquals(new BigDecimal("725.00"), summary.stockValue());
+    }
+
+    @Test
+    void sellerWithoutProductsHasZeroSummary() {
+        assertEquals(new SellerSummary("empty", from, to, 0, 0, 0, 0), sellerService.getSummary("empty", from, to));
+    }
+
+    @Test
+    void unknownSellerThrows() {
+        assertThrows(UserNotFoundException.class, () -> sellerService.getSummary("nobody", from, to));
+    }
+
+    @Test
+    void repeatedRequestIsServedFromCache() {
+        SellerSummary first = sellerService.getSummary("seller", from, to);
+        transaction(book, 5, from.plusDays(3));
+        entityManager.flush();
+
+        assertEquals(first, sellerService.getSummary("seller", from, to));
+        // Jendela lain = key lain: transaksi baru dan penjualan tepat di `to` ikut terhitung
+        assertEquals(13, sellerService.getSummary("seller", from, to.plusDays(1)).unitsSold());
+    }
+
+    private void transaction(Product product, int quantity, LocalDateTime createdAt) {
+        Transaction transaction = new Transaction();
+        transaction.setUser(buyer);
+        transaction.setProduct(product);
+        transaction.setCategory(product.getCategory());
+        transaction.setQuantity(quantity);
+        transaction.setTotalPriceMinor(product.getPrice().movePointRight(2).longValueExact() * quantity);
+        transaction.setCreatedAt(createdAt);
+        entityManager.persist(transaction);
+    }
+}
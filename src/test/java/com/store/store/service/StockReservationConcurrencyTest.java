@@ -0,0 +1,133 @@
+package com.store.store.service;
+
+import com.store.store.DTO.SalesTotal;
+import com.store.store.DTO.TransactionDto;
+import com.store.store.exception.InsufficientStockException;
+import com.store.store.model.ProductCategory;
+import com.store.store.model.SalesDimension;
+import com.store.store.model.SalesGranularity;
+import com.store.store.model.User;
+import com.store.store.model.UserRole;
+import com.store.store.repository.ProductRepository;
+import com.store.store.repository.SalesRollupRepository;
+import com.store.store.repository.TransactionRepository;
+import com.store.store.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.store.store.TestFixtures.product;
+import static com.store.store.TestFixtures.user;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Ratusan pembeli paralel pada satu SKU: stok tidak boleh negatif dan jumlah transaksi
+ * yang berhasil harus tepat sama dengan stok awal.
+ */
+@DataJpaTest(properties = "spring.jpa.hibernate.ddl-auto=create-drop")
+@Import({TransactionService.class, SalesRollupService.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // setiap pembeli commit di transaksinya sendiri
+class StockReservationConcurrencyTest {
+
+    private static final int INITIAL_STOCK = 50;
+    private static final int BUYERS = 200;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private SalesRollupRepository salesRollupRepository;
+
+    private Long buyerId;
+    private Long productId;
+
+    @BeforeEach
+    void setUp() {
+        User seller = userRepository.save(user("seller", UserRole.ROLE_SELLER));
+        buyerId = userRepository.save(user("buyer", UserRole.ROLE_USER)).getId();
+
+        productId = productRepository.save(
+                product("Hot item", "10.00", INITIAL_STOCK, ProductCategory.ELECTRONICS, seller)).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        salesRollupRepository.deleteAll();
+        transactionRepository.deleteAll();
+        productRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void concurrentBuyersNeverOversell() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(32);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger sold = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int i = 0; i < BUYERS; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    transactionService.createTransaction(new TransactionDto(null, buyerId, productId, 1, null, null));
+                    sold.incrementAndGet();
+                } catch (InsufficientStockException e) {
+                    rejected.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(INITIAL_STOCK, sold.get());
+        assertEquals(BUYERS - INITIAL_STOCK, rejected.get());
+        assertEquals(0, productRepository.findById(productId).orElseThrow().getStock());
+        assertEquals(INITIAL_STOCK, transactionRepository.count());
+        // Upsert rollup paralel pada baris yang sama tidak boleh kehilangan delta
+        List<SalesTotal> totals = salesRollupRepository.findTotals(SalesDimension.PRODUCT, SalesGranularity.DAY,
+                LocalDateTime.now().minusDays(1), LocalDateTime.now().plusDays(1));
+        assertEquals(List.of(new SalesTotal(productId.toString(), INITIAL_STOCK, INITIAL_STOCK * 1000L, INITIAL_STOCK)),
+                totals);
+    }
+
+    @Test
+    void deletingTransactionReleasesStock() {
+        TransactionDto created = transactionService.createTransaction(new TransactionDto(null, buyerId, productId, 5, null, null));
+        assertEquals(INITIAL_STOCK - 5, productRepository.findById(productId).orElseThrow().getStock());
+
+        transactionService.deleteTransaction(created.getId());
+
+        assertEquals(INITIAL_STOCK, productRepository.findById(productId).orElseThrow().getStock());
+    }
+}
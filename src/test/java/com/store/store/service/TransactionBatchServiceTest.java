@@ -0,0 +1,133 @@
+package com.store.store.service;
+
+import com.store.store.DTO.TransactionBatchResult;
+import com.store.store.DTO.TransactionBatchResult.Status;
+import com.store.store.DTO.TransactionDto;
+import com.store.store.exception.BatchTooLargeException;
+import com.store.store.model.ProductCategory;
+import com.store.store.model.User;
+import com.store.store.model.UserRole;
+import com.store.store.repository.ProductRepository;
+import com.store.store.repository.TransactionRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static com.store.store.TestFixtures.product;
+import static com.store.store.TestFixtures.user;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "transactions.batch.max-items=500"
+})
+@Import({TransactionBatchService.class, SalesRollupService.class})
+class TransactionBatchServiceTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionBatchService transactionBatchService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    private Long buyerId;
+    private Long bookId;
+    private Long phoneId;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        User seller = entityManager.persist(user("seller", UserRole.ROLE_SELLER));
+        buyerId = entityManager.persist(user("buyer", UserRole.ROLE_USER)).getId();
+        bookId = entityManager.persist(product("Book", "12.50", 1000, ProductCategory.BOOKS, seller)).getId();
+        phoneId = entityManager.persist(product("Phone", "300.00", 3, ProductCategory.BOOKS, seller)).getId();
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void createTransactions_InsertsWithJdbcBatching() {
+        List<TransactionDto> items = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            items.add(item(buyerId, bookId, 2));
+        }
+
+        List<TransactionBatchResult> results = transactionBatchService.createTransactions(items);
+        entityManager.flush();
+        long preparedStatements = statistics.getPrepareStatementCount();
+
+        assertEquals(200, results.size());
+        assertTrue(results.stream().allMatch(result -> result.getStatus() == Status.CREATED));
+        assertEquals(2500L, results.get(0).getTransaction().getTotalPriceMinor());
+        assertNotNull(results.get(199).getTransaction().getId());
+        assertEquals(200, transactionRepository.count());
+        entityManager.clear();
+        assertEquals(600, productRepository.findById(bookId).orElseThrow().getStock());
+
+        // 200 INSERT dalam batch 50: beberapa statement (harga, user, stok, nextval, 4 batch), bukan 200+
+        assertEquals(200, statistics.getEntityInsertCount());
+        assertTrue(preparedStatements <= 12, "prepared statements: " + preparedStatements);
+    }
+
+    @Test
+    void createTransactions_ReportsFailuresPerItemInRequestOrder() {
+        List<TransactionDto> items = List.of(
+                item(buyerId, phoneId, 2),
+                item(buyerId, 999_999L, 1),
+                item(999_999L, bookId, 1),
+                item(buyerId, phoneId, 2),
+                item(buyerId, bookId, 0),
+                item(buyerId, phoneId, 1));
+
+        List<TransactionBatchResult> results = transactionBatchService.createTransactions(items);
+
+        assertEquals(List.of(Status.CREATED, Status.PRODUCT_NOT_FOUND, Status.USER_NOT_FOUND,
+                        Status.INSUFFICIENT_STOCK, Status.INVALID, Status.CREATED),
+                results.stream().map(TransactionBatchResult::getStatus).toList());
+        for (int i = 0; i < results.size(); i++) {
+            assertEquals(i, results.get(i).getIndex());
+        }
+        assertNull(results.get(3).getTransaction());
+        entityManager.flush();
+        entityManager.clear();
+        assertEquals(0, productRepository.findById(phoneId).orElseThrow().getStock());
+    }
+
+    @Test
+    void createTransactions_RejectsOversizedBatch() {
+        List<TransactionDto> items = Collections.nCopies(501, item(buyerId, bookId, 1));
+
+        assertThrows(BatchTooLargeException.class, () -> transactionBatchService.createTransactions(items));
+    }
+
+    private static TransactionDto item(Long userId, Long productId, Integer quantity) {
+        return new TransactionDto(null, userId, productId, quantity, null, null);
+    }
+}
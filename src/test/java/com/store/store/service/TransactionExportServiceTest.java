@@ -0,0 +1,80 @@
+package com.store.store.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TransactionExportServiceTest {
+
+    private EmbeddedDatabase database;
+    private TransactionExportService exportService;
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.execute("CREATE TABLE transactions (id BIGINT PRIMARY KEY, user_id BIGINT NOT NULL, "
+                + "product_id BIGINT NOT NULL, quantity INTEGER NOT NULL, total_price_minor BIGINT NOT NULL, "
+                + "created_at TIMESTAMP NOT NULL)");
+        jdbcTemplate.update("INSERT INTO transactions VALUES (2, 11, 21, 1, 5000, ?)", LocalDateTime.of(2024, 1, 15, 8, 0));
+        jdbcTemplate.update("INSERT INTO transactions VALUES (1, 10, 20, 2, 10000, ?)", LocalDateTime.of(2024, 1, 10, 9, 30));
+        jdbcTemplate.update("INSERT INTO transactions VALUES (3, 12, 22, 3, 7550, ?)", LocalDateTime.of(2024, 2, 1, 0, 0));
+
+        exportService = new TransactionExportService(database, new DataSourceTransactionManager(database), 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    void testExportNdjsonWritesOneObjectPerLineOrderedById() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exportService.export(TransactionExportService.Format.NDJSON, null, null, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, lines.length);
+        assertEquals("{\"id\":1,\"userId\":10,\"productId\":20,\"quantity\":2,\"totalPrice\":100.00,"
+                + "\"createdAt\":\"2024-01-10T09:30\"}", lines[0]);
+        assertTrue(lines[1].startsWith("{\"id\":2,"));
+        assertTrue(lines[2].startsWith("{\"id\":3,"));
+    }
+
+    @Test
+    void testExportCsvAppliesDateRange() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exportService.export(TransactionExportService.Format.CSV,
+                LocalDateTime.of(2024, 1, 12, 0, 0), LocalDateTime.of(2024, 2, 1, 0, 0), out);
+
+        assertEquals("id,userId,productId,quantity,totalPrice,createdAt\n"
+                + "2,11,21,1,50.00,2024-01-15T08:00\n", out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testExportWithNoMatchingRowsWritesOnlyHeader() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exportService.export(TransactionExportService.Format.CSV,
+                LocalDateTime.of(2030, 1, 1, 0, 0), null, out);
+
+        assertEquals("id,userId,productId,quantity,totalPrice,createdAt\n", out.toString(StandardCharsets.UTF_8));
+    }
+}
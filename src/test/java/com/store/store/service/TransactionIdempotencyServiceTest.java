@@ -0,0 +1,227 @@
+package com.store.store.service;
+
+import com.store.store.DTO.TransactionDto;
+import com.store.store.exception.IdempotencyKeyInProgressException;
+import com.store.store.exception.IdempotencyKeyMismatchException;
+import com.store.store.exception.InsufficientStockException;
+import com.store.store.exception.TransactionOutcomeUnknownException;
+import com.store.store.model.ProductCategory;
+import com.store.store.model.User;
+import com.store.store.model.UserRole;
+import com.store.store.repository.IdempotencyKeyRepository;
+import com.store.store.repository.ProductRepository;
+import com.store.store.repository.SalesRollupRepository;
+import com.store.store.repository.TransactionRepository;
+import com.store.store.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static com.store.store.TestFixtures.product;
+import static com.store.store.TestFixtures.user;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DataJpaTest(properties = "spring.jpa.hibernate.ddl-auto=create-drop")
+@Import({TransactionIdempotencyService.class, TransactionService.class, SalesRollupService.class,
+        AsyncTransactionService.class, TransactionIdAllocator.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // klaim key harus ter-commit seperti di produksi
+class TransactionIdempotencyServiceTest {
+
+    @Autowired
+    private TransactionIdempotencyService idempotencyService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private AsyncTransactionService asyncTransactionService;
+
+    @Autowired
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private SalesRollupRepository salesRollupRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Map in-memory bean-nya hidup sepanjang context: tiap test memakai key sendiri
+    private final String key = UUID.randomUUID().toString();
+    private Long buyerId;
+    private Long productId;
+
+    @BeforeEach
+    void setUp() {
+        User seller = userRepository.save(user("seller", UserRole.ROLE_SELLER));
+        buyerId = userRepository.save(user("buyer", UserRole.ROLE_USER)).getId();
+
+        productId = productRepository.save(product("Book", "12.50", 10, ProductCategory.BOOKS, seller)).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        idempotencyKeyRepository.deleteAll();
+        salesRollupRepository.deleteAll();
+        transactionRepository.deleteAll();
+        productRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void retryReturnsFirstResultWithoutSecondInsert() {
+        TransactionDto request = request(2);
+
+        TransactionIdempotencyService.Response first = create(idempotencyService, key, request);
+        TransactionIdempotencyService.Response retry = create(idempotencyService, key, request);
+
+        assertEquals(HttpStatus.CREATED, first.status());
+        assertEquals(first, retry);
+        assertEquals(1, transactionRepository.count());
+        assertEquals(8, stock());
+        assertEquals(first.transaction().getId(),
+                idempotencyKeyRepository.findAll().get(0).getTransactionId());
+    }
+
+    @Test
+    void concurrentDuplicatesShareOneExecution() throws Exception {
+        TransactionDto request = request(1);
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<TransactionIdempotencyService.Response>> futures = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                return create(idempotencyService, key, request);
+            }));
+        }
+        start.countDown();
+
+        Set<Long> ids = new HashSet<>();
+        for (Future<TransactionIdempotencyService.Response> future : futures) {
+            ids.add(future.get(30, TimeUnit.SECONDS).transaction().getId());
+        }
+        executor.shutdown();
+
+        assertEquals(1, ids.size());
+        assertEquals(1, transactionRepository.count());
+        assertEquals(9, stock());
+    }
+
+    @Test
+    void sameKeyForDifferentRequestIsRejected() {
+        create(idempotencyService, key, request(1));
+
+        assertThrows(IdempotencyKeyMismatchException.class, () -> create(idempotencyService, key, request(3)));
+        assertEquals(9, stock());
+    }
+
+    @Test
+    void otherNodeReplaysFromTable() {
+        TransactionIdempotencyService.Response first = create(idempotencyService, key, request(2));
+
+        // Node lain: map in-memory kosong, hanya tabel yang sama
+        TransactionIdempotencyService.Response replayed = create(otherNode(Duration.ofMinutes(1)), key, request(2));
+
+        assertEquals(HttpStatus.CREATED, replayed.status());
+        assertEquals(first.transaction().getId(), replayed.transaction().getId());
+        assertEquals(first.transaction().getTotalPriceMinor(), replayed.transaction().getTotalPriceMinor());
+        assertEquals(1, transactionRepository.count());
+        assertEquals(8, stock());
+    }
+
+    @Test
+    void failedExecutionReleasesTheKey() {
+        assertThrows(InsufficientStockException.class, () -> create(idempotencyService, key, request(11)));
+        assertEquals(0, idempotencyKeyRepository.count());
+
+        // Key yang sama boleh dipakai lagi setelah request pertama gagal
+        assertEquals(HttpStatus.CREATED, create(idempotencyService, key, request(1)).status());
+        assertEquals(9, stock());
+    }
+
+    @Test
+    void unknownOutcomeKeepsTheKeyBoundToTheTransaction() {
+        TransactionDto request = request(2);
+        // Seperti AsyncTransactionService.submit saat force() log gagal: reservasi dan complete() sudah commit
+        assertThrows(TransactionOutcomeUnknownException.class, () -> idempotencyService.execute("buyer", key, request,
+                onStored -> {
+                    TransactionDto stored = transactionService.createTransaction(request, onStored);
+                    throw new TransactionOutcomeUnknownException(stored.getId(), "Transaction log failed to sync");
+                }));
+        Long transactionId = idempotencyKeyRepository.findAll().get(0).getTransactionId();
+
+        TransactionIdempotencyService.Response retry = create(idempotencyService, key, request);
+
+        assertEquals(transactionId, retry.transaction().getId());
+        assertEquals(1, transactionRepository.count());
+        assertEquals(8, stock());
+    }
+
+    @Test
+    void keyInFlightOnOtherNodeConflictsUntilAbandoned() {
+        // Node lain sudah mengklaim key tapi belum selesai
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> idempotencyKeyRepository.claim(
+                "buyer", key, buyerId + ":" + productId + ":1",
+                LocalDateTime.now().minusSeconds(5).truncatedTo(ChronoUnit.MICROS)));
+
+        assertThrows(IdempotencyKeyInProgressException.class,
+                () -> create(otherNode(Duration.ofMinutes(1)), key, request(1)));
+        assertEquals(10, stock());
+
+        // Setelah batas abandoned-after, klaim lama diambil alih dan request dieksekusi
+        assertEquals(HttpStatus.CREATED, create(otherNode(Duration.ofSeconds(1)), key, request(1)).status());
+        assertEquals(9, stock());
+    }
+
+    private TransactionIdempotencyService.Response create(TransactionIdempotencyService service, String key,
+                                                          TransactionDto request) {
+        return service.execute("buyer", key, request, onStored -> new TransactionIdempotencyService.Response(
+                HttpStatus.CREATED, transactionService.createTransaction(request, onStored)));
+    }
+
+    private TransactionIdempotencyService otherNode(Duration abandonedAfter) {
+        return new TransactionIdempotencyService(idempotencyKeyRepository, transactionRepository,
+                asyncTransactionService, transactionManager, Duration.ofMinutes(10), 1000, Duration.ofHours(24),
+                abandonedAfter);
+    }
+
+    private TransactionDto request(int quantity) {
+        return new TransactionDto(null, buyerId, productId, quantity, null, null);
+    }
+
+    private int stock() {
+        return productRepository.findById(productId).orElseThrow().getStock();
+    }
+}
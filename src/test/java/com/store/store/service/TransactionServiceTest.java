@@ -8,6 +8,7 @@ import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -15,9 +16,14 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import com.store.store.DTO.TransactionDto;
+import com.store.store.event.ProductChangedEvent;
+import com.store.store.exception.InsufficientStockException;
+import com.store.store.exception.InvalidQuantityException;
 import com.store.store.model.Product;
+import com.store.store.model.ProductCategory;
 import com.store.store.model.Transaction;
 import com.store.store.model.User;
 import com.store.store.repository.ProductRepository;
@@ -32,6 +38,12 @@ public class TransactionServiceTest {
     @Mock
     private ProductRepository productRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private SalesRollupService salesRollupService;
+
     @InjectMocks
     private TransactionService transactionService;
 
@@ -47,13 +59,16 @@ public class TransactionServiceTest {
         mockProduct = new Product();
         mockProduct.setId(1L);
         mockProduct.setPrice(new BigDecimal("100.00"));
+        mockProduct.setSeller(new User(7L));
+        mockProduct.setCategory(ProductCategory.BOOKS);
 
         mockTransaction = new Transaction();
         mockTransaction.setId(1L);
         mockTransaction.setUser(mockUser);
         mockTransaction.setProduct(mockProduct);
+        mockTransaction.setCategory(ProductCategory.BOOKS);
         mockTransaction.setQuantity(2);
-        mockTransaction.setTotalPrice(200.00);
+        mockTransaction.setTotalPriceMinor(20000L);
         mockTransaction.setCreatedAt(LocalDateTime.now());
 
         mockTransactionDto = new TransactionDto();
@@ -65,8 +80,8 @@ public class TransactionServiceTest {
     @Test
     void getAllTransactions_ShouldReturnListOfTransactionDto() {
         // Arrange
-        List<Transaction> transactions = Arrays.asList(mockTransaction);
-        when(transactionRepository.findAll()).thenReturn(transactions);
+        List<TransactionDto> transactions = Arrays.asList(new TransactionDto(1L, 1L, 1L, 2, 20000L, LocalDateTime.now()));
+        when(transactionRepository.findAllDtos()).thenReturn(transactions);
 
         // Act
         List<TransactionDto> result = transactionService.getAllTransactions();
@@ -75,7 +90,7 @@ public class TransactionServiceTest {
         assertNotNull(result);
         assertEquals(1, result.size());
         assertEquals(mockTransaction.getId(), result.get(0).getId());
-        verify(transactionRepository).findAll();
+        verify(transactionRepository).findAllDtos();
     }
 
     @Test
@@ -83,6 +98,7 @@ public class TransactionServiceTest {
         // Arrange
         when(productRepository.findById(mockTransactionDto.getProductId()))
                 .thenReturn(Optional.of(mockProduct));
+        when(productRepository.reserveStock(1L, 2)).thenReturn(1);
         when(transactionRepository.save(any(Transaction.class)))
                 .thenReturn(mockTransaction);
 
@@ -92,15 +108,61 @@ public class TransactionServiceTest {
         // Assert
         assertNotNull(result);
         assertEquals(mockTransaction.getId(), result.getId());
-        assertEquals(mockTransaction.getTotalPrice(), result.getTotalPrice());
+        assertEquals(mockTransaction.getTotalPriceMinor(), result.getTotalPriceMinor());
         verify(productRepository).findById(mockTransactionDto.getProductId());
+        verify(productRepository).reserveStock(1L, 2);
+        verify(eventPublisher).publishEvent(new ProductChangedEvent(1L, Set.of()));
         verify(transactionRepository).save(any(Transaction.class));
     }
 
     @Test
-    void getTransactionById_ShouldReturnTransactionDto() {
+    void createTransaction_ShouldRejectOversell() {
+        // Arrange
+        when(productRepository.findById(mockTransactionDto.getProductId()))
+                .thenReturn(Optional.of(mockProduct));
+        when(productRepository.reserveStock(1L, 2)).thenReturn(0);
+
+        // Act & Assert
+        assertThrows(InsufficientStockException.class, () -> transactionService.createTransaction(mockTransactionDto));
+        verify(transactionRepository, never()).save(any(Transaction.class));
+    }
+
+    @Test
+    void createTransaction_ShouldRejectNonPositiveQuantity() {
         // Arrange
+        mockTransactionDto.setQuantity(-3);
+
+        // Act & Assert
+        assertThrows(InvalidQuantityException.class, () -> transactionService.createTransaction(mockTransactionDto));
+        verifyNoInteractions(productRepository, transactionRepository);
+    }
+
+    @Test
+    void updateTransaction_ShouldReserveOnlyTheAddedQuantity() {
+        // Arrange
+        mockTransactionDto.setQuantity(5);
         when(transactionRepository.findById(1L)).thenReturn(Optional.of(mockTransaction));
+        when(productRepository.findById(1L)).thenReturn(Optional.of(mockProduct));
+        when(productRepository.reserveStock(1L, 3)).thenReturn(1);
+        when(transactionRepository.save(any(Transaction.class))).thenReturn(mockTransaction);
+
+        // Act
+        transactionService.updateTransaction(1L, mockTransactionDto);
+
+        // Assert
+        verify(productRepository).reserveStock(1L, 3);
+        verify(productRepository, never()).releaseStock(anyLong(), anyInt());
+        // Rollup: versi lama (2 unit) dikurangi, versi baru (5 unit) ditambah
+        verify(salesRollupService).apply(argThat(deltas -> deltas.size() == 2
+                && deltas.get(0).units() == -2 && deltas.get(0).transactions() == -1
+                && deltas.get(1).units() == 5 && deltas.get(1).transactions() == 1));
+    }
+
+    @Test
+    void getTransactionById_ShouldReturnTransactionDto() {
+        // Arrange
+        when(transactionRepository.findDtoById(1L))
+                .thenReturn(Optional.of(new TransactionDto(1L, 1L, 1L, 2, 20000L, LocalDateTime.now())));
 
         // Act
         TransactionDto result = transactionService.getTransactionById(1L);
@@ -108,7 +170,7 @@ public class TransactionServiceTest {
         // Assert
         assertNotNull(result);
         assertEquals(mockTransaction.getId(), result.getId());
-        verify(transactionRepository).findById(1L);
+        verify(transactionRepository).findDtoById(1L);
     }
 
     @Test
@@ -124,7 +186,7 @@ public class TransactionServiceTest {
         // Assert
         assertNotNull(result);
         assertEquals(mockTransaction.getId(), result.getId());
-        assertEquals(mockTransaction.getTotalPrice(), result.getTotalPrice());
+        assertEquals(mockTransaction.getTotalPriceMinor(), result.getTotalPriceMinor());
         verify(transactionRepository).findById(1L);
         verify(productRepository).findById(1L);
         verify(transactionRepository).save(any(Transaction.class));
@@ -141,19 +203,21 @@ public class TransactionServiceTest {
 
         // Assert
         verify(transactionRepository).findById(1L);
+        verify(productRepository).releaseStock(1L, 2);
+        verify(salesRollupService).apply(List.of(SalesRollupService.SaleDelta.removed(mockTransaction)));
         verify(transactionRepository).delete(mockTransaction);
     }
 
     @Test
     void getTransactionById_ShouldThrowException_WhenTransactionNotFound() {
         // Arrange
-        when(transactionRepository.findById(999L)).thenReturn(Optional.empty());
+        when(transactionRepository.findDtoById(999L)).thenReturn(Optional.empty());
 
         // Act & Assert
         assertThrows(RuntimeException.class, () -> {
             transactionService.getTransactionById(999L);
         });
-        verify(transactionRepository).findById(999L);
+        verify(transactionRepository).findDtoById(999L);
     }
 
     @Test
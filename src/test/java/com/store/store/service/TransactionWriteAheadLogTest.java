@@ -0,0 +1,202 @@
+package com.store.store.service;
+
+import com.store.store.model.ProductCategory;
+import com.store.store.service.TransactionWriteAheadLog.Appended;
+import com.store.store.service.TransactionWriteAheadLog.Entry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TransactionWriteAheadLogTest {
+
+    // Empat record per segmen supaya rollover ikut teruji
+    private static final int SEGMENT_SIZE = TransactionWriteAheadLog.RECORD_SIZE * 4;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void recoversEverythingAfterCheckpointAcrossSegments() throws Exception {
+        List<Appended> durable = new ArrayList<>();
+        try (TransactionWriteAheadLog log = TransactionWriteAheadLog.open(directory, SEGMENT_SIZE, durable::addAll)) {
+            for (long id = 1; id <= 10; id++) {
+                log.append(entry(id));
+            }
+            assertEquals(10, durable.size());
+            log.checkpoint(durable.get(5).endPosition());
+        }
+        // Segmen pertama seluruhnya di bawah checkpoint dan sudah dihapus
+        assertEquals(2, segmentCount());
+
+        try (TransactionWriteAheadLog log = TransactionWriteAheadLog.open(directory, SEGMENT_SIZE, durable::addAll)) {
+            assertEquals(List.of(7L, 8L, 9L, 10L), ids(log.recovered()));
+            assertEquals(entry(7), log.recovered().get(0).entry());
+        }
+    }
+
+    @Test
+    void tornRecordIsDroppedAndOverwritten() throws Exception {
+        List<Appended> durable = new ArrayList<>();
+        try (TransactionWriteAheadLog log = TransactionWriteAheadLog.open(directory, SEGMENT_SIZE, durable::addAll)) {
+            log.append(entry(1));
+            log.append(entry(2));
+        }
+        // Simulasi crash di tengah penulisan record kedua
+        try (RandomAccessFile file = new RandomAccessFile(onlySegment().toFile(), "rw")) {
+            file.seek(TransactionWriteAheadLog.RECORD_SIZE + 20);
+            file.write(0x7f);
+        }
+
+        try (TransactionWriteAheadLog log = TransactionWriteAheadLog.open(directory, SEGMENT_SIZE, durable::addAll)) {
+            assertEquals(List.of(1L), ids(log.recovered()));
+            log.append(entry(3));
+        }
+        try (TransactionWriteAheadLog log = TransactionWriteAheadLog.open(directory, SEGMENT_SIZE, durable::addAll)) {
+            assertEquals(List.of(1L, 3L), ids(log.recovered()));
+        }
+    }
+
+    @Test
+    void concurrentAppendsAreDeliveredOnceInPositionOrder() throws Exception {
+        List<Appended> durable = Collections.synchronizedList(new ArrayList<>());
+        try (TransactionWriteAheadLog log = TransactionWriteAheadLog.open(directory, 1 << 16, durable::addAll)) {
+            ExecutorService executor = Executors.newFixedThreadPool(8);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < 8; thread++) {
+                long firstId = thread * 100L;
+                futures.add(executor.submit(() -> {
+                    for (long id = firstId; id < firstId + 100; id++) {
+                        log.append(entry(id));
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            executor.shutdown();
+        }
+
+        assertEquals(800, durable.size());
+        assertEquals(800, durable.stream().map(appended -> appended.entry().id()).distinct().count());
+        for (int i = 1; i < durable.size(); i++) {
+            assertTrue(durable.get(i - 1).endPosition() < durable.get(i).endPosition());
+        }
+    }
+
+    // Record dari sebelum ada byte versi: kode kategori 2 (BOOKS) di posisi yang dulu dipakai ordinal
+    @Test
+    void legacyRecordsWithoutVersionAreStillRecovered() throws Exception {
+        writeSegment(payload(null, 1, (byte) 2));
+
+        List<Appended> durable = new ArrayList<>();
+        try (TransactionWriteAheadLog log = TransactionWriteAheadLog.open(directory, SEGMENT_SIZE, durable::addAll)) {
+            assertEquals(List.of(entry(1)), log.recovered().stream().map(Appended::entry).toList());
+            log.append(entry(2));
+        }
+        try (TransactionWriteAheadLog log = TransactionWriteAheadLog.open(directory, SEGMENT_SIZE, durable::addAll)) {
+            assertEquals(List.of(entry(1), entry(2)), log.recovered().stream().map(Appended::entry).toList());
+        }
+    }
+
+    @Test
+    void unknownCategoryCodeIsRecoveredWithoutCategory() throws Exception {
+        writeSegment(payload(TransactionWriteAheadLog.FORMAT_VERSION, 1, (byte) 99));
+
+        try (TransactionWriteAheadLog log = TransactionWriteAheadLog.open(directory, SEGMENT_SIZE, appended -> { })) {
+            Entry recovered = log.recovered().get(0).entry();
+            assertEquals(1, recovered.id());
+            assertNull(recovered.category());
+        }
+    }
+
+    @Test
+    void newerFormatVersionFailsToOpen() throws Exception {
+        writeSegment(payload((byte) (TransactionWriteAheadLog.FORMAT_VERSION + 1), 1, (byte) 2));
+
+        assertThrows(IOException.class, () -> TransactionWriteAheadLog.open(directory, SEGMENT_SIZE, appended -> { }));
+    }
+
+    @Test
+    void categoryCodesAreUniqueAndRoundTrip() {
+        Set<Byte> codes = new HashSet<>();
+        for (ProductCategory category : ProductCategory.values()) {
+            byte code = TransactionWriteAheadLog.categoryCode(category);
+            assertTrue(codes.add(code));
+            assertEquals(category, TransactionWriteAheadLog.category(code));
+        }
+    }
+
+    private static Entry entry(long id) {
+        return new Entry(id, 100 + id, 200 + id, 7, ProductCategory.BOOKS, 2, 2500,
+                LocalDateTime.of(2024, 1, 1, 10, 30, 15, 123_456_000));
+    }
+
+    private static List<Long> ids(List<Appended> appended) {
+        return appended.stream().map(a -> a.entry().id()).toList();
+    }
+
+    // Payload dengan isi entry(id); version null = format lama tanpa byte versi
+    private static byte[] payload(Byte version, long id, byte categoryCode) {
+        Entry entry = entry(id);
+        ByteBuffer buffer = ByteBuffer.allocate(version == null
+                ? TransactionWriteAheadLog.LEGACY_PAYLOAD_SIZE : TransactionWriteAheadLog.PAYLOAD_SIZE);
+        if (version != null) {
+            buffer.put(version);
+        }
+        buffer.putLong(entry.id())
+                .putLong(entry.userId())
+                .putLong(entry.productId())
+                .putLong(entry.sellerId())
+                .put(categoryCode)
+                .putInt(entry.quantity())
+                .putLong(entry.totalPriceMinor())
+                .putLong(entry.createdAt().toEpochSecond(ZoneOffset.UTC))
+                .putInt(entry.createdAt().getNano());
+        return buffer.array();
+    }
+
+    private void writeSegment(byte[] payload) throws Exception {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        ByteBuffer record = ByteBuffer.allocate(8 + payload.length)
+                .putInt(payload.length)
+                .putInt((int) crc.getValue())
+                .put(payload);
+        Files.write(directory.resolve(String.format("%020d.wal", 0)), record.array());
+    }
+
+    private long segmentCount() throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.toString().endsWith(".wal")).count();
+        }
+    }
+
+    private Path onlySegment() throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.toString().endsWith(".wal")).findFirst().orElseThrow();
+        }
+    }
+}
@@ -3,17 +3,20 @@ package com.store.store.service;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
+import java.time.Duration;
 import java.util.Optional;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 
+import com.store.store.config.UserPrincipal;
+import com.store.store.event.UserChangedEvent;
 import com.store.store.model.User;
 import com.store.store.model.UserRole;
 import com.store.store.repository.UserRepository;
@@ -24,13 +27,18 @@ public class UserDetailsServiceImplTest {
     @Mock
     private UserRepository userRepository;
 
-    @InjectMocks
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     private UserDetailsServiceImpl userDetailsService;
 
     private User mockUser;
 
     @BeforeEach
     void setUp() {
+        userDetailsService = new UserDetailsServiceImpl(userRepository,
+                new UserDetailsCache(100, Duration.ofMinutes(5)), eventPublisher);
+
         // Setup mock user
         mockUser = new User();
         mockUser.setId(1L);
@@ -52,6 +60,8 @@ public class UserDetailsServiceImplTest {
         assertNotNull(result);
         assertEquals(mockUser.getUsername(), result.getUsername());
         assertEquals(mockUser.getPassword(), result.getPassword());
+        assertEquals(mockUser.getId(), ((UserPrincipal) result).getId());
+        assertTrue(result.isEnabled());
         assertEquals(1, result.getAuthorities().size());
         assertTrue(result.getAuthorities().stream()
                 .anyMatch(auth -> auth.getAuthority().equals(mockUser.getRole().name())));
@@ -112,6 +122,75 @@ public class UserDetailsServiceImplTest {
         verify(userRepository).findByUsername("testuser");
     }
 
+    @Test
+    void loadUserByUsername_ShouldMarkDisabledUser() {
+        // Arrange
+        mockUser.setEnabled(false);
+        when(userRepository.findByUsername("testuser"))
+                .thenReturn(Optional.of(mockUser));
+
+        // Act
+        UserDetails result = userDetailsService.loadUserByUsername("testuser");
+
+        // Assert
+        assertFalse(result.isEnabled());
+    }
+
+    @Test
+    void loadUserByUsername_ShouldServeRepeatedLookupsFromCache() {
+        // Arrange
+        when(userRepository.findByUsername("testuser"))
+                .thenReturn(Optional.of(mockUser));
+
+        // Act
+        UserDetails first = userDetailsService.loadUserByUsername("testuser");
+        ((UserPrincipal) first).eraseCredentials();
+        UserDetails second = userDetailsService.loadUserByUsername("testuser");
+
+        // Assert
+        assertNotSame(first, second);
+        assertEquals(mockUser.getPassword(), second.getPassword());
+        verify(userRepository, times(1)).findByUsername("testuser");
+    }
+
+    @Test
+    void loadUserByUsername_ShouldReloadAfterUserChangedEvent() {
+        // Arrange
+        UserDetailsCache cache = new UserDetailsCache(100, Duration.ofMinutes(5));
+        userDetailsService = new UserDetailsServiceImpl(userRepository, cache, eventPublisher);
+        when(userRepository.findByUsername("testuser"))
+                .thenReturn(Optional.of(mockUser));
+        userDetailsService.loadUserByUsername("testuser");
+
+        // Act
+        cache.onUserChanged(new UserChangedEvent("testuser", false));
+        userDetailsService.loadUserByUsername("testuser");
+
+        // Assert
+        verify(userRepository, times(2)).findByUsername("testuser");
+    }
+
+    @Test
+    void updatePassword_ShouldStoreRehashedPasswordAndEvictCacheAfterCommit() {
+        // Arrange
+        when(userRepository.findByUsername("testuser"))
+                .thenReturn(Optional.of(mockUser));
+        UserDetails loaded = userDetailsService.loadUserByUsername("testuser");
+
+        // Act
+        UserDetails result = userDetailsService.updatePassword(loaded, "rehashedPassword");
+
+        // Assert
+        assertEquals("rehashedPassword", result.getPassword());
+        assertEquals(1L, ((UserPrincipal) result).getId());
+        assertEquals("rehashedPassword", mockUser.getPassword());
+        verify(userRepository).save(mockUser);
+        // Cache baru di-evict oleh listener setelah commit, bukan di dalam transaksi
+        verify(eventPublisher).publishEvent(new UserChangedEvent("testuser", true));
+        userDetailsService.loadUserByUsername("testuser");
+        verify(userRepository, times(2)).findByUsername("testuser");
+    }
+
     @Test
     void loadUserByUsername_ShouldPreservePasswordEncoding() {
         // Arrange
@@ -13,9 +13,11 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 import com.store.store.DTO.UserDto;
+import com.store.store.event.UserChangedEvent;
 import com.store.store.model.User;
 import com.store.store.model.UserRole;
 import com.store.store.repository.UserRepository;
@@ -32,6 +34,9 @@ public class UserServiceTest {
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private UserService userService;
 
@@ -164,6 +169,24 @@ public class UserServiceTest {
         assertEquals(updateDto.getUsername(), result.getUsername());
         assertEquals(updateDto.getEmail(), result.getEmail());
         verify(userRepository).save(any(User.class));
+        verify(eventPublisher).publishEvent(new UserChangedEvent("testuser", true));
+    }
+
+    @Test
+    void updateUser_ShouldOnlyEvictCache_WhenOnlyEmailChanges() {
+        // Arrange
+        UserDto updateDto = new UserDto();
+        updateDto.setEmail("newemail@example.com");
+
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(userRepository.existsByEmail(updateDto.getEmail())).thenReturn(false);
+        when(userRepository.save(any(User.class))).thenReturn(user);
+
+        // Act
+        userService.updateUser(1L, updateDto);
+
+        // Assert
+        verify(eventPublisher).publishEvent(new UserChangedEvent("testuser", false));
     }
 
     @Test
@@ -203,6 +226,21 @@ public class UserServiceTest {
 
         // Assert
         verify(userRepository).delete(user);
+        verify(eventPublisher).publishEvent(new UserChangedEvent("testuser", true));
+    }
+
+    @Test
+    void disableUser_ShouldDisableUserAndRevokeTokens() {
+        // Arrange
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        User result = userService.disableUser(1L);
+
+        // Assert
+        assertFalse(result.getEnabled());
+        verify(eventPublisher).publishEvent(new UserChangedEvent("testuser", true));
     }
 
     @Test